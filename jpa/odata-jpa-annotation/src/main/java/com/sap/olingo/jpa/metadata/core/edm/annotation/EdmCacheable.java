@@ -0,0 +1,17 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity as cacheable. Results of read requests that only contain cacheable entities may be kept in a result
+ * cache, in case the service provides one. Cached results are invalidated by modifying requests on one of the entities
+ * contained.
+ */
+@Target({ ElementType.TYPE })
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface EdmCacheable {
+
+}
@@ -0,0 +1,17 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a to-one association, whose $expand shall be read together with the parent entities by a LEFT JOIN instead of
+ * a separate query. An $expand is only joined if it does not contain a $filter, $orderby, $top, $skip, $count or
+ * $levels and the target entity is not protected. Annotations at to-many associations are ignored.
+ */
+@Target({ ElementType.FIELD })
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface EdmExpandJoin {
+
+}
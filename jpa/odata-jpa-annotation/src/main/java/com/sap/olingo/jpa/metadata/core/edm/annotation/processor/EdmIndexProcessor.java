@@ -0,0 +1,165 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Creates at compile time an index of the Java classes providing functions or actions and of the enumerations
+ * annotated with {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration EdmEnumeration}. The metadata
+ * creation uses the index instead of scanning the class path for the types.<p>
+ * The processor is registered as service, so it runs automatically for all sources compiled with this module on the
+ * class path. Each index is a resource containing one binary class name per line. As classes that only inherit their
+ * functions or actions have to be found as well, all types are inspected. The operation index is written even if it is
+ * empty, so it marks the output as indexed.
+ */
+@SupportedAnnotationTypes("*")
+public class EdmIndexProcessor extends AbstractProcessor {
+  /** Classes containing methods annotated with EdmFunction or EdmAction */
+  public static final String OPERATION_INDEX = "META-INF/odata-jpa/operations";
+  /** Enumerations annotated with EdmEnumeration */
+  public static final String ENUMERATION_INDEX = "META-INF/odata-jpa/enumerations";
+
+  static final String EDM_FUNCTION = "com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction";
+  static final String EDM_ACTION = "com.sap.olingo.jpa.metadata.core.edm.annotation.EdmAction";
+  static final String EDM_ENUMERATION = "com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration";
+
+  private final Set<String> operations = new TreeSet<>();
+  private final Set<String> enumerations = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      writeIndex(OPERATION_INDEX, operations, true,
+          type -> type.getKind() == ElementKind.CLASS && providesOperation(type));
+      writeIndex(ENUMERATION_INDEX, enumerations, false, type -> hasAnnotation(type, EDM_ENUMERATION));
+    } else {
+      for (final TypeElement annotation : annotations) {
+        if (EDM_ENUMERATION.equals(annotation.getQualifiedName().toString())) {
+          for (final Element element : roundEnv.getElementsAnnotatedWith(annotation))
+            enumerations.add(getBinaryName(element));
+        }
+      }
+      for (final Element element : roundEnv.getRootElements())
+        collectOperations(element);
+    }
+    return false;
+  }
+
+  private void collectOperations(final Element element) {
+    if (element.getKind() == ElementKind.CLASS && providesOperation((TypeElement) element))
+      operations.add(getBinaryName(element));
+    for (final Element enclosed : element.getEnclosedElements()) {
+      if (enclosed.getKind().isClass() || enclosed.getKind().isInterface())
+        collectOperations(enclosed);
+    }
+  }
+
+  /**
+   * Checks if the class or one of its super classes has a method annotated with EdmFunction or EdmAction. EdmFunction
+   * at a type describes a database function, which is found via the entity.
+   */
+  private boolean providesOperation(final TypeElement type) {
+    TypeElement current = type;
+    while (current != null) {
+      for (final Element enclosed : current.getEnclosedElements()) {
+        if (enclosed.getKind() == ElementKind.METHOD && isOperation(enclosed))
+          return true;
+      }
+      final TypeMirror superclass = current.getSuperclass();
+      current = superclass.getKind() == TypeKind.DECLARED
+          ? (TypeElement) processingEnv.getTypeUtils().asElement(superclass) : null;
+    }
+    return false;
+  }
+
+  private boolean isOperation(final Element method) {
+    return hasAnnotation(method, EDM_FUNCTION) || hasAnnotation(method, EDM_ACTION);
+  }
+
+  private boolean hasAnnotation(final Element element, final String annotationName) {
+    for (final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      final String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+      if (annotationName.equals(name))
+        return true;
+    }
+    return false;
+  }
+
+  private String getBinaryName(final Element type) {
+    return processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString();
+  }
+
+  /**
+   * Writes an index, if types have been found or the index is mandatory. In case of an incremental compilation the
+   * entries of an existing index are kept as long as the type still exists and still fulfills the condition of the
+   * index. The index is written UTF-8 encoded, as it is read, independent of the default encoding of the compiler.
+   */
+  private void writeIndex(final String path, final Set<String> names, final boolean mandatory,
+      final Predicate<TypeElement> condition) {
+    final Set<String> existing = readExistingIndex(path, condition);
+    if (names.isEmpty() && existing == null && !mandatory)
+      return;
+    final Set<String> index = new TreeSet<>(names);
+    if (existing != null)
+      index.addAll(existing);
+    try {
+      final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+      try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (final String name : index)
+          writer.append(name).append('\n');
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write index " + path + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return Entries of an existing index, that are still valid, or null if no index exists
+   */
+  private Set<String> readExistingIndex(final String path, final Predicate<TypeElement> condition) {
+    final Set<String> names = new TreeSet<>();
+    try {
+      final FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(),
+          StandardCharsets.UTF_8))) {
+        String name;
+        while ((name = reader.readLine()) != null) {
+          final TypeElement type = name.trim().isEmpty() ? null
+              : processingEnv.getElementUtils().getTypeElement(name.trim().replace('$', '.'));
+          if (type != null && condition.test(type))
+            names.add(name.trim());
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // No index exists yet
+      return null;
+    }
+    return names;
+  }
+}
@@ -0,0 +1,342 @@
+package com.sap.olingo.jpa.metadata.api;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.ex.ODataException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException.MessageKeys;
+
+/**
+ * Snapshot of the CSDL schemas of a service. The snapshot can be created during the build and be given to the
+ * {@link JPAEdmProvider}, which takes the schemas from the snapshot instead of building them at start up. Each snapshot
+ * carries the fingerprint of the model it was created for, see {@link JPAServiceDocument#getFingerprint()}. If the
+ * fingerprint does not match anymore, the snapshot is ignored and the schemas are build as usual.<p>
+ * The snapshot is stored as JSON. Each CSDL object is written with all its properties that can be set again. Objects,
+ * which are a sub type of the declared type, e.g. annotation expressions, carry their type.<p>
+ * A snapshot can be created during the build by running this class with the name of the persistence unit, the file to
+ * write and the packages of Java operations and enumerations as arguments.
+ */
+public final class JPAEdmMetadataSnapshot {
+  private static final String FINGERPRINT = "fingerprint";
+  private static final String SCHEMAS = "schemas";
+  private static final String TYPE = "@type";
+  private static final String CSDL_PACKAGE = CsdlSchema.class.getPackage().getName();
+  private static final Map<Class<?>, Map<String, Property>> PROPERTIES = new ConcurrentHashMap<>();
+  private static final List<Class<?>> PRIMITIVES = Arrays.asList(boolean.class, byte.class, char.class, short.class,
+      int.class, long.class, float.class, double.class);
+  private final String fingerprint;
+  private final List<CsdlSchema> schemas;
+
+  /**
+   * Writes a snapshot of a persistence unit. The namespace is the name of the persistence unit.
+   * @param args Name of persistence unit, file to write and optional the packages of Java operations and enumerations
+   * @throws ODataException
+   * @throws IOException
+   */
+  public static void main(final String[] args) throws ODataException, IOException {
+    if (args.length < 2)
+      throw new IllegalArgumentException("Usage: JPAEdmMetadataSnapshot <persistence unit> <file> [package ...]");
+    final EntityManagerFactory emf = Persistence.createEntityManagerFactory(args[0]);
+    try (OutputStream file = new FileOutputStream(args[1])) {
+      final JPAEdmProvider provider = new JPAEdmProvider(args[0], emf, null,
+          Arrays.copyOfRange(args, 2, args.length));
+      create(provider.getServiceDocument()).write(file);
+    } finally {
+      emf.close();
+    }
+  }
+
+  /**
+   * Creates a snapshot of a service document. This builds all schemas of the service document.
+   * @param serviceDocument
+   * @return
+   * @throws ODataJPAModelException
+   */
+  public static JPAEdmMetadataSnapshot create(final JPAServiceDocument serviceDocument) throws ODataJPAModelException {
+    return new JPAEdmMetadataSnapshot(serviceDocument.getFingerprint(), serviceDocument.getEdmSchemas());
+  }
+
+  /**
+   * Reads a snapshot written by {@link #write(OutputStream)}
+   * @param snapshot
+   * @return
+   * @throws ODataJPAModelException
+   */
+  public static JPAEdmMetadataSnapshot read(final InputStream snapshot) throws ODataJPAModelException {
+    try {
+      final JsonNode root = new ObjectMapper().readTree(snapshot);
+      if (root == null || !root.has(FINGERPRINT) || !root.path(SCHEMAS).isArray())
+        throw new ODataJPAModelException(MessageKeys.SNAPSHOT_READ_ERROR, "Fingerprint or schemas missing");
+      final List<CsdlSchema> schemas = new ArrayList<>();
+      for (final JsonNode schema : root.get(SCHEMAS))
+        schemas.add((CsdlSchema) decode(schema, CsdlSchema.class));
+      return new JPAEdmMetadataSnapshot(root.get(FINGERPRINT).asText(), schemas);
+    } catch (IOException | ReflectiveOperationException | IllegalArgumentException e) {
+      throw new ODataJPAModelException(MessageKeys.SNAPSHOT_READ_ERROR, e, e.getMessage());
+    }
+  }
+
+  public JPAEdmMetadataSnapshot(final String fingerprint, final List<CsdlSchema> schemas) {
+    super();
+    this.fingerprint = fingerprint;
+    this.schemas = Collections.unmodifiableList(new ArrayList<>(schemas));
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public List<CsdlSchema> getSchemas() {
+    return schemas;
+  }
+
+  /**
+   * Writes the snapshot as JSON. The stream is not closed.
+   * @param snapshot
+   * @throws ODataJPAModelException
+   */
+  public void write(final OutputStream snapshot) throws ODataJPAModelException {
+    try {
+      final ObjectNode root = JsonNodeFactory.instance.objectNode();
+      root.put(FINGERPRINT, fingerprint);
+      final ArrayNode schemaList = root.putArray(SCHEMAS);
+      for (final CsdlSchema schema : schemas)
+        schemaList.add(encode(schema, CsdlSchema.class));
+      new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(snapshot, root);
+    } catch (IOException | ReflectiveOperationException e) {
+      throw new ODataJPAModelException(MessageKeys.SNAPSHOT_WRITE_ERROR, e, e.getMessage());
+    }
+  }
+
+  private static JsonNode encode(final Object value, final Type declaredType) throws ReflectiveOperationException {
+    final JsonNodeFactory factory = JsonNodeFactory.instance;
+    if (value instanceof String)
+      return factory.textNode((String) value);
+    if (value instanceof Boolean)
+      return factory.booleanNode((Boolean) value);
+    if (value instanceof Integer)
+      return factory.numberNode((Integer) value);
+    if (value instanceof Long)
+      return factory.numberNode((Long) value);
+    if (value instanceof Enum)
+      return factory.textNode(((Enum<?>) value).name());
+    if (value instanceof FullQualifiedName)
+      return factory.textNode(((FullQualifiedName) value).getFullQualifiedNameAsString());
+    if (value instanceof SRID || value instanceof Class)
+      return factory.textNode(value instanceof Class ? ((Class<?>) value).getName() : value.toString());
+    if (value instanceof List) {
+      final ArrayNode list = factory.arrayNode();
+      for (final Object item : (List<?>) value)
+        list.add(encode(item, getItemType(declaredType)));
+      return list;
+    }
+    final ObjectNode object = factory.objectNode();
+    if (value.getClass() != getRawType(declaredType))
+      object.put(TYPE, value.getClass().getName());
+    for (final Property property : getProperties(value.getClass()).values()) {
+      final Object propertyValue = property.getter.invoke(value);
+      if (propertyValue != null)
+        object.set(property.name, encode(propertyValue, property.getter.getGenericReturnType()));
+    }
+    return object;
+  }
+
+  private static Object decode(final JsonNode node, final Type declaredType) throws ReflectiveOperationException {
+    final Class<?> type = getRawType(declaredType);
+    if (type == String.class)
+      return node.asText();
+    if (type == Boolean.class || type == boolean.class)
+      return node.asBoolean();
+    if (type == Integer.class || type == int.class)
+      return node.asInt();
+    if (type == Long.class || type == long.class)
+      return node.asLong();
+    if (type.isEnum())
+      return decodeEnum(type, node.asText());
+    if (type == FullQualifiedName.class)
+      return new FullQualifiedName(node.asText());
+    if (type == SRID.class)
+      return SRID.valueOf(node.asText());
+    if (type == Class.class)
+      return decodeClass(node.asText());
+    if (type == List.class) {
+      final List<Object> list = new ArrayList<>(node.size());
+      for (final JsonNode item : node)
+        list.add(decode(item, getItemType(declaredType)));
+      return list;
+    }
+    return decodeObject(node, type);
+  }
+
+  private static Class<?> decodeClass(final String name) throws ClassNotFoundException {
+    for (final Class<?> primitive : PRIMITIVES) {
+      if (primitive.getName().equals(name))
+        return primitive;
+    }
+    return Class.forName(name, false, getClassLoader());
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Object decodeEnum(final Class<?> type, final String name) {
+    return Enum.valueOf((Class<Enum>) type, name);
+  }
+
+  private static Object decodeObject(final JsonNode node, final Class<?> declaredType)
+      throws ReflectiveOperationException {
+
+    final Class<?> type = node.has(TYPE) ? getCsdlClass(node.get(TYPE).asText(), declaredType) : declaredType;
+    final Map<String, Property> properties = getProperties(type);
+    final Object object = createObject(node, type, properties);
+    for (final Property property : properties.values()) {
+      if (property.setter != null && node.has(property.name))
+        property.setter.invoke(object, decode(node.get(property.name), property.setter.getGenericParameterTypes()[0]));
+    }
+    return object;
+  }
+
+  /**
+   * Some CSDL objects, like constant expressions, get their type via the constructor
+   */
+  private static Object createObject(final JsonNode node, final Class<?> type, final Map<String, Property> properties)
+      throws ReflectiveOperationException {
+
+    for (final Property property : properties.values()) {
+      if (property.setter == null && node.has(property.name))
+        return type.getConstructor(property.getter.getReturnType())
+            .newInstance(decode(node.get(property.name), property.getter.getGenericReturnType()));
+    }
+    return type.getConstructor().newInstance();
+  }
+
+  private static Class<?> getCsdlClass(final String name, final Class<?> declaredType) throws ClassNotFoundException {
+    final Class<?> type = Class.forName(name, false, getClassLoader());
+    if (!type.getName().startsWith(CSDL_PACKAGE) || !declaredType.isAssignableFrom(type)
+        || Modifier.isAbstract(type.getModifiers()))
+      throw new IllegalArgumentException("Type not supported: " + name);
+    return type;
+  }
+
+  private static ClassLoader getClassLoader() {
+    final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    return loader != null ? loader : JPAEdmMetadataSnapshot.class.getClassLoader();
+  }
+
+  private static Class<?> getRawType(final Type type) {
+    return type instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) type).getRawType() : (Class<?>) type;
+  }
+
+  private static Type getItemType(final Type listType) {
+    return listType instanceof ParameterizedType ? ((ParameterizedType) listType).getActualTypeArguments()[0]
+        : Object.class;
+  }
+
+  /**
+   * Determines the properties of a CSDL class. A property has a getter and a setter of the same type or is the
+   * parameter of the constructor of a class without default constructor.
+   */
+  private static Map<String, Property> getProperties(final Class<?> type) {
+    return PROPERTIES.computeIfAbsent(type, JPAEdmMetadataSnapshot::determineProperties);
+  }
+
+  private static Map<String, Property> determineProperties(final Class<?> type) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    final Method[] methods = type.getMethods();
+    Arrays.sort(methods, (m1, m2) -> m1.getName().compareTo(m2.getName()));
+    for (final Method getter : methods) {
+      final String name = getPropertyName(getter);
+      if (name != null && isSupported(getter.getReturnType())) {
+        final Method setter = getSetter(type, name, getter.getReturnType());
+        final String propertyName = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        if (setter != null || isConstructorParameter(type, getter.getReturnType()))
+          properties.put(propertyName, new Property(propertyName, getter, setter));
+      }
+    }
+    return properties;
+  }
+
+  private static String getPropertyName(final Method getter) {
+    if (getter.getParameterCount() != 0 || Modifier.isStatic(getter.getModifiers())
+        || "getClass".equals(getter.getName()))
+      return null;
+    if (getter.getName().startsWith("get") && getter.getName().length() > 3)
+      return getter.getName().substring(3);
+    if (getter.getReturnType() != boolean.class && getter.getReturnType() != Boolean.class)
+      return null;
+    if (getter.getName().startsWith("is") && getter.getName().length() > 2)
+      return getter.getName().substring(2);
+    // E.g. hasStream with setter setHasStream
+    if (getter.getName().startsWith("has") && getter.getName().length() > 3)
+      return "H" + getter.getName().substring(1);
+    return null;
+  }
+
+  private static Method getSetter(final Class<?> type, final String name, final Class<?> propertyType) {
+    try {
+      return type.getMethod("set" + name, propertyType);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static boolean isConstructorParameter(final Class<?> type, final Class<?> propertyType) {
+    try {
+      type.getConstructor();
+      return false;
+    } catch (NoSuchMethodException e) {
+      for (final Constructor<?> constructor : type.getConstructors()) {
+        if (constructor.getParameterCount() == 1 && constructor.getParameterTypes()[0] == propertyType)
+          return true;
+      }
+      return false;
+    }
+  }
+
+  private static boolean isSupported(final Class<?> type) {
+    return type == boolean.class || type == int.class || type == long.class || type == String.class
+        || type == Boolean.class || type == Integer.class || type == Long.class || type.isEnum()
+        || type == FullQualifiedName.class || type == SRID.class
+        || type == Class.class || type == List.class || type.getName().startsWith(CSDL_PACKAGE);
+  }
+
+  private static final class Property {
+    private final String name;
+    private final Method getter;
+    private final Method setter;
+
+    private Property(final String name, final Method getter, final Method setter) {
+      super();
+      this.name = name;
+      this.getter = getter;
+      this.setter = setter;
+    }
+  }
+}
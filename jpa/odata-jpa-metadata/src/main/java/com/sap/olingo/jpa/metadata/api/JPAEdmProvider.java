@@ -1,8 +1,10 @@
 package com.sap.olingo.jpa.metadata.api;
 
+import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
+import java.util.logging.Logger;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.metamodel.Metamodel;
@@ -33,6 +35,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPADefaultEdmNameBuilder
 import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPAServiceDocumentFactory;
 
 public class JPAEdmProvider extends CsdlAbstractEdmProvider {
+  private static final Logger LOGGER = Logger.getLogger(JPAEdmProvider.class.getName());
 
   private final JPAEdmNameBuilder nameBuilder;
   private final JPAServiceDocument serviceDocument;
@@ -56,10 +59,57 @@ public class JPAEdmProvider extends CsdlAbstractEdmProvider {
 
   public JPAEdmProvider(final Metamodel jpaMetamodel, final JPAEdmMetadataPostProcessor postProcessor,
       final String[] packageName, final JPAEdmNameBuilder nameBuilder) throws ODataException {
+    this(jpaMetamodel, postProcessor, packageName, nameBuilder, null);
+  }
+
+  /**
+   * Creates a provider, which takes the schemas from a snapshot created by {@link JPAEdmMetadataSnapshot}. In case
+   * the snapshot does not fit to the model anymore, the schemas are build.<p>
+   * The snapshot only contains the CSDL schemas, so only $metadata and the service document are served from it. The
+   * intermediate model, which is needed to process requests, is not part of the snapshot. It is still created from the
+   * JPA metamodel and the details of its elements, like the properties of an entity type, are build lazily when a
+   * request needs them for the first time. So the first requests on an entity set take longer than later ones.
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param nameBuilder
+   * @param snapshot Snapshot of the schemas. The stream is not closed. Can be null.
+   * @throws ODataException
+   */
+  public JPAEdmProvider(final Metamodel jpaMetamodel, final JPAEdmMetadataPostProcessor postProcessor,
+      final String[] packageName, final JPAEdmNameBuilder nameBuilder, final InputStream snapshot)
+      throws ODataException {
+    this(jpaMetamodel, postProcessor, packageName, nameBuilder, snapshot, null);
+  }
+
+  /**
+   * Creates a provider, which takes the schemas from a snapshot, see
+   * {@link #JPAEdmProvider(Metamodel, JPAEdmMetadataPostProcessor, String[], JPAEdmNameBuilder, InputStream)}.<p>
+   * The fingerprint of the model can not check mapping files other than <code>META-INF/orm.xml</code> or the
+   * configuration of the post processor. In case they are used, the caller provides a model version that changes
+   * with them. The snapshot has to be created from a provider with the same model version.
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param nameBuilder
+   * @param snapshot Snapshot of the schemas. The stream is not closed. Can be null.
+   * @param modelVersion Version of the model, which becomes part of the fingerprint. Can be null.
+   * @throws ODataException
+   */
+  public JPAEdmProvider(final Metamodel jpaMetamodel, final JPAEdmMetadataPostProcessor postProcessor,
+      final String[] packageName, final JPAEdmNameBuilder nameBuilder, final InputStream snapshot,
+      final String modelVersion) throws ODataException {
     super();
     this.nameBuilder = nameBuilder;
     this.serviceDocument = new JPAServiceDocumentFactory(nameBuilder.getNamespace(), jpaMetamodel, postProcessor,
-        packageName).getServiceDocument();
+        packageName, modelVersion).getServiceDocument();
+    if (snapshot != null) {
+      final JPAEdmMetadataSnapshot metadataSnapshot = JPAEdmMetadataSnapshot.read(snapshot);
+      if (!serviceDocument.useSnapshot(metadataSnapshot.getFingerprint(), metadataSnapshot.getSchemas()))
+        LOGGER.warning(() -> "Metadata snapshot not used, as its fingerprint " + metadataSnapshot.getFingerprint()
+            + " does not match the fingerprint of the model " + serviceDocument.getFingerprint()
+            + ". The metadata are build from the model.");
+    }
   }
 
   @Override
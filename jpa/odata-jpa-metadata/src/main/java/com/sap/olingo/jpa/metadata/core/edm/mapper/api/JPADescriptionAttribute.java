@@ -2,6 +2,8 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.api;
 
 import java.util.Map;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+
 public interface JPADescriptionAttribute extends JPAAttribute {
 
   public boolean isLocationJoin();
@@ -12,4 +14,10 @@ public interface JPADescriptionAttribute extends JPAAttribute {
 
   public Map<JPAPath, String> getFixedValueAssignment();
 
+  /**
+   * @return The type that contains the descriptions
+   * @throws ODataJPAModelException
+   */
+  public JPAStructuredType getTargetEntity() throws ODataJPAModelException;
+
 }
@@ -52,4 +52,38 @@ public interface JPAServiceDocument extends CustomETagSupport {
 
   JPAEnumerationAttribute getEnumType(final String fqnAsString);
 
+  /**
+   * Builds all lazy created parts of the model, like schemas, entity container, path maps and protection lists. After
+   * the model has been frozen, it does not change anymore and can be read by multiple threads without locks. In case a
+   * snapshot is used, its schemas are kept.<p>
+   * The default implementation does nothing, so the service document stays lazy.
+   * @throws ODataJPAModelException
+   */
+  default void freeze() throws ODataJPAModelException {}
+
+  default boolean isFrozen() {
+    return false;
+  }
+
+  /**
+   * @return Fingerprint of everything the metadata are build from, like the JPA metamodel and the Java operations. It
+   * changes as soon as the metadata may change. The default implementation provides no fingerprint, so no snapshot can
+   * be used.
+   */
+  default String getFingerprint() {
+    return null;
+  }
+
+  /**
+   * Takes over the own schemas from a snapshot instead of building them. The snapshot is only taken, if it was created
+   * for the same fingerprint and the service document is not frozen yet. The model of the entity types is still build
+   * on demand.
+   * @param fingerprint Fingerprint the snapshot was created for
+   * @param schemas
+   * @return true, if the snapshot is used. The default implementation does not take over snapshots.
+   */
+  default boolean useSnapshot(final String fingerprint, final List<CsdlSchema> schemas) {
+    return false;
+  }
+
 }
\ No newline at end of file
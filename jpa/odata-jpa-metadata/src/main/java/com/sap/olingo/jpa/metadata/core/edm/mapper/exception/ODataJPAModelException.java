@@ -67,7 +67,9 @@ public class ODataJPAModelException extends ODataJPAException {
     ON_LEFT_ATTRIBUTE_NULL,
     ON_RIGHT_ATTRIBUTE_NULL,
     PATH_ELEMENT_NOT_FOUND,
-    FILE_NOT_FOUND;
+    FILE_NOT_FOUND,
+    SNAPSHOT_READ_ERROR,
+    SNAPSHOT_WRITE_ERROR;
 
     @Override
     public String getKey() {
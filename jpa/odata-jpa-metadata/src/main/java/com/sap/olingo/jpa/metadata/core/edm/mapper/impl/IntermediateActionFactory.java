@@ -3,8 +3,6 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 import java.lang.reflect.Method;
 import java.util.Map;
 
-import org.reflections.Reflections;
-
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmAction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEdmNameBuilder;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
@@ -20,9 +18,9 @@ class IntermediateActionFactory extends IntermediateOperationFactory {
 
   @SuppressWarnings("unchecked")
   <F extends IntermediateJavaAction> Map<String, F> create(final JPAEdmNameBuilder nameBuilder,
-      final Reflections reflections, final IntermediateSchema schema) throws ODataJPAModelException {
+      final JPATypeFinder typeFinder, final IntermediateSchema schema) throws ODataJPAModelException {
 
-    return (Map<String, F>) createOperationMap(nameBuilder, reflections,
+    return (Map<String, F>) createOperationMap(nameBuilder, typeFinder,
         schema, ODataAction.class, EdmAction.class);
   }
 
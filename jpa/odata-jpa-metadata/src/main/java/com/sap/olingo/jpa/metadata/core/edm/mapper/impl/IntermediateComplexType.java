@@ -29,6 +29,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExcept
  */
 final class IntermediateComplexType extends IntermediateStructuredType {
   private CsdlComplexType edmComplexType;
+  private volatile boolean edmItemComplete;
 
   IntermediateComplexType(final JPAEdmNameBuilder nameBuilder, final EmbeddableType<?> jpaEmbeddable,
       final IntermediateSchema schema) throws ODataJPAModelException {
@@ -41,23 +42,28 @@ final class IntermediateComplexType extends IntermediateStructuredType {
   @SuppressWarnings("unchecked")
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
-    if (edmComplexType == null) {
-      buildPropertyList();
-      buildNaviPropertyList();
-      edmComplexType = new CsdlComplexType();
+    if (!edmItemComplete) {
+      synchronized (BUILD_LOCK) {
+        if (edmComplexType == null) {
+          buildPropertyList();
+          buildNaviPropertyList();
+          edmComplexType = new CsdlComplexType();
 
-      edmComplexType.setName(this.getExternalName());
-      edmComplexType.setProperties((List<CsdlProperty>) extractEdmModelElements(declaredPropertiesList));
-      edmComplexType.setNavigationProperties((List<CsdlNavigationProperty>) extractEdmModelElements(
-          declaredNaviPropertiesList));
-      edmComplexType.setBaseType(determineBaseType());
-      // TODO Abstract
-      // edmComplexType.setAbstract(isAbstract)
-      // TODO OpenType
-      // edmComplexType.setOpenType(isOpenType)
-      if (determineHasStream()) {
-        throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.NOT_SUPPORTED_EMBEDDED_STREAM,
-            internalName);
+          edmComplexType.setName(this.getExternalName());
+          edmComplexType.setProperties((List<CsdlProperty>) extractEdmModelElements(declaredPropertiesList));
+          edmComplexType.setNavigationProperties((List<CsdlNavigationProperty>) extractEdmModelElements(
+              declaredNaviPropertiesList));
+          edmComplexType.setBaseType(determineBaseType());
+          // TODO Abstract
+          // edmComplexType.setAbstract(isAbstract)
+          // TODO OpenType
+          // edmComplexType.setOpenType(isOpenType)
+          if (determineHasStream()) {
+            throw new ODataJPAModelException(ODataJPAModelException.MessageKeys.NOT_SUPPORTED_EMBEDDED_STREAM,
+                internalName);
+          }
+          edmItemComplete = true;
+        }
       }
     }
   }
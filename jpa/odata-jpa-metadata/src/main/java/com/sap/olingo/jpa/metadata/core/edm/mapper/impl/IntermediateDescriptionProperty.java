@@ -116,6 +116,12 @@ final class IntermediateDescriptionProperty extends IntermediateSimpleProperty i
     return fixedValues;
   }
 
+  @Override
+  public JPAStructuredType getTargetEntity() throws ODataJPAModelException {
+    lazyBuildEdmItem();
+    return targetEntity;
+  }
+
   private HashMap<JPAPath, String> convertFixedValues(final valueAssignment[] valueAssignments)
       throws ODataJPAModelException {
     final HashMap<JPAPath, String> result = new HashMap<>();
@@ -34,7 +34,7 @@ final class IntermediateEntityContainer extends IntermediateModelElement impleme
   private final Map<String, IntermediateSchema> schemaList;
   private final Map<String, IntermediateEntitySet> entitySetListInternalKey;
 
-  private CsdlEntityContainer edmContainer;
+  private volatile CsdlEntityContainer edmContainer;
 
   IntermediateEntityContainer(final JPAEdmNameBuilder nameBuilder, final Map<String, IntermediateSchema> schemaList) {
     super(nameBuilder, nameBuilder.buildContainerName());
@@ -51,14 +51,20 @@ final class IntermediateEntityContainer extends IntermediateModelElement impleme
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
     if (edmContainer == null) {
-      postProcessor.processEntityContainer(this);
-      edmContainer = new CsdlEntityContainer();
-      edmContainer.setName(getExternalName());
-      edmContainer.setEntitySets(buildEntitySets());
-      edmContainer.setFunctionImports(buildFunctionImports());
-      edmContainer.setActionImports(buildActionImports());
-      edmContainer.setAnnotations(edmAnnotations);
-      // TODO Singleton
+      synchronized (this) {
+        if (edmContainer == null) {
+          // Publish the container only after it is complete, as other threads read it without lock
+          postProcessor.processEntityContainer(this);
+          final CsdlEntityContainer container = new CsdlEntityContainer();
+          container.setName(getExternalName());
+          container.setEntitySets(buildEntitySets());
+          container.setFunctionImports(buildFunctionImports());
+          container.setActionImports(buildActionImports());
+          container.setAnnotations(edmAnnotations);
+          // TODO Singleton
+          edmContainer = container;
+        }
+      }
     }
   }
 
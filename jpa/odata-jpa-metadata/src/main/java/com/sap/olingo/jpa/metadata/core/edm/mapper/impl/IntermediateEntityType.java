@@ -45,6 +45,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateEntityT
 final class IntermediateEntityType extends IntermediateStructuredType implements JPAEntityType,
     IntermediateEntityTypeAccess {
   private CsdlEntityType edmEntityType;
+  private volatile boolean edmItemComplete;
   private Optional<JPAPath> etagPath;
   private List<JPAAttribute> keyAttributes;
   private final boolean asEntitySet;
@@ -95,8 +96,12 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
 
   @Override
   public JPAPath getEtagPath() throws ODataJPAModelException {
-    if (hasEtag() && etagPath.isPresent())
+    lazyBuildEdmItem();
+    if (etagPath.isPresent())
       return etagPath.get();
+    // The base type is asked on access, as it may have been still under construction when this type was build
+    if (getBaseType() instanceof IntermediateEntityType)
+      return ((IntermediateEntityType) getBaseType()).getEtagPath();
     return null;
   }
 
@@ -134,9 +139,9 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
     for (final Entry<String, IntermediateProperty> property : this.declaredPropertiesList.entrySet()) {
       final JPAAttribute attribute = property.getValue();
       if (attribute instanceof IntermediateEmbeddedIdProperty) {
-        result.add(intermediatePathMap.get(attribute.getExternalName()));
+        result.add(getIntermediatePathMap().get(attribute.getExternalName()));
       } else if (attribute.isKey()) {
-        result.add(resolvedPathMap.get(attribute.getExternalName()));
+        result.add(getResolvedPathMap().get(attribute.getExternalName()));
       }
     }
     final IntermediateStructuredType baseType = getBaseType();
@@ -201,8 +206,7 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
 
   @Override
   public boolean hasEtag() throws ODataJPAModelException {
-    lazyBuildEdmItem();
-    return etagPath.isPresent();
+    return getEtagPath() != null;
   }
 
   @Override
@@ -257,23 +261,29 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
   @SuppressWarnings("unchecked")
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
-    if (edmEntityType == null) {
-      buildPropertyList();
-      buildNaviPropertyList();
-      postProcessor.processEntityType(this);
-
-      edmEntityType = new CsdlEntityType();
-      edmEntityType.setName(getExternalName());
-      edmEntityType.setProperties((List<CsdlProperty>) extractEdmModelElements(declaredPropertiesList));
-      edmEntityType.setNavigationProperties((List<CsdlNavigationProperty>) extractEdmModelElements(
-          declaredNaviPropertiesList));
-      edmEntityType.setKey(extractEdmKeyElements(declaredPropertiesList));
-      edmEntityType.setAbstract(determineAbstract());
-      edmEntityType.setBaseType(determineBaseType());
-      edmEntityType.setHasStream(determineHasStream());
-      edmEntityType.setAnnotations(determineAnnotations());
-      determineHasEtag();
-      // TODO determine OpenType
+    if (!edmItemComplete) {
+      synchronized (BUILD_LOCK) {
+        if (edmEntityType == null) {
+          buildPropertyList();
+          buildNaviPropertyList();
+          postProcessor.processEntityType(this);
+
+          edmEntityType = new CsdlEntityType();
+          edmEntityType.setName(getExternalName());
+          edmEntityType.setProperties((List<CsdlProperty>) extractEdmModelElements(declaredPropertiesList));
+          edmEntityType.setNavigationProperties((List<CsdlNavigationProperty>) extractEdmModelElements(
+              declaredNaviPropertiesList));
+          edmEntityType.setKey(extractEdmKeyElements(declaredPropertiesList));
+          edmEntityType.setAbstract(determineAbstract());
+          edmEntityType.setBaseType(determineBaseType());
+          edmEntityType.setHasStream(determineHasStream());
+          edmEntityType.setAnnotations(determineAnnotations());
+          determineHasEtag();
+          // TODO determine OpenType
+          // Only the outermost call sets the flag, as nested calls during the build find the item already created
+          edmItemComplete = true;
+        }
+      }
     }
   }
 
@@ -370,8 +380,6 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
         etagPath = Optional.of(getPath(property.getValue().getExternalName(), false));
       }
     }
-    if (getBaseType() instanceof IntermediateEntityType)
-      etagPath = Optional.ofNullable(((IntermediateEntityType) getBaseType()).getEtagPath());
   }
 
   private JPAAttribute getKey(final String internalName) throws ODataJPAModelException {
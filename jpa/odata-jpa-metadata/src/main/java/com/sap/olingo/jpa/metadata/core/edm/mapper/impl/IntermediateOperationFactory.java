@@ -7,8 +7,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-import org.reflections.Reflections;
-
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEdmNameBuilder;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataOperation;
@@ -23,15 +21,15 @@ public abstract class IntermediateOperationFactory {
       final Method m, final Object functionDescribtion) throws ODataJPAModelException;
 
   Map<? extends String, ? extends IntermediateOperation> createOperationMap(final JPAEdmNameBuilder nameBuilder,
-      final Reflections reflections, final IntermediateSchema schema, final Class<? extends ODataOperation> clazz,
+      final JPATypeFinder typeFinder, final IntermediateSchema schema, final Class<? extends ODataOperation> clazz,
       final Class<? extends Annotation> annotation)
       throws ODataJPAModelException {
 
     final Map<String, IntermediateOperation> funcList = new HashMap<>();
-    if (reflections != null) {
+    if (typeFinder != null) {
       @SuppressWarnings("unchecked")
       final Set<Class<? extends ODataOperation>> operationClasses =
-          (Set<Class<? extends ODataOperation>>) findJavaOperations(reflections, clazz);
+          (Set<Class<? extends ODataOperation>>) findJavaOperations(typeFinder, clazz);
 
       for (final Class<? extends ODataOperation> operationClass : operationClasses) {
         for (Method m : Arrays.asList(operationClass.getMethods())) {
@@ -46,8 +44,8 @@ public abstract class IntermediateOperationFactory {
     return funcList;
   }
 
-  private Set<?> findJavaOperations(Reflections reflections, Class<? extends ODataOperation> clazz) {
-    return reflections.getSubTypesOf(clazz);
+  private Set<?> findJavaOperations(JPATypeFinder typeFinder, Class<? extends ODataOperation> clazz) {
+    return typeFinder.getSubTypesOf(clazz);
   }
 
 }
\ No newline at end of file
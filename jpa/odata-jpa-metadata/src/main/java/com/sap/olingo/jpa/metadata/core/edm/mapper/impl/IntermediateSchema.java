@@ -19,7 +19,6 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
-import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
@@ -46,14 +45,14 @@ final class IntermediateSchema extends IntermediateModelElement {
   private final Map<String, IntermediateJavaAction> actionListInternalKey;
   private final Map<String, IntermediateEnumerationType> enumTypeListInternalKey;
   private IntermediateEntityContainer container;
-  private final Reflections reflections;
+  private final JPATypeFinder typeFinder;
   private CsdlSchema edmSchema;
 
-  IntermediateSchema(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel, final Reflections reflections)
+  IntermediateSchema(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel, final JPATypeFinder typeFinder)
       throws ODataJPAModelException {
 
     super(nameBuilder, nameBuilder.getNamespace());
-    this.reflections = reflections;
+    this.typeFinder = typeFinder;
     this.jpaMetamodel = jpaMetamodel;
     this.enumTypeListInternalKey = buildEnumerationTypeList();
     this.complexTypeListInternalKey = buildComplexTypeList();
@@ -168,6 +167,14 @@ final class IntermediateSchema extends IntermediateModelElement {
     return entityTypes;
   }
 
+  List<IntermediateComplexType> getComplexTypes() {
+    final List<IntermediateComplexType> complexTypes = new ArrayList<>();
+    for (final Entry<String, IntermediateComplexType> ct : complexTypeListInternalKey.entrySet()) {
+      complexTypes.add(ct.getValue());
+    }
+    return complexTypes;
+  }
+
   JPAFunction getFunction(final String externalName) {
     for (final Entry<String, IntermediateFunction> func : functionListInternalKey.entrySet()) {
       if (func.getValue().getExternalName().equals(externalName)
@@ -218,7 +225,7 @@ final class IntermediateSchema extends IntermediateModelElement {
   private Map<String, IntermediateJavaAction> buildActionList() throws ODataJPAModelException {
     final HashMap<String, IntermediateJavaAction> actionList = new HashMap<>();
     final IntermediateActionFactory factory = new IntermediateActionFactory();
-    actionList.putAll(factory.create(nameBuilder, reflections, this));
+    actionList.putAll(factory.create(nameBuilder, typeFinder, this));
     return actionList;
   }
 
@@ -244,8 +251,8 @@ final class IntermediateSchema extends IntermediateModelElement {
 
   private <T extends Enum<?>> Map<String, IntermediateEnumerationType> buildEnumerationTypeList() {
     final HashMap<String, IntermediateEnumerationType> enumList = new HashMap<>();
-    if (reflections != null) {
-      for (Class<?> enumeration : reflections.getTypesAnnotatedWith(EdmEnumeration.class)) {
+    if (typeFinder != null) {
+      for (Class<?> enumeration : typeFinder.getTypesAnnotatedWith(EdmEnumeration.class)) {
         if (enumeration.isEnum()) {
           @SuppressWarnings("unchecked")
           final IntermediateEnumerationType e = new IntermediateEnumerationType(nameBuilder, (Class<T>) enumeration);
@@ -265,7 +272,7 @@ final class IntermediateSchema extends IntermediateModelElement {
       funcList.putAll(factory.create(nameBuilder, entity, this));
     }
     // 2. Option: Create Function from Java Classes
-    funcList.putAll(factory.create(nameBuilder, reflections, this));
+    funcList.putAll(factory.create(nameBuilder, typeFinder, this));
     return funcList;
   }
 }
@@ -1,6 +1,7 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,11 +20,6 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
@@ -47,10 +43,14 @@ class IntermediateServiceDocument implements JPAServiceDocument {
   private final Metamodel jpaMetamodel;
   private final JPAEdmNameBuilder nameBuilder;
   private final IntermediateEntityContainer container;
-  private final Map<String, IntermediateSchema> schemaListInternalKey;
+  private Map<String, IntermediateSchema> schemaListInternalKey;
   private final IntermediateReferences references;
   private final JPAEdmMetadataPostProcessor pP;
-  private final Reflections reflections;
+  private final JPATypeFinder typeFinder;
+  private volatile List<CsdlSchema> frozenSchemas;
+  private volatile List<CsdlSchema> snapshotSchemas;
+  private final String modelVersion;
+  private String fingerprint;
 
   IntermediateServiceDocument(final String namespace, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) throws ODataJPAModelException {
@@ -68,10 +68,27 @@ class IntermediateServiceDocument implements JPAServiceDocument {
   IntermediateServiceDocument(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) throws ODataJPAModelException {
 
+    this(nameBuilder, jpaMetamodel, postProcessor, packageName, null);
+  }
+
+  /**
+   * @param nameBuilder
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param modelVersion Version of the parts of the model the fingerprint can not check, like mapping files other than
+   * <code>META-INF/orm.xml</code> or the configuration of the post processor. Can be null.
+   * @throws ODataJPAModelException
+   */
+  IntermediateServiceDocument(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel,
+      final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName, final String modelVersion)
+      throws ODataJPAModelException {
+
+    this.modelVersion = modelVersion;
     this.pP = postProcessor != null ? postProcessor : new DefaultEdmPostProcessor();
     IntermediateModelElement.setPostProcessor(pP);
 
-    this.reflections = createReflections(packageName);
+    this.typeFinder = JPAIndexTypeFinder.create(packageName);
     this.references = new IntermediateReferences();
     pP.provideReferences(this.references);
     this.nameBuilder = nameBuilder;
@@ -101,6 +118,13 @@ class IntermediateServiceDocument implements JPAServiceDocument {
    */
   @Override
   public CsdlEntityContainer getEdmEntityContainer() throws ODataJPAModelException {
+    final List<CsdlSchema> schemas = snapshotSchemas;
+    if (schemas != null) {
+      for (final CsdlSchema schema : schemas) {
+        if (schema.getEntityContainer() != null)
+          return schema.getEntityContainer();
+      }
+    }
     return container.getEdmItem();
   }
 
@@ -111,9 +135,76 @@ class IntermediateServiceDocument implements JPAServiceDocument {
    */
   @Override
   public List<CsdlSchema> getEdmSchemas() throws ODataJPAModelException {
+    final List<CsdlSchema> schemas = frozenSchemas != null ? frozenSchemas : snapshotSchemas;
+    if (schemas != null)
+      return new ArrayList<>(schemas);
     return extractEdmSchemas();
   }
 
+  /*
+   * (non-Javadoc)
+   * 
+   * @see com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPAServiceDocument#freeze()
+   */
+  @Override
+  public synchronized void freeze() throws ODataJPAModelException {
+    if (frozenSchemas == null) {
+      // The types can only be frozen after the complete model has been build, as they refer to each other. Nevertheless
+      // the schemas of a snapshot are kept, so the metadata do not change by freezing
+      final List<CsdlSchema> snapshot = snapshotSchemas;
+      final List<CsdlSchema> schemas = extractEdmSchemas();
+      container.getEdmItem();
+      for (final IntermediateSchema schema : schemaListInternalKey.values()) {
+        for (final IntermediateEntityType et : schema.getEntityTypes()) {
+          if (!et.ignore())
+            et.freeze();
+        }
+        for (final IntermediateComplexType ct : schema.getComplexTypes()) {
+          if (!ct.ignore())
+            ct.freeze();
+        }
+      }
+      schemaListInternalKey = Collections.unmodifiableMap(schemaListInternalKey);
+      frozenSchemas = Collections.unmodifiableList(snapshot != null ? snapshot : schemas);
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPAServiceDocument#isFrozen()
+   */
+  @Override
+  public boolean isFrozen() {
+    return frozenSchemas != null;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument#getFingerprint()
+   */
+  @Override
+  public synchronized String getFingerprint() {
+    if (fingerprint == null)
+      fingerprint = JPAModelFingerprint.create(nameBuilder, jpaMetamodel, typeFinder, pP, modelVersion);
+    return fingerprint;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument#useSnapshot(java.lang.String,
+   * java.util.List)
+   */
+  @Override
+  public boolean useSnapshot(final String snapshotFingerprint, final List<CsdlSchema> schemas) {
+    if (schemas == null || isFrozen() || !getFingerprint().equals(snapshotFingerprint))
+      return false;
+    snapshotSchemas = Collections.unmodifiableList(new ArrayList<>(schemas));
+    return true;
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -260,23 +351,11 @@ class IntermediateServiceDocument implements JPAServiceDocument {
 
   private void buildIntermediateSchemas()
       throws ODataJPAModelException {
-    final IntermediateSchema schema = new IntermediateSchema(nameBuilder, jpaMetamodel, reflections);
+    final IntermediateSchema schema = new IntermediateSchema(nameBuilder, jpaMetamodel, typeFinder);
     schemaListInternalKey.put(schema.internalName, schema);
   }
 
-  private Reflections createReflections(String... packageName) {
-    if (packageName != null && packageName.length > 0) {
-      ConfigurationBuilder configBuilder = new ConfigurationBuilder();
-      configBuilder.setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
-      configBuilder.forPackages(packageName);
-      configBuilder.filterInputsBy(new FilterBuilder().includePackage(packageName));
-      return new Reflections(configBuilder);
-    } else {
-      return null;
-    }
-  }
-
-  private List<CsdlSchema> extractEdmSchemas() throws ODataJPAModelException {
+  private synchronized List<CsdlSchema> extractEdmSchemas() throws ODataJPAModelException {
     final List<CsdlSchema> schemas = new ArrayList<>();
     try {
       if (schemaListInternalKey.isEmpty())
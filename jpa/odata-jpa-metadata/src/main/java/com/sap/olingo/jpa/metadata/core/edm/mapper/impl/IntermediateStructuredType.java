@@ -4,6 +4,7 @@ import static com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAMode
 
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,15 +41,23 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 
 abstract class IntermediateStructuredType extends IntermediateModelElement implements JPAStructuredType {
+  /**
+   * Edm items, path maps and protection list are build lazy and may refer to other types, also of other schemas. One
+   * common lock for the build prevents parallel filling of the maps and dead locks between types. Once a structure is
+   * complete it is only read, so no lock is needed anymore.
+   */
+  static final Object BUILD_LOCK = new Object();
 // 
-  protected final Map<String, IntermediateProperty> declaredPropertiesList;
-  protected final Map<String, IntermediateNavigationProperty> declaredNaviPropertiesList;
-  protected final Map<String, JPAPathImpl> resolvedPathMap;
-  protected final Map<String, JPAPath> intermediatePathMap;
-  protected final Map<String, JPAAssociationPathImpl> resolvedAssociationPathMap;
+  protected Map<String, IntermediateProperty> declaredPropertiesList;
+  protected Map<String, IntermediateNavigationProperty> declaredNaviPropertiesList;
+  protected Map<String, JPAPathImpl> resolvedPathMap;
+  protected Map<String, JPAPath> intermediatePathMap;
+  protected Map<String, JPAAssociationPathImpl> resolvedAssociationPathMap;
   protected final ManagedType<?> jpaManagedType;
   protected final IntermediateSchema schema;
-  protected List<JPAProtectionInfo> protectedAttributes;
+  protected volatile List<JPAProtectionInfo> protectedAttributes;
+  private volatile boolean pathMapComplete;
+  private volatile boolean associationPathMapComplete;
 
   IntermediateStructuredType(final JPAEdmNameBuilder nameBuilder, final ManagedType<?> jpaManagedType,
       final IntermediateSchema schema) {
@@ -572,7 +581,36 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
     return targetPath;
   }
 
+  /**
+   * Builds all lazy created structures, so that afterwards the type can be read by multiple threads without changing
+   * it. The maps are made unmodifiable, so an accidental change fails instead of being visible to parallel requests.
+   * @throws ODataJPAModelException
+   */
+  void freeze() throws ODataJPAModelException {
+    synchronized (BUILD_LOCK) {
+      lazyBuildCompletePathMap();
+      lazyBuildCompleteAssociationPathMap();
+      lazyBuildCompleteProtectionList();
+      declaredPropertiesList = Collections.unmodifiableMap(declaredPropertiesList);
+      declaredNaviPropertiesList = Collections.unmodifiableMap(declaredNaviPropertiesList);
+      resolvedPathMap = Collections.unmodifiableMap(resolvedPathMap);
+      intermediatePathMap = Collections.unmodifiableMap(intermediatePathMap);
+      resolvedAssociationPathMap = Collections.unmodifiableMap(resolvedAssociationPathMap);
+    }
+  }
+
   private void lazyBuildCompleteAssociationPathMap() throws ODataJPAModelException {
+    if (!associationPathMapComplete) {
+      synchronized (BUILD_LOCK) {
+        if (!associationPathMapComplete) {
+          buildCompleteAssociationPathMap();
+          associationPathMapComplete = true;
+        }
+      }
+    }
+  }
+
+  private void buildCompleteAssociationPathMap() throws ODataJPAModelException {
     JPAAssociationPathImpl associationPath;
     lazyBuildCompletePathMap();
     // TODO check if ignore has to be handled
@@ -600,6 +638,17 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
   }
 
   private void lazyBuildCompletePathMap() throws ODataJPAModelException {
+    if (!pathMapComplete) {
+      synchronized (BUILD_LOCK) {
+        if (!pathMapComplete) {
+          buildCompletePathMap();
+          pathMapComplete = true;
+        }
+      }
+    }
+  }
+
+  private void buildCompletePathMap() throws ODataJPAModelException {
     ArrayList<JPAElement> pathList;
 
     lazyBuildEdmItem();
@@ -664,36 +713,44 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
 
   private void lazyBuildCompleteProtectionList() throws ODataJPAModelException {
     if (protectedAttributes == null) {
-      lazyBuildEdmItem();
-      this.protectedAttributes = new ArrayList<>();
-      for (JPAAttribute attribute : getDeclaredAttributes()) {
-        if (attribute.hasProtection()) {
-          if (attribute.isComplex()) {
-            for (final String claimName : attribute.getProtectionClaimNames()) {
-              for (final String pathName : attribute.getProtectionPath(claimName)) {
-                final JPAPath path = this.getPath(pathName, false);
-                if (path == null) // Annotation EdmProtctedBy found at '%2$s' of '%1$s', but the given 'path' '%3$s'...
-                  throw new ODataJPAModelException(COMPLEX_PROPERTY_WRONG_PROTECTION_PATH, attribute.getInternalName(),
-                      this.getTypeClass().getSimpleName(), pathName);
-                protectedAttributes.add(new ProtectionInfo(path, claimName, attribute));
-              }
-            }
-          } else {
-            for (final String claimName : attribute.getProtectionClaimNames()) {
-              protectedAttributes.add(new ProtectionInfo(this.getPath(attribute.getExternalName(), false), claimName,
-                  attribute));
+      synchronized (BUILD_LOCK) {
+        if (protectedAttributes == null)
+          protectedAttributes = Collections.unmodifiableList(buildCompleteProtectionList());
+      }
+    }
+  }
+
+  private List<JPAProtectionInfo> buildCompleteProtectionList() throws ODataJPAModelException {
+    final List<JPAProtectionInfo> protectedAttributes = new ArrayList<>();
+    lazyBuildEdmItem();
+    for (JPAAttribute attribute : getDeclaredAttributes()) {
+      if (attribute.hasProtection()) {
+        if (attribute.isComplex()) {
+          for (final String claimName : attribute.getProtectionClaimNames()) {
+            for (final String pathName : attribute.getProtectionPath(claimName)) {
+              final JPAPath path = this.getPath(pathName, false);
+              if (path == null) // Annotation EdmProtctedBy found at '%2$s' of '%1$s', but the given 'path' '%3$s'...
+                throw new ODataJPAModelException(COMPLEX_PROPERTY_WRONG_PROTECTION_PATH, attribute.getInternalName(),
+                    this.getTypeClass().getSimpleName(), pathName);
+              protectedAttributes.add(new ProtectionInfo(path, claimName, attribute));
             }
           }
-        } else if (attribute.isComplex()) { // Protection at attribute overrides protection within complex
-          for (final JPAProtectionInfo info : attribute.getStructuredType().getProtections()) {
-            // Copy and extend path
-            final String pathName = attribute.getExternalName() + JPAPath.PATH_SEPERATOR + info.getPath().getAlias();
-            final JPAPath path = this.getPath(pathName, false);
-            protectedAttributes.add(new ProtectionInfo(path, info));
+        } else {
+          for (final String claimName : attribute.getProtectionClaimNames()) {
+            protectedAttributes.add(new ProtectionInfo(this.getPath(attribute.getExternalName(), false), claimName,
+                attribute));
           }
         }
+      } else if (attribute.isComplex()) { // Protection at attribute overrides protection within complex
+        for (final JPAProtectionInfo info : attribute.getStructuredType().getProtections()) {
+          // Copy and extend path
+          final String pathName = attribute.getExternalName() + JPAPath.PATH_SEPERATOR + info.getPath().getAlias();
+          final JPAPath path = this.getPath(pathName, false);
+          protectedAttributes.add(new ProtectionInfo(path, info));
+        }
       }
     }
+    return protectedAttributes;
   }
 
   private List<JPAElement> rebuildPathList(final List<JPAElement> pathList) throws ODataJPAModelException {
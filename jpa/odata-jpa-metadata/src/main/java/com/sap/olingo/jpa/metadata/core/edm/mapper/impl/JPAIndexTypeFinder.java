@@ -0,0 +1,169 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.processor.EdmIndexProcessor;
+
+/**
+ * Finds the types via the indexes created at compile time by {@link EdmIndexProcessor}, which avoids scanning the
+ * class path at start up. The decision is taken per class path root: Roots that contain one of the packages, but no
+ * index, e.g. because they were compiled without the processor, are scanned and the result is merged with the index.
+ */
+final class JPAIndexTypeFinder implements JPATypeFinder {
+  private final Set<Class<?>> operations;
+  private final Set<Class<?>> enumerations;
+  private final JPATypeFinder fallback;
+
+  /**
+   * @param packageName Packages to search in, including their sub-packages
+   * @return null, if no package is given
+   */
+  static JPATypeFinder create(final String... packageName) {
+    if (packageName == null || packageName.length == 0)
+      return null;
+    final ClassLoader loader = getClassLoader();
+    final Set<URL> notIndexed = determineRootsWithoutIndex(loader, packageName);
+    final Set<String> operationNames = readIndex(loader, EdmIndexProcessor.OPERATION_INDEX, packageName);
+    final Set<String> enumerationNames = readIndex(loader, EdmIndexProcessor.ENUMERATION_INDEX, packageName);
+    if (operationNames.isEmpty() && enumerationNames.isEmpty() && !notIndexed.isEmpty())
+      return new JPAReflectionsTypeFinder(notIndexed, packageName);
+    return new JPAIndexTypeFinder(loadClasses(loader, operationNames), loadClasses(loader, enumerationNames),
+        notIndexed.isEmpty() ? null : new JPAReflectionsTypeFinder(notIndexed, packageName));
+  }
+
+  /**
+   * Determines the class path roots that contain at least one of the packages, but neither an operation index nor an
+   * enumeration index
+   */
+  static Set<URL> determineRootsWithoutIndex(final ClassLoader loader, final String... packageName) {
+    final Set<String> indexed = new HashSet<>();
+    indexed.addAll(determineRoots(loader, EdmIndexProcessor.OPERATION_INDEX));
+    indexed.addAll(determineRoots(loader, EdmIndexProcessor.ENUMERATION_INDEX));
+    final Set<URL> notIndexed = new HashSet<>();
+    for (final String name : packageName) {
+      for (final String root : determineRoots(loader, name.replace('.', '/'))) {
+        if (!indexed.contains(root))
+          addRoot(notIndexed, root);
+      }
+    }
+    return notIndexed;
+  }
+
+  private JPAIndexTypeFinder(final Set<Class<?>> operations, final Set<Class<?>> enumerations,
+      final JPATypeFinder fallback) {
+    super();
+    this.operations = operations;
+    this.enumerations = enumerations;
+    this.fallback = fallback;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> Set<Class<? extends T>> getSubTypesOf(final Class<T> type) {
+    final Set<Class<? extends T>> result = new HashSet<>();
+    for (final Class<?> operation : operations) {
+      if (type.isAssignableFrom(operation) && type != operation)
+        result.add((Class<? extends T>) operation);
+    }
+    if (fallback != null)
+      result.addAll(fallback.getSubTypesOf(type));
+    return result;
+  }
+
+  @Override
+  public Set<Class<?>> getTypesAnnotatedWith(final Class<? extends Annotation> annotation) {
+    final Set<Class<?>> result = new HashSet<>();
+    for (final Class<?> enumeration : enumerations) {
+      if (enumeration.isAnnotationPresent(annotation))
+        result.add(enumeration);
+    }
+    for (final Class<?> operation : operations) {
+      if (operation.isAnnotationPresent(annotation))
+        result.add(operation);
+    }
+    if (fallback != null)
+      result.addAll(fallback.getTypesAnnotatedWith(annotation));
+    return result;
+  }
+
+  private static void addRoot(final Set<URL> roots, final String root) {
+    try {
+      roots.add(new URL(root));
+    } catch (MalformedURLException e) {
+      // Root can not be scanned either
+    }
+  }
+
+  /**
+   * Determines the class path roots containing the resource. The root is the URL of the resource without the resource
+   * name, e.g. jar:file:/a.jar!/ or file:/classes/
+   */
+  private static Set<String> determineRoots(final ClassLoader loader, final String resourceName) {
+    final Set<String> roots = new HashSet<>();
+    try {
+      final Enumeration<URL> resources = loader.getResources(resourceName);
+      while (resources.hasMoreElements()) {
+        final String url = resources.nextElement().toExternalForm();
+        final int index = url.lastIndexOf(resourceName);
+        if (index >= 0)
+          roots.add(url.substring(0, index));
+      }
+    } catch (IOException e) {
+      // Resource not accessible
+    }
+    return roots;
+  }
+
+  private static ClassLoader getClassLoader() {
+    final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    return loader != null ? loader : JPAIndexTypeFinder.class.getClassLoader();
+  }
+
+  private static Set<Class<?>> loadClasses(final ClassLoader loader, final Set<String> classNames) {
+    final Set<Class<?>> classes = new HashSet<>();
+    for (final String className : classNames) {
+      try {
+        classes.add(Class.forName(className, false, loader));
+      } catch (ClassNotFoundException | LinkageError e) {
+        // Outdated entry of an index
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Reads the entries of all indexes with the given name, which belong to one of the packages
+   */
+  private static Set<String> readIndex(final ClassLoader loader, final String index, final String[] packageName) {
+    final Set<String> classNames = new TreeSet<>();
+    try {
+      final Enumeration<URL> resources = loader.getResources(index);
+      while (resources.hasMoreElements()) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(),
+            StandardCharsets.UTF_8))) {
+          String className;
+          while ((className = reader.readLine()) != null) {
+            for (final String name : packageName) {
+              if (className.trim().startsWith(name + "."))
+                classNames.add(className.trim());
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      // Without a readable index the packages are scanned
+      classNames.clear();
+    }
+    return classNames;
+  }
+}
@@ -0,0 +1,131 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEdmNameBuilder;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+
+/**
+ * Creates a fingerprint of everything the metadata are build from. These are the namespace, the classes of the JPA
+ * metamodel, the Java operations and enumerations, the name builder, the metadata post processor, the default mapping
+ * files <code>META-INF/orm.xml</code> and the version of this library. The byte code of the classes is part of the
+ * fingerprint, so also changes of annotations or of the naming rules are recognized.<p>
+ * Other mapping files and the configuration of a post processor, e.g. read from a property file, are not known. Their
+ * changes are only recognized, if the caller provides a model version that changes with them.
+ */
+final class JPAModelFingerprint {
+  private static final String ALGORITHM = "SHA-256";
+  private static final String DEFAULT_MAPPING_FILE = "META-INF/orm.xml";
+
+  private JPAModelFingerprint() {
+    super();
+  }
+
+  static String create(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel,
+      final JPATypeFinder typeFinder, final Object postProcessor, final String modelVersion) {
+
+    final Map<String, Class<?>> classes = new TreeMap<>();
+    for (final ManagedType<?> managedType : jpaMetamodel.getManagedTypes())
+      classes.put(managedType.getJavaType().getName(), managedType.getJavaType());
+    if (typeFinder != null) {
+      for (final Class<?> operation : typeFinder.getSubTypesOf(ODataFunction.class))
+        classes.put(operation.getName(), operation);
+      for (final Class<?> operation : typeFinder.getSubTypesOf(ODataAction.class))
+        classes.put(operation.getName(), operation);
+      for (final Class<?> enumeration : typeFinder.getTypesAnnotatedWith(EdmEnumeration.class))
+        classes.put(enumeration.getName(), enumeration);
+    }
+    if (postProcessor != null)
+      classes.put(postProcessor.getClass().getName(), postProcessor.getClass());
+    classes.put(nameBuilder.getClass().getName(), nameBuilder.getClass());
+
+    final MessageDigest digest = createDigest();
+    update(digest, nameBuilder.getNamespace());
+    update(digest, JPAModelFingerprint.class.getPackage().getImplementationVersion());
+    update(digest, modelVersion);
+    updateMappingFiles(digest);
+    for (final Map.Entry<String, Class<?>> clazz : classes.entrySet()) {
+      update(digest, clazz.getKey());
+      updateByteCode(digest, clazz.getValue());
+    }
+    return toHex(digest.digest());
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // Each Java platform has to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void update(final MessageDigest digest, final String value) {
+    if (value != null)
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  /**
+   * The order of the mapping files depends on the class path, so the fingerprint is build from the sorted digests of
+   * their contents
+   */
+  private static void updateMappingFiles(final MessageDigest digest) {
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader() != null
+        ? Thread.currentThread().getContextClassLoader() : JPAModelFingerprint.class.getClassLoader();
+    final Set<String> mappingFiles = new TreeSet<>();
+    try {
+      final Enumeration<URL> urls = classLoader.getResources(DEFAULT_MAPPING_FILE);
+      while (urls.hasMoreElements()) {
+        final MessageDigest fileDigest = createDigest();
+        try (InputStream content = urls.nextElement().openStream()) {
+          update(fileDigest, content);
+        }
+        mappingFiles.add(toHex(fileDigest.digest()));
+      }
+    } catch (IOException e) {
+      // The fingerprint is based on the other parts only
+    }
+    for (final String mappingFile : mappingFiles)
+      update(digest, mappingFile);
+  }
+
+  private static void updateByteCode(final MessageDigest digest, final Class<?> clazz) {
+    final String name = clazz.getName();
+    try (InputStream byteCode = clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      if (byteCode != null)
+        update(digest, byteCode);
+    } catch (IOException e) {
+      // The fingerprint is based on the name only
+    }
+  }
+
+  private static void update(final MessageDigest digest, final InputStream content) throws IOException {
+    final byte[] buffer = new byte[4096];
+    int length;
+    while ((length = content.read(buffer)) != -1)
+      digest.update(buffer, 0, length);
+  }
+
+  private static String toHex(final byte[] bytes) {
+    final StringBuilder hex = new StringBuilder();
+    for (final byte b : bytes)
+      hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+}
@@ -0,0 +1,49 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Set;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+/**
+ * Finds the types by scanning the class path. Used for class path roots, which are not covered by an index created by
+ * {@link com.sap.olingo.jpa.metadata.core.edm.annotation.processor.EdmIndexProcessor EdmIndexProcessor}.
+ */
+final class JPAReflectionsTypeFinder implements JPATypeFinder {
+  private final Reflections reflections;
+
+  JPAReflectionsTypeFinder(final String... packageName) {
+    final ConfigurationBuilder configBuilder = new ConfigurationBuilder();
+    configBuilder.setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
+    configBuilder.forPackages(packageName);
+    configBuilder.filterInputsBy(new FilterBuilder().includePackage(packageName));
+    this.reflections = new Reflections(configBuilder);
+  }
+
+  /**
+   * Scans only the given class path roots
+   */
+  JPAReflectionsTypeFinder(final Collection<URL> roots, final String... packageName) {
+    final ConfigurationBuilder configBuilder = new ConfigurationBuilder();
+    configBuilder.setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
+    configBuilder.setUrls(roots);
+    configBuilder.filterInputsBy(new FilterBuilder().includePackage(packageName));
+    this.reflections = new Reflections(configBuilder);
+  }
+
+  @Override
+  public <T> Set<Class<? extends T>> getSubTypesOf(final Class<T> type) {
+    return reflections.getSubTypesOf(type);
+  }
+
+  @Override
+  public Set<Class<?>> getTypesAnnotatedWith(final Class<? extends Annotation> annotation) {
+    return reflections.getTypesAnnotatedWith(annotation);
+  }
+}
@@ -12,17 +12,33 @@ public final class JPAServiceDocumentFactory {
   private final Metamodel jpaMetamodel;
   private final JPAEdmMetadataPostProcessor postProcessor;
   private final String[] packageName;
+  private final String modelVersion;
 
   public JPAServiceDocumentFactory(final String namespace, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) {
+    this(namespace, jpaMetamodel, postProcessor, packageName, null);
+  }
+
+  /**
+   * @param namespace
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param modelVersion Part of the fingerprint of the service document, see
+   * {@link JPAServiceDocument#getFingerprint()}. Can be null.
+   */
+  public JPAServiceDocumentFactory(final String namespace, final Metamodel jpaMetamodel,
+      final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName, final String modelVersion) {
     super();
     this.namespace = namespace;
     this.jpaMetamodel = jpaMetamodel;
     this.postProcessor = postProcessor;
     this.packageName = packageName;
+    this.modelVersion = modelVersion;
   }
 
   public JPAServiceDocument getServiceDocument() throws ODataJPAModelException {
-    return new IntermediateServiceDocument(namespace, jpaMetamodel, postProcessor, packageName);
+    return new IntermediateServiceDocument(new JPADefaultEdmNameBuilder(namespace), jpaMetamodel, postProcessor,
+        packageName, modelVersion);
   }
 }
@@ -0,0 +1,15 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+/**
+ * Provides the Java types of the configured packages, which are needed to build the metadata, but are not part of the
+ * JPA metamodel. These are the classes providing Java functions or actions and the enumerations.
+ */
+interface JPATypeFinder {
+
+  <T> Set<Class<? extends T>> getSubTypesOf(final Class<T> type);
+
+  Set<Class<?>> getTypesAnnotatedWith(final Class<? extends Annotation> annotation);
+}
@@ -0,0 +1,144 @@
+package com.sap.olingo.jpa.metadata.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPADefaultEdmNameBuilder;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.TestMappingRoot;
+
+public class TestJPAEdmMetadataSnapshot extends TestMappingRoot {
+  private static final String[] PACKAGES = { "com.sap.olingo.jpa.processor.core.testmodel",
+      "com.sap.olingo.jpa.metadata.core.edm.mapper.testaction" };
+  private JPAEdmProvider built;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    built = new JPAEdmProvider(emf.getMetamodel(), null, PACKAGES, new JPADefaultEdmNameBuilder(PUNIT_NAME));
+  }
+
+  @Test
+  public void checkSnapshotReproducesMetadataDocument() throws ODataException, IOException {
+    final JPAEdmProvider cut = new JPAEdmProvider(emf.getMetamodel(), null, PACKAGES,
+        new JPADefaultEdmNameBuilder(PUNIT_NAME), new ByteArrayInputStream(writeSnapshot(built)));
+
+    assertEquals(getMetadataDocument(built), getMetadataDocument(cut));
+  }
+
+  @Test
+  public void checkSnapshotIgnoredIfFingerprintDiffers() throws ODataException, IOException {
+    final CsdlSchema schema = new CsdlSchema().setNamespace(PUNIT_NAME);
+    final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    new JPAEdmMetadataSnapshot("0815", Collections.singletonList(schema)).write(snapshot);
+
+    final JPAEdmProvider cut = new JPAEdmProvider(emf.getMetamodel(), null, PACKAGES,
+        new JPADefaultEdmNameBuilder(PUNIT_NAME), new ByteArrayInputStream(snapshot.toByteArray()));
+
+    assertFalse(cut.getSchemas().get(0).getEntityTypes().isEmpty());
+    assertEquals(getMetadataDocument(built), getMetadataDocument(cut));
+  }
+
+  @Test
+  public void checkWarningLoggedIfFingerprintDiffers() throws ODataException, IOException {
+    final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    new JPAEdmMetadataSnapshot("0815", Collections.emptyList()).write(snapshot);
+
+    final List<LogRecord> records = createProviderLogged(snapshot.toByteArray());
+    assertEquals(1, records.size());
+    assertEquals(Level.WARNING, records.get(0).getLevel());
+    assertTrue(records.get(0).getMessage().contains("0815"));
+  }
+
+  @Test
+  public void checkNoWarningLoggedIfSnapshotUsed() throws ODataException {
+    assertTrue(createProviderLogged(writeSnapshot(built)).isEmpty());
+  }
+
+  private List<LogRecord> createProviderLogged(final byte[] snapshot) throws ODataException {
+    final List<LogRecord> records = new ArrayList<>();
+    final Handler handler = new Handler() {
+      @Override
+      public void publish(final LogRecord record) {
+        records.add(record);
+      }
+
+      @Override
+      public void flush() {
+        // Nothing to flush
+      }
+
+      @Override
+      public void close() {
+        // Nothing to close
+      }
+    };
+    final Logger logger = Logger.getLogger(JPAEdmProvider.class.getName());
+    logger.addHandler(handler);
+    try {
+      new JPAEdmProvider(emf.getMetamodel(), null, PACKAGES, new JPADefaultEdmNameBuilder(PUNIT_NAME),
+          new ByteArrayInputStream(snapshot));
+    } finally {
+      logger.removeHandler(handler);
+    }
+    return records;
+  }
+
+  @Test
+  public void checkReadReturnsFingerprintAndSchemas() throws ODataException {
+    final JPAEdmMetadataSnapshot act = JPAEdmMetadataSnapshot.read(new ByteArrayInputStream(writeSnapshot(built)));
+
+    assertEquals(built.getServiceDocument().getFingerprint(), act.getFingerprint());
+    assertEquals(built.getSchemas().size(), act.getSchemas().size());
+    assertEquals(built.getSchemas().get(0).getEntityTypes().size(), act.getSchemas().get(0).getEntityTypes().size());
+  }
+
+  @Test
+  public void checkReadThrowsExceptionOnInvalidSnapshot() {
+    assertThrows(ODataJPAModelException.class, () -> JPAEdmMetadataSnapshot.read(new ByteArrayInputStream(
+        "{\"schemas\":[]}".getBytes(StandardCharsets.UTF_8))));
+    assertThrows(ODataJPAModelException.class, () -> JPAEdmMetadataSnapshot.read(new ByteArrayInputStream(
+        "{\"fingerprint\":\"0815\",\"schemas\":[{\"@type\":\"java.lang.Thread\"}]}".getBytes(
+            StandardCharsets.UTF_8))));
+  }
+
+  private byte[] writeSnapshot(final JPAEdmProvider provider) throws ODataJPAModelException {
+    final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    JPAEdmMetadataSnapshot.create(provider.getServiceDocument()).write(snapshot);
+    return snapshot.toByteArray();
+  }
+
+  private String getMetadataDocument(final JPAEdmProvider provider) throws ODataException {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(provider, provider.getReferences());
+    try (InputStream content = odata.createSerializer(ContentType.APPLICATION_XML).metadataDocument(serviceMetadata)
+        .getContent(); Scanner scanner = new Scanner(content, StandardCharsets.UTF_8.name())) {
+      return scanner.useDelimiter("\\A").next();
+    } catch (IOException e) {
+      throw new ODataException(e);
+    }
+  }
+}
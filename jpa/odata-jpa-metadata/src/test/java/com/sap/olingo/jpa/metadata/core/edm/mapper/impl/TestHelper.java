@@ -16,7 +16,6 @@ import javax.persistence.metamodel.Metamodel;
 import javax.persistence.metamodel.PluralAttribute;
 import javax.persistence.metamodel.SingularAttribute;
 
-import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
@@ -31,7 +30,7 @@ public class TestHelper {
   final public IntermediateSchema schema;
 
   public TestHelper(final Metamodel metamodel, final String namespace) throws ODataJPAModelException {
-    final Reflections r = mock(Reflections.class);
+    final JPATypeFinder r = mock(JPATypeFinder.class);
     when(r.getTypesAnnotatedWith(EdmEnumeration.class)).thenReturn(new HashSet<>(Arrays.asList(new Class<?>[] {
         ABCClassifiaction.class, AccessRights.class })));
 
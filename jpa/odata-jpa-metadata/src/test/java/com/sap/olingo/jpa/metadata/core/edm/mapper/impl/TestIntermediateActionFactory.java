@@ -11,7 +11,6 @@ import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
@@ -21,7 +20,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaTwoAct
 public class TestIntermediateActionFactory extends TestMappingRoot {
   private TestHelper helper;
 
-  private Reflections reflections;
+  private JPATypeFinder reflections;
   private IntermediateActionFactory cut;
   private Set<Class<? extends ODataAction>> javaActions;
 
@@ -29,7 +28,7 @@ public class TestIntermediateActionFactory extends TestMappingRoot {
   public void setUp() throws ODataJPAModelException {
     helper = new TestHelper(emf.getMetamodel(), PUNIT_NAME);
 
-    reflections = mock(Reflections.class);
+    reflections = mock(JPATypeFinder.class);
     cut = new IntermediateActionFactory();
     javaActions = new HashSet<>();
     when(reflections.getSubTypesOf(ODataAction.class)).thenReturn(javaActions);
@@ -37,7 +36,7 @@ public class TestIntermediateActionFactory extends TestMappingRoot {
 
   @Test
   public void checkReturnEmptyMapIfReflectionsNull() throws ODataJPAModelException {
-    Reflections r = null;
+    JPATypeFinder r = null;
     assertNotNull(cut.create(new JPADefaultEdmNameBuilder(PUNIT_NAME), r, helper.schema));
   }
 
@@ -19,11 +19,6 @@ import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpress
 import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression.ConstantExpressionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
@@ -45,12 +40,7 @@ public class TestIntermediateContainer extends TestMappingRoot {
   @BeforeEach
   public void setup() throws ODataJPAModelException {
     IntermediateModelElement.setPostProcessor(new DefaultEdmPostProcessor());
-    Reflections r =
-        new Reflections(
-            new ConfigurationBuilder()
-                .forPackages(PACKAGE1, PACKAGE2)
-                .filterInputsBy(new FilterBuilder().includePackage(PACKAGE1, PACKAGE2))
-                .setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner()));
+    final JPATypeFinder r = new JPAReflectionsTypeFinder(PACKAGE1, PACKAGE2);
 
     schema = new IntermediateSchema(new JPADefaultEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), r);
     etList = emf.getMetamodel().getEntities();
@@ -11,7 +11,6 @@ import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
@@ -21,7 +20,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaTwoFun
 public class TestIntermediateFunctionFactory extends TestMappingRoot {
   private TestHelper helper;
 
-  private Reflections reflections;
+  private JPATypeFinder reflections;
   private IntermediateFunctionFactory cut;
   private Set<Class<? extends ODataFunction>> javaFunctions;
 
@@ -29,7 +28,7 @@ public class TestIntermediateFunctionFactory extends TestMappingRoot {
   public void setUp() throws ODataJPAModelException {
     helper = new TestHelper(emf.getMetamodel(), PUNIT_NAME);
 
-    reflections = mock(Reflections.class);
+    reflections = mock(JPATypeFinder.class);
     cut = new IntermediateFunctionFactory();
     javaFunctions = new HashSet<>();
     when(reflections.getSubTypesOf(ODataFunction.class)).thenReturn(javaFunctions);
@@ -37,7 +36,7 @@ public class TestIntermediateFunctionFactory extends TestMappingRoot {
 
   @Test
   public void checkReturnEmptyMapIfReflectionsNull() throws ODataJPAModelException {
-    Reflections r = null;
+    JPATypeFinder r = null;
     assertNotNull(cut.create(new JPADefaultEdmNameBuilder(PUNIT_NAME), r, helper.schema));
   }
 
@@ -29,7 +29,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
-import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
@@ -57,7 +56,7 @@ public class TestIntermediateNavigationProperty extends TestMappingRoot {
 
   @BeforeEach
   public void setup() throws ODataJPAModelException {
-    final Reflections r = mock(Reflections.class);
+    final JPATypeFinder r = mock(JPATypeFinder.class);
     when(r.getTypesAnnotatedWith(EdmEnumeration.class)).thenReturn(new HashSet<>(Arrays.asList(new Class<?>[] {
         ABCClassifiaction.class })));
 
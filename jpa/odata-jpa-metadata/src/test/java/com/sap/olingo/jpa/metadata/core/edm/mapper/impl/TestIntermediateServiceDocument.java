@@ -2,14 +2,28 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -77,6 +91,186 @@ public class TestIntermediateServiceDocument extends TestMappingRoot {
     assertNotNull(cut.getEdmEntityContainer(), "Entity Container not found");
   }
 
+  @Test
+  public void checkServiceDocumentNotFrozenByDefault() {
+    assertFalse(cut.isFrozen());
+  }
+
+  @Test
+  public void checkServiceDocumentFreezeReturnsSameSchemas() throws ODataJPAModelException {
+    final List<CsdlSchema> before = cut.getEdmSchemas();
+    cut.freeze();
+    assertTrue(cut.isFrozen());
+    final List<CsdlSchema> after = cut.getEdmSchemas();
+    assertEquals(before.size(), after.size());
+    assertEquals(before.get(0), after.get(0));
+    assertNotNull(cut.getEdmEntityContainer(), "Entity Container not found");
+  }
+
+  @Test
+  public void checkServiceDocumentFrozenSchemaListCanBeExtended() throws ODataJPAModelException {
+    cut.freeze();
+    final int noSchemas = cut.getEdmSchemas().size();
+    cut.getAllSchemas();
+    cut.getEdmSchemas().add(new CsdlSchema());
+    assertEquals(noSchemas, cut.getEdmSchemas().size());
+  }
+
+  @Test
+  public void checkServiceDocumentFreezeBuildsPathMaps() throws ODataJPAModelException {
+    cut.freeze();
+    final IntermediateStructuredType et = (IntermediateStructuredType) cut.getEntity("BusinessPartners");
+    assertFalse(et.resolvedPathMap.isEmpty());
+    assertFalse(et.resolvedAssociationPathMap.isEmpty());
+    assertNotNull(et.protectedAttributes);
+  }
+
+  @Test
+  public void checkServiceDocumentFreezeMakesMapsUnmodifiable() throws ODataJPAModelException {
+    cut.freeze();
+    final IntermediateStructuredType et = (IntermediateStructuredType) cut.getEntity("BusinessPartners");
+    assertThrows(UnsupportedOperationException.class, () -> et.resolvedPathMap.clear());
+    assertThrows(UnsupportedOperationException.class, () -> et.declaredPropertiesList.clear());
+    assertThrows(UnsupportedOperationException.class, () -> et.protectedAttributes.clear());
+  }
+
+  @Test
+  public void checkFingerprintIsStable() throws ODataJPAModelException {
+    final JPAServiceDocument other = new IntermediateServiceDocument(PUNIT_NAME, emf.getMetamodel(), null,
+        new String[] { "com.sap.olingo.jpa.processor.core.testmodel" });
+    assertEquals(cut.getFingerprint(), other.getFingerprint());
+  }
+
+  @Test
+  public void checkFingerprintDependsOnNamespace() throws ODataJPAModelException {
+    final JPAServiceDocument other = new IntermediateServiceDocument("com.sap.olingo.jpa.other", emf.getMetamodel(),
+        null, new String[] { "com.sap.olingo.jpa.processor.core.testmodel" });
+    assertNotEquals(cut.getFingerprint(), other.getFingerprint());
+  }
+
+  @Test
+  public void checkFingerprintDependsOnNameBuilder() throws ODataJPAModelException {
+    cut = createCutWithCustomNameBuilder();
+    final JPAServiceDocument other = new IntermediateServiceDocument(new CustomJPANameBuilder() {
+      @Override
+      public String buildContainerName() {
+        return "Other";
+      }
+    }, emf.getMetamodel(), null, new String[] { "com.sap.olingo.jpa.processor.core.testmodel",
+        "com.sap.olingo.jpa.metadata.core.edm.mapper.testaction" });
+    assertNotEquals(cut.getFingerprint(), other.getFingerprint());
+  }
+
+  @Test
+  public void checkFingerprintDependsOnModelVersion() throws ODataJPAModelException {
+    final JPAServiceDocument first = createCutWithModelVersion("1");
+    assertEquals(first.getFingerprint(), createCutWithModelVersion("1").getFingerprint());
+    assertNotEquals(first.getFingerprint(), createCutWithModelVersion("2").getFingerprint());
+    assertNotEquals(first.getFingerprint(), cut.getFingerprint());
+  }
+
+  @Test
+  public void checkFingerprintDependsOnDefaultMappingFile() throws ODataJPAModelException, IOException {
+    final Path root = Files.createTempDirectory("mapping");
+    final Path mappingFile = root.resolve("META-INF").resolve("orm.xml");
+    Files.createDirectories(mappingFile.getParent());
+    final String withoutMapping = createCutWithModelVersion(null).getFingerprint();
+    final Thread thread = Thread.currentThread();
+    final ClassLoader original = thread.getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { root.toUri().toURL() }, original)) {
+      thread.setContextClassLoader(classLoader);
+      Files.write(mappingFile, "<entity-mappings/>".getBytes(StandardCharsets.UTF_8));
+      final String first = createCutWithModelVersion(null).getFingerprint();
+      assertEquals(first, createCutWithModelVersion(null).getFingerprint());
+      assertNotEquals(withoutMapping, first);
+
+      Files.write(mappingFile, "<entity-mappings></entity-mappings>".getBytes(StandardCharsets.UTF_8));
+      assertNotEquals(first, createCutWithModelVersion(null).getFingerprint());
+    } finally {
+      thread.setContextClassLoader(original);
+      Files.delete(mappingFile);
+      Files.delete(mappingFile.getParent());
+      Files.delete(root);
+    }
+  }
+
+  @Test
+  public void checkSnapshotUsedIfFingerprintMatches() throws ODataJPAModelException {
+    final CsdlSchema schema = new CsdlSchema().setNamespace(PUNIT_NAME)
+        .setEntityContainer(new CsdlEntityContainer().setName("Snapshot"));
+    assertTrue(cut.useSnapshot(cut.getFingerprint(), Collections.singletonList(schema)));
+    assertEquals(schema, cut.getEdmSchemas().get(0));
+    assertEquals("Snapshot", cut.getEdmEntityContainer().getName());
+  }
+
+  @Test
+  public void checkFreezeKeepsSnapshot() throws ODataJPAModelException {
+    final CsdlSchema schema = new CsdlSchema().setNamespace(PUNIT_NAME)
+        .setEntityContainer(new CsdlEntityContainer().setName("Snapshot"));
+    cut.useSnapshot(cut.getFingerprint(), Collections.singletonList(schema));
+    cut.freeze();
+    assertTrue(cut.isFrozen());
+    assertEquals(1, cut.getEdmSchemas().size());
+    assertEquals(schema, cut.getEdmSchemas().get(0));
+    assertEquals("Snapshot", cut.getEdmEntityContainer().getName());
+    final IntermediateStructuredType et = (IntermediateStructuredType) cut.getEntity("BusinessPartners");
+    assertFalse(et.resolvedPathMap.isEmpty());
+  }
+
+  @Test
+  public void checkSnapshotIgnoredIfFrozen() throws ODataJPAModelException {
+    cut.freeze();
+    final CsdlSchema schema = new CsdlSchema().setNamespace(PUNIT_NAME)
+        .setEntityContainer(new CsdlEntityContainer().setName("Snapshot"));
+    assertFalse(cut.useSnapshot(cut.getFingerprint(), Collections.singletonList(schema)));
+    assertNotEquals(schema, cut.getEdmSchemas().get(0));
+    assertNotEquals("Snapshot", cut.getEdmEntityContainer().getName());
+  }
+
+  @Test
+  public void checkSnapshotIgnoredIfFingerprintDiffers() throws ODataJPAModelException {
+    assertFalse(cut.useSnapshot("0815", Collections.singletonList(new CsdlSchema())));
+    assertFalse(cut.getEdmSchemas().get(0).getEntityTypes().isEmpty());
+  }
+
+  @Test
+  public void checkServiceDocumentParallelAccessBuildsSamePaths() throws ODataJPAModelException,
+      InterruptedException, ExecutionException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++)
+        results.add(executor.submit(() -> cut.getEntity("BusinessPartners").getPathList().size()));
+      final int exp = results.get(0).get();
+      for (final Future<Integer> result : results)
+        assertEquals(exp, result.get().intValue());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void checkServiceDocumentParallelSchemaAndAttributeAccess() throws InterruptedException,
+      ExecutionException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        if (i % 2 == 0)
+          results.add(executor.submit(() -> cut.getEdmSchemas().get(0).getEntityType("Organization")
+              .getProperties().size()));
+        else
+          results.add(executor.submit(() -> ((IntermediateEntityType) cut.getEntity("Organizations")).getEdmItem()
+              .getProperties().size()));
+      }
+      final int exp = results.get(0).get();
+      for (final Future<Integer> result : results)
+        assertEquals(exp, result.get().intValue());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void checkServiceDocumentGetContainerFromSchema() throws ODataJPAModelException {
 
@@ -314,4 +508,9 @@ public class TestIntermediateServiceDocument extends TestMappingRoot {
             "com.sap.olingo.jpa.metadata.core.edm.mapper.testaction" });
   }
 
+  private IntermediateServiceDocument createCutWithModelVersion(final String modelVersion)
+      throws ODataJPAModelException {
+    return new IntermediateServiceDocument(new JPADefaultEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), null,
+        new String[] { "com.sap.olingo.jpa.processor.core.testmodel" }, modelVersion);
+  }
 }
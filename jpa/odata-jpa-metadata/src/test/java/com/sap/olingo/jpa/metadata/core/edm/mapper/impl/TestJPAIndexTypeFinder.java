@@ -0,0 +1,114 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.processor.EdmIndexProcessor;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.DayOfWeek;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaInheritedFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaOneFunction;
+import com.sap.olingo.jpa.processor.core.testmodel.ABCClassifiaction;
+
+public class TestJPAIndexTypeFinder {
+  private static final String TEST_OBJECTS = "com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects";
+  private static final String TEST_MODEL = "com.sap.olingo.jpa.processor.core.testmodel";
+  private static final String NOT_INDEXED = "com.sap.olingo.jpa.metadata.core.edm.annotation";
+  private static final String PACKAGE_PATH = "com/sap/olingo/jpa/example";
+
+  @Test
+  public void checkReturnsNullWithoutPackage() {
+    assertNull(JPAIndexTypeFinder.create());
+    assertNull(JPAIndexTypeFinder.create((String[]) null));
+  }
+
+  @Test
+  public void checkUsesIndexIfPackageIndexed() {
+    assertTrue(JPAIndexTypeFinder.create(TEST_OBJECTS) instanceof JPAIndexTypeFinder);
+  }
+
+  @Test
+  public void checkScansIfNoPackageIndexed() {
+    assertTrue(JPAIndexTypeFinder.create(NOT_INDEXED) instanceof JPAReflectionsTypeFinder);
+  }
+
+  @Test
+  public void checkIndexFindsSameOperationsAsScan() {
+    final JPATypeFinder cut = JPAIndexTypeFinder.create(TEST_OBJECTS);
+    final JPATypeFinder scan = new JPAReflectionsTypeFinder(TEST_OBJECTS);
+
+    assertTrue(cut.getSubTypesOf(ODataFunction.class).contains(ExampleJavaOneFunction.class));
+    assertEquals(scan.getSubTypesOf(ODataFunction.class), cut.getSubTypesOf(ODataFunction.class));
+    assertEquals(scan.getSubTypesOf(ODataAction.class), cut.getSubTypesOf(ODataAction.class));
+  }
+
+  @Test
+  public void checkIndexContainsClassWithInheritedOperation() {
+    final JPATypeFinder cut = JPAIndexTypeFinder.create(TEST_OBJECTS);
+
+    assertTrue(cut.getSubTypesOf(ODataFunction.class).contains(ExampleJavaInheritedFunction.class));
+  }
+
+  @Test
+  public void checkIndexFindsSameEnumerationsAsScan() {
+    final JPATypeFinder cut = JPAIndexTypeFinder.create(TEST_OBJECTS, TEST_MODEL);
+    final JPATypeFinder scan = new JPAReflectionsTypeFinder(TEST_OBJECTS, TEST_MODEL);
+
+    assertTrue(cut.getTypesAnnotatedWith(EdmEnumeration.class).contains(DayOfWeek.class));
+    assertTrue(cut.getTypesAnnotatedWith(EdmEnumeration.class).contains(ABCClassifiaction.class));
+    assertEquals(scan.getTypesAnnotatedWith(EdmEnumeration.class), cut.getTypesAnnotatedWith(EdmEnumeration.class));
+  }
+
+  @Test
+  public void checkPackageNotIndexedIsScanned() {
+    final JPATypeFinder cut = JPAIndexTypeFinder.create(NOT_INDEXED, TEST_MODEL);
+
+    assertTrue(cut instanceof JPAIndexTypeFinder);
+    assertEquals(new JPAReflectionsTypeFinder(NOT_INDEXED, TEST_MODEL).getTypesAnnotatedWith(EdmEnumeration.class),
+        cut.getTypesAnnotatedWith(EdmEnumeration.class));
+  }
+
+  @Test
+  public void checkOnlyRootWithoutIndexReturned(@TempDir final Path tempDir) throws IOException {
+    final Path indexed = createRoot(tempDir.resolve("indexed"));
+    Files.createDirectories(indexed.resolve(EdmIndexProcessor.OPERATION_INDEX).getParent());
+    Files.createFile(indexed.resolve(EdmIndexProcessor.OPERATION_INDEX));
+    final Path notIndexed = createRoot(tempDir.resolve("notIndexed"));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { indexed.toUri().toURL(), notIndexed.toUri().toURL() },
+        null)) {
+      final Set<URL> act = JPAIndexTypeFinder.determineRootsWithoutIndex(loader, PACKAGE_PATH.replace('/', '.'));
+      assertEquals(1, act.size());
+      assertEquals(notIndexed.toUri().toURL().toExternalForm(), act.iterator().next().toExternalForm());
+    }
+  }
+
+  @Test
+  public void checkNoRootReturnedIfAllIndexed(@TempDir final Path tempDir) throws IOException {
+    final Path indexed = createRoot(tempDir.resolve("indexed"));
+    Files.createDirectories(indexed.resolve(EdmIndexProcessor.ENUMERATION_INDEX).getParent());
+    Files.createFile(indexed.resolve(EdmIndexProcessor.ENUMERATION_INDEX));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { indexed.toUri().toURL() }, null)) {
+      assertTrue(JPAIndexTypeFinder.determineRootsWithoutIndex(loader, PACKAGE_PATH.replace('/', '.')).isEmpty());
+    }
+  }
+
+  private Path createRoot(final Path root) throws IOException {
+    Files.createDirectories(root.resolve(PACKAGE_PATH));
+    return root;
+  }
+}
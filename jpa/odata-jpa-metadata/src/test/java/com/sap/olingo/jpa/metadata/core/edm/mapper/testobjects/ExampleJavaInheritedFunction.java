@@ -0,0 +1,8 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects;
+
+public class ExampleJavaInheritedFunction extends ExampleJavaOneFunction {
+
+  public ExampleJavaInheritedFunction() {
+    super();
+  }
+}
@@ -1,12 +1,19 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_SET_BASED_CHANGE;
+
+import java.util.List;
+
 import javax.persistence.EntityManager;
 
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.modify.JPAUpdateResult;
 import com.sap.olingo.jpa.processor.core.processor.JPARequestEntity;
+import com.sap.olingo.jpa.processor.core.processor.JPASetBasedChange;
 
 public interface JPACUDRequestHandler {
   /**
@@ -30,6 +37,38 @@ public interface JPACUDRequestHandler {
   public Object createEntity(final JPARequestEntity requestEntity, final EntityManager em)
       throws ODataJPAProcessException;
 
+  /**
+   * Hook to create the entities of a bulk create request, which is a POST of an array of entities on an entity set.
+   * The entities are provided in chunks, so an implementation can write them set-based. Transaction handling is done
+   * outside, all chunks of one request are created within the same transaction. The default implementation calls
+   * {@link #createEntity(JPARequestEntity, EntityManager) createEntity} for each entity.
+   * @param requestEntities One chunk of entities
+   * @param em
+   * @throws ODataJPAProcessException
+   */
+  public default void createEntities(final List<JPARequestEntity> requestEntities, final EntityManager em)
+      throws ODataJPAProcessException {
+    for (final JPARequestEntity requestEntity : requestEntities)
+      createEntity(requestEntity, em);
+  }
+
+  /**
+   * Hook that is called before a set-based change, a PATCH or DELETE on an entity set restricted by $filter, is
+   * executed as one JPA CriteriaUpdate respectively CriteriaDelete. The hook can veto the change by throwing an
+   * exception or augment it by adding restrictions or changing the new values. As the change is executed directly on
+   * the database, {@link #updateEntity(JPARequestEntity, EntityManager, HttpMethod) updateEntity} and
+   * {@link #deleteEntity(JPARequestEntity, EntityManager) deleteEntity} are not called. Transaction handling is done
+   * outside.<p>
+   * The default implementation rejects set-based changes.
+   * @param change
+   * @param em
+   * @throws ODataJPAProcessException
+   */
+  public default void prepareSetBasedChange(final JPASetBasedChange change, final EntityManager em)
+      throws ODataJPAProcessException {
+    throw new ODataJPAProcessorException(NOT_SUPPORTED_SET_BASED_CHANGE, HttpStatusCode.NOT_IMPLEMENTED);
+  }
+
   /**
    * Hook to handle all request that change an existing entity.
    * This includes update and upsert on entities, updates on properties and values, updates on relations as well as
@@ -0,0 +1,73 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe map with a maximum number of entries and a time to live per entry. If the maximum number of entries is
+ * reached, the least recently used entry is removed. Expired entries are removed when they are read.
+ * @param <K> Key
+ * @param <V> Value
+ */
+final class JPAExpiringLruMap<K, V> {
+  private final long timeToLive;
+  private final LongSupplier clock;
+  private final Map<K, Entry<V>> entries;
+
+  /**
+   * @param maxEntries Maximum number of entries
+   * @param timeToLive Time in milliseconds an entry is valid
+   * @param clock Provides the current time in milliseconds
+   */
+  JPAExpiringLruMap(final int maxEntries, final long timeToLive, final LongSupplier clock) {
+    super();
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  synchronized V get(final K key) {
+    final Entry<V> entry = entries.get(key);
+    if (entry == null)
+      return null;
+    // Compare the age, so that a time to live of Long.MAX_VALUE does not overflow
+    if (clock.getAsLong() - entry.createdAt >= timeToLive) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value;
+  }
+
+  synchronized void put(final K key, final V value) {
+    entries.put(key, new Entry<>(value, clock.getAsLong()));
+  }
+
+  synchronized void remove(final K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * @return Number of entries, including expired ones that have not been removed yet
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long createdAt;
+
+    private Entry(final V value, final long createdAt) {
+      this.value = value;
+      this.createdAt = createdAt;
+    }
+  }
+}
@@ -1,18 +1,37 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.BATCH_PARALLEL_EXECUTION_ERROR;
+
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
 import javax.persistence.RollbackException;
 
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
@@ -22,32 +41,54 @@ import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
 
 import com.sap.olingo.jpa.processor.core.api.JPAODataTransactionFactory.JPAODataTransaction;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPATransactionException;
+import com.sap.olingo.jpa.processor.core.processor.JPADeferredResponses;
+import com.sap.olingo.jpa.processor.core.processor.JPAResultCacheInvalidations;
+import com.sap.olingo.jpa.processor.core.processor.JPAODataRequestContextImpl;
+import com.sap.olingo.jpa.processor.core.processor.JPAParallelTasks;
 
 /**
  * 
  * <a href=
  * "https://docs.oasis-open.org/odata/odata/v4.0/os/part1-protocol/odata-v4.0-os-part1-protocol.html#_Toc372793748">
  * 11.7 Batch Requests </a>
+ * <p>
+ * If the service context provides a {@link JPAODataCRUDContextAccess#getBatchExecutor() batch executor}, consecutive
+ * GET requests that are not part of a change set are processed in parallel. Each of them gets its own entity manager
+ * and request context. Change sets and requests that reference the Content-ID of a preceding request are processed
+ * after all preceding requests have been finished. The responses keep the order of the requests. As streamed responses
+ * read their rows while the batch response gets serialized, the entity managers of the workers are closed afterwards.
  * 
  * @author Oliver Grande
  *
  */
 public final class JPAODataBatchProcessor implements BatchProcessor {
 
+  private static final String CONTENT_ID_PREFIX = "$";
   private final JPAODataRequestContextAccess requestContext;
+  private final JPAODataCRUDContextAccess serviceContext;
+  private final Queue<EntityManager> workerEntityManagers = new ConcurrentLinkedQueue<>();
   private OData odata;
+  private ServiceMetadata serviceMetadata;
 
   public JPAODataBatchProcessor(final JPAODataRequestContextAccess requestContext) {
+    this(null, requestContext);
+  }
+
+  public JPAODataBatchProcessor(@Nullable final JPAODataCRUDContextAccess serviceContext,
+      final JPAODataRequestContextAccess requestContext) {
+    this.serviceContext = serviceContext;
     this.requestContext = requestContext;
   }
 
   @Override
   public void init(final OData odata, final ServiceMetadata serviceMetadata) {
     this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
   }
 
   @Override
@@ -63,13 +104,22 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
     final List<BatchRequestPart> requestParts = odata.createFixedFormatDeserializer()
         .parseBatchRequest(request.getBody(), boundary, options);
 
-    final List<ODataResponsePart> responseParts = new ArrayList<>();
-    for (final BatchRequestPart part : requestParts) {
-      responseParts.add(facade.handleBatchRequest(part));
-    }
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
-    final InputStream responseContent = odata.createFixedFormatSerializer().batchResponse(responseParts,
-        responseBoundary);
+    final InputStream responseContent;
+    try {
+      final List<ODataResponsePart> responseParts;
+      if (isParallelProcessingPossible()) {
+        responseParts = handleBatchRequestsParallel(facade, requestParts);
+      } else {
+        responseParts = new ArrayList<>();
+        for (final BatchRequestPart part : requestParts) {
+          responseParts.add(handleBatchRequest(facade, part));
+        }
+      }
+      responseContent = odata.createFixedFormatSerializer().batchResponse(responseParts, responseBoundary);
+    } finally {
+      closeWorkerEntityManagers();
+    }
 
     response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.MULTIPART_MIXED + ";boundary=" + responseBoundary);
     response.setContent(responseContent);
@@ -97,6 +147,11 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
    * This requires that the batch processor can create transactions. To do so it takes an instance of
    * {@link JPAODataTransactionFactory } from the request context and requests a new transaction. In case this is not
    * possible a exception with http status code 501 <i>Not Implemented</i> will be raised.
+   * <p>
+   * In case of deferred flush, the changes of one entity set are processed one after the other, provided that the
+   * change set contains only creates and updates of entities addressed directly by their entity set and no request
+   * references the Content-ID of another one. The entity sets are processed in order of their first request, the
+   * requests of an entity set keep their order. The responses are returned in the order of the requests.
    */
   @Override
   public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests)
@@ -106,13 +161,19 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
      * to the other processor interfaces.
      */
     final int handle = requestContext.getDebugger().startRuntimeMeasurement(this, "processChangeSet");
-    final List<ODataResponse> responses = new ArrayList<>();
+    final ODataResponse[] responses = new ODataResponse[requests.size()];
     try {
       final JPAODataTransaction t = requestContext.getTransactionFactory().createTransaction();
+      final FlushModeType flushMode = requestContext.getEntityManager().getFlushMode();
+      final Set<String> referencedContentIds = determineReferencedContentIds(requests);
+      final Optional<JPADeferredResponses> deferredResponses = startDeferredFlush(referencedContentIds);
+      final Optional<JPAResultCacheInvalidations> invalidations = startCollectInvalidations();
       try {
-        for (final ODataRequest request : requests) {
+        for (final int index : determineProcessingOrder(requests, deferredResponses.isPresent()
+            && referencedContentIds.isEmpty())) {
+          final ODataRequest request = requests.get(index);
           // Actual request dispatching to the other processor interfaces.
-          final ODataResponse response = facade.handleODataRequest(request);
+          final ODataResponse response = handleODataRequest(facade, request);
 
           // Determine if an error occurred while executing the request.
           // Exceptions thrown by the processors get caught and result in
@@ -121,7 +182,7 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
           if (statusCode < 400) {
             // The request has been executed successfully. Return the
             // response as a part of the change set
-            responses.add(response);
+            responses[index] = response;
           } else {
             t.rollback();
             /*
@@ -150,9 +211,15 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
           }
         }
         requestContext.getCUDRequestHandler().validateChanges(requestContext.getEntityManager());
+        if (deferredResponses.isPresent()) {
+          requestContext.getEntityManager().flush();
+          deferredResponses.get().createResponses();
+        }
         t.commit();
+        if (invalidations.isPresent())
+          invalidations.get().invalidate(serviceContext.getResultCache().get()); // NOSONAR checked on start
         requestContext.getDebugger().stopRuntimeMeasurement(handle);
-        return new ODataResponsePart(responses, true);
+        return new ODataResponsePart(Arrays.asList(responses), true);
       } catch (ODataApplicationException e) {
         t.rollback();
         requestContext.getDebugger().stopRuntimeMeasurement(handle);
@@ -170,10 +237,269 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
         }
         requestContext.getDebugger().stopRuntimeMeasurement(handle);
         throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      } catch (OptimisticLockException e) {
+        // Flush of a change set with deferred flush
+        t.rollback();
+        requestContext.getDebugger().stopRuntimeMeasurement(handle);
+        throw new ODataJPAProcessorException(e, HttpStatusCode.PRECONDITION_FAILED);
+      } catch (PersistenceException e) {
+        t.rollback();
+        requestContext.getDebugger().stopRuntimeMeasurement(handle);
+        throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      } finally {
+        if (deferredResponses.isPresent())
+          stopDeferredFlush(flushMode);
+        if (invalidations.isPresent())
+          ((JPAODataRequestContextImpl) requestContext).setResultCacheInvalidations(null);
       }
     } catch (ODataJPATransactionException e) {
       throw new ODataJPAProcessorException(e, HttpStatusCode.NOT_IMPLEMENTED);
     }
   }
+
+  /**
+   * Olingo rejects set-based changes, so they are executed by {@link JPAODataSetBasedChangeProcessor}. All other parts
+   * are handed over to Olingo.
+   */
+  private ODataResponsePart handleBatchRequest(final BatchFacade facade, final BatchRequestPart part)
+      throws ODataApplicationException, ODataLibraryException {
+    if (!part.isChangeSet() && part.getRequests().size() == 1) {
+      final ODataRequest request = part.getRequests().get(0);
+      final Optional<UriInfo> uriInfo = parseSetBasedChange(request);
+      if (uriInfo.isPresent())
+        return new ODataResponsePart(processSetBasedChange(request, uriInfo.get()), false);
+    }
+    return facade.handleBatchRequest(part);
+  }
+
+  private ODataResponse handleODataRequest(final BatchFacade facade, final ODataRequest request)
+      throws ODataApplicationException, ODataLibraryException {
+    final Optional<UriInfo> uriInfo = parseSetBasedChange(request);
+    if (uriInfo.isPresent())
+      return processSetBasedChange(request, uriInfo.get());
+    return facade.handleODataRequest(request);
+  }
+
+  private Optional<UriInfo> parseSetBasedChange(final ODataRequest request) {
+    if (serviceContext == null || serviceMetadata == null)
+      return Optional.empty();
+    return new JPAODataSetBasedChangeProcessor(odata, serviceMetadata, serviceContext, requestContext).parse(request);
+  }
+
+  private ODataResponse processSetBasedChange(final ODataRequest request, final UriInfo uriInfo) {
+    final ODataResponse response = new JPAODataSetBasedChangeProcessor(odata, serviceMetadata, serviceContext,
+        requestContext).process(request, uriInfo);
+    final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
+    if (contentId != null)
+      response.setHeader(HttpHeader.CONTENT_ID, contentId);
+    return response;
+  }
+
+  private Optional<JPADeferredResponses> startDeferredFlush(final Set<String> referencedContentIds) {
+    if (serviceContext != null && serviceContext.useDeferredFlush()
+        && requestContext instanceof JPAODataRequestContextImpl) {
+      final JPADeferredResponses deferredResponses = new JPADeferredResponses(referencedContentIds);
+      ((JPAODataRequestContextImpl) requestContext).setDeferredResponses(deferredResponses);
+      requestContext.getEntityManager().setFlushMode(FlushModeType.COMMIT);
+      return Optional.of(deferredResponses);
+    }
+    return Optional.empty();
+  }
+
+  private Optional<JPAResultCacheInvalidations> startCollectInvalidations() {
+    if (serviceContext != null && serviceContext.getResultCache().isPresent()
+        && requestContext instanceof JPAODataRequestContextImpl) {
+      final JPAResultCacheInvalidations invalidations = new JPAResultCacheInvalidations();
+      ((JPAODataRequestContextImpl) requestContext).setResultCacheInvalidations(invalidations);
+      return Optional.of(invalidations);
+    }
+    return Optional.empty();
+  }
+
+  private void stopDeferredFlush(final FlushModeType flushMode) {
+    ((JPAODataRequestContextImpl) requestContext).setDeferredResponses(null);
+    requestContext.getEntityManager().setFlushMode(flushMode);
+  }
+
+  private boolean isParallelProcessingPossible() {
+    return serviceContext != null
+        && serviceContext.getBatchExecutor().isPresent()
+        && serviceContext.getEntityManagerFactory().isPresent()
+        && serviceContext.getMaxParallelBatchRequests() > 1;
+  }
+
+  /**
+   * Collects consecutive independent read requests and processes them together. A change set or a dependent request
+   * ends such a group, so that it sees the same data as in case of sequential processing.
+   */
+  private List<ODataResponsePart> handleBatchRequestsParallel(final BatchFacade facade,
+      final List<BatchRequestPart> requestParts) throws ODataApplicationException, ODataLibraryException {
+
+    final ODataResponsePart[] responseParts = new ODataResponsePart[requestParts.size()];
+    final Set<String> contentIds = new HashSet<>();
+    final Queue<Integer> readGroup = new ConcurrentLinkedQueue<>();
+    for (int i = 0; i < requestParts.size(); i++) {
+      final BatchRequestPart part = requestParts.get(i);
+      if (isIndependentRead(part, contentIds)) {
+        readGroup.add(i);
+      } else {
+        handleReadGroup(facade, requestParts, readGroup, responseParts);
+        responseParts[i] = handleBatchRequest(facade, part);
+      }
+      for (final ODataRequest request : part.getRequests()) {
+        final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
+        if (contentId != null)
+          contentIds.add(contentId);
+      }
+    }
+    handleReadGroup(facade, requestParts, readGroup, responseParts);
+    return Arrays.asList(responseParts);
+  }
+
+  private boolean isIndependentRead(final BatchRequestPart part, final Set<String> contentIds) {
+    if (part.isChangeSet() || part.getRequests().size() != 1)
+      return false;
+    final ODataRequest request = part.getRequests().get(0);
+    return request.getMethod() == HttpMethod.GET && !referencesContentId(request, contentIds);
+  }
+
+  private boolean referencesContentId(final ODataRequest request, final Set<String> contentIds) {
+    final String firstSegment = getFirstSegment(request);
+    return firstSegment.startsWith(CONTENT_ID_PREFIX)
+        && contentIds.contains(firstSegment.substring(CONTENT_ID_PREFIX.length()));
+  }
+
+  private Set<String> determineReferencedContentIds(final List<ODataRequest> requests) {
+    final Set<String> referencedContentIds = new HashSet<>();
+    for (final ODataRequest request : requests) {
+      final String firstSegment = getFirstSegment(request);
+      if (firstSegment.startsWith(CONTENT_ID_PREFIX))
+        referencedContentIds.add(firstSegment.substring(CONTENT_ID_PREFIX.length()));
+    }
+    return referencedContentIds;
+  }
+
+  /**
+   * @return Indexes of the requests in the order they shall be processed. If grouping is requested and possible, the
+   * requests are grouped by their entity set.
+   */
+  private List<Integer> determineProcessingOrder(final List<ODataRequest> requests, final boolean group) {
+    final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < requests.size(); i++) {
+      final String entitySet = group ? getModifiedEntitySet(requests.get(i)) : null;
+      if (entitySet == null) {
+        groups.clear();
+        break;
+      }
+      groups.computeIfAbsent(entitySet, k -> new ArrayList<>()).add(i);
+    }
+    final List<Integer> order = new ArrayList<>(requests.size());
+    if (groups.isEmpty()) {
+      for (int i = 0; i < requests.size(); i++)
+        order.add(i);
+    } else {
+      groups.values().forEach(order::addAll);
+    }
+    return order;
+  }
+
+  /**
+   * @return Name of the entity set of a create or update, which addresses the entity set or an entity directly.
+   * Otherwise null.
+   */
+  private String getModifiedEntitySet(final ODataRequest request) {
+    final HttpMethod method = request.getMethod();
+    if (method != HttpMethod.POST && method != HttpMethod.PATCH && method != HttpMethod.PUT
+        && method != HttpMethod.MERGE)
+      return null;
+    final String path = request.getRawODataPath();
+    if (path == null || path.replaceFirst("^/", "").contains("/") || parseSetBasedChange(request).isPresent())
+      return null;
+    final String entitySet = getFirstSegment(request).split("\\(", 2)[0];
+    return isEntitySet(entitySet) ? entitySet : null;
+  }
+
+  private boolean isEntitySet(final String name) {
+    return !name.isEmpty()
+        && serviceMetadata != null
+        && serviceMetadata.getEdm() != null
+        && serviceMetadata.getEdm().getEntityContainer() != null
+        && serviceMetadata.getEdm().getEntityContainer().getEntitySet(name) != null;
+  }
+
+  private String getFirstSegment(final ODataRequest request) {
+    final String path = request.getRawODataPath();
+    if (path == null)
+      return "";
+    return path.replaceFirst("^/", "").split("/", 2)[0];
+  }
+
+  /**
+   * The request thread works on the group together with up to <i>max parallel batch requests - 1</i> workers of the
+   * batch executor. The request thread uses the facade, the workers their own handler.
+   */
+  private void handleReadGroup(final BatchFacade facade, final List<BatchRequestPart> requestParts,
+      final Queue<Integer> readGroup, final ODataResponsePart[] responseParts) throws ODataApplicationException,
+      ODataLibraryException {
+
+    if (readGroup.size() <= 1) {
+      final Integer index = readGroup.poll();
+      if (index != null)
+        responseParts[index] = facade.handleBatchRequest(requestParts.get(index));
+      return;
+    }
+    final ExecutorService executor = serviceContext.getBatchExecutor().get(); // NOSONAR checked before
+    final int noWorkers = Math.min(serviceContext.getMaxParallelBatchRequests(), readGroup.size()) - 1;
+    final JPAParallelTasks<Void> workers = new JPAParallelTasks<>(executor, BATCH_PARALLEL_EXECUTION_ERROR);
+    try {
+      for (int i = 0; i < noWorkers; i++)
+        workers.submit(() -> handleReadRequests(requestParts, readGroup, responseParts));
+      Integer index;
+      while ((index = readGroup.poll()) != null)
+        responseParts[index] = facade.handleBatchRequest(requestParts.get(index));
+      workers.join();
+    } catch (RejectedExecutionException e) {
+      throw new ODataJPAProcessorException(BATCH_PARALLEL_EXECUTION_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      // In case of an error the remaining workers shall not start new requests
+      readGroup.clear();
+      workers.cancel();
+    }
+  }
+
+  private Void handleReadRequests(final List<BatchRequestPart> requestParts, final Queue<Integer> readGroup,
+      final ODataResponsePart[] responseParts) throws ODataException {
+
+    Integer index;
+    while ((index = readGroup.poll()) != null)
+      responseParts[index] = handleReadRequest(requestParts.get(index).getRequests().get(0));
+    return null;
+  }
+
+  /**
+   * The entity manager of the worker stays open, as a streamed response reads its rows not before the batch response
+   * gets serialized. It is closed by {@link #closeWorkerEntityManagers()}.
+   */
+  private ODataResponsePart handleReadRequest(final ODataRequest request) throws ODataException {
+    final EntityManager em = serviceContext.getEntityManagerFactory().get().createEntityManager(); // NOSONAR
+    workerEntityManagers.add(em);
+    final JPAODataRequestContextImpl workerContext = new JPAODataRequestContextImpl(null, requestContext);
+    workerContext.setEntityManager(em);
+    final ODataHandler handler = odata.createRawHandler(serviceMetadata);
+    JPAODataGetHandler.registerProcessors(handler, serviceContext, workerContext, serviceMetadata);
+    final ODataResponse response = handler.process(request);
+    final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
+    if (contentId != null)
+      response.setHeader(HttpHeader.CONTENT_ID, contentId);
+    return new ODataResponsePart(response, false);
+  }
+
+  private void closeWorkerEntityManagers() {
+    EntityManager em;
+    while ((em = workerEntityManagers.poll()) != null) {
+      if (em.isOpen())
+        em.close();
+    }
+  }
 }
 
@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.processor.core.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import javax.persistence.EntityManagerFactory;
 
@@ -12,6 +13,7 @@ import org.apache.olingo.server.api.processor.ErrorProcessor;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryShapeCache;
 
 /**
  * 
@@ -68,4 +70,143 @@ public interface JPAODataCRUDContextAccess {
   public default String getMappingPath() {
     return "";
   }
+
+  /**
+   * Executor used to run independent queries of one request concurrently, e.g. the queries for the $expand items and
+   * collection properties of one level. Each of these queries gets its own entity manager created via
+   * {@link #getEntityManagerFactory()}, so parallel execution requires an entity manager factory.
+   * @return
+   */
+  public default Optional<ExecutorService> getQueryExecutor() {
+    return Optional.empty();
+  }
+
+  /**
+   * Maximum number of queries of one request that run at the same time on the {@link #getQueryExecutor() query
+   * executor}, including the request thread.
+   * @return
+   */
+  public default int getMaxParallelQueries() {
+    return 1;
+  }
+
+  /**
+   * If <code>true</code> entity collections are serialized as stream. The entities are created from the query result
+   * one after the other while the response is written, instead of creating all of them before the serialization
+   * starts.
+   * @return
+   */
+  public default boolean useStreamingSerialization() {
+    return false;
+  }
+
+  /**
+   * Number of rows read from the database at once in case of a {@link #useStreamingSerialization() streaming
+   * serialization}. A value of 0 or less means that the complete result is read at once.
+   * @return
+   */
+  public default int getStreamingChunkSize() {
+    return 0;
+  }
+
+  /**
+   * If <code>true</code> the number of results requested via <code>$count=true</code> is determined on the
+   * {@link #getQueryExecutor() query executor} with its own entity manager, while the request thread reads the
+   * result. Requires a query executor and an entity manager factory, otherwise the count is determined afterwards.
+   * @return
+   */
+  public default boolean useAsyncCount() {
+    return false;
+  }
+
+  /**
+   * Cache for the responses of read requests. If no cache is provided, all read requests access the database.
+   * @return
+   */
+  public default Optional<JPAODataResultCache> getResultCache() {
+    return Optional.empty();
+  }
+
+  /**
+   * Decides which $expand items are read together with their parent by one query.
+   * @return
+   */
+  public default JPAODataExpandStrategy getExpandStrategy() {
+    return JPAODataExpandStrategy.ANNOTATED;
+  }
+
+  /**
+   * Maximum number of parent entities, whose keys are used to restrict the queries of $expand items and collection
+   * properties. Up to this number the keys of the parents are given as IN lists, instead of repeating the restrictions
+   * of the parent query. For larger results or if 0 is returned, the restrictions of the parent query are repeated.
+   * @return
+   */
+  public default int getMaxExpandKeys() {
+    return 0;
+  }
+
+  /**
+   * Maximum number of keys per IN list, see {@link #getMaxExpandKeys()}. Larger key lists are split into multiple IN
+   * lists combined by OR.
+   * @return
+   */
+  public default int getExpandKeyChunkSize() {
+    return 500;
+  }
+
+  /**
+   * Executor that processes the read requests of a $batch request, which are not part of a change set, in parallel.
+   * Each of these requests gets its own entity manager created via {@link #getEntityManagerFactory()}, so parallel
+   * processing requires an entity manager factory.
+   * @return
+   */
+  public default Optional<ExecutorService> getBatchExecutor() {
+    return Optional.empty();
+  }
+
+  /**
+   * Maximum number of read requests of one $batch request that are processed at the same time on the
+   * {@link #getBatchExecutor() batch executor}, including the request thread.
+   * @return
+   */
+  public default int getMaxParallelBatchRequests() {
+    return 1;
+  }
+
+  /**
+   * If <code>true</code> the changes of a change set are flushed once after
+   * {@link JPACUDRequestHandler#validateChanges(javax.persistence.EntityManager) validateChanges} and the responses
+   * of its requests are created afterwards. Till then the flush mode of the entity manager is set to
+   * {@link javax.persistence.FlushModeType#COMMIT COMMIT}, so the JPA provider can write the changes in JDBC batches.
+   * @return
+   */
+  public default boolean useDeferredFlush() {
+    return false;
+  }
+
+  /**
+   * Number of entities of a bulk create request that are handed over together to
+   * {@link JPACUDRequestHandler#createEntities(java.util.List, javax.persistence.EntityManager) createEntities}.
+   * @return
+   */
+  public default int getBulkCreateChunkSize() {
+    return 100;
+  }
+
+  /**
+   * Cache for the queries compiled by the JPA provider. Read requests that only differ by the values of their $filter
+   * literals and key predicates reuse the query compiled for the first request of this shape.
+   * @return
+   */
+  public default Optional<JPAQueryShapeCache> getQueryShapeCache() {
+    return Optional.empty();
+  }
+
+  /**
+   * Releases the resources held by the service context, like the thread pools created for it. Shall be called when the
+   * service is stopped, e.g. on undeploy of the application.
+   */
+  public default void close() {
+    // Nothing to release by default
+  }
 }
@@ -0,0 +1,36 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialized response of a read request kept in a {@link JPAODataResultCache}.
+ */
+public final class JPAODataCachedResult {
+  private final int statusCode;
+  private final Map<String, List<String>> headers;
+  private final byte[] content;
+
+  public JPAODataCachedResult(final int statusCode, final Map<String, List<String>> headers, final byte[] content) {
+    super();
+    this.statusCode = statusCode;
+    this.headers = Collections.unmodifiableMap(headers);
+    this.content = content;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * @return The response body. The array is shared, so it must not be changed.
+   */
+  public byte[] getContent() { // NOSONAR the content is not copied to save memory and time
+    return content;
+  }
+}
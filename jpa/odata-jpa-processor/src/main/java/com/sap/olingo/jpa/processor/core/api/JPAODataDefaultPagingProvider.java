@@ -0,0 +1,298 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.AliasQueryOption;
+
+import com.sap.olingo.jpa.processor.core.query.JPACountQuery;
+
+/**
+ * Paging provider for server-driven paging. Entity sets are paged if a maximum page size is given for them or a
+ * default maximum page size is set. Requests for smaller pages via <code>odata.maxpagesize</code> are respected.<p>
+ * The pages are kept in a {@link JPAODataSkiptokenStore}. If none is provided, a
+ * {@link JPAODataDefaultSkiptokenStore} with {@value #DEFAULT_MAX_STORED_PAGES} pages and a time to live of
+ * {@value #DEFAULT_TIME_TO_LIVE} milliseconds is used, so the memory consumption is bounded.<p>
+ * Optionally the result of the count query, which is needed to decide if a next page exists, can be cached per query
+ * shape. A cached count is only used as a hint: it is checked by executing the count query again when the second
+ * page is requested. Instances are created via {@link #with()}.
+ */
+public class JPAODataDefaultPagingProvider implements JPAODataPagingProvider {
+  public static final int DEFAULT_MAX_STORED_PAGES = 1000;
+  public static final long DEFAULT_TIME_TO_LIVE = 15 * 60 * 1000L;
+
+  private final Map<String, Integer> maxPageSizes;
+  private final Integer defaultMaxPageSize;
+  private final JPAODataSkiptokenStore store;
+  private final Optional<JPAExpiringLruMap<String, Long>> countCache;
+  private final boolean keysetPaging;
+
+  public static Builder with() {
+    return new Builder();
+  }
+
+  JPAODataDefaultPagingProvider(final Map<String, Integer> maxPageSizes, @Nullable final Integer defaultMaxPageSize,
+      final JPAODataSkiptokenStore store, final Optional<JPAExpiringLruMap<String, Long>> countCache,
+      final boolean keysetPaging) {
+    super();
+    this.maxPageSizes = Collections.unmodifiableMap(new HashMap<>(maxPageSizes));
+    this.defaultMaxPageSize = defaultMaxPageSize;
+    this.store = store;
+    this.countCache = countCache;
+    this.keysetPaging = keysetPaging;
+  }
+
+  @Override
+  public JPAODataPage getNextPage(final String skiptoken) {
+    final Optional<JPAODataSkiptokenEntry> previousEntry = store.get(skiptoken.replaceAll("'", ""));
+    if (previousEntry.isPresent())
+      return createNextPage(previousEntry.get(), previousEntry.get().getCount(), previousEntry.get()
+          .isCountEstimated());
+    // skiptoken not found => let JPA Processor handle this
+    return null;
+  }
+
+  /**
+   * In case the count of the first page was taken from the count cache, it is only used as a hint. It is determined
+   * again when the second page is requested, so that neither entities are cut off if the number has grown meanwhile nor
+   * links to empty pages are created if it has shrunk.
+   */
+  @Override
+  public JPAODataPage getNextPage(final String skiptoken, final Function<UriInfo, JPACountQuery> countQueryFactory)
+      throws ODataApplicationException {
+    final Optional<JPAODataSkiptokenEntry> previousEntry = store.get(skiptoken.replaceAll("'", ""));
+    if (previousEntry.isPresent()) {
+      final JPAODataSkiptokenEntry entry = previousEntry.get();
+      if (entry.isCountEstimated())
+        return createNextPage(entry, countQueryFactory.apply(entry.getPage().getUriInfo()).countResults(), false);
+      return createNextPage(entry, entry.getCount(), false);
+    }
+    // skiptoken not found => let JPA Processor handle this
+    return null;
+  }
+
+  @Override
+  public JPAODataPage getFirstPage(final UriInfo uriInfo, final Integer preferedPageSize,
+      final JPACountQuery countQuery, final EntityManager em) throws ODataApplicationException {
+    return getFirstPage(uriInfo, preferedPageSize, countQuery, em, Collections.emptyMap(), Collections.emptyList());
+  }
+
+  @Override
+  public JPAODataPage getFirstPage(final UriInfo uriInfo, final Integer preferedPageSize,
+      final JPACountQuery countQuery, final EntityManager em, final Map<String, List<JPAClaimsPair<?>>> claims,
+      final List<String> groups) throws ODataApplicationException {
+
+    final UriResource root = uriInfo.getUriResourceParts().get(0);
+    if (root instanceof UriResourceEntitySet) {
+      final String entitySetName = ((UriResourceEntitySet) root).getEntitySet().getName();
+      final Integer maxSize = maxPageSizes.getOrDefault(entitySetName, defaultMaxPageSize);
+      if (maxSize != null) {
+        final int skipValue = uriInfo.getSkipOption() != null ? uriInfo.getSkipOption().getValue() : 0;
+        final Integer topValue = uriInfo.getTopOption() != null ? uriInfo.getTopOption().getValue() : null;
+        final int size = preferedPageSize != null && preferedPageSize < maxSize ? preferedPageSize : maxSize;
+        final Long cachedCount = topValue == null ? getCachedCount(uriInfo, claims, groups) : null;
+        // A cached count is only a hint. It is used only if there is a following page anyhow
+        final boolean countEstimated = cachedCount != null && size < cachedCount;
+        final long count = topValue != null ? (topValue + skipValue)
+            : countEstimated ? cachedCount : countResults(uriInfo, claims, groups, countQuery);
+        String skiptoken = null;
+        if (size < count)
+          skiptoken = UUID.randomUUID().toString();
+        final JPAODataPage page = createPage(uriInfo, skipValue, topValue != null && topValue < size ? topValue
+            : size, skiptoken, null);
+        if (skiptoken != null)
+          storePage(skiptoken, page, count, countEstimated);
+        return page;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * An estimated count is not used to reduce the size of the last page, so a grown result is not cut off.
+   */
+  private JPAODataPage createNextPage(final JPAODataSkiptokenEntry previousEntry, final long count,
+      final boolean countEstimated) {
+    final JPAODataPage previousPage = previousEntry.getPage();
+    final int skip = previousPage.getSkip() + previousPage.getTop();
+    String nextToken = null;
+    if (skip + previousPage.getTop() < count)
+      nextToken = UUID.randomUUID().toString();
+    final int top = (int) (skip + previousPage.getTop() < count || countEstimated ? previousPage.getTop()
+        : Math.max(0, count - skip));
+    final JPAODataPage page = createPage(previousPage.getUriInfo(), skip, top, nextToken, previousPage);
+    if (nextToken != null)
+      storePage(nextToken, page, count, countEstimated);
+    return page;
+  }
+
+  /**
+   * The last values of a keyset page are set after the page has been read. A store that does not keep the page
+   * instance, e.g. because it serializes the page, needs to get the page again to be able to create the next page.
+   */
+  private void storePage(final String skiptoken, final JPAODataPage page, final long count,
+      final boolean countEstimated) {
+    if (page instanceof JPAODataKeysetPage)
+      ((JPAODataKeysetPage) page).setLastValuesListener(p -> store.put(skiptoken, new JPAODataSkiptokenEntry(p,
+          count, countEstimated)));
+    store.put(skiptoken, new JPAODataSkiptokenEntry(page, count, countEstimated));
+  }
+
+  private JPAODataPage createPage(final UriInfo uriInfo, final int skip, final int top, final String skiptoken,
+      @Nullable final JPAODataPage previousPage) {
+
+    if (keysetPaging)
+      return new JPAODataKeysetPage(uriInfo, skip, top, skiptoken, previousPage instanceof JPAODataKeysetPage
+          ? ((JPAODataKeysetPage) previousPage).getLastValues() : null);
+    return new JPAODataPage(uriInfo, skip, top, skiptoken);
+  }
+
+  @Nullable
+  private Long getCachedCount(final UriInfo uriInfo, final Map<String, List<JPAClaimsPair<?>>> claims,
+      final List<String> groups) {
+    return countCache.isPresent() ? countCache.get().get(buildQueryShape(uriInfo, claims, groups)) : null;
+  }
+
+  private long countResults(final UriInfo uriInfo, final Map<String, List<JPAClaimsPair<?>>> claims,
+      final List<String> groups, final JPACountQuery countQuery) throws ODataApplicationException {
+
+    final Long count = countQuery.countResults();
+    if (countCache.isPresent())
+      countCache.get().put(buildQueryShape(uriInfo, claims, groups), count);
+    return count;
+  }
+
+  /**
+   * The count depends on the resource path including the keys, $apply, $filter, $search, the values of parameter
+   * aliases as well as on the claims and field groups of the user
+   */
+  private String buildQueryShape(final UriInfo uriInfo, final Map<String, List<JPAClaimsPair<?>>> claims,
+      final List<String> groups) {
+    final StringBuilder shape = new StringBuilder();
+    for (final UriResource resourcePart : uriInfo.getUriResourceParts()) {
+      shape.append('/').append(resourcePart.getSegmentValue());
+      if (resourcePart instanceof UriResourceEntitySet)
+        appendKeys(shape, ((UriResourceEntitySet) resourcePart).getKeyPredicates());
+      else if (resourcePart instanceof UriResourceNavigation)
+        appendKeys(shape, ((UriResourceNavigation) resourcePart).getKeyPredicates());
+    }
+    if (uriInfo.getApplyOption() != null)
+      shape.append("?$apply=").append(uriInfo.getApplyOption().getText());
+    if (uriInfo.getFilterOption() != null)
+      shape.append("?$filter=").append(uriInfo.getFilterOption().getText());
+    if (uriInfo.getSearchOption() != null)
+      shape.append("?$search=").append(uriInfo.getSearchOption().getText());
+    for (final AliasQueryOption alias : uriInfo.getAliases())
+      shape.append('?').append(alias.getName()).append('=').append(alias.getText());
+    for (final Entry<String, List<JPAClaimsPair<?>>> claim : new TreeMap<>(claims).entrySet())
+      shape.append("#claim:").append(claim.getKey()).append('=').append(claim.getValue());
+    if (groups != null && !groups.isEmpty()) {
+      final List<String> sortedGroups = new ArrayList<>(groups);
+      Collections.sort(sortedGroups);
+      shape.append("#groups:").append(sortedGroups);
+    }
+    return shape.toString();
+  }
+
+  private void appendKeys(final StringBuilder shape, final List<UriParameter> keys) {
+    if (keys != null && !keys.isEmpty()) {
+      shape.append('(');
+      for (final UriParameter key : keys)
+        shape.append(key.getName()).append('=').append(key.getText()).append(',');
+      shape.append(')');
+    }
+  }
+
+  public static class Builder {
+    private final Map<String, Integer> maxPageSizes = new HashMap<>();
+    private Integer defaultMaxPageSize;
+    private JPAODataSkiptokenStore store;
+    private Optional<JPAExpiringLruMap<String, Long>> countCache = Optional.empty();
+    private boolean keysetPaging;
+
+    private Builder() {
+      super();
+    }
+
+    public JPAODataDefaultPagingProvider build() {
+      if (store == null)
+        store = new JPAODataDefaultSkiptokenStore(DEFAULT_MAX_STORED_PAGES, DEFAULT_TIME_TO_LIVE);
+      return new JPAODataDefaultPagingProvider(maxPageSizes, defaultMaxPageSize, store, countCache, keysetPaging);
+    }
+
+    /**
+     * Maximum page size of all entity sets, for which no specific page size is given. If not set, only entity sets with
+     * a specific page size are paged.
+     * @param maxPageSize
+     * @return
+     */
+    public Builder setMaxPageSize(final int maxPageSize) {
+      this.defaultMaxPageSize = maxPageSize;
+      return this;
+    }
+
+    /**
+     * Maximum page size of an entity set
+     * @param entitySetName External name of the entity set
+     * @param maxPageSize
+     * @return
+     */
+    public Builder setMaxPageSize(final String entitySetName, final int maxPageSize) {
+      this.maxPageSizes.put(entitySetName, maxPageSize);
+      return this;
+    }
+
+    /**
+     * Set a custom store for the pages, e.g. to share them between several nodes. If non is provided
+     * {@link JPAODataDefaultSkiptokenStore} is used.
+     * @param store
+     * @return
+     */
+    public Builder setSkiptokenStore(final JPAODataSkiptokenStore store) {
+      this.store = store;
+      return this;
+    }
+
+    /**
+     * Caches the result of the count query per query shape, that is resource path, $apply, $filter, $search, parameter
+     * aliases as well as claims and field groups of the request. So the count query does not need to be executed for
+     * each first page. As the cached count is only used as hint, which is checked when the second page is requested,
+     * changes of the data do not cut off the result.
+     * @param maxEntries Maximum number of cached counts
+     * @param timeToLive Time in milliseconds a count is valid
+     * @return
+     */
+    public Builder setCountCache(final int maxEntries, final long timeToLive) {
+      this.countCache = Optional.of(new JPAExpiringLruMap<>(maxEntries, timeToLive, System::currentTimeMillis));
+      return this;
+    }
+
+    /**
+     * Creates {@link JPAODataKeysetPage}s, so that the following pages are read behind the last row of the previous
+     * page instead of skipping the rows of all previous pages.
+     * @param keysetPaging
+     * @return
+     */
+    public Builder setKeysetPaging(final boolean keysetPaging) {
+      this.keysetPaging = keysetPaging;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+
+/**
+ * Size bounded result cache. In case the maximum number of entries is reached, the least recently used entry is
+ * removed. Entries expire after a given time to live, so also changes made by other applications become visible.
+ */
+public class JPAODataDefaultResultCache implements JPAODataResultCache {
+  private final long timeToLive;
+  private final LongSupplier clock;
+  private final Map<JPAODataResultCacheKey, CacheEntry> entries;
+  private final Map<FullQualifiedName, Long> lastInvalidation = new HashMap<>();
+
+  /**
+   * @param maxEntries Maximum number of cached responses
+   * @param timeToLive Time in milliseconds a cached response is valid
+   */
+  public JPAODataDefaultResultCache(final int maxEntries, final long timeToLive) {
+    this(maxEntries, timeToLive, System::currentTimeMillis);
+  }
+
+  JPAODataDefaultResultCache(final int maxEntries, final long timeToLive, final LongSupplier clock) {
+    super();
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<JPAODataResultCacheKey, CacheEntry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<JPAODataResultCacheKey, CacheEntry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public synchronized Optional<JPAODataCachedResult> get(final JPAODataResultCacheKey key) {
+    final CacheEntry entry = entries.get(key);
+    if (entry == null)
+      return Optional.empty();
+    if (entry.expiresAt <= clock.getAsLong()) {
+      entries.remove(key);
+      return Optional.empty();
+    }
+    return Optional.of(entry.result);
+  }
+
+  @Override
+  public synchronized void put(final JPAODataResultCacheKey key, final JPAODataCachedResult result) {
+    for (final FullQualifiedName entityType : key.getEntityTypes()) {
+      final Long invalidated = lastInvalidation.get(entityType);
+      if (invalidated != null && invalidated - key.getCreationTime() >= 0)
+        return;
+    }
+    entries.put(key, new CacheEntry(result, clock.getAsLong() + timeToLive));
+  }
+
+  @Override
+  public synchronized void invalidate(final JPAEntityType entityType) {
+    final FullQualifiedName name = entityType.getExternalFQN();
+    lastInvalidation.put(name, clock.getAsLong());
+    entries.keySet().removeIf(key -> key.getEntityTypes().contains(name));
+  }
+
+  @Override
+  public long getTime() {
+    return clock.getAsLong();
+  }
+
+  /**
+   * @return Number of cached responses, including expired ones that have not been removed yet
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static class CacheEntry {
+    private final JPAODataCachedResult result;
+    private final long expiresAt;
+
+    private CacheEntry(final JPAODataCachedResult result, final long expiresAt) {
+      this.result = result;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
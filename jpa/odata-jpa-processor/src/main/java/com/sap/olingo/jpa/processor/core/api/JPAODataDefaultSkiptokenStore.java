@@ -0,0 +1,42 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Size bounded, in memory skiptoken store. In case the maximum number of pages is reached, the least recently used page
+ * is removed. Pages expire after a given time to live, so that clients that stop paging do not occupy memory.
+ */
+public class JPAODataDefaultSkiptokenStore implements JPAODataSkiptokenStore {
+  private final JPAExpiringLruMap<String, JPAODataSkiptokenEntry> entries;
+
+  /**
+   * @param maxEntries Maximum number of stored pages
+   * @param timeToLive Time in milliseconds a page can be requested
+   */
+  public JPAODataDefaultSkiptokenStore(final int maxEntries, final long timeToLive) {
+    this(maxEntries, timeToLive, System::currentTimeMillis);
+  }
+
+  JPAODataDefaultSkiptokenStore(final int maxEntries, final long timeToLive, final LongSupplier clock) {
+    super();
+    this.entries = new JPAExpiringLruMap<>(maxEntries, timeToLive, clock);
+  }
+
+  @Override
+  public void put(final String skiptoken, final JPAODataSkiptokenEntry entry) {
+    entries.put(skiptoken, entry);
+  }
+
+  @Override
+  public Optional<JPAODataSkiptokenEntry> get(final String skiptoken) {
+    return Optional.ofNullable(entries.get(skiptoken));
+  }
+
+  /**
+   * @return Number of stored pages, including expired ones that have not been removed yet
+   */
+  public int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,48 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.lang.reflect.Field;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmExpandJoin;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+
+/**
+ * Decides how the entities of an $expand are read. By default each $expand item is read by a separate query. A
+ * to-one association can instead be joined to the query of its parent, so parent and expanded entity are read by one
+ * query.<p>
+ * Only $expand items of the first level without $filter, $orderby, $top, $skip, $count and $levels are joined.
+ * Associations with join table, associations that are part of a complex type and associations to protected entities
+ * are always read by a separate query.
+ */
+@FunctionalInterface
+public interface JPAODataExpandStrategy {
+  /**
+   * Joins associations annotated with {@link EdmExpandJoin}. This is the default.
+   */
+  JPAODataExpandStrategy ANNOTATED = JPAODataExpandStrategy::isAnnotated;
+  /**
+   * Reads each $expand item by a separate query.
+   */
+  JPAODataExpandStrategy SEPARATE_QUERIES = association -> false;
+  /**
+   * Joins all to-one associations.
+   */
+  JPAODataExpandStrategy JOIN_TO_ONE = association -> !association.isCollection();
+
+  /**
+   * @param association
+   * @return <code>true</code> if the $expand of the association shall be joined to the parent query
+   */
+  boolean isJoined(final JPAAssociationPath association);
+
+  static boolean isAnnotated(final JPAAssociationPath association) {
+    Class<?> source = association.getSourceType().getTypeClass();
+    while (source != null) {
+      for (final Field field : source.getDeclaredFields()) {
+        if (field.getName().equals(association.getLeaf().getInternalName()))
+          return field.isAnnotationPresent(EdmExpandJoin.class);
+      }
+      source = source.getSuperclass();
+    }
+    return false;
+  }
+}
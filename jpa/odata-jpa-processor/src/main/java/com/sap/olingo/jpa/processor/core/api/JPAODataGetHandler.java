@@ -1,5 +1,6 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import javax.persistence.EntityManager;
@@ -11,12 +12,16 @@ import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 
 import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugSupport;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
 import com.sap.olingo.jpa.metadata.api.JPAEntityManagerFactory;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.processor.JPAODataRequestContextImpl;
 
 public class JPAODataGetHandler {
@@ -148,17 +153,35 @@ public class JPAODataGetHandler {
             ? serviceContext.getEdmProvider(requestContext.getEntityManager())
             : serviceContext.getEdmProvider();
 
-    final ODataHttpHandler handler = odata.createHandler(odata.createServiceMetadata(jpaEdm, jpaEdm.getReferences()));
+    final ServiceMetadata serviceMetadata = serviceContext.getServiceMetadata(odata, jpaEdm);
+    final ODataHttpHandler handler = odata.createHandler(serviceMetadata);
     serviceContext.getEdmProvider().setRequestLocales(request.getLocales());
     requestContext.setDebugFormat(request.getParameter(DebugSupport.ODATA_DEBUG_QUERY_PARAMETER));
     setCUDHandler();
+    if (processSetBasedChange(serviceMetadata, request, response))
+      return;
     final HttpServletRequest mappedRequest = prepareRequestMapping(request, serviceContext.getMappingPath());
     handler.register(requestContext.getDebugSupport());
+    registerProcessors(handler, serviceContext, requestContext, serviceMetadata);
+    handler.process(mappedRequest, response);
+  }
+
+  /**
+   * Registers the processors of a service at a handler. Used for the handler of a request as well as for the handlers
+   * of the workers reading the requests of a batch in parallel.
+   */
+  static void registerProcessors(final ODataHandler handler, final JPAODataCRUDContextAccess serviceContext,
+      final JPAODataRequestContextAccess requestContext, final ServiceMetadata serviceMetadata)
+      throws ODataException {
+
     handler.register(new JPAODataRequestProcessor(serviceContext, requestContext));
-    handler.register(new JPAODataBatchProcessor(requestContext));
-    handler.register(serviceContext.getEdmProvider().getServiceDocument());
+    handler.register(new JPAODataBatchProcessor(serviceContext, requestContext));
+    if (serviceContext.getEdmProvider() != null)
+      handler.register(serviceContext.getEdmProvider().getServiceDocument());
+    if (serviceContext instanceof JPAODataServiceContext)
+      handler.register(new JPAODataMetadataProcessor(((JPAODataServiceContext) serviceContext).getMetadataCache(
+          serviceMetadata)));
     handler.register(serviceContext.getErrorProcessor());
-    handler.process(mappedRequest, response);
   }
 
   private void setCUDHandler() {
@@ -166,6 +189,20 @@ public class JPAODataGetHandler {
       requestContext.setCUDRequestHandler(serviceContext.getCUDRequestHandler());
   }
 
+  /**
+   * Olingo rejects PATCH and DELETE on entity sets, so set-based changes are executed before the request is handed
+   * over to Olingo. See {@link JPAODataSetBasedChangeProcessor}.
+   */
+  private boolean processSetBasedChange(final ServiceMetadata serviceMetadata, final HttpServletRequest request,
+      final HttpServletResponse response) throws ODataException {
+    try {
+      return new JPAODataSetBasedChangeProcessor(odata, serviceMetadata, serviceContext, requestContext).process(
+          request, response, serviceContext.getMappingPath());
+    } catch (IOException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
   private HttpServletRequest prepareRequestMapping(final HttpServletRequest req, final String requestPath) {
     if (requestPath != null && !requestPath.isEmpty()) {
       HttpServletRequestWrapper request = new HttpServletRequestWrapper(req);
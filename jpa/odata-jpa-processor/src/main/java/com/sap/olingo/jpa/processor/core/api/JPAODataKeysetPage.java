@@ -0,0 +1,60 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.apache.olingo.server.api.uri.UriInfo;
+
+/**
+ * Page of a keyset (seek) based server-driven paging. Besides $skip and $top a keyset page carries the values of the
+ * $orderby properties and the key of the last row of the previous page, the seek values. If they are present, the query
+ * continues behind that row instead of skipping the rows of all previous pages.<p>
+ * The values are identified by the alias of the corresponding path. After the page has been read, the query provides
+ * the values of its last row, so they can be used to create the next page. In case the query was not able to use
+ * seek values, e.g. because an $orderby property is nullable, no last values are provided and the next page falls back
+ * to $skip.<p>
+ * As the last values are only known after the page has been stored in a {@link JPAODataSkiptokenStore}, the paging
+ * provider registers a listener, which stores the page again as soon as the last values are set.
+ */
+public class JPAODataKeysetPage extends JPAODataPage {
+  private final Map<String, Object> seekValues;
+  private volatile Map<String, Object> lastValues;
+  private Consumer<JPAODataKeysetPage> lastValuesListener;
+
+  public JPAODataKeysetPage(final UriInfo uriInfo, final int skip, final int top, final Object skiptoken,
+      @Nullable final Map<String, Object> seekValues) {
+    super(uriInfo, skip, top, skiptoken);
+    this.seekValues = seekValues == null ? Collections.emptyMap()
+        : Collections.unmodifiableMap(new HashMap<>(seekValues));
+  }
+
+  /**
+   * @return values of the last row of the previous page. Empty in case of the first page or if the previous page was not
+   * able to provide them.
+   */
+  public Map<String, Object> getSeekValues() {
+    return seekValues;
+  }
+
+  /**
+   * @return values of the last row of this page or null if the page has not been read yet
+   */
+  @Nullable
+  public Map<String, Object> getLastValues() {
+    return lastValues;
+  }
+
+  public void setLastValues(@Nullable final Map<String, Object> lastValues) {
+    this.lastValues = lastValues == null ? null : Collections.unmodifiableMap(new HashMap<>(lastValues));
+    if (lastValuesListener != null)
+      lastValuesListener.accept(this);
+  }
+
+  void setLastValuesListener(@Nullable final Consumer<JPAODataKeysetPage> lastValuesListener) {
+    this.lastValuesListener = lastValuesListener;
+  }
+}
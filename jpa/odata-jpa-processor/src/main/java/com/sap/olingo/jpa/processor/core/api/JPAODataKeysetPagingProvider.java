@@ -0,0 +1,35 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Paging provider that uses keyset (seek) based paging. Instead of skipping the rows of all previous pages, which
+ * makes the database read and discard them, the query of a following page continues behind the last row of the
+ * previous page. To do so the key attributes are added to the $orderby of the request.<p>
+ * The skiptoken is a random id. The seek values are kept on the server together with the page, so they can not be
+ * manipulated by the client. At most <code>bufferSize</code> pages are kept; the least recently used ones are evicted
+ * first. A request with an evicted skiptoken is handled like a request with an unknown one.<p>
+ * Keyset paging is only possible for simple, not nullable $orderby properties. In all other cases the pages are read
+ * using $skip.<p>
+ * For further options, like a time to live of the pages, use {@link JPAODataDefaultPagingProvider} with
+ * {@link JPAODataDefaultPagingProvider.Builder#setKeysetPaging(boolean)}.
+ */
+public class JPAODataKeysetPagingProvider extends JPAODataDefaultPagingProvider {
+  private static final int DEFAULT_BUFFER_SIZE = 100;
+
+  /**
+   * @param maxPageSizes Maximum page size per entity set. Entity sets without page size are not paged.
+   */
+  public JPAODataKeysetPagingProvider(final Map<String, Integer> maxPageSizes) {
+    this(maxPageSizes, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param maxPageSizes Maximum page size per entity set. Entity sets without page size are not paged.
+   * @param bufferSize Maximum number of pages kept to answer next link requests
+   */
+  public JPAODataKeysetPagingProvider(final Map<String, Integer> maxPageSizes, final int bufferSize) {
+    super(maxPageSizes, null, new JPAODataDefaultSkiptokenStore(bufferSize, Long.MAX_VALUE), Optional.empty(), true);
+  }
+}
@@ -0,0 +1,87 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the rendered $metadata and service documents of one service metadata instance. A document is rendered once per
+ * format and, in case of the service document, per base URI. Each document gets a strong ETag derived from its
+ * content, so all instances of a service provide the same ETag for the same metadata.<p>
+ * The base URI is taken from the request, e.g. from the Host header, so the number of service documents is limited.
+ * If the limit is reached, the least recently used service document is removed.
+ */
+final class JPAODataMetadataCache {
+  static final int MAX_SERVICE_DOCUMENTS = 16;
+  private final Map<String, Document> documents = new ConcurrentHashMap<>();
+  private final JPAExpiringLruMap<String, Document> serviceDocuments = new JPAExpiringLruMap<>(MAX_SERVICE_DOCUMENTS,
+      Long.MAX_VALUE, System::currentTimeMillis);
+
+  Document get(final String key) {
+    return documents.get(key);
+  }
+
+  /**
+   * Stores a rendered document. In case an other request has stored the document in between, the existing one is
+   * returned.
+   */
+  Document put(final String key, final byte[] content) {
+    final Document document = new Document(content);
+    final Document existing = documents.putIfAbsent(key, document);
+    return existing != null ? existing : document;
+  }
+
+  Document getServiceDocument(final String key) {
+    return serviceDocuments.get(key);
+  }
+
+  /**
+   * Stores a rendered service document. In case an other request has stored the document in between, the existing one
+   * is returned.
+   */
+  Document putServiceDocument(final String key, final byte[] content) {
+    synchronized (serviceDocuments) {
+      final Document existing = serviceDocuments.get(key);
+      if (existing != null)
+        return existing;
+      final Document document = new Document(content);
+      serviceDocuments.put(key, document);
+      return document;
+    }
+  }
+
+  int size() {
+    return documents.size() + serviceDocuments.size();
+  }
+
+  static final class Document {
+    private final byte[] content;
+    private final String etag;
+
+    private Document(final byte[] content) {
+      this.content = content;
+      this.etag = createEtag(content);
+    }
+
+    byte[] getContent() {
+      return content;
+    }
+
+    String getEtag() {
+      return etag;
+    }
+
+    private static String createEtag(final byte[] content) {
+      try {
+        final StringBuilder etag = new StringBuilder("\"");
+        for (final byte b : MessageDigest.getInstance("SHA-256").digest(content))
+          etag.append(String.format("%02x", b));
+        return etag.append('"').toString();
+      } catch (NoSuchAlgorithmException e) {
+        // Each Java platform has to support SHA-256
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.MetadataProcessor;
+import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+import com.sap.olingo.jpa.processor.core.api.JPAODataMetadataCache.Document;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
+
+/**
+ * Provides the $metadata and the service document from a {@link JPAODataMetadataCache}, so they are serialized only
+ * once per format. The responses carry an ETag and requests with a matching <code>If-None-Match</code> header are
+ * answered with <i>304 Not Modified</i>.
+ */
+public final class JPAODataMetadataProcessor implements MetadataProcessor, ServiceDocumentProcessor {
+  private static final String METADATA_KEY = "$metadata|";
+  private static final String SERVICE_DOCUMENT_KEY = "service|";
+  private final JPAODataMetadataCache cache;
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+
+  JPAODataMetadataProcessor(final JPAODataMetadataCache cache) {
+    super();
+    this.cache = cache;
+  }
+
+  @Override
+  public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+    this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
+  }
+
+  @Override
+  public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+
+    final String key = METADATA_KEY + responseFormat.toContentTypeString();
+    Document document = cache.get(key);
+    if (document == null)
+      document = cache.put(key, toByteArray(odata.createSerializer(responseFormat)
+          .metadataDocument(serviceMetadata).getContent()));
+    respond(request, response, document, responseFormat);
+  }
+
+  @Override
+  public void readServiceDocument(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+
+    // The service document contains the absolute URL of the $metadata
+    final String key = SERVICE_DOCUMENT_KEY + responseFormat.toContentTypeString() + "|" + request.getRawBaseUri();
+    Document document = cache.getServiceDocument(key);
+    if (document == null)
+      document = cache.putServiceDocument(key, toByteArray(odata.createSerializer(responseFormat)
+          .serviceDocument(serviceMetadata, request.getRawBaseUri()).getContent()));
+    respond(request, response, document, responseFormat);
+  }
+
+  private void respond(final ODataRequest request, final ODataResponse response, final Document document,
+      final ContentType responseFormat) throws ODataLibraryException {
+
+    response.setHeader(HttpHeader.ETAG, document.getEtag());
+    if (odata.createETagHelper().checkReadPreconditions(document.getEtag(), request.getHeaders(HttpHeader.IF_MATCH),
+        request.getHeaders(HttpHeader.IF_NONE_MATCH))) {
+      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+    } else {
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+      if (request.getMethod() != HttpMethod.HEAD)
+        response.setContent(new ByteArrayInputStream(document.getContent()));
+    }
+  }
+
+  private byte[] toByteArray(final InputStream content) throws ODataJPASerializerException {
+    try (InputStream input = content; ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+      final byte[] buffer = new byte[8192];
+      int length;
+      while ((length = input.read(buffer)) != -1)
+        output.write(buffer, 0, length);
+      return output.toByteArray();
+    } catch (IOException e) {
+      throw new ODataJPASerializerException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+}
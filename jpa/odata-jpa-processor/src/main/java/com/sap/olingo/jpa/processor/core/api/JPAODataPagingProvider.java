@@ -1,5 +1,9 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 import javax.persistence.EntityManager;
 
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -21,6 +25,21 @@ public interface JPAODataPagingProvider {
    */
   JPAODataPage getNextPage(final String skiptoken);
 
+  /**
+   * Returns the page related to a given skiptoken. The count query factory creates a count query, which is restricted
+   * the same way as the request given by the {@link UriInfo} of the first page. It can be used to check a count, which
+   * had been taken from a cache.
+   * If the skiptoken is not known the method returns null.
+   * @param skiptoken
+   * @param countQueryFactory
+   * @return
+   * @throws ODataApplicationException
+   */
+  default JPAODataPage getNextPage(final String skiptoken, final Function<UriInfo, JPACountQuery> countQueryFactory)
+      throws ODataApplicationException {
+    return getNextPage(skiptoken);
+  }
+
   /**
    * Based on the query the provider decides if a paging is required and return the first page.
    * @param uriInfo
@@ -30,4 +49,22 @@ public interface JPAODataPagingProvider {
   JPAODataPage getFirstPage(final UriInfo uriInfo, final Integer preferedPageSize, final JPACountQuery countQuery,
       final EntityManager em) throws ODataApplicationException;
 
+  /**
+   * Based on the query the provider decides if a paging is required and return the first page.
+   * @param uriInfo
+   * @param preferedPageSize
+   * @param countQuery
+   * @param em
+   * @param claims Claims of the protected attributes of the entity types of the resource path, which restrict the
+   * result of the count query
+   * @param groups Field groups of the request
+   * @return
+   * @throws ODataApplicationException
+   */
+  default JPAODataPage getFirstPage(final UriInfo uriInfo, final Integer preferedPageSize,
+      final JPACountQuery countQuery, final EntityManager em, final Map<String, List<JPAClaimsPair<?>>> claims,
+      final List<String> groups) throws ODataApplicationException {
+    return getFirstPage(uriInfo, preferedPageSize, countQuery, em);
+  }
+
 }
@@ -6,6 +6,8 @@ import javax.persistence.EntityManager;
 
 import org.apache.olingo.server.api.uri.UriInfoResource;
 
+import com.sap.olingo.jpa.processor.core.processor.JPADeferredResponses;
+import com.sap.olingo.jpa.processor.core.processor.JPAResultCacheInvalidations;
 import com.sap.olingo.jpa.processor.core.serializer.JPASerializer;
 
 public interface JPAODataRequestContextAccess {
@@ -28,4 +30,21 @@ public interface JPAODataRequestContextAccess {
 
   public JPAODataTransactionFactory getTransactionFactory();
 
+  /**
+   * Present while a change set is processed with deferred flush. Responses of modifying requests are then created
+   * after all changes of the change set have been flushed.
+   * @return
+   */
+  public default Optional<JPADeferredResponses> getDeferredResponses() {
+    return Optional.empty();
+  }
+
+  /**
+   * Present while a change set is processed and a result cache is used. Modifying requests register the entity types
+   * they have changed, so that the cached responses are invalidated after the change set has been committed.
+   * @return
+   */
+  public default Optional<JPAResultCacheInvalidations> getResultCacheInvalidations() {
+    return Optional.empty();
+  }
 }
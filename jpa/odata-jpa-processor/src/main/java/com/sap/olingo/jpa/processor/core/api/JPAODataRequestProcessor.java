@@ -5,6 +5,8 @@ import javax.persistence.RollbackException;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -312,6 +314,28 @@ public final class JPAODataRequestProcessor
         HttpStatusCode.NOT_IMPLEMENTED);
   }
 
+  /**
+   * Set-based changes, PATCH or DELETE on an entity set restricted by $filter, are rejected by Olingo. They are handed
+   * over by {@link JPAODataSetBasedChangeProcessor}.
+   */
+  void modifyEntityCollection(final ODataRequest request, final ODataResponse response,
+      final UriInfo uriInfo, final HttpMethod method) throws ODataApplicationException, ODataLibraryException {
+
+    final String contentType = request.getHeader(HttpHeader.CONTENT_TYPE);
+    try {
+      final ContentType requestFormat = contentType == null ? ContentType.JSON : ContentType.create(contentType);
+      final JPACUDRequestProcessor p = factory.createCUDRequestProcessor(uriInfo, requestContext);
+      p.modifyEntities(request, response, method, requestFormat);
+    } catch (IllegalArgumentException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    } catch (ODataApplicationException | ODataLibraryException e) {
+      throw e;
+    } catch (ODataException e) {
+      throw new ODataApplicationException(e.getLocalizedMessage(),
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), null, e);
+    }
+  }
+
   @Override
   public void updateEntity(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestFormat, final ContentType responseFormat)
@@ -0,0 +1,55 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Optional;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmCacheable;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+
+/**
+ * Cache for the responses of read requests. A response is only cached if all entity types the request touches, either
+ * via the resource path, $expand, $filter or $orderby, are cacheable. Modifying requests invalidate the cached
+ * responses of the entity types they change.<p>
+ * The cache has to be thread-safe, as it is shared by all requests of a service.
+ */
+public interface JPAODataResultCache {
+
+  /**
+   * Returns the cached response for a key, if one exists and is still valid.
+   * @param key
+   * @return
+   */
+  Optional<JPAODataCachedResult> get(final JPAODataResultCacheKey key);
+
+  /**
+   * Stores a response. A response must not be stored in case one of the entity types of the key has been
+   * invalidated after the key was created, as the response may have been read before the modification.
+   * @param key
+   * @param result
+   */
+  void put(final JPAODataResultCacheKey key, final JPAODataCachedResult result);
+
+  /**
+   * Removes all responses that contain the given entity type.
+   * @param entityType
+   */
+  void invalidate(final JPAEntityType entityType);
+
+  /**
+   * Provides the time used as creation time of the keys. {@link #put} compares it with the time of the last
+   * invalidation of the entity types of a key, so both have to come from the same clock.
+   * @return Current time of the cache, by default {@link System#currentTimeMillis()}
+   */
+  default long getTime() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Decides if the responses containing an entity type may be cached. By default entities annotated with
+   * {@link EdmCacheable} are cacheable.
+   * @param entityType
+   * @return
+   */
+  default boolean isCacheable(final JPAEntityType entityType) {
+    return entityType.getTypeClass().isAnnotationPresent(EdmCacheable.class);
+  }
+}
@@ -0,0 +1,116 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+
+/**
+ * Key of a cached response. Two requests have the same key, if they request the same resource of the same service root
+ * with the same query options, independent of the order of the query options, in the same format and language, and if
+ * the claims and field groups of the user are the same. The service root is part of the key, as the response contains
+ * absolute URLs, e.g. the context URL or next links.<p>
+ * The entity types contained in the response and the creation time are not part of the key.
+ */
+public final class JPAODataResultCacheKey {
+  private final String baseUri;
+  private final String resource;
+  private final String format;
+  private final String locale;
+  private final Map<String, String> claims;
+  private final List<String> groups;
+  private final Set<FullQualifiedName> entityTypes;
+  private final long creationTime;
+
+  /**
+   * @param baseUri Raw base URI of the request
+   * @param resource Normalized resource path including the query options
+   * @param format Format of the response
+   * @param locale Language of the response
+   * @param claims Claim values by claim name
+   * @param groups Field groups of the user
+   * @param entityTypes Names of the entity types the response depends on
+   * @param creationTime Time the request has been started, as provided by {@link JPAODataResultCache#getTime()}
+   */
+  public JPAODataResultCacheKey(final String baseUri, final String resource, final String format,
+      final String locale, final Map<String, String> claims, final List<String> groups,
+      final Set<FullQualifiedName> entityTypes, final long creationTime) {
+    super();
+    this.baseUri = baseUri;
+    this.resource = Objects.requireNonNull(resource);
+    this.format = format;
+    this.locale = locale;
+    this.claims = Collections.unmodifiableMap(new TreeMap<>(claims));
+    final List<String> sortedGroups = new ArrayList<>(groups);
+    Collections.sort(sortedGroups);
+    this.groups = Collections.unmodifiableList(sortedGroups);
+    this.entityTypes = Collections.unmodifiableSet(new HashSet<>(entityTypes));
+    this.creationTime = creationTime;
+  }
+
+  public String getBaseUri() {
+    return baseUri;
+  }
+
+  public String getResource() {
+    return resource;
+  }
+
+  public String getFormat() {
+    return format;
+  }
+
+  public String getLocale() {
+    return locale;
+  }
+
+  public Map<String, String> getClaims() {
+    return claims;
+  }
+
+  public List<String> getGroups() {
+    return groups;
+  }
+
+  public Set<FullQualifiedName> getEntityTypes() {
+    return entityTypes;
+  }
+
+  /**
+   * @return Creation time of the key as provided by {@link JPAODataResultCache#getTime()}
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(baseUri, resource, format, locale, claims, groups);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof JPAODataResultCacheKey))
+      return false;
+    final JPAODataResultCacheKey other = (JPAODataResultCacheKey) obj;
+    return Objects.equals(baseUri, other.baseUri)
+        && resource.equals(other.resource)
+        && Objects.equals(format, other.format)
+        && Objects.equals(locale, other.locale)
+        && claims.equals(other.claims)
+        && groups.equals(other.groups);
+  }
+
+  @Override
+  public String toString() {
+    return "JPAODataResultCacheKey [baseUri=" + baseUri + ", resource=" + resource + ", format=" + format + ", locale=" + locale + "]";
+  }
+}
@@ -1,10 +1,16 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 import javax.persistence.EntityManager;
@@ -17,6 +23,7 @@ import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugInformation;
 import org.apache.olingo.server.api.debug.DebugSupport;
 import org.apache.olingo.server.api.debug.DefaultDebugSupport;
@@ -32,6 +39,7 @@ import com.sap.olingo.jpa.processor.core.database.JPADefaultDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseProcessorFactory;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAFilterException;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryShapeCache;
 
 public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODataCRUDContextAccess {
   /**
@@ -52,6 +60,24 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
   private Optional<EntityManagerFactory> emf;
   private final String namespace;
   private String mappingPath;
+  private Optional<ExecutorService> queryExecutor = Optional.empty();
+  private final List<ExecutorService> ownedExecutors;
+  private int maxParallelQueries = 1;
+  private boolean streamingSerialization;
+  private int streamingChunkSize = 1000;
+  private boolean asyncCount;
+  private Optional<JPAODataResultCache> resultCache = Optional.empty();
+  private JPAODataExpandStrategy expandStrategy;
+  private int maxExpandKeys;
+  private int expandKeyChunkSize;
+  private Optional<ExecutorService> batchExecutor = Optional.empty();
+  private int maxParallelBatchRequests = 1;
+  private boolean deferredFlush;
+  private int bulkCreateChunkSize;
+  private Optional<JPAQueryShapeCache> queryShapeCache = Optional.empty();
+  private ServiceMetadata serviceMetadata;
+  private JPAEdmProvider serviceMetadataEdm;
+  private JPAODataMetadataCache metadataCache;
 
   public static Builder with() {
     return new Builder();
@@ -73,7 +99,7 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
     } catch (SQLException e) {
       throw new ODataJPAFilterException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
     }
-
+    ownedExecutors = new ArrayList<>(0);
   }
 
   private JPAODataServiceContext(final Builder builder) {
@@ -91,6 +117,22 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
     emf = builder.emf;
     namespace = builder.namespace;
     mappingPath = builder.mappingPath;
+    queryExecutor = builder.queryExecutor;
+    ownedExecutors = builder.ownedExecutors;
+    maxParallelQueries = builder.maxParallelQueries;
+    streamingSerialization = builder.streamingSerialization;
+    streamingChunkSize = builder.streamingChunkSize;
+    asyncCount = builder.asyncCount;
+    resultCache = builder.resultCache;
+    expandStrategy = builder.expandStrategy;
+    maxExpandKeys = builder.maxExpandKeys;
+    expandKeyChunkSize = builder.expandKeyChunkSize;
+    batchExecutor = builder.batchExecutor;
+    maxParallelBatchRequests = builder.maxParallelBatchRequests;
+    deferredFlush = builder.deferredFlush;
+    bulkCreateChunkSize = builder.bulkCreateChunkSize;
+    queryShapeCache = builder.queryShapeCacheSize > 0 ? Optional.of(new JPAQueryShapeCache(
+        builder.queryShapeCacheSize)) : Optional.empty();
   }
 
   @Override
@@ -158,6 +200,125 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
     return mappingPath;
   }
 
+  @Override
+  public Optional<ExecutorService> getQueryExecutor() {
+    return queryExecutor;
+  }
+
+  @Override
+  public int getMaxParallelQueries() {
+    return maxParallelQueries;
+  }
+
+  /**
+   * Shuts down the thread pools created by the builder. Executors provided via the builder, see
+   * {@link Builder#setQueryExecutor(ExecutorService)} and {@link Builder#setBatchExecutor(ExecutorService)}, are
+   * managed by the caller and are not shut down.
+   */
+  @Override
+  public void close() {
+    for (final ExecutorService executor : ownedExecutors)
+      executor.shutdown();
+  }
+
+  @Override
+  public boolean useStreamingSerialization() {
+    return streamingSerialization;
+  }
+
+  @Override
+  public int getStreamingChunkSize() {
+    return streamingChunkSize;
+  }
+
+  @Override
+  public boolean useAsyncCount() {
+    return asyncCount;
+  }
+
+  @Override
+  public Optional<JPAODataResultCache> getResultCache() {
+    return resultCache;
+  }
+
+  @Override
+  public JPAODataExpandStrategy getExpandStrategy() {
+    return expandStrategy == null ? JPAODataExpandStrategy.ANNOTATED : expandStrategy;
+  }
+
+  @Override
+  public int getMaxExpandKeys() {
+    return maxExpandKeys;
+  }
+
+  @Override
+  public int getExpandKeyChunkSize() {
+    return expandKeyChunkSize;
+  }
+
+  @Override
+  public Optional<ExecutorService> getBatchExecutor() {
+    return batchExecutor;
+  }
+
+  @Override
+  public int getMaxParallelBatchRequests() {
+    return maxParallelBatchRequests;
+  }
+
+  @Override
+  public boolean useDeferredFlush() {
+    return deferredFlush;
+  }
+
+  @Override
+  public int getBulkCreateChunkSize() {
+    return bulkCreateChunkSize;
+  }
+
+  @Override
+  public Optional<JPAQueryShapeCache> getQueryShapeCache() {
+    return queryShapeCache;
+  }
+
+  /**
+   * Drops the cached service metadata, so that the next request creates it again from the EDM provider. Needs to be
+   * called in case the metadata provided by the EDM provider has been changed, e.g. after the metadata post processor
+   * has been exchanged.
+   */
+  public synchronized void invalidateServiceMetadata() {
+    serviceMetadata = null;
+    serviceMetadataEdm = null;
+    metadataCache = null;
+  }
+
+  /**
+   * Returns the service metadata for <code>edmProvider</code>. The service metadata is created only once and reused by
+   * all following requests. By this Olingo needs to fill its internal caches of entity types, entity sets etc. only
+   * once instead of per request.
+   * @param odata
+   * @param edmProvider
+   * @return
+   */
+  synchronized ServiceMetadata getServiceMetadata(final OData odata, final JPAEdmProvider edmProvider) {
+    if (serviceMetadata == null || serviceMetadataEdm != edmProvider) {
+      serviceMetadata = odata.createServiceMetadata(edmProvider, edmProvider.getReferences());
+      serviceMetadataEdm = edmProvider;
+      metadataCache = new JPAODataMetadataCache();
+    }
+    return serviceMetadata;
+  }
+
+  /**
+   * Returns the cache of the rendered $metadata and service documents belonging to <code>metadata</code>. The cache is
+   * dropped together with the service metadata.
+   * @param metadata
+   * @return
+   */
+  synchronized JPAODataMetadataCache getMetadataCache(final ServiceMetadata metadata) {
+    return metadata == serviceMetadata && metadataCache != null ? metadataCache : new JPAODataMetadataCache();
+  }
+
   /**
    * @deprecated will be removed with 1.0.0;
    */
@@ -219,6 +380,7 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
           postProcessor, packageName);
     else
       this.postProcessor = postProcessor;
+    invalidateServiceMetadata();
   }
 
   /**
@@ -276,6 +438,26 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
     private JPAEdmProvider jpaEdm;
     private JPAEdmNameBuilder nameBuilder;
     private String mappingPath;
+    private int queryThreadPoolSize = 0;
+    private int maxParallelQueries = 0;
+    private Optional<ExecutorService> queryExecutor = Optional.empty();
+    private final List<ExecutorService> ownedExecutors = new ArrayList<>(2);
+    private boolean streamingSerialization = false;
+    private int streamingChunkSize = 1000;
+    private boolean freezeMetadata = false;
+    private boolean asyncCount = false;
+    private Optional<JPAODataResultCache> resultCache = Optional.empty();
+    private JPAODataExpandStrategy expandStrategy = JPAODataExpandStrategy.ANNOTATED;
+    private int maxExpandKeys = 0;
+    private int expandKeyChunkSize = 500;
+    private int batchThreadPoolSize = 0;
+    private int maxParallelBatchRequests = 0;
+    private Optional<ExecutorService> batchExecutor = Optional.empty();
+    private boolean deferredFlush = false;
+    private int bulkCreateChunkSize = 100;
+    private int queryShapeCacheSize = 0;
+    private String metadataSnapshot;
+    private String modelVersion;
 
     public JPAODataCRUDContextAccess build() throws ODataException {
       try {
@@ -286,10 +468,32 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
         if (!emf.isPresent() && ds != null && namespace != null)
           emf = Optional.ofNullable(JPAEntityManagerFactory.getEntityManagerFactory(namespace, ds));
         if (emf.isPresent())
-          jpaEdm = new JPAEdmProvider(emf.get().getMetamodel(), postProcessor, packageName, nameBuilder);
+          jpaEdm = createEdmProvider();
+        if (freezeMetadata && jpaEdm != null)
+          jpaEdm.getServiceDocument().freeze();
         if (databaseProcessor == null) {
           databaseProcessor = new JPAODataDatabaseProcessorFactory().create(ds);
         }
+        if (queryExecutor.isPresent()) {
+          if (maxParallelQueries <= 0)
+            maxParallelQueries = determinePoolSize(queryExecutor.get()) + 1;
+        } else if (queryThreadPoolSize > 0) {
+          queryExecutor = Optional.of(createExecutor(queryThreadPoolSize, "odata-jpa-query-"));
+          if (maxParallelQueries <= 0)
+            maxParallelQueries = queryThreadPoolSize + 1;
+        } else {
+          maxParallelQueries = 1;
+        }
+        if (batchExecutor.isPresent()) {
+          if (maxParallelBatchRequests <= 0)
+            maxParallelBatchRequests = determinePoolSize(batchExecutor.get()) + 1;
+        } else if (batchThreadPoolSize > 0) {
+          batchExecutor = Optional.of(createExecutor(batchThreadPoolSize, "odata-jpa-batch-"));
+          if (maxParallelBatchRequests <= 0)
+            maxParallelBatchRequests = batchThreadPoolSize + 1;
+        } else {
+          maxParallelBatchRequests = 1;
+        }
       } catch (SQLException | PersistenceException e) {
         throw new ODataJPAFilterException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
       }
@@ -429,6 +633,270 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
       this.nameBuilder = nameBuilder;
       return this;
     }
+
+    /**
+     * Number of threads of the pool that executes independent queries of a request in parallel, like the queries for
+     * the $expand items and the collection properties of one level. Each of these queries uses its own entity manager,
+     * so an entity manager factory is required, see {@link Builder#setEntityManagerFactory(EntityManagerFactory)}.<br>
+     * In case no pool size or a pool size of zero is provided, all queries are executed one after the other.
+     * @param poolSize
+     * @return
+     */
+    public Builder setQueryThreadPoolSize(final int poolSize) {
+      this.queryThreadPoolSize = poolSize;
+      return this;
+    }
+
+    /**
+     * Executor that executes independent queries of a request in parallel, e.g. a thread pool managed by the container.
+     * The executor is used instead of a pool created by the service context, see
+     * {@link Builder#setQueryThreadPoolSize(int)}, and is not shut down by {@link JPAODataServiceContext#close()}.
+     * @param queryExecutor
+     * @return
+     */
+    public Builder setQueryExecutor(final ExecutorService queryExecutor) {
+      this.queryExecutor = Optional.ofNullable(queryExecutor);
+      return this;
+    }
+
+    /**
+     * Maximum number of queries of one request that are executed at the same time, including the request thread. By
+     * this one request with many $expand items is prevented from blocking the complete query thread pool. If not set,
+     * the number is one bigger than the pool size.
+     * @param maxParallelQueries
+     * @return
+     */
+    public Builder setMaxParallelQueriesPerRequest(final int maxParallelQueries) {
+      this.maxParallelQueries = maxParallelQueries;
+      return this;
+    }
+
+    /**
+     * Switches on the streaming serialization of entity collections. The entities are converted one by one while the
+     * response is written, so the complete result does not need to be kept as Olingo entities in memory. Streaming is
+     * not used in debug mode, as the debug output requires the complete response body.
+     * @param streamingSerialization
+     * @return
+     */
+    public Builder setStreamingSerialization(final boolean streamingSerialization) {
+      this.streamingSerialization = streamingSerialization;
+      return this;
+    }
+
+    /**
+     * Number of rows read from the database at once in case of streaming serialization. The rows of a result without
+     * $expand items and collection properties are read chunk by chunk while the response is written. A value of 0 or
+     * less reads the complete result at once. The default is 1000.
+     * @param streamingChunkSize
+     * @return
+     */
+    public Builder setStreamingChunkSize(final int streamingChunkSize) {
+      this.streamingChunkSize = streamingChunkSize;
+      return this;
+    }
+
+    /**
+     * Builds the complete metadata model already during the creation of the service context. The first request does not
+     * have to wait for the lazy model build and the model is afterwards read by all requests without locking.
+     * @param freezeMetadata
+     * @return
+     */
+    public Builder setFreezeMetadata(final boolean freezeMetadata) {
+      this.freezeMetadata = freezeMetadata;
+      return this;
+    }
+
+    /**
+     * Determines the number of results requested via <code>$count=true</code> in parallel to the query that reads the
+     * result. This requires a query thread pool, see {@link Builder#setQueryThreadPoolSize(int)}.
+     * @param asyncCount
+     * @return
+     */
+    public Builder setAsyncCount(final boolean asyncCount) {
+      this.asyncCount = asyncCount;
+      return this;
+    }
+
+    /**
+     * Register a cache for the responses of read requests, e.g. {@link JPAODataDefaultResultCache}. Which entities are
+     * cached is decided by {@link JPAODataResultCache#isCacheable}.
+     * @param resultCache
+     * @return
+     */
+    public Builder setResultCache(final JPAODataResultCache resultCache) {
+      this.resultCache = Optional.ofNullable(resultCache);
+      return this;
+    }
+
+    /**
+     * Determines which $expand items are read together with their parent by one query, e.g.
+     * {@link JPAODataExpandStrategy#JOIN_TO_ONE}. By default associations annotated with
+     * {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmExpandJoin EdmExpandJoin} are joined.
+     * @param expandStrategy
+     * @return
+     */
+    public Builder setExpandStrategy(final JPAODataExpandStrategy expandStrategy) {
+      this.expandStrategy = expandStrategy;
+      return this;
+    }
+
+    /**
+     * Restricts the queries of $expand items and collection properties by the keys of up to maxExpandKeys parent
+     * entities instead of repeating the restrictions of the parent query. 0, the default, switches this off.
+     * @param maxExpandKeys
+     * @return
+     */
+    public Builder setMaxExpandKeys(final int maxExpandKeys) {
+      this.maxExpandKeys = maxExpandKeys;
+      return this;
+    }
+
+    /**
+     * Maximum number of keys per IN list, see {@link Builder#setMaxExpandKeys(int)}. Default is 500.
+     * @param expandKeyChunkSize
+     * @return
+     */
+    public Builder setExpandKeyChunkSize(final int expandKeyChunkSize) {
+      this.expandKeyChunkSize = expandKeyChunkSize;
+      return this;
+    }
+
+    /**
+     * Number of threads of the pool that processes the read requests of a $batch request in parallel. Change sets and
+     * requests that reference the Content-ID of a preceding request are still processed one after the other, and the
+     * responses keep the order of the requests. Each read request uses its own entity manager, so an entity manager
+     * factory is required, see {@link Builder#setEntityManagerFactory(EntityManagerFactory)}.<br>
+     * In case no pool size or a pool size of zero is provided, all requests are processed one after the other.
+     * @param poolSize
+     * @return
+     */
+    public Builder setBatchThreadPoolSize(final int poolSize) {
+      this.batchThreadPoolSize = poolSize;
+      return this;
+    }
+
+    /**
+     * Executor that processes the read requests of a $batch request in parallel, e.g. a thread pool managed by the
+     * container. The executor is used instead of a pool created by the service context, see
+     * {@link Builder#setBatchThreadPoolSize(int)}, and is not shut down by {@link JPAODataServiceContext#close()}.
+     * @param batchExecutor
+     * @return
+     */
+    public Builder setBatchExecutor(final ExecutorService batchExecutor) {
+      this.batchExecutor = Optional.ofNullable(batchExecutor);
+      return this;
+    }
+
+    /**
+     * Maximum number of read requests of one $batch request that are processed at the same time, including the request
+     * thread. By this one large $batch request is prevented from blocking the complete batch thread pool. If not set,
+     * the number is one bigger than the pool size.
+     * @param maxParallelBatchRequests
+     * @return
+     */
+    public Builder setMaxParallelBatchRequests(final int maxParallelBatchRequests) {
+      this.maxParallelBatchRequests = maxParallelBatchRequests;
+      return this;
+    }
+
+    /**
+     * Flushes the changes of a change set once before the commit and creates the responses of its requests afterwards,
+     * instead of letting the JPA provider flush whenever it needs to. Together with JDBC batch writing of the JPA
+     * provider this reduces the number of database round trips of large change sets.
+     * @param deferredFlush
+     * @return
+     */
+    public Builder setDeferredFlush(final boolean deferredFlush) {
+      this.deferredFlush = deferredFlush;
+      return this;
+    }
+
+    /**
+     * Number of entities of a bulk create request, a POST of an entity array, that are deserialized and handed over to
+     * the CUD request handler together. Default is 100.
+     * @param bulkCreateChunkSize
+     * @return
+     */
+    public Builder setBulkCreateChunkSize(final int bulkCreateChunkSize) {
+      this.bulkCreateChunkSize = bulkCreateChunkSize;
+      return this;
+    }
+
+    /**
+     * Maximum number of query shapes per entity manager factory, whose compiled queries are reused. Read requests have
+     * the same shape, if they only differ by the values of their $filter literals and key predicates. The queries are
+     * registered as named queries at the entity manager factory and stay there as long as the factory exists, see
+     * {@link JPAQueryShapeCache}. Default is 0, which means that the queries are not reused.
+     * @param queryShapeCacheSize
+     * @return
+     */
+    public Builder setQueryShapeCacheSize(final int queryShapeCacheSize) {
+      this.queryShapeCacheSize = queryShapeCacheSize;
+      return this;
+    }
+
+    /**
+     * Class path resource of a metadata snapshot created at build time by
+     * {@link com.sap.olingo.jpa.metadata.api.JPAEdmMetadataSnapshot JPAEdmMetadataSnapshot}. The CSDL schemas are taken
+     * from the snapshot as long as it fits to the JPA model. If the resource does not exist, the metadata are created
+     * from the JPA model.
+     * @param metadataSnapshot
+     * @return
+     */
+    public Builder setMetadataSnapshot(final String metadataSnapshot) {
+      this.metadataSnapshot = metadataSnapshot;
+      return this;
+    }
+
+    /**
+     * Version of the model that becomes part of the fingerprint a metadata snapshot is checked against. Needed in case
+     * the model depends on mapping files other than <code>META-INF/orm.xml</code> or on the configuration of the post
+     * processor, as the fingerprint can not recognize their changes. The snapshot has to be created with the same
+     * version.
+     * @param modelVersion
+     * @return
+     */
+    public Builder setModelVersion(final String modelVersion) {
+      this.modelVersion = modelVersion;
+      return this;
+    }
+
+    private JPAEdmProvider createEdmProvider() throws ODataException {
+      final InputStream snapshot = metadataSnapshot != null
+          ? Thread.currentThread().getContextClassLoader().getResourceAsStream(metadataSnapshot)
+          : null;
+      if (snapshot == null)
+        return new JPAEdmProvider(emf.get().getMetamodel(), postProcessor, packageName, nameBuilder, null,
+            modelVersion);
+      try (InputStream content = snapshot) {
+        return new JPAEdmProvider(emf.get().getMetamodel(), postProcessor, packageName, nameBuilder, content,
+            modelVersion);
+      } catch (IOException e) {
+        throw new ODataException(e);
+      }
+    }
+
+    /**
+     * The pools are owned by the service context and shut down by {@link JPAODataServiceContext#close()}.
+     */
+    private ExecutorService createExecutor(final int poolSize, final String threadPrefix) {
+      final AtomicInteger threadNumber = new AtomicInteger();
+      final ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+        final Thread thread = new Thread(runnable, threadPrefix + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      ownedExecutors.add(executor);
+      return executor;
+    }
+
+    /**
+     * The size of a provided pool is only known for a ThreadPoolExecutor. Otherwise one additional thread is assumed.
+     */
+    private int determinePoolSize(final ExecutorService executor) {
+      return executor instanceof ThreadPoolExecutor ? Math.max(1, ((ThreadPoolExecutor) executor).getCorePoolSize())
+          : 1;
+    }
   }
 
   class JPADebugSupportWrapper implements DebugSupport {
@@ -494,4 +962,4 @@ public final class JPAODataServiceContext implements JPAODataCRUDContext, JPAODa
       }
     }
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.core.ODataExceptionHelper;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.core.uri.parser.UriParserException;
+import org.apache.olingo.server.core.uri.validator.UriValidationException;
+
+/**
+ * Entry point for set-based changes, PATCH or DELETE on an entity set restricted by $filter. Olingo rejects PATCH and
+ * DELETE on collections, so set-based changes are recognized before a request is handed over to Olingo. The URI is
+ * parsed with the URI parser of Olingo and the change is executed by {@link JPAODataRequestProcessor}. All other
+ * requests are left to Olingo. This is done for plain requests as well as for requests within a $batch.
+ */
+final class JPAODataSetBasedChangeProcessor {
+  private static final String REQUEST_MAPPING_ATTRIBUTE = "requestMapping";
+  private final OData odata;
+  private final ServiceMetadata serviceMetadata;
+  private final JPAODataCRUDContextAccess serviceContext;
+  private final JPAODataRequestContextAccess requestContext;
+
+  JPAODataSetBasedChangeProcessor(final OData odata, final ServiceMetadata serviceMetadata,
+      final JPAODataCRUDContextAccess serviceContext, final JPAODataRequestContextAccess requestContext) {
+    super();
+    this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
+    this.serviceContext = serviceContext;
+    this.requestContext = requestContext;
+  }
+
+  /**
+   * @return The parsed URI, if the request is a set-based change. Requests that can not be parsed are left to Olingo,
+   * which creates the error response.
+   */
+  Optional<UriInfo> parse(final ODataRequest request) {
+    // Without query options there is no $filter; a Content-ID reference addresses a single entity
+    if (!isChangeMethod(request.getMethod()) || request.getRawQueryPath() == null
+        || request.getRawQueryPath().isEmpty() || request.getRawODataPath() == null
+        || request.getRawODataPath().replaceFirst("^/", "").startsWith("$"))
+      return Optional.empty();
+    try {
+      final UriInfo uriInfo = new Parser(serviceMetadata.getEdm(), odata).parseUri(request.getRawODataPath(), request
+          .getRawQueryPath(), null, request.getRawBaseUri());
+      return isSetBasedChange(uriInfo) ? Optional.of(uriInfo) : Optional.empty();
+    } catch (UriParserException | UriValidationException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Executes a set-based change. Errors are converted into an error response, as Olingo would do.
+   */
+  ODataResponse process(final ODataRequest request, final UriInfo uriInfo) {
+    final ODataResponse response = new ODataResponse();
+    try {
+      final JPAODataRequestProcessor processor = new JPAODataRequestProcessor(serviceContext, requestContext);
+      processor.init(odata, serviceMetadata);
+      processor.modifyEntityCollection(request, response, uriInfo, request.getMethod());
+    } catch (ODataApplicationException e) {
+      handleException(request, response, ODataExceptionHelper.createServerErrorObject(e));
+    } catch (ODataLibraryException e) {
+      handleException(request, response, ODataExceptionHelper.createServerErrorObject(e, Locale.ENGLISH));
+    }
+    return response;
+  }
+
+  /**
+   * Executes a set-based change send via http.
+   * @return True if the request was a set-based change and the response has been written
+   */
+  boolean process(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
+      final String mappingPath) throws IOException {
+
+    final HttpMethod method = determineMethod(httpRequest);
+    if (!isChangeMethod(method))
+      return false;
+    final ODataRequest request = createRequest(httpRequest, method, mappingPath);
+    final Optional<UriInfo> uriInfo = parse(request);
+    if (!uriInfo.isPresent())
+      return false;
+    request.setBody(httpRequest.getInputStream());
+    convertToHttp(process(request, uriInfo.get()), httpResponse);
+    return true;
+  }
+
+  private boolean isChangeMethod(final HttpMethod method) {
+    return method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+  }
+
+  private boolean isSetBasedChange(final UriInfo uriInfo) {
+    if (uriInfo.getKind() != UriInfoKind.resource || uriInfo.getFilterOption() == null)
+      return false;
+    final List<UriResource> resourceParts = uriInfo.getUriResourceParts();
+    final UriResource last = resourceParts.get(resourceParts.size() - 1);
+    return (last instanceof UriResourceEntitySet && ((UriResourceEntitySet) last).isCollection())
+        || (last instanceof UriResourceNavigation && ((UriResourceNavigation) last).isCollection());
+  }
+
+  private void handleException(final ODataRequest request, final ODataResponse response,
+      final ODataServerError serverError) {
+    final ErrorProcessor errorProcessor = serviceContext.getErrorProcessor();
+    errorProcessor.init(odata, serviceMetadata);
+    errorProcessor.processError(request, response, serverError, ContentType.JSON);
+  }
+
+  private HttpMethod determineMethod(final HttpServletRequest httpRequest) {
+    try {
+      return HttpMethod.valueOf(httpRequest.getMethod());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Splits the URI the same way as Olingo does, so that a set-based change is parsed like any other request
+   */
+  private ODataRequest createRequest(final HttpServletRequest httpRequest, final HttpMethod method,
+      final String mappingPath) {
+
+    final ODataRequest request = new ODataRequest();
+    final String rawRequestUri = httpRequest.getRequestURL().toString();
+    final String rawODataPath;
+    final Object requestMapping = mappingPath != null && !mappingPath.isEmpty() ? mappingPath
+        : httpRequest.getAttribute(REQUEST_MAPPING_ATTRIBUTE);
+    if (requestMapping != null) {
+      rawODataPath = rawRequestUri.substring(rawRequestUri.indexOf(requestMapping.toString())
+          + requestMapping.toString().length());
+    } else if (!"".equals(httpRequest.getServletPath())) {
+      rawODataPath = rawRequestUri.substring(rawRequestUri.indexOf(httpRequest.getServletPath())
+          + httpRequest.getServletPath().length());
+    } else if (!"".equals(httpRequest.getContextPath())) {
+      rawODataPath = rawRequestUri.substring(rawRequestUri.indexOf(httpRequest.getContextPath())
+          + httpRequest.getContextPath().length());
+    } else {
+      rawODataPath = httpRequest.getRequestURI();
+    }
+    request.setMethod(method);
+    request.setProtocol(httpRequest.getProtocol());
+    request.setRawQueryPath(httpRequest.getQueryString());
+    request.setRawRequestUri(rawRequestUri + (httpRequest.getQueryString() == null ? "" : "?" + httpRequest
+        .getQueryString()));
+    request.setRawODataPath(rawODataPath);
+    request.setRawBaseUri(rawRequestUri.substring(0, rawRequestUri.length() - rawODataPath.length()));
+    copyHeaders(httpRequest, request);
+    return request;
+  }
+
+  private void copyHeaders(final HttpServletRequest httpRequest, final ODataRequest request) {
+    final Enumeration<?> names = httpRequest.getHeaderNames();
+    if (names == null)
+      return;
+    while (names.hasMoreElements()) {
+      final String name = (String) names.nextElement();
+      final List<String> values = new ArrayList<>();
+      final Enumeration<?> headers = httpRequest.getHeaders(name);
+      if (headers != null) {
+        for (final Object value : Collections.list(headers))
+          values.add((String) value);
+      }
+      request.addHeader(name, values);
+    }
+  }
+
+  private void convertToHttp(final ODataResponse response, final HttpServletResponse httpResponse)
+      throws IOException {
+
+    httpResponse.setStatus(response.getStatusCode());
+    for (final Entry<String, List<String>> header : response.getAllHeaders().entrySet()) {
+      for (final String value : header.getValue())
+        httpResponse.addHeader(header.getKey(), value);
+    }
+    final InputStream content = response.getContent();
+    if (content != null) {
+      try (InputStream input = content) {
+        final OutputStream output = httpResponse.getOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) > -1)
+          output.write(buffer, 0, read);
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Objects;
+
+/**
+ * Page stored for a skiptoken together with the number of entities that shall be returned by all pages of a request.
+ * In case the number was taken from a count cache, it is only an estimate, which has to be checked before the last page
+ * is created.
+ */
+public final class JPAODataSkiptokenEntry {
+  private final JPAODataPage page;
+  private final long count;
+  private final boolean countEstimated;
+
+  public JPAODataSkiptokenEntry(final JPAODataPage page, final long count) {
+    this(page, count, false);
+  }
+
+  public JPAODataSkiptokenEntry(final JPAODataPage page, final long count, final boolean countEstimated) {
+    super();
+    this.page = Objects.requireNonNull(page);
+    this.count = count;
+    this.countEstimated = countEstimated;
+  }
+
+  public JPAODataPage getPage() {
+    return page;
+  }
+
+  /**
+   * @return Maximum number of entities, which is $skip + $top or the result of the count query
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return true if the count was taken from a cache and may differ from the actual number of entities
+   */
+  public boolean isCountEstimated() {
+    return countEstimated;
+  }
+}
@@ -0,0 +1,27 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.Optional;
+
+/**
+ * Keeps the pages of server-driven paging, so that a request with a skiptoken can be answered by
+ * {@link JPAODataDefaultPagingProvider}.<p>
+ * The default implementation, {@link JPAODataDefaultSkiptokenStore}, keeps the pages in memory. An implementation
+ * based on an external store, e.g. to share pages between several nodes, has to be able to restore the
+ * {@link org.apache.olingo.server.api.uri.UriInfo} of a page, e.g. by storing and parsing the request URL again.
+ */
+public interface JPAODataSkiptokenStore {
+  /**
+   * Stores a page that can be requested by the given skiptoken
+   * @param skiptoken
+   * @param entry
+   */
+  void put(final String skiptoken, final JPAODataSkiptokenEntry entry);
+
+  /**
+   * Returns the page stored for the skiptoken. In case the skiptoken is not known, e.g. because the page has been
+   * evicted, an empty Optional is returned.
+   * @param skiptoken
+   * @return
+   */
+  Optional<JPAODataSkiptokenEntry> get(final String skiptoken);
+}
@@ -27,6 +27,7 @@ import com.sap.olingo.jpa.processor.core.modify.JPAUpdateResult;
 import com.sap.olingo.jpa.processor.core.processor.JPAModifyUtil;
 import com.sap.olingo.jpa.processor.core.processor.JPARequestEntity;
 import com.sap.olingo.jpa.processor.core.processor.JPARequestLink;
+import com.sap.olingo.jpa.processor.core.processor.JPASetBasedChange;
 
 /**
  * Example implementation at a CUD handler. The main purpose is rapid prototyping.<p/>
@@ -66,6 +67,27 @@ public class JPAExampleCUDRequestHandler extends JPAAbstractCUDRequestHandler {
     return instance;
   }
 
+  /**
+   * Creates the entities of a chunk and flushes them together, so the JPA provider can write them in JDBC batches.
+   */
+  @Override
+  public void createEntities(final List<JPARequestEntity> requestEntities, final EntityManager em)
+      throws ODataJPAProcessException {
+    for (final JPARequestEntity requestEntity : requestEntities)
+      createEntity(requestEntity, em);
+    em.flush();
+  }
+
+  /**
+   * Set-based changes are executed without further restrictions. As they bypass the persistence context, the
+   * persistence context is flushed before.
+   */
+  @Override
+  public void prepareSetBasedChange(final JPASetBasedChange change, final EntityManager em)
+      throws ODataJPAProcessException {
+    em.flush();
+  }
+
   @Override
   public void deleteEntity(JPARequestEntity requestEntity, EntityManager em) throws ODataJPAProcessException {
 
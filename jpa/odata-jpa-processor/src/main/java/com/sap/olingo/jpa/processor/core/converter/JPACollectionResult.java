@@ -12,7 +12,15 @@ public interface JPACollectionResult extends JPAExpandResult {
    * @param key
    * @return
    */
-  public Collection<Object> getPropertyCollection(final String key);
+  public Collection<Object> getPropertyCollection(final JPAResultKey key);
+
+  /**
+   * @deprecated use {@link #getPropertyCollection(JPAResultKey)}
+   */
+  @Deprecated
+  public default Collection<Object> getPropertyCollection(final String key) {
+    return getPropertyCollection(JPAResultKey.find(key, getKeyedResults().keySet()));
+  }
 
   public JPAAssociationPath getAssoziation();
 }
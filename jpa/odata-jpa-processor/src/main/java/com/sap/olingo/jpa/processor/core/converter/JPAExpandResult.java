@@ -12,19 +12,49 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 
 public interface JPAExpandResult { // NOSONAR
 
+  /**
+   * @deprecated use {@link #ROOT_KEY}
+   */
+  @Deprecated
   String ROOT_RESULT_KEY = "root";
 
+  JPAResultKey ROOT_KEY = JPAResultKey.ROOT;
+
   JPAExpandResult getChild(final JPAAssociationPath associationPath);
 
   Map<JPAAssociationPath, JPAExpandResult> getChildren();
 
-  Long getCount(final String string);
+  Long getCount(final JPAResultKey key);
 
-  JPAEntityType getEntityType();
+  /**
+   * @deprecated use {@link #getCount(JPAResultKey)}
+   */
+  @Deprecated
+  default Long getCount(final String key) {
+    return getCount(JPAResultKey.find(key, getKeyedResults().keySet()));
+  }
 
-  List<Tuple> getResult(final String key);
+  JPAEntityType getEntityType();
 
-  Map<String, List<Tuple>> getResults();
+  List<Tuple> getResult(final JPAResultKey key);
+
+  /**
+   * @deprecated use {@link #getResult(JPAResultKey)}
+   */
+  @Deprecated
+  default List<Tuple> getResult(final String key) {
+    return getResult(JPAResultKey.find(key, getKeyedResults().keySet()));
+  }
+
+  Map<JPAResultKey, List<Tuple>> getKeyedResults();
+
+  /**
+   * @deprecated use {@link #getKeyedResults()}
+   */
+  @Deprecated
+  default Map<String, List<Tuple>> getResults() {
+    return JPAResultKey.asStringKeyMap(getKeyedResults());
+  }
 
   boolean hasCount();
 
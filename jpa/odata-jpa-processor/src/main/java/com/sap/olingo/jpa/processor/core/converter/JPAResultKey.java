@@ -0,0 +1,223 @@
+package com.sap.olingo.jpa.processor.core.converter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.persistence.Tuple;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Immutable key of a part of a query result. The rows of an expand or a collection property are grouped by the values
+ * of their join columns, so that a parent can find its children using the values of its own join columns.<p>
+ * The hash code is calculated once. Single integral keys are stored as primitive <code>long</code>. Integral numbers
+ * are compared by value, so an <code>Integer</code> on the one side of a join matches a <code>Long</code> on the
+ * other side. This is also true for <code>BigDecimal</code>s and <code>BigInteger</code>s with an integral value
+ * within the range of <code>long</code>. Other <code>BigDecimal</code>s match if they differ only in their scale.<p>
+ * The string representation of a key is the same as the one of the former string based keys, which joined the values
+ * by "/". It is used by {@link #find(String, Collection)} to support the deprecated string based methods.
+ */
+public abstract class JPAResultKey {
+  /**
+   * Key of the result of the main query
+   */
+  public static final JPAResultKey ROOT = new JPAObjectKey("root");
+
+  public static JPAResultKey of(final long value) {
+    return new JPALongKey(value);
+  }
+
+  public static JPAResultKey of(final int value) {
+    return new JPALongKey(value);
+  }
+
+  public static JPAResultKey of(final Object value) {
+    final Object normalized = normalize(value);
+    if (normalized instanceof Long)
+      return new JPALongKey((Long) normalized);
+    return new JPAObjectKey(normalized);
+  }
+
+  public static JPAResultKey of(final Object... values) {
+    if (values.length == 1)
+      return of(values[0]);
+    final Object[] normalized = new Object[values.length];
+    for (int i = 0; i < values.length; i++)
+      normalized[i] = normalize(values[i]);
+    return new JPACompositeKey(normalized);
+  }
+
+  /**
+   * Creates a key from the values of the given columns of a row
+   * @param row
+   * @param columns Join columns; the alias of a column is used to get its value
+   * @return
+   */
+  public static JPAResultKey of(@Nonnull final Tuple row, @Nonnull final List<JPAPath> columns) {
+    return of(row, columns, "");
+  }
+
+  /**
+   * Creates a key from the values of the given columns of a row
+   * @param row
+   * @param columns Join columns
+   * @param aliasPrefix Prefix to be put in front of the alias of a column to get its value
+   * @return
+   */
+  public static JPAResultKey of(@Nonnull final Tuple row, @Nonnull final List<JPAPath> columns,
+      @Nonnull final String aliasPrefix) {
+
+    if (columns.size() == 1)
+      return of(row.get(aliasPrefix + columns.get(0).getAlias()));
+    final Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++)
+      values[i] = row.get(aliasPrefix + columns.get(i).getAlias());
+    return of(values);
+  }
+
+  /**
+   * Returns the key, which string representation equals a key of the former string based methods. If no such key
+   * exists, a key for the string itself is returned.
+   * @param key String based key e.g. <code>"root"</code> or <code>"1/A"</code>
+   * @param keys Keys of a result
+   * @return
+   */
+  public static JPAResultKey find(@Nonnull final String key, @Nonnull final Collection<JPAResultKey> keys) {
+    final JPAResultKey stringKey = of(key);
+    if (keys.contains(stringKey))
+      return stringKey;
+    for (final JPAResultKey candidate : keys) {
+      if (key.equals(candidate.toString()))
+        return candidate;
+    }
+    return stringKey;
+  }
+
+  /**
+   * Converts a map with result keys into a map with the string representation of the keys, as returned by the former
+   * string based methods
+   * @param <T>
+   * @param results
+   * @return
+   */
+  public static <T> Map<String, T> asStringKeyMap(@Nonnull final Map<JPAResultKey, T> results) {
+    final Map<String, T> converted = new HashMap<>(results.size());
+    for (final Entry<JPAResultKey, T> result : results.entrySet())
+      converted.put(result.getKey().toString(), result.getValue());
+    return converted;
+  }
+
+  private static boolean isIntegral(final Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  private static Object normalize(final Object value) {
+    if (isIntegral(value))
+      return ((Number) value).longValue();
+    if (value instanceof BigInteger)
+      return ((BigInteger) value).bitLength() < Long.SIZE ? (Object) ((BigInteger) value).longValue() : value;
+    if (value instanceof BigDecimal) {
+      if (((BigDecimal) value).signum() == 0)
+        return 0L;
+      final BigDecimal stripped = ((BigDecimal) value).stripTrailingZeros();
+      if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 19
+          && stripped.toBigInteger().bitLength() < Long.SIZE)
+        return stripped.longValue();
+      return stripped;
+    }
+    return value;
+  }
+
+  private JPAResultKey() {
+    super();
+  }
+
+  private static final class JPALongKey extends JPAResultKey {
+    private final long value;
+
+    private JPALongKey(final long value) {
+      super();
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof JPALongKey && ((JPALongKey) other).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return Long.toString(value);
+    }
+  }
+
+  private static final class JPAObjectKey extends JPAResultKey {
+    private final Object value;
+    private final int hash;
+
+    private JPAObjectKey(final Object value) {
+      super();
+      this.value = value;
+      this.hash = Objects.hashCode(value);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof JPAObjectKey && ((JPAObjectKey) other).hash == hash
+          && Objects.equals(((JPAObjectKey) other).value, value);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+  }
+
+  private static final class JPACompositeKey extends JPAResultKey {
+    private final Object[] values;
+    private final int hash;
+
+    private JPACompositeKey(final Object[] values) {
+      super();
+      this.values = values;
+      this.hash = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof JPACompositeKey && ((JPACompositeKey) other).hash == hash
+          && Arrays.equals(((JPACompositeKey) other).values, values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder key = new StringBuilder();
+      for (final Object value : values)
+        key.append(JPAPath.PATH_SEPERATOR).append(value);
+      return key.length() > 0 ? key.substring(1) : "";
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.sap.olingo.jpa.processor.core.converter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+
+/**
+ * Conversion plan for the rows of one query result. The plan is compiled once from the tuple elements of a row and the
+ * requested selection and reused for all rows with the same tuple elements. It maps each converted property to the
+ * position of its value within the tuple and contains the complex values that have to be created on the way to the
+ * primitive property. So the conversion of a row needs neither string based tuple access nor metadata lookups.
+ */
+final class JPARowPlan {
+  static final int NOT_SELECTED = -1;
+
+  private final JPAEntityType rowEntity;
+  private final Collection<JPAPath> requestedSelection;
+  private final List<TupleElement<?>> elements;
+  private final List<Cell> keyCells;
+  private final int etagIndex;
+  private final List<Cell> cells;
+
+  JPARowPlan(final JPAEntityType rowEntity, final Collection<JPAPath> requestedSelection, final Tuple row)
+      throws ODataJPAModelException {
+
+    this.rowEntity = rowEntity;
+    this.requestedSelection = requestedSelection;
+    this.elements = row.getElements();
+    final Map<String, Integer> indexes = new HashMap<>(elements.size());
+    for (int i = 0; i < elements.size(); i++)
+      indexes.put(elements.get(i).getAlias(), i);
+
+    final Set<String> keyProperties = new HashSet<>();
+    final List<Cell> keys = new ArrayList<>();
+    for (final JPAAttribute key : rowEntity.getKey()) {
+      final JPAPath path = rowEntity.getPath(key.getExternalName());
+      keys.add(new Cell(indexes.getOrDefault(key.getExternalName(), NOT_SELECTED), key.getExternalName(), path));
+      if (path != null) {
+        final JPAAttribute first = (JPAAttribute) path.getPath().get(0);
+        keyProperties.add(first.isKey() && first.isComplex() ? path.getLeaf().getExternalName() : first
+            .getExternalName());
+      }
+    }
+    this.keyCells = Collections.unmodifiableList(keys);
+    this.etagIndex = rowEntity.hasEtag() ? indexes.getOrDefault(rowEntity.getEtagPath().getAlias(), NOT_SELECTED)
+        : NOT_SELECTED;
+
+    final List<Cell> converted = new ArrayList<>();
+    final Set<String> aliases = new HashSet<>(keyProperties);
+    if (requestedSelection.isEmpty()) {
+      for (final TupleElement<?> element : elements) {
+        final String alias = element.getAlias();
+        if (aliases.add(alias))
+          converted.add(new Cell(indexes.get(alias), alias, rowEntity.getPath(alias)));
+      }
+    } else {
+      for (final JPAPath path : requestedSelection) {
+        final Integer index = indexes.get(path.getAlias());
+        if (index == null || aliases.add(path.getAlias()))
+          converted.add(new Cell(index == null ? NOT_SELECTED : index, path.getAlias(), path));
+      }
+    }
+    this.cells = Collections.unmodifiableList(converted);
+  }
+
+  /**
+   * A plan can be used for a row, if the row has the same tuple elements as the row the plan was created for
+   */
+  boolean fits(final JPAEntityType entity, final Collection<JPAPath> selection, final Tuple row) {
+    if (entity != rowEntity || selection != requestedSelection)
+      return false;
+    final List<TupleElement<?>> rowElements = row.getElements();
+    if (rowElements == elements)
+      return true;
+    if (rowElements.size() != elements.size())
+      return false;
+    for (int i = 0; i < elements.size(); i++) {
+      if (!elements.get(i).getAlias().equals(rowElements.get(i).getAlias()))
+        return false;
+    }
+    return true;
+  }
+
+  List<Cell> getKeyCells() {
+    return keyCells;
+  }
+
+  /**
+   * @return Position of the ETag within the tuple or {@value #NOT_SELECTED}
+   */
+  int getEtagIndex() {
+    return etagIndex;
+  }
+
+  /**
+   * @return The properties to be converted, except the key properties
+   */
+  List<Cell> getCells() {
+    return cells;
+  }
+
+  /**
+   * One property of a row: position of the value within the tuple, the complex values that contain the property and
+   * the primitive property itself
+   */
+  static final class Cell {
+    private final int index;
+    private final String alias;
+    private final List<ComplexStep> complexSteps;
+    private final JPAPath leafPath;
+    private final JPAAttribute leafAttribute;
+
+    private Cell(final int index, final String alias, final JPAPath path) throws ODataJPAModelException {
+      this.index = index;
+      this.alias = alias;
+      final List<ComplexStep> steps = new ArrayList<>(2);
+      JPAPath current = path;
+      JPAAttribute attribute = null;
+      String prefix = JPATupleResultConverter.EMPTY_PREFIX;
+      String externalName = path != null ? path.getAlias() : null;
+      while (current != null) {
+        attribute = (JPAAttribute) current.getPath().get(0);
+        if (attribute == null || attribute.isKey() || !attribute.isComplex())
+          break;
+        // Same as JPATupleResultConverter.convertComplexAttribute
+        final String bufferKey = JPATupleResultConverter.EMPTY_PREFIX.equals(prefix) ? attribute.getExternalName()
+            : prefix + JPAPath.PATH_SEPERATOR + attribute.getExternalName();
+        steps.add(new ComplexStep(attribute, bufferKey));
+        final int splitIndex = attribute.getExternalName().length() + JPAPath.PATH_SEPERATOR.length();
+        final String attributeName = splitIndex < externalName.length() ? externalName.substring(splitIndex)
+            : externalName;
+        current = attribute.getStructuredType().getPath(attributeName);
+        externalName = current != null ? current.getAlias() : null;
+        prefix = bufferKey;
+        attribute = null;
+      }
+      this.complexSteps = Collections.unmodifiableList(steps);
+      this.leafPath = current;
+      this.leafAttribute = attribute;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    String getAlias() {
+      return alias;
+    }
+
+    List<ComplexStep> getComplexSteps() {
+      return complexSteps;
+    }
+
+    /**
+     * @return Path of the primitive property relative to the innermost complex value or null, if there is none
+     */
+    JPAPath getLeafPath() {
+      return leafPath;
+    }
+
+    JPAAttribute getLeafAttribute() {
+      return leafAttribute;
+    }
+  }
+
+  static final class ComplexStep {
+    private final JPAAttribute attribute;
+    private final String bufferKey;
+
+    private ComplexStep(final JPAAttribute attribute, final String bufferKey) {
+      this.attribute = attribute;
+      this.bufferKey = bufferKey;
+    }
+
+    JPAAttribute getAttribute() {
+      return attribute;
+    }
+
+    String getBufferKey() {
+      return bufferKey;
+    }
+  }
+}
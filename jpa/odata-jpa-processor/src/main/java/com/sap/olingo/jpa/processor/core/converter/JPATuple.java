@@ -12,23 +12,30 @@ public final class JPATuple implements Tuple {
 
   private List<TupleElement<?>> elements = new ArrayList<>();
   private Map<String, Object> values = new HashMap<>();
+  private List<Object> positionalValues = new ArrayList<>();
 
   public void addElement(final String alias, Class<?> javaType, final Object value) {
     elements.add(new JPATupleElement<Object>(alias, javaType));
     values.put(alias, value);
-
+    positionalValues.add(value);
   }
 
+  /**
+   * Get the value of the element at the specified position in the result tuple. The first position is 0.
+   * @param index position in result tuple
+   * @return value of the tuple element
+   * @throws IllegalArgumentException if i exceeds length of result tuple
+   */
   @Override
-  public Object get(final int arg0) {
-    assert 1 == 2;
-    return null;
+  public Object get(final int index) {
+    if (index < 0 || index >= positionalValues.size())
+      throw new IllegalArgumentException("Index " + index + " out of range");
+    return positionalValues.get(index);
   }
 
   @Override
-  public <X> X get(final int arg0, final Class<X> arg1) {
-    assert 1 == 2;
-    return null;
+  public <X> X get(final int index, final Class<X> type) {
+    return type.cast(get(index));
   }
 
   /**
@@ -63,7 +70,7 @@ public final class JPATuple implements Tuple {
 
   @Override
   public Object[] toArray() {
-    return new Object[] {};
+    return positionalValues.toArray();
   }
 
   private class JPATupleElement<X> implements TupleElement<X> {
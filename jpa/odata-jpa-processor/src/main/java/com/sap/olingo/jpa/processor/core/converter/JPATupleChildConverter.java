@@ -5,17 +5,19 @@ import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.persistence.Tuple;
-import javax.persistence.TupleElement;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
@@ -35,6 +37,8 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPARowPlan.Cell;
+import com.sap.olingo.jpa.processor.core.converter.JPARowPlan.ComplexStep;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 /**
@@ -43,10 +47,14 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
  * stored in an ArrayList and deleting a row, which is not the last row, leads to an array copy, which can consume a lot
  * of time. For the same reason no trimToSize() is called. As an alternative to an ArrayList also a simple linked list
  * could be used, but this comes with the draw back that each entry would consume round about double space in the list.
+ * <p>
+ * The rows are converted using a {@link JPARowPlan}, which is created once per result, so that wide rows can be
+ * converted without metadata lookups per cell.
  * @author Oliver Grande
  *
  */
 public class JPATupleChildConverter extends JPATupleResultConverter {
+  private JPARowPlan rowPlan;
 
   public JPATupleChildConverter(final JPAServiceDocument sd, final UriHelper uriHelper,
       final ServiceMetadata serviceMetadata) {
@@ -58,33 +66,32 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
     this(converter.sd, converter.uriHelper, converter.serviceMetadata);
   }
 
-  public Map<String, List<Object>> getCollectionResult(final JPACollectionResult jpaResult,
+  public Map<JPAResultKey, List<Object>> getCollectionResult(final JPACollectionResult jpaResult,
       final Collection<JPAPath> reqestedSelection) throws ODataApplicationException {
 
     return new JPATupleCollectionConverter(sd, uriHelper, serviceMetadata).getResult(jpaResult, reqestedSelection);
   }
 
   @Override
-  public Map<String, EntityCollection> getResult(final JPAExpandResult jpaResult,
+  public Map<JPAResultKey, EntityCollection> getResult(final JPAExpandResult jpaResult,
       final Collection<JPAPath> reqestedSelection) throws ODataApplicationException {
 
     jpaQueryResult = jpaResult;
     this.setName = determineSetName(jpaQueryResult, sd);
     this.jpaConversionTargetEntity = jpaQueryResult.getEntityType();
     this.edmType = determineEdmType();
-    final Map<String, List<Tuple>> childResult = jpaResult.getResults();
+    this.rowPlan = null;
+    final Map<JPAResultKey, List<Tuple>> childResult = jpaResult.getKeyedResults();
 
-    final Map<String, EntityCollection> result = new HashMap<>(childResult.size());
-    for (Entry<String, List<Tuple>> tuple : childResult.entrySet()) {
+    final Map<JPAResultKey, EntityCollection> result = new HashMap<>(childResult.size());
+    for (Entry<JPAResultKey, List<Tuple>> tuple : childResult.entrySet()) {
       final EntityCollection entityCollection = new EntityCollection();
       final List<Entity> entities = entityCollection.getEntities();
       final List<Tuple> rows = tuple.getValue();
 
       for (int i = 0; i < rows.size(); i++) {
         final Tuple row = rows.set(i, null);
-        final Entity odataEntity = convertRow(jpaConversionTargetEntity, row, reqestedSelection);
-        odataEntity.setMediaContentType(determineContentType(jpaConversionTargetEntity, row));
-        entities.add(odataEntity);
+        entities.add(convertRow(row, reqestedSelection));
       }
       result.put(tuple.getKey(), entityCollection);
     }
@@ -92,6 +99,51 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
     return result;
   }
 
+  /**
+   * Provides the result of one key as iterator. Other than {@link #getResult(JPAExpandResult, Collection)} a row is
+   * only converted when the iterator reaches it, so no complete {@link EntityCollection} is created. The children of
+   * <code>jpaResult</code> have to be converted before.
+   * @param jpaResult
+   * @param reqestedSelection
+   * @param key
+   * @return
+   * @throws ODataApplicationException
+   */
+  public EntityIterator getResultIterator(final JPAExpandResult jpaResult, final Collection<JPAPath> reqestedSelection,
+      final JPAResultKey key) throws ODataApplicationException {
+
+    final List<Tuple> rows = jpaResult.getResult(key);
+    return getResultIterator(jpaResult, reqestedSelection, rows == null ? Collections.<Tuple> emptyList()
+        .listIterator() : rows.listIterator());
+  }
+
+  /**
+   * Provides the given rows as iterator, e.g. rows that are read from the database chunk by chunk, while the
+   * serializer iterates over the result. <code>jpaResult</code> only provides the entity type.
+   * @param jpaResult
+   * @param reqestedSelection
+   * @param rows
+   * @return
+   * @throws ODataApplicationException
+   */
+  public EntityIterator getResultIterator(final JPAExpandResult jpaResult, final Collection<JPAPath> reqestedSelection,
+      final Iterator<Tuple> rows) throws ODataApplicationException {
+
+    jpaQueryResult = jpaResult;
+    this.setName = determineSetName(jpaQueryResult, sd);
+    this.jpaConversionTargetEntity = jpaQueryResult.getEntityType();
+    this.edmType = determineEdmType();
+    this.rowPlan = null;
+    return new JPATupleEntityIterator(this, rows, reqestedSelection);
+  }
+
+  Entity convertRow(final Tuple row, final Collection<JPAPath> reqestedSelection)
+      throws ODataApplicationException {
+    final Entity odataEntity = convertRow(jpaConversionTargetEntity, row, reqestedSelection);
+    odataEntity.setMediaContentType(determineContentType(jpaConversionTargetEntity, row));
+    return odataEntity;
+  }
+
   protected Entity convertRow(final JPAEntityType rowEntity, final Tuple row,
       final Collection<JPAPath> reqestedSelection) throws ODataApplicationException {
 
@@ -100,63 +152,52 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
 
     odataEntity.setType(edmType.getFullQualifiedName().getFullQualifiedNameAsString());
     final List<Property> properties = odataEntity.getProperties();
-    // Creates and add the key of an entity. In general OData allows a server to add additional properties that are not
-    // part of $select. As Olingo adds the key properties (with null) anyhow this can be done here already
-    createId(rowEntity, row, odataEntity);
-    createEtag(rowEntity, row, odataEntity);
-    if (reqestedSelection.isEmpty())
-      convertRowWithOutSelection(rowEntity, row, complexValueBuffer, odataEntity, properties);
-    else
-      convertRowWithSelection(row, reqestedSelection, complexValueBuffer, odataEntity, properties);
+    try {
+      final JPARowPlan plan = determineRowPlan(rowEntity, row, reqestedSelection);
+      // Creates and add the key of an entity. In general OData allows a server to add additional properties that are
+      // not part of $select. As Olingo adds the key properties (with null) anyhow this can be done here already
+      createId(plan, row, odataEntity);
+      createEtag(plan, rowEntity, row, odataEntity);
+      for (final Cell cell : plan.getCells()) {
+        // Properties that are requested, but not selected, e.g. because of missing authorizations, are added with null
+        // TODO: Transient attributes
+        final Object value = cell.getIndex() != JPARowPlan.NOT_SELECTED ? row.get(cell.getIndex()) : null;
+        convertCell(cell, value, complexValueBuffer, properties, row, odataEntity);
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
     createCollectionProperties(rowEntity, row, properties);
     odataEntity.getNavigationLinks().addAll(createExpand(rowEntity, row, EMPTY_PREFIX, odataEntity.getId().toString()));
 
     return odataEntity;
   }
 
-  private void convertRowWithOutSelection(final JPAEntityType rowEntity, final Tuple row,
-      final Map<String, ComplexValue> complexValueBuffer, final Entity odataEntity, final List<Property> properties)
-      throws ODataApplicationException {
-    for (final TupleElement<?> element : row.getElements()) {
-      try {
-        if (odataEntity.getProperty(element.getAlias()) == null) {
-          final JPAPath path = rowEntity.getPath(element.getAlias());
-          convertAttribute(row.get(element.getAlias()), path, complexValueBuffer, properties, row, EMPTY_PREFIX,
-              odataEntity);
-        }
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-            HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-      }
-    }
+  private JPARowPlan determineRowPlan(final JPAEntityType rowEntity, final Tuple row,
+      final Collection<JPAPath> reqestedSelection) throws ODataJPAModelException {
+
+    if (rowPlan == null || !rowPlan.fits(rowEntity, reqestedSelection, row))
+      rowPlan = new JPARowPlan(rowEntity, reqestedSelection, row);
+    return rowPlan;
   }
 
-  private void convertRowWithSelection(final Tuple row, final Collection<JPAPath> reqestedSelection,
-      final Map<String, ComplexValue> complexValueBuffer, final Entity odataEntity, final List<Property> properties)
-      throws ODataApplicationException {
-    for (final JPAPath p : reqestedSelection) {
-      try {
-        final Object value = row.get(p.getAlias());
-
-        if (odataEntity.getProperty(p.getAlias()) == null)
-          convertAttribute(value, p, complexValueBuffer, properties, row, EMPTY_PREFIX, odataEntity);
-
-      } catch (IllegalArgumentException e) {
-        // Skipped property; add it to result
-        final JPATuple skipped = new JPATuple();
-        skipped.addElement(p.getAlias(), p.getLeaf().getType(), null);
-        try {
-          convertAttribute(null, p, complexValueBuffer, properties, skipped, EMPTY_PREFIX, odataEntity);
-        } catch (ODataJPAModelException e1) {
-          throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-              HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-        }
-        // TODO: Transient attributes
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-            HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-      }
+  /**
+   * Same as {@link #convertAttribute}, but the complex values and the primitive property are taken from the row plan
+   */
+  private void convertCell(final Cell cell, final Object value, final Map<String, ComplexValue> complexValueBuffer,
+      final List<Property> properties, final Tuple row, @Nullable final Entity odataEntity)
+      throws ODataJPAModelException, ODataApplicationException {
+
+    List<Property> values = properties;
+    for (final ComplexStep step : cell.getComplexSteps()) {
+      if (!complexValueBuffer.containsKey(step.getBufferKey()))
+        createComplexValue(complexValueBuffer, values, step.getAttribute(), row, step.getBufferKey(),
+            odataEntity == null ? "" : odataEntity.getId().toString());
+      values = complexValueBuffer.get(step.getBufferKey()).getValue();
     }
+    if (cell.getLeafAttribute() != null)
+      convertPrimitiveAttribute(value, values, cell.getLeafPath(), cell.getLeafAttribute(), odataEntity);
   }
 
   protected void createCollectionProperties(final JPAStructuredType jpaStructuredType, final Tuple row,
@@ -184,7 +225,7 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
   private void addCollcetion(final Tuple row, List<Property> result, final JPACollectionAttribute collection,
       final JPAExpandResult child) throws ODataJPAModelException {
     final Collection<Object> collectionResult = ((JPACollectionResult) child).getPropertyCollection(
-        buildConcatenatedKey(row, collection.asAssociation().getLeftColumnsList()));
+        buildResultKey(row, collection.asAssociation().getLeftColumnsList()));
 
     result.add(new Property(
         null,
@@ -239,14 +280,15 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
     }
   }
 
-  protected void createId(final JPAEntityType rowEntity, final Tuple row, final Entity odataEntity)
+  private void createId(final JPARowPlan plan, final Tuple row, final Entity odataEntity)
       throws ODataApplicationException {
 
     final Map<String, ComplexValue> complexValueBuffer = Collections.emptyMap();
     try {
-      for (final JPAAttribute path : rowEntity.getKey()) {
-        convertAttribute(row.get(path.getExternalName()), rowEntity.getPath(path.getExternalName()), complexValueBuffer,
-            odataEntity.getProperties(), row, EMPTY_PREFIX, null);
+      for (final Cell key : plan.getKeyCells()) {
+        final Object value = key.getIndex() != JPARowPlan.NOT_SELECTED ? row.get(key.getIndex()) : row.get(key
+            .getAlias());
+        convertCell(key, value, complexValueBuffer, odataEntity.getProperties(), row, null);
       }
     } catch (final ODataJPAModelException e) {
       throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
@@ -255,13 +297,13 @@ public class JPATupleChildConverter extends JPATupleResultConverter {
     odataEntity.setId(createId(odataEntity));
   }
 
-  private void createEtag(@Nonnull JPAEntityType rowEntity, Tuple row, Entity odataEntity)
+  private void createEtag(final JPARowPlan plan, @Nonnull JPAEntityType rowEntity, Tuple row, Entity odataEntity)
       throws ODataJPAQueryException {
 
     try {
       if (rowEntity.hasEtag()) {
-        final String etagAlias = rowEntity.getEtagPath().getAlias();
-        final Object etag = row.get(etagAlias);
+        final Object etag = plan.getEtagIndex() != JPARowPlan.NOT_SELECTED ? row.get(plan.getEtagIndex())
+            : row.get(rowEntity.getEtagPath().getAlias());
         if (etag != null) {
           odataEntity.setETag(etag.toString());
         }
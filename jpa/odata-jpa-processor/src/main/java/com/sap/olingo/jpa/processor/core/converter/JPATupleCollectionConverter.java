@@ -33,7 +33,7 @@ public class JPATupleCollectionConverter extends JPATupleResultConverter {
   }
 
   @Override
-  public Map<String, List<Object>> getResult(final JPAExpandResult dbResult,
+  public Map<JPAResultKey, List<Object>> getResult(final JPAExpandResult dbResult,
       final Collection<JPAPath> reqestedSelection) throws ODataApplicationException {
 
     jpaQueryResult = dbResult;
@@ -41,14 +41,14 @@ public class JPATupleCollectionConverter extends JPATupleResultConverter {
     final JPAAssociationAttribute attribute = jpaResult.getAssoziation().getLeaf();
     final boolean isComplex = attribute.isComplex();
 
-    final Map<String, List<Tuple>> childResult = jpaResult.getResults();
-    final Map<String, List<Object>> result = new HashMap<>(childResult.size());
+    final Map<JPAResultKey, List<Tuple>> childResult = jpaResult.getKeyedResults();
+    final Map<JPAResultKey, List<Object>> result = new HashMap<>(childResult.size());
     try {
       final JPAStructuredType st = determineCollectionRoot(jpaResult.getEntityType(), jpaResult.getAssoziation()
           .getPath());
       final String prefix = determinePrefix(jpaResult.getAssoziation().getAlias());
 
-      for (Entry<String, List<Tuple>> tuple : childResult.entrySet()) {
+      for (Entry<JPAResultKey, List<Tuple>> tuple : childResult.entrySet()) {
         final List<Object> collection = new ArrayList<>();
         final List<Tuple> rows = tuple.getValue();
         for (int i = 0; i < rows.size(); i++) {
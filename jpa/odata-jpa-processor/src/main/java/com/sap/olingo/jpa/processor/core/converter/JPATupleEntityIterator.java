@@ -0,0 +1,50 @@
+package com.sap.olingo.jpa.processor.core.converter;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import javax.persistence.Tuple;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Converts the rows of a query result into Olingo entities one by one, while the serializer iterates over the result.
+ * The rows are either taken from a list, in which case like in {@link JPATupleChildConverter} each converted row is
+ * set to null to free the memory as early as possible, or they are read from the database while iterating.
+ */
+final class JPATupleEntityIterator extends EntityIterator {
+  private final JPATupleChildConverter converter;
+  private final Iterator<Tuple> rows;
+  private final Collection<JPAPath> requestedSelection;
+
+  JPATupleEntityIterator(final JPATupleChildConverter converter, final Iterator<Tuple> rows,
+      final Collection<JPAPath> requestedSelection) {
+    super();
+    this.converter = converter;
+    this.rows = rows;
+    this.requestedSelection = requestedSelection;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return rows.hasNext();
+  }
+
+  @Override
+  public Entity next() {
+    final Tuple row = rows.next();
+    if (rows instanceof ListIterator)
+      ((ListIterator<Tuple>) rows).set(null);
+    try {
+      return converter.convertRow(row, requestedSelection);
+    } catch (ODataApplicationException e) {
+      throw new ODataRuntimeException(e);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.processor.core.converter;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -49,6 +50,9 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
   protected final JPAServiceDocument sd;
   protected final ServiceMetadata serviceMetadata;
   protected EdmEntityType edmType;
+  private final Map<String, List<ExpandTemplate>> expandTemplates = new HashMap<>();
+  private JPAExpandResult expandTemplatesResult;
+  private JPAEntityType expandTemplatesEntity;
 
   public JPATupleResultConverter(final JPAServiceDocument sd, final UriHelper uriHelper,
       final ServiceMetadata serviceMetadata) {
@@ -57,15 +61,9 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
     this.serviceMetadata = serviceMetadata;
   }
 
-  protected String buildConcatenatedKey(final Tuple row, final List<JPAPath> leftColumns) {
-    final StringBuilder buffer = new StringBuilder();
-    for (final JPAPath item : leftColumns) {
-      buffer.append(JPAPath.PATH_SEPERATOR);
-      // TODO Tuple returns the converted value in case a @Convert(converter = annotation is given
-      buffer.append(row.get(item.getAlias()));
-    }
-    buffer.deleteCharAt(0);
-    return buffer.toString();
+  protected JPAResultKey buildResultKey(final Tuple row, final List<JPAPath> leftColumns) {
+    // TODO Tuple returns the converted value in case a @Convert(converter = annotation is given
+    return JPAResultKey.of(row, leftColumns);
   }
 
   protected String buildPath(final String prefix, final JPAAssociationAttribute association) {
@@ -107,26 +105,48 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
 
   protected Collection<Link> createExpand(final JPAStructuredType jpaStructuredType, final Tuple row,
       final String prefix, final String rootURI) throws ODataApplicationException {
-    final List<Link> entityExpandLinks = new ArrayList<>();
+    final List<ExpandTemplate> templates = determineExpandTemplates(jpaStructuredType, prefix);
+    final List<Link> entityExpandLinks = new ArrayList<>(templates.size());
+    for (final ExpandTemplate template : templates) {
+      final String linkURI = rootURI + JPAPath.PATH_SEPERATOR + template.path.getAlias();
+      if (template.child != null) {
+        // TODO Check how to convert Organizations('3')/AdministrativeInformation?$expand=Created/User
+        entityExpandLinks.add(getLink(template.path, row, template.child, linkURI));
+      } else {
+        entityExpandLinks.add(getLink(template.path, linkURI));
+      }
+    }
+    return entityExpandLinks;
+  }
 
-    JPAAssociationPath path = null;
-    try {
-      for (final JPAAssociationAttribute a : jpaStructuredType.getDeclaredAssociations()) {
-        path = jpaConversionTargetEntity.getAssociationPath(buildPath(prefix, a));
-        final JPAExpandResult child = jpaQueryResult.getChild(path);
-        final String linkURI = rootURI + JPAPath.PATH_SEPERATOR + path.getAlias();
-        if (child != null) {
-          // TODO Check how to convert Organizations('3')/AdministrativeInformation?$expand=Created/User
-          entityExpandLinks.add(getLink(path, row, child, linkURI));
-        } else {
-          entityExpandLinks.add(getLink(path, linkURI));
+  /**
+   * The navigation properties of a structured type and their expand results are the same for all rows of a result.
+   * Therefore they are determined only once per result.
+   */
+  private List<ExpandTemplate> determineExpandTemplates(final JPAStructuredType jpaStructuredType,
+      final String prefix) throws ODataJPAQueryException {
+
+    if (expandTemplatesResult != jpaQueryResult || expandTemplatesEntity != jpaConversionTargetEntity) {
+      expandTemplates.clear();
+      expandTemplatesResult = jpaQueryResult;
+      expandTemplatesEntity = jpaConversionTargetEntity;
+    }
+    List<ExpandTemplate> templates = expandTemplates.get(prefix);
+    if (templates == null) {
+      templates = new ArrayList<>();
+      JPAAssociationPath path = null;
+      try {
+        for (final JPAAssociationAttribute a : jpaStructuredType.getDeclaredAssociations()) {
+          path = jpaConversionTargetEntity.getAssociationPath(buildPath(prefix, a));
+          templates.add(new ExpandTemplate(path, jpaQueryResult.getChild(path)));
         }
+      } catch (ODataJPAModelException e) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_NAVI_PROPERTY_ERROR,
+            HttpStatusCode.INTERNAL_SERVER_ERROR, path != null ? path.getAlias() : EMPTY_PREFIX);
       }
-    } catch (ODataJPAModelException e) {
-      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_NAVI_PROPERTY_ERROR,
-          HttpStatusCode.INTERNAL_SERVER_ERROR, path != null ? path.getAlias() : EMPTY_PREFIX);
+      expandTemplates.put(prefix, templates);
     }
-    return entityExpandLinks;
+    return templates;
   }
 
   protected final String determineAlias(final String alias, final String prefix) {
@@ -212,7 +232,7 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
   Integer determineCount(final JPAAssociationPath assoziation, final Tuple parentRow, final JPAExpandResult child)
       throws ODataJPAQueryException {
     try {
-      Long count = child.getCount(buildConcatenatedKey(parentRow, assoziation.getLeftColumnsList()));
+      Long count = child.getCount(buildResultKey(parentRow, assoziation.getLeftColumnsList()));
       return count != null ? Integer.valueOf(count.intValue()) : null;
     } catch (ODataJPAModelException e) {
       throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
@@ -228,7 +248,7 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
     link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
     try {
       final EntityCollection expandCollection = ((JPAConvertableResult) child).getEntityCollection(
-          buildConcatenatedKey(parentRow, assoziation.getLeftColumnsList()));
+          buildResultKey(parentRow, assoziation.getLeftColumnsList()));
 
       expandCollection.setCount(determineCount(assoziation, parentRow, child));
       if (assoziation.getLeaf().isCollection()) {
@@ -257,4 +277,13 @@ abstract class JPATupleResultConverter implements JPAResultConverter {
     return link;
   }
 
+  private static class ExpandTemplate {
+    private final JPAAssociationPath path;
+    private final JPAExpandResult child;
+
+    private ExpandTemplate(final JPAAssociationPath path, final JPAExpandResult child) {
+      this.path = path;
+      this.child = child;
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
+
+/**
+ * Restricts the rows of an $expand by the number of rows of the same parent that precede a row. This is the portable
+ * form of <code>ROW_NUMBER() OVER (PARTITION BY ... ORDER BY ...) &lt;= limit</code>, which can be expressed with
+ * JPA:<p>
+ * <code>WHERE (SELECT COUNT(*) FROM child c2 WHERE c2.parent = c.parent AND c2 precedes c) &lt; limit</code><p>
+ * Rows having null values in an order by column are not counted as predecessor, so the restriction may return more rows
+ * than requested, but never less.
+ */
+final class JPAExpandLimitRestriction {
+
+  private JPAExpandLimitRestriction() {}
+
+  static Expression<Boolean> create(final CriteriaBuilder cb, final CriteriaQuery<?> cq, final From<?, ?> root,
+      final JPAEntityType entityType, final List<JPAPath> partitionBy, final Map<JPAPath, Boolean> orderBy,
+      final long limit) {
+
+    final Subquery<Long> rank = cq.subquery(Long.class);
+    final Root<?> predecessor = rank.from(entityType.getTypeClass());
+    rank.select(cb.count(predecessor));
+
+    Expression<Boolean> restriction = null;
+    for (final JPAPath path : partitionBy) {
+      restriction = and(cb, restriction, cb.equal(ExpressionUtil.convertToCriteriaPath(predecessor, path.getPath()),
+          ExpressionUtil.convertToCriteriaPath(root, path.getPath())));
+    }
+    Expression<Boolean> precedes = null;
+    Expression<Boolean> equalBefore = null;
+    for (final Entry<JPAPath, Boolean> order : orderBy.entrySet()) {
+      final Expression<Comparable<Object>> left = convertToComparable(predecessor, order.getKey());
+      final Expression<Comparable<Object>> right = convertToComparable(root, order.getKey());
+      final Expression<Boolean> before = Boolean.TRUE.equals(order.getValue()) ? cb.greaterThan(left, right)
+          : cb.lessThan(left, right);
+      precedes = or(cb, precedes, and(cb, equalBefore, before));
+      equalBefore = and(cb, equalBefore, cb.equal(left, right));
+    }
+    rank.where(and(cb, restriction, precedes));
+    return cb.greaterThan(cb.literal(limit), rank);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Expression<Comparable<Object>> convertToComparable(final From<?, ?> from, final JPAPath path) {
+    return (Expression<Comparable<Object>>) ExpressionUtil.convertToCriteriaPath(from, path.getPath());
+  }
+
+  private static Expression<Boolean> and(final CriteriaBuilder cb, final Expression<Boolean> left,
+      final Expression<Boolean> right) {
+    return left == null ? right : cb.and(left, right);
+  }
+
+  private static Expression<Boolean> or(final CriteriaBuilder cb, final Expression<Boolean> left,
+      final Expression<Boolean> right) {
+    return left == null ? right : cb.or(left, right);
+  }
+}
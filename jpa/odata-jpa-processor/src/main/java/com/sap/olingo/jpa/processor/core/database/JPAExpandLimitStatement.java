@@ -0,0 +1,167 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.persistence.Entity;
+import javax.persistence.SecondaryTable;
+import javax.persistence.SecondaryTables;
+import javax.persistence.Table;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+
+/**
+ * Creates native statements that return the keys of the first rows per parent of an $expand. In contrast to
+ * {@link JPAExpandLimitRestriction}, which needs a correlated subquery per row, the database ranks the rows of a parent
+ * only once. Two forms are supported:
+ * <ul>
+ * <li>Window function:<br>
+ * <code>SELECT k FROM (SELECT k, ROW_NUMBER() OVER (PARTITION BY p ORDER BY o) AS "ROW_NO" FROM t WHERE p IN (?, ?))
+ * AS "RANKED" WHERE "RANKED"."ROW_NO" &lt;= limit</code>
+ * <li>Lateral join:<br>
+ * <code>SELECT "L".k FROM (SELECT DISTINCT p FROM t WHERE p IN (?, ?)) AS "P", LATERAL (SELECT "C".k FROM t AS "C"
+ * WHERE "C".p = "P".p ORDER BY "C".o LIMIT limit) AS "L"</code>
+ * </ul>
+ * The parameters are the values of the partition columns of the parents, one parent after the other. The statements
+ * can only be created if the entity type is stored in exactly one table, so no statement is created for entity types
+ * that are part of an inheritance hierarchy below the root, have a secondary table or no table annotation, or if a
+ * column is part of an embedded type.
+ */
+final class JPAExpandLimitStatement {
+  private static final String PARAMETER = "?";
+  private static final String ROW_NUMBER_ALIAS = "\"ROW_NO\"";
+  private static final String RANKED_ALIAS = "\"RANKED\"";
+  private static final String PARENT_ALIAS = "\"P\"";
+  private static final String CHILD_ALIAS = "\"C\"";
+  private static final String LATERAL_ALIAS = "\"L\"";
+
+  private JPAExpandLimitStatement() {}
+
+  static String createRowNumber(final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit, final int noParents) throws ODataJPADBAdaptorException {
+
+    final String tableName = determineTableName(entityType);
+    if (tableName == null || !isSimple(partitionBy) || !isSimple(orderBy.keySet()))
+      return null;
+    final List<String> keyColumns = determineKeyColumns(entityType);
+    return new StringBuilder("SELECT ")
+        .append(String.join(", ", keyColumns))
+        .append(" FROM (SELECT ")
+        .append(String.join(", ", keyColumns))
+        .append(", ROW_NUMBER() OVER (PARTITION BY ")
+        .append(String.join(", ", columns(partitionBy)))
+        .append(" ORDER BY ")
+        .append(orderByList(orderBy, null))
+        .append(") AS ").append(ROW_NUMBER_ALIAS)
+        .append(" FROM ").append(tableName)
+        .append(" WHERE ").append(parentCondition(partitionBy, noParents))
+        .append(") AS ").append(RANKED_ALIAS)
+        .append(" WHERE ").append(RANKED_ALIAS).append('.').append(ROW_NUMBER_ALIAS).append(" <= ").append(limit)
+        .toString();
+  }
+
+  static String createLateral(final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit, final int noParents) throws ODataJPADBAdaptorException {
+
+    final String tableName = determineTableName(entityType);
+    if (tableName == null || !isSimple(partitionBy) || !isSimple(orderBy.keySet()))
+      return null;
+    final List<String> partitionColumns = columns(partitionBy);
+    final List<String> joinCondition = new ArrayList<>(partitionColumns.size());
+    for (final String column : partitionColumns)
+      joinCondition.add(CHILD_ALIAS + "." + column + " = " + PARENT_ALIAS + "." + column);
+    final List<String> keyColumns = determineKeyColumns(entityType);
+    final List<String> lateralKeyColumns = new ArrayList<>(keyColumns.size());
+    final List<String> childKeyColumns = new ArrayList<>(keyColumns.size());
+    for (final String column : keyColumns) {
+      lateralKeyColumns.add(LATERAL_ALIAS + "." + column);
+      childKeyColumns.add(CHILD_ALIAS + "." + column);
+    }
+    return new StringBuilder("SELECT ")
+        .append(String.join(", ", lateralKeyColumns))
+        .append(" FROM (SELECT DISTINCT ")
+        .append(String.join(", ", partitionColumns))
+        .append(" FROM ").append(tableName)
+        .append(" WHERE ").append(parentCondition(partitionBy, noParents))
+        .append(") AS ").append(PARENT_ALIAS)
+        .append(", LATERAL (SELECT ")
+        .append(String.join(", ", childKeyColumns))
+        .append(" FROM ").append(tableName).append(" AS ").append(CHILD_ALIAS)
+        .append(" WHERE ").append(String.join(" AND ", joinCondition))
+        .append(" ORDER BY ").append(orderByList(orderBy, CHILD_ALIAS))
+        .append(" LIMIT ").append(limit)
+        .append(") AS ").append(LATERAL_ALIAS)
+        .toString();
+  }
+
+  private static String determineTableName(final JPAEntityType entityType) {
+    final Class<?> typeClass = entityType.getTypeClass();
+    final Table table = typeClass.getAnnotation(Table.class);
+    if (table == null || table.name().isEmpty()
+        || typeClass.getAnnotation(SecondaryTable.class) != null
+        || typeClass.getAnnotation(SecondaryTables.class) != null
+        || (typeClass.getSuperclass() != null && typeClass.getSuperclass().getAnnotation(Entity.class) != null))
+      return null;
+    return table.schema().isEmpty() ? table.name() : table.schema() + "." + table.name();
+  }
+
+  private static List<String> determineKeyColumns(final JPAEntityType entityType) throws ODataJPADBAdaptorException {
+    try {
+      final List<String> keyColumns = new ArrayList<>();
+      for (final JPAAttribute keyAttribute : entityType.getKey())
+        keyColumns.add(entityType.getPath(keyAttribute.getExternalName()).getDBFieldName());
+      return keyColumns;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPADBAdaptorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private static boolean isSimple(final Iterable<JPAPath> paths) {
+    for (final JPAPath path : paths) {
+      if (path.getPath().size() != 1)
+        return false;
+    }
+    return true;
+  }
+
+  private static List<String> columns(final List<JPAPath> paths) {
+    final List<String> columns = new ArrayList<>(paths.size());
+    for (final JPAPath path : paths)
+      columns.add(path.getDBFieldName());
+    return columns;
+  }
+
+  private static String orderByList(final Map<JPAPath, Boolean> orderBy, final String alias) {
+    final List<String> items = new ArrayList<>(orderBy.size());
+    for (final Entry<JPAPath, Boolean> order : orderBy.entrySet()) {
+      final String column = alias == null ? order.getKey().getDBFieldName()
+          : alias + "." + order.getKey().getDBFieldName();
+      items.add(Boolean.TRUE.equals(order.getValue()) ? column + " DESC" : column + " ASC");
+    }
+    return String.join(", ", items);
+  }
+
+  private static String parentCondition(final List<JPAPath> partitionBy, final int noParents) {
+    final List<String> parents = new ArrayList<>(noParents);
+    if (partitionBy.size() == 1) {
+      for (int i = 0; i < noParents; i++)
+        parents.add(PARAMETER);
+      return partitionBy.get(0).getDBFieldName() + " IN (" + String.join(", ", parents) + ")";
+    }
+    final List<String> equations = new ArrayList<>(partitionBy.size());
+    for (final JPAPath path : partitionBy)
+      equations.add(path.getDBFieldName() + " = " + PARAMETER);
+    final String parent = "(" + String.join(" AND ", equations) + ")";
+    for (int i = 0; i < noParents; i++)
+      parents.add(parent);
+    return String.join(" OR ", parents);
+  }
+}
@@ -0,0 +1,60 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+public interface JPAODataDatabaseExpandLimit {
+  /**
+   * $top and $skip within an $expand have to be applied per parent, which can not be expressed with JPA, as it does not
+   * support window functions like <code>ROW_NUMBER() OVER (PARTITION BY ... ORDER BY ...)</code>. A database processor
+   * can restrict the rows read for an $expand by a where condition that limits the number of rows per parent. If no
+   * restriction is returned, all rows are read and the not requested ones are dropped afterwards.<p>
+   * The restriction may return more rows than requested, as $skip and $top are applied again on the result.
+   * @param cb JPA Criteria Builder
+   * @param cq Criteria Query the restriction is added to
+   * @param root From clause of the expanded entity type
+   * @param entityType Metadata of the expanded entity type
+   * @param partitionBy Paths of the join columns that identify the parent
+   * @param orderBy Paths that define a unique order of the rows of one parent. The value is true if the path shall be
+   * sorted descending.
+   * @param limit Maximum number of rows per parent, which is $skip + $top
+   * @return Restriction or null
+   * @throws ODataApplicationException
+   */
+  default Expression<Boolean> createExpandLimitWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final From<?, ?> root, final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit) throws ODataApplicationException {
+    return null;
+  }
+
+  /**
+   * Faster alternative to {@link #createExpandLimitWhereClause}: databases that support window functions or lateral
+   * joins can determine the keys of the first rows per parent with a native statement, see
+   * {@link JPAExpandLimitStatement}. The rows of the $expand are then restricted by these keys. The statement gets the
+   * values of the partition columns of the parents as positional parameters, one parent after the other, and has to
+   * return the key columns of the expanded entity type in the order of {@link JPAEntityType#getKey()}.<p>
+   * If no statement is returned, {@link #createExpandLimitWhereClause} is used.
+   * @param entityType Metadata of the expanded entity type
+   * @param partitionBy Paths of the join columns that identify the parent
+   * @param orderBy Paths that define a unique order of the rows of one parent. The value is true if the path shall be
+   * sorted descending.
+   * @param limit Maximum number of rows per parent, which is $skip + $top
+   * @param noParents Number of parents the statement is executed for
+   * @return Native SQL statement or null
+   * @throws ODataApplicationException
+   */
+  default String createExpandLimitStatement(final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit, final int noParents) throws ODataApplicationException {
+    return null;
+  }
+}
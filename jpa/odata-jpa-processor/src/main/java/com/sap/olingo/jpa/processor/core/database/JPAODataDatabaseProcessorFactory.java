@@ -12,6 +12,7 @@ public class JPAODataDatabaseProcessorFactory {
   private static final String PRODUCT_NAME_H2 = "H2";
   private static final String PRODUCT_NAME_HSQLDB = "HSQL Database Engine";
   private static final String PRODUCT_NAME_SAP_HANA = "HDB";
+  private static final int[] H2_WINDOW_FUNCTIONS_VERSION = { 1, 4, 198 };
 
   public JPAODataDatabaseProcessor create(final DataSource ds) throws SQLException {
     if (ds != null) {
@@ -30,4 +31,23 @@ public class JPAODataDatabaseProcessorFactory {
       return new JPADefaultDatabaseProcessor();
     }
   }
+
+  /**
+   * H2 supports window functions as of version 1.4.198. The product version has the format
+   * <code>1.4.191 (2016-01-21)</code>.
+   */
+  static boolean supportsWindowFunctions(final String productVersion) {
+    final String[] parts = productVersion.split("[ .]");
+    for (int i = 0; i < H2_WINDOW_FUNCTIONS_VERSION.length; i++) {
+      final int part;
+      try {
+        part = i < parts.length ? Integer.parseInt(parts[i]) : 0;
+      } catch (NumberFormatException e) {
+        return false;
+      }
+      if (part != H2_WINDOW_FUNCTIONS_VERSION[i])
+        return part > H2_WINDOW_FUNCTIONS_VERSION[i];
+    }
+    return true;
+  }
 }
@@ -4,6 +4,7 @@ import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorExcep
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -19,6 +20,7 @@ import org.apache.olingo.server.api.uri.queryoption.SearchOption;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADataBaseFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 
@@ -26,6 +28,13 @@ class JPA_DERBY_DatabaseProcessor extends JPAAbstractDatabaseProcessor { // NOSO
   private static final String SELECT_BASE_PATTERN = "SELECT * FROM TABLE ($FUNCTIONNAME$($PARAMETER$))";
   private static final String SELECT_COUNT_PATTERN = "SELECT COUNT(*) FROM TABLE ($FUNCTIONNAME$($PARAMETER$))";
 
+  @Override
+  public Expression<Boolean> createExpandLimitWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final From<?, ?> root, final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit) throws ODataApplicationException {
+    return JPAExpandLimitRestriction.create(cb, cq, root, entityType, partitionBy, orderBy, limit);
+  }
+
   @Override
   public Expression<Boolean> createSearchWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
       final From<?, ?> root, final JPAEntityType entityType, final SearchOption searchOption)
@@ -0,0 +1,86 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_FUNC_WITH_NAVI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADataBaseFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+
+/**
+ * Database processor for H2. Window functions, which are used to restrict the rows of an $expand per parent, are
+ * supported as of H2 1.4.198. For older versions the correlated subquery of {@link JPAExpandLimitRestriction} is used.
+ */
+public class JPA_H2_DatabaseProcessor extends JPAAbstractDatabaseProcessor { // NOSONAR
+  private static final String SELECT_BASE_PATTERN = "SELECT * FROM $FUNCTIONNAME$($PARAMETER$)";
+  private static final String SELECT_COUNT_PATTERN = "SELECT COUNT(*) FROM $FUNCTIONNAME$($PARAMETER$)";
+  private final boolean windowFunctionsSupported;
+
+  public JPA_H2_DatabaseProcessor() {
+    this(false);
+  }
+
+  /**
+   * @param windowFunctionsSupported True if the database version supports <code>ROW_NUMBER() OVER (...)</code>
+   */
+  public JPA_H2_DatabaseProcessor(final boolean windowFunctionsSupported) {
+    super();
+    this.windowFunctionsSupported = windowFunctionsSupported;
+  }
+
+  @Override
+  public Expression<Boolean> createExpandLimitWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final From<?, ?> root, final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit) throws ODataApplicationException {
+    return JPAExpandLimitRestriction.create(cb, cq, root, entityType, partitionBy, orderBy, limit);
+  }
+
+  @Override
+  public String createExpandLimitStatement(final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit, final int noParents) throws ODataApplicationException {
+    return windowFunctionsSupported
+        ? JPAExpandLimitStatement.createRowNumber(entityType, partitionBy, orderBy, limit, noParents) : null;
+  }
+
+  @Override
+  public Expression<Boolean> createSearchWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final From<?, ?> root, final JPAEntityType entityType, final SearchOption searchOption)
+      throws ODataApplicationException {
+
+    throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.NOT_SUPPORTED_SEARCH,
+        HttpStatusCode.NOT_IMPLEMENTED);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> List<T> executeFunctionQuery(final List<UriResource> uriResourceParts,
+      final JPADataBaseFunction jpaFunction, final EntityManager em) throws ODataApplicationException {
+
+    final UriResource last = uriResourceParts.get(uriResourceParts.size() - 1);
+    if (last.getKind() == UriResourceKind.count) {
+      final List<Long> countResult = new ArrayList<>();
+      countResult.add(executeCountQuery(uriResourceParts, jpaFunction, em, SELECT_COUNT_PATTERN));
+      return (List<T>) countResult;
+    }
+    if (last.getKind() == UriResourceKind.function)
+      return executeQuery(uriResourceParts, jpaFunction, em, SELECT_BASE_PATTERN);
+    throw new ODataJPAProcessorException(NOT_SUPPORTED_FUNC_WITH_NAVI, HttpStatusCode.NOT_IMPLEMENTED);
+  }
+}
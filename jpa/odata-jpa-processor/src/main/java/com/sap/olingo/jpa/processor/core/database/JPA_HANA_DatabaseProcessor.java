@@ -1,6 +1,7 @@
 package com.sap.olingo.jpa.processor.core.database;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -65,6 +66,19 @@ final class JPA_HANA_DatabaseProcessor implements JPAODataDatabaseProcessor {
     return functionQuery.getResultList();
   }
 
+  @Override
+  public Expression<Boolean> createExpandLimitWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final From<?, ?> root, final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit) throws ODataApplicationException {
+    return JPAExpandLimitRestriction.create(cb, cq, root, entityType, partitionBy, orderBy, limit);
+  }
+
+  @Override
+  public String createExpandLimitStatement(final JPAEntityType entityType, final List<JPAPath> partitionBy,
+      final Map<JPAPath, Boolean> orderBy, final long limit, final int noParents) throws ODataApplicationException {
+    return JPAExpandLimitStatement.createRowNumber(entityType, partitionBy, orderBy, limit, noParents);
+  }
+
   @Override
   public Expression<Boolean> createSearchWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
       final From<?, ?> root, final JPAEntityType entityType, final SearchOption searchOption)
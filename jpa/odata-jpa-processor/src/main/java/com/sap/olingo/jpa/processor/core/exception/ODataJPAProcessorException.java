@@ -38,7 +38,14 @@ public class ODataJPAProcessorException extends ODataJPAProcessException {
     ODATA_MAXPAGESIZE_NOT_A_NUMBER,
     SETTER_NOT_FOUND,
     GETTER_NOT_FOUND,
-    BEFORE_IMAGE_MERGED;
+    BEFORE_IMAGE_MERGED,
+    QUERY_PARALLEL_EXECUTION_ERROR,
+    BATCH_PARALLEL_EXECUTION_ERROR,
+    WRONG_BULK_PAYLOAD,
+    NOT_SUPPORTED_SET_BASED_CHANGE,
+    SET_BASED_CHANGE_RESOURCE,
+    SET_BASED_CHANGE_ATTRIBUTE,
+    SET_BASED_DELETE_DEPENDENT_ROWS;
 
     @Override
     public String getKey() {
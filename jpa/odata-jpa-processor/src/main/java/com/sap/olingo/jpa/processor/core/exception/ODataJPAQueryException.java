@@ -33,6 +33,8 @@ public class ODataJPAQueryException extends ODataJPAProcessException { // NOSONA
     QUERY_PREPARATION_JOIN_NOT_DEFINED,
     QUERY_PREPARATION_NOT_IMPLEMENTED,
     QUERY_PREPARATION_NOT_ALLOWED_MEMBER,
+    QUERY_PREPARATION_APPLY_NOT_SUPPORTED,
+    QUERY_PREPARATION_APPLY_PROPERTY_NOT_AVAILABLE,
     NOT_SUPPORTED_RESOURCE_TYPE,
     MISSING_CLAIMS_PROVIDER,
     MISSING_CLAIM,
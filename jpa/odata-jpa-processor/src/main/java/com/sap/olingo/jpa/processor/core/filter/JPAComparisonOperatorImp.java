@@ -108,4 +108,8 @@ public class JPAComparisonOperatorImp<T extends Comparable<T>> implements JPACom
   public String getName() {
     return operator.name();
   }
+
+  boolean hasAggregation() {
+    return left instanceof JPAAggregationOperation || right instanceof JPAAggregationOperation;
+  }
 }
\ No newline at end of file
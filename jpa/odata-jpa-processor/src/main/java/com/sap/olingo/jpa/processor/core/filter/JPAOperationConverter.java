@@ -10,17 +10,30 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
 
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryParameters;
 
 public class JPAOperationConverter {
 
   protected final CriteriaBuilder cb;
   private final JPAODataDatabaseOperations dbConverter;
+  private final JPAQueryParameters parameters;
 
   public JPAOperationConverter(final CriteriaBuilder cb, final JPAODataDatabaseOperations converterExtension) {
+    this(cb, converterExtension, null);
+  }
+
+  /**
+   * @param cb
+   * @param converterExtension
+   * @param parameters If given, literals compared with an expression are bound as parameters of the statement
+   */
+  public JPAOperationConverter(final CriteriaBuilder cb, final JPAODataDatabaseOperations converterExtension,
+      final JPAQueryParameters parameters) {
     super();
     this.cb = cb;
     this.dbConverter = converterExtension;
     this.dbConverter.setCriterialBuilder(cb);
+    this.parameters = parameters;
   }
 
   public final Expression<Long> convert(final JPAAggregationOperationImp jpaOperator) throws ODataApplicationException {
@@ -36,27 +49,38 @@ public class JPAOperationConverter {
       throws ODataApplicationException {
     switch (jpaOperator.getOperator()) {
       case ADD:
-        if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        if (isBindable(jpaOperator.getRight()))
+          return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), bindNumber(jpaOperator));
+        else if (jpaOperator.getRight() instanceof JPALiteralOperator)
           return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
         else
           return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
       case SUB:
-        if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        if (isBindable(jpaOperator.getRight()))
+          return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), bindNumber(jpaOperator));
+        else if (jpaOperator.getRight() instanceof JPALiteralOperator)
           return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
         else
           return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
       case DIV:
-        if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        if (isBindable(jpaOperator.getRight()))
+          return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), bindNumber(jpaOperator));
+        else if (jpaOperator.getRight() instanceof JPALiteralOperator)
           return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
         else
           return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
       case MUL:
-        if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        if (isBindable(jpaOperator.getRight()))
+          return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), bindNumber(jpaOperator));
+        else if (jpaOperator.getRight() instanceof JPALiteralOperator)
           return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
         else
           return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
       case MOD:
-        if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        if (isBindable(jpaOperator.getRight()))
+          return (Expression<T>) cb.mod(jpaOperator.getLeftAsIntExpression(), bind((JPALiteralOperator) jpaOperator
+              .getRight(), Integer.valueOf(jpaOperator.getRightAsNumber(cb).toString())));
+        else if (jpaOperator.getRight() instanceof JPALiteralOperator)
           return (Expression<T>) cb.mod(jpaOperator.getLeftAsIntExpression(), new Integer(jpaOperator.getRightAsNumber(
               cb).toString()));
         else
@@ -117,7 +141,7 @@ public class JPAOperationConverter {
           contains.append('%');
           contains.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
           contains.append('%');
-          return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), contains.toString());
+          return like(jpaFunction, contains.toString());
         } else {
           return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
               (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("%", "%"));
@@ -127,7 +151,7 @@ public class JPAOperationConverter {
           final StringBuilder ends = new StringBuilder();
           ends.append('%');
           ends.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
-          return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), ends.toString());
+          return like(jpaFunction, ends.toString());
         } else {
           return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
               (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("%", ""));
@@ -137,7 +161,7 @@ public class JPAOperationConverter {
           final StringBuilder starts = new StringBuilder();
           starts.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
           starts.append('%');
-          return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), starts.toString());
+          return like(jpaFunction, starts.toString());
         } else {
           return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
               (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("", "%"));
@@ -203,12 +227,49 @@ public class JPAOperationConverter {
       final BiFunction<Expression<? extends Y>, Y, Expression<Boolean>> expressionObjectFunction,
       final JPAComparisonOperator<? extends Y> jpaOperator) throws ODataApplicationException {
 
+    if (isBindable(jpaOperator))
+      return allExpressionFunction.apply(jpaOperator.getLeft(), bind((JPALiteralOperator) jpaOperator.getRight(),
+          (Y) jpaOperator.getRightAsComparable()));
     if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator)
       return expressionObjectFunction.apply(jpaOperator.getLeft(), (Y) jpaOperator.getRightAsComparable());
     else
       return allExpressionFunction.apply(jpaOperator.getLeft(), jpaOperator.getRightAsExpression());
   }
 
+  private Expression<Number> bindNumber(final JPAArithmeticOperator jpaOperator) throws ODataApplicationException {
+    return bind((JPALiteralOperator) jpaOperator.getRight(), jpaOperator.getRightAsNumber(cb));
+  }
+
+  /**
+   * LIKE condition for contains, startswith and endswith. If possible the pattern is bound as parameter, so the
+   * statement does not change with the searched value.
+   */
+  @SuppressWarnings("unchecked")
+  private Expression<Boolean> like(final JPAMethodCall jpaFunction, final String pattern)
+      throws ODataApplicationException {
+    final Expression<String> value = (Expression<String>) (jpaFunction.getParameter(0).get());
+    if (isBindable(jpaFunction.getParameter(1)))
+      return cb.like(value, bind((JPALiteralOperator) jpaFunction.getParameter(1), pattern));
+    return cb.like(value, pattern);
+  }
+
+  private <Y> Expression<Y> bind(final JPALiteralOperator literal, final Y value) {
+    return parameters.bind(literal.getLiteral(), value);
+  }
+
+  /**
+   * EclipseLink does not register parameters used in the HAVING clause of a sub-query, so comparisons with an
+   * aggregation keep their literal
+   */
+  private boolean isBindable(final JPAComparisonOperator<?> jpaOperator) {
+    return isBindable(jpaOperator.getRight()) && !(jpaOperator instanceof JPAComparisonOperatorImp
+        && ((JPAComparisonOperatorImp<?>) jpaOperator).hasAggregation());
+  }
+
+  private boolean isBindable(final Object operand) {
+    return parameters != null && operand instanceof JPALiteralOperator && !((JPALiteralOperator) operand).isNull();
+  }
+
   @SuppressWarnings("unchecked")
   private Expression<Integer> convertLiteralToExpression(final JPAMethodCall jpaFunction, final int parameterIndex,
       final int offset) throws ODataApplicationException {
@@ -231,6 +292,9 @@ public class JPAOperationConverter {
     if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator)
       if (((JPAPrimitiveTypeOperator) jpaOperator.getRight()).isNull())
         return nullFunction.apply(jpaOperator.getLeft());
+      else if (isBindable(jpaOperator))
+        return allExpressionFunction.apply(jpaOperator.getLeft(), bind((JPALiteralOperator) jpaOperator.getRight(),
+            ((JPAOperator) jpaOperator.getRight()).get()));
       else
         return expressionObjectFunction.apply(jpaOperator.getLeft(), ((JPAOperator) jpaOperator.getRight()).get());
     else
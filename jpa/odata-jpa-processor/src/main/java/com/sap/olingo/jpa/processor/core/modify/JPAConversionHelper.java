@@ -1,12 +1,14 @@
 package com.sap.olingo.jpa.processor.core.modify;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.persistence.AttributeConverter;
 
@@ -27,6 +29,7 @@ import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceProperty;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
@@ -40,6 +43,8 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAFilterException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
+import com.sap.olingo.jpa.processor.core.processor.JPAClassAccessor;
+import com.sap.olingo.jpa.processor.core.processor.JPAClassAccessor.Accessor;
 import com.sap.olingo.jpa.processor.core.query.EdmEntitySetInfo;
 import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
 import com.sap.olingo.jpa.processor.core.query.Util;
@@ -52,6 +57,7 @@ import com.sap.olingo.jpa.processor.core.query.Util;
  */
 
 public class JPAConversionHelper {
+  private static final int BULK_PEEK_SIZE = 256;
 
   private final Map<Object, Map<String, Object>> getterBuffer;
 
@@ -157,6 +163,42 @@ public class JPAConversionHelper {
     }
   }
 
+  /**
+   * Checks if the payload of a POST on an entity set contains multiple entities, either as JSON array or as delta
+   * payload. In this case a reader is returned that provides the entities one chunk after the other. The request body
+   * is replaced by a stream that still contains the inspected bytes.
+   * @param odata
+   * @param request
+   * @param requestFormat
+   * @param uriResourceParts
+   * @return Reader for the entities or an empty optional if the payload contains one entity
+   * @throws ODataJPAProcessorException
+   */
+  public Optional<JPAEntityArrayReader> convertInputStreamToEntities(final OData odata, final ODataRequest request,
+      final ContentType requestFormat, final List<UriResource> uriResourceParts) throws ODataJPAProcessorException {
+
+    if (request.getBody() == null || requestFormat == null || !requestFormat.isCompatible(ContentType.JSON)
+        || !(uriResourceParts.get(uriResourceParts.size() - 1) instanceof UriResourceEntitySet))
+      return Optional.empty();
+    try {
+      final PushbackInputStream body = new PushbackInputStream(request.getBody(), BULK_PEEK_SIZE);
+      final byte[] prefix = new byte[BULK_PEEK_SIZE];
+      int length = 0;
+      int read = 0;
+      while (length < BULK_PEEK_SIZE && (read = body.read(prefix, length, BULK_PEEK_SIZE - length)) != -1)
+        length += read;
+      body.unread(prefix, 0, length);
+      request.setBody(body);
+      if (!JPAEntityArrayReader.isEntityArray(prefix, length))
+        return Optional.empty();
+      final EdmEntitySetInfo targetEntityInfo = Util.determineModifyEntitySetAndKeys(uriResourceParts);
+      return Optional.of(new JPAEntityArrayReader(body, createDeserrializer(odata, requestFormat,
+          request.getHeaders(HttpHeader.ODATA_VERSION)), targetEntityInfo.getTargetEdmEntitySet().getEntityType()));
+    } catch (IOException | DeserializerException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
   /**
    * 
    * @param odata
@@ -280,20 +322,13 @@ public class JPAConversionHelper {
    * @throws ODataJPAProcessorException
    */
   public Map<String, Object> determineGetter(final Object instance) throws ODataJPAProcessorException {
-    Map<String, Object> getterMap;
-    getterMap = new HashMap<>();
-    Method[] methods = instance.getClass().getMethods();
-    for (Method meth : methods) {
-      String methodName = meth.getName();
-      if (methodName.substring(0, 3).equals("get") && methodName.length() > 3) {
-        String attributeName = methodName.substring(3, 4).toLowerCase() + methodName.substring(4);
-        try {
-          Object value = meth.invoke(instance);
-          getterMap.put(attributeName, value);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-          throw new ODataJPAProcessorException(MessageKeys.ATTRIBUTE_RETRIVAL_FAILED,
-              HttpStatusCode.INTERNAL_SERVER_ERROR, e, attributeName);
-        }
+    final Map<String, Object> getterMap = new HashMap<>();
+    for (final Accessor getter : JPAClassAccessor.of(instance.getClass()).getGetters()) {
+      try {
+        getterMap.put(getter.getAttributeName(), getter.get(instance));
+      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+        throw new ODataJPAProcessorException(MessageKeys.ATTRIBUTE_RETRIVAL_FAILED,
+            HttpStatusCode.INTERNAL_SERVER_ERROR, e, getter.getAttributeName());
       }
     }
     return getterMap;
@@ -0,0 +1,145 @@
+package com.sap.olingo.jpa.processor.core.modify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
+
+/**
+ * Reads the entities of a bulk create request one after the other. The payload is either a JSON array of entities or
+ * a delta payload that contains the entities in its <i>value</i> array. Only the entities of the current chunk are kept
+ * in memory.<p>
+ * A delta payload is only supported for new entities. Deleted entities and links are not supported.<p>
+ * The reader has to be closed after the entities have been read, which also closes the payload stream.
+ */
+public final class JPAEntityArrayReader implements Closeable {
+  private static final JsonFactory FACTORY = new JsonFactory();
+  private static final String VALUE = "value";
+  private static final String DELTA = "$delta";
+
+  private final JsonParser parser;
+  private final ODataDeserializer deserializer;
+  private final EdmEntityType edmEntityType;
+  private boolean finished;
+
+  /**
+   * Checks if the beginning of a JSON payload is an array or a delta payload
+   * @param prefix First bytes of the payload
+   * @param length Number of bytes read
+   * @return
+   */
+  static boolean isEntityArray(final byte[] prefix, final int length) {
+    try (JsonParser prefixParser = FACTORY.createParser(prefix, 0, length)) {
+      final JsonToken token = prefixParser.nextToken();
+      if (token == JsonToken.START_ARRAY)
+        return true;
+      if (token == JsonToken.START_OBJECT && prefixParser.nextToken() == JsonToken.FIELD_NAME
+          && isContextAnnotation(prefixParser.getCurrentName())
+          && prefixParser.nextToken() == JsonToken.VALUE_STRING)
+        return prefixParser.getText().contains(DELTA);
+      return false;
+    } catch (IOException e) {
+      // Not valid JSON or truncated before the context annotation ended
+      return false;
+    }
+  }
+
+  private static boolean isContextAnnotation(final String name) {
+    return "@context".equals(name) || "@odata.context".equals(name);
+  }
+
+  JPAEntityArrayReader(final InputStream payload, final ODataDeserializer deserializer,
+      final EdmEntityType edmEntityType) throws ODataJPAProcessorException {
+    this.deserializer = deserializer;
+    this.edmEntityType = edmEntityType;
+    try {
+      this.parser = FACTORY.createParser(payload);
+    } catch (IOException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    }
+    try {
+      final JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT)
+        moveToValueArray();
+      else if (token != JsonToken.START_ARRAY)
+        throw new ODataJPAProcessorException(MessageKeys.WRONG_BULK_PAYLOAD, HttpStatusCode.BAD_REQUEST);
+    } catch (IOException e) {
+      close();
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    } catch (ODataJPAProcessorException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Closes the parser and the payload stream. Entities that have not been read yet are skipped.
+   */
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (IOException e) {
+      // The entities have been read already or reading them failed before
+    }
+  }
+
+  /**
+   * Reads the next entities of the payload
+   * @param maxEntities Maximum number of entities returned
+   * @return The next entities. An empty list if all entities have been read
+   * @throws ODataJPAProcessorException
+   */
+  public List<Entity> next(final int maxEntities) throws ODataJPAProcessorException {
+    final List<Entity> entities = new ArrayList<>();
+    try {
+      while (!finished && entities.size() < maxEntities) {
+        final JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT)
+          entities.add(readEntity());
+        else if (token == JsonToken.END_ARRAY)
+          finished = true;
+        else
+          throw new ODataJPAProcessorException(MessageKeys.WRONG_BULK_PAYLOAD, HttpStatusCode.BAD_REQUEST);
+      }
+    } catch (IOException | DeserializerException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    }
+    return entities;
+  }
+
+  private void moveToValueArray() throws IOException, ODataJPAProcessorException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final boolean isValue = VALUE.equals(parser.getCurrentName());
+      final JsonToken token = parser.nextToken();
+      if (isValue && token == JsonToken.START_ARRAY)
+        return;
+      parser.skipChildren();
+    }
+    throw new ODataJPAProcessorException(MessageKeys.WRONG_BULK_PAYLOAD, HttpStatusCode.BAD_REQUEST);
+  }
+
+  private Entity readEntity() throws IOException, DeserializerException {
+    final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+    try (JsonGenerator generator = FACTORY.createGenerator(entity)) {
+      generator.copyCurrentStructure(parser);
+    }
+    return deserializer.entity(new ByteArrayInputStream(entity.toByteArray()), edmEntityType).getEntity();
+  }
+}
@@ -17,13 +17,14 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.query.JPAConvertableResult;
 
 final class JPAEntityNavigationLinkResult extends JPACreateResult implements JPAConvertableResult {
   private final List<Tuple> result;
-  private Map<String, EntityCollection> odataResult;
+  private Map<JPAResultKey, EntityCollection> odataResult;
   private final JPATupleChildConverter converter;
 
   JPAEntityNavigationLinkResult(final JPAEntityType et, final Collection<?> value,
@@ -33,12 +34,12 @@ final class JPAEntityNavigationLinkResult extends JPACreateResult implements JPA
     this.converter = converter;
     this.result = new ArrayList<>();
     for (Object v : value) {
-      result.add(new JPAEntityResult(et, v, requestHeaders, converter).getResult(ROOT_RESULT_KEY).get(0));
+      result.add(new JPAEntityResult(et, v, requestHeaders, converter).getResult(ROOT_KEY).get(0));
     }
   }
 
   @Override
-  public Map<String, EntityCollection> asEntityCollection(JPATupleChildConverter converter)
+  public Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(JPATupleChildConverter converter)
       throws ODataApplicationException {
     convert(new JPATupleChildConverter(converter));
     return odataResult;
@@ -50,20 +51,20 @@ final class JPAEntityNavigationLinkResult extends JPACreateResult implements JPA
   }
 
   @Override
-  public EntityCollection getEntityCollection(final String key) throws ODataApplicationException {
-    if (odataResult == null) asEntityCollection(converter);
-    return odataResult.containsKey(ROOT_RESULT_KEY) ? odataResult.get(ROOT_RESULT_KEY) : new EntityCollection();
+  public EntityCollection getEntityCollection(final JPAResultKey key) throws ODataApplicationException {
+    if (odataResult == null) asKeyedEntityCollection(converter);
+    return odataResult.containsKey(ROOT_KEY) ? odataResult.get(ROOT_KEY) : new EntityCollection();
   }
 
   @Override
-  public List<Tuple> getResult(String key) {
+  public List<Tuple> getResult(JPAResultKey key) {
     return result;
   }
 
   @Override
-  public Map<String, List<Tuple>> getResults() {
-    final Map<String, List<Tuple>> results = new HashMap<>(1);
-    results.put(ROOT_RESULT_KEY, result);
+  public Map<JPAResultKey, List<Tuple>> getKeyedResults() {
+    final Map<JPAResultKey, List<Tuple>> results = new HashMap<>(1);
+    results.put(ROOT_KEY, result);
     return results;
   }
 
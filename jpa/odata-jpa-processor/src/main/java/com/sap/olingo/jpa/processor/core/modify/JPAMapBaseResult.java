@@ -9,6 +9,7 @@ import javax.persistence.Tuple;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 
 public abstract class JPAMapBaseResult extends JPACreateResult {
@@ -21,14 +22,14 @@ public abstract class JPAMapBaseResult extends JPACreateResult {
   }
 
   @Override
-  public List<Tuple> getResult(final String key) {
+  public List<Tuple> getResult(final JPAResultKey key) {
     return result;
   }
 
   @Override
-  public Map<String, List<Tuple>> getResults() {
-    final Map<String, List<Tuple>> results = new HashMap<>(1);
-    results.put(ROOT_RESULT_KEY, result);
+  public Map<JPAResultKey, List<Tuple>> getKeyedResults() {
+    final Map<JPAResultKey, List<Tuple>> results = new HashMap<>(1);
+    results.put(ROOT_KEY, result);
     return results;
   }
 
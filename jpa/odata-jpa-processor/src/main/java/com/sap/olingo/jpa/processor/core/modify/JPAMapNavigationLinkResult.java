@@ -12,6 +12,7 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.processor.JPARequestEntity;
@@ -28,20 +29,20 @@ final class JPAMapNavigationLinkResult extends JPACreateResult {
 
     for (JPARequestEntity entity : entities) {
       result.add(new JPAMapResult(entity.getEntityType(), entity.getData(), requestHeaders, converter).getResult(
-          ROOT_RESULT_KEY)
+          ROOT_KEY)
           .get(0));
     }
   }
 
   @Override
-  public List<Tuple> getResult(String key) {
+  public List<Tuple> getResult(JPAResultKey key) {
     return result;
   }
 
   @Override
-  public Map<String, List<Tuple>> getResults() {
-    final Map<String, List<Tuple>> results = new HashMap<>(1);
-    results.put(ROOT_RESULT_KEY, result);
+  public Map<JPAResultKey, List<Tuple>> getKeyedResults() {
+    final Map<JPAResultKey, List<Tuple>> results = new HashMap<>(1);
+    results.put(ROOT_KEY, result);
     return results;
   }
 
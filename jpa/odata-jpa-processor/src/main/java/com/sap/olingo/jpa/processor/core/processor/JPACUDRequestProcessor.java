@@ -1,15 +1,19 @@
 package com.sap.olingo.jpa.processor.core.processor;
-import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_RESULT_KEY;
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
@@ -47,6 +51,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExcept
 import com.sap.olingo.jpa.processor.core.api.JPACUDRequestHandler;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCache;
 import com.sap.olingo.jpa.processor.core.api.JPAODataTransactionFactory.JPAODataTransaction;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAInvocationTargetException;
@@ -56,15 +61,20 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.Me
 import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
 import com.sap.olingo.jpa.processor.core.modify.JPACreateResultFactory;
+import com.sap.olingo.jpa.processor.core.modify.JPAEntityArrayReader;
 import com.sap.olingo.jpa.processor.core.modify.JPAUpdateResult;
+import com.sap.olingo.jpa.processor.core.processor.JPADeferredResponses.JPADeferredResponse;
 import com.sap.olingo.jpa.processor.core.query.EdmEntitySetInfo;
 import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
+import com.sap.olingo.jpa.processor.core.query.JPASetBasedChangeQuery;
 import com.sap.olingo.jpa.processor.core.query.Util;
 
 public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
   private static final String DEBUG_CREATE_ENTITY = "createEntity";
+  private static final String DEBUG_CREATE_ENTITIES = "createEntities";
   private static final String DEBUG_UPDATE_ENTITY = "updateEntity";
+  private static final String DEBUG_MODIFY_ENTITIES = "modifyEntities";
   private final ServiceMetadata serviceMetadata;
   private final JPAConversionHelper helper;
 
@@ -110,6 +120,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransaction)
       ownTransaction.commit();
+    invalidateResultCache(requestEntity);
     debugger.stopRuntimeMeasurement(handle);
     response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
   }
@@ -117,6 +128,12 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
   public void createEntity(final ODataRequest request, final ODataResponse response, final ContentType requestFormat,
       final ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
 
+    final Optional<JPAEntityArrayReader> entities = helper.convertInputStreamToEntities(odata, request, requestFormat,
+        uriInfo.getUriResourceParts());
+    if (entities.isPresent()) {
+      createEntities(request, response, entities.get());
+      return;
+    }
     final int handle = debugger.startRuntimeMeasurement(this, DEBUG_CREATE_ENTITY);
     final JPACUDRequestHandler handler = requestContext.getCUDRequestHandler();
 
@@ -160,11 +177,183 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
     if (!foreignTransaction)
       ownTransaction.commit();
+    invalidateResultCache(requestEntity);
+
+    final Object createdEntity = result;
+    createResponse(request, response, HttpStatusCode.CREATED, foreignTransaction, () -> createCreateResponse(request,
+        response, responseFormat, requestEntity, edmEntitySetInfo, createdEntity));
+    debugger.stopRuntimeMeasurement(handle);
+  }
+
+  /**
+   * Bulk create: The entities of the payload are read and created chunk by chunk within one transaction. The response
+   * does not contain the created entities. It contains the number of created entities or, if return=minimal was
+   * requested, no content.
+   */
+  private void createEntities(final ODataRequest request, final ODataResponse response,
+      final JPAEntityArrayReader reader) throws ODataJPAProcessException, ODataLibraryException {
+
+    final int handle = debugger.startRuntimeMeasurement(this, DEBUG_CREATE_ENTITIES);
+    final JPACUDRequestHandler handler = requestContext.getCUDRequestHandler();
+    final EdmEntitySetInfo edmEntitySetInfo = Util.determineModifyEntitySetAndKeys(uriInfo.getUriResourceParts());
+    final int chunkSize = Math.max(1, sessionContext.getBulkCreateChunkSize());
+    final Set<JPAEntityType> changedTypes = new HashSet<>();
+    int count = 0;
+
+    JPAODataTransaction ownTransaction = null;
+    final boolean foreignTransaction = requestContext.getTransactionFactory().hasActiveTransaction();
+    if (!foreignTransaction)
+      ownTransaction = requestContext.getTransactionFactory().createTransaction();
+    try {
+      List<Entity> odataEntities = reader.next(chunkSize);
+      while (!odataEntities.isEmpty()) {
+        final List<JPARequestEntity> requestEntities = new ArrayList<>(odataEntities.size());
+        for (final Entity odataEntity : odataEntities) {
+          final JPARequestEntity requestEntity = createRequestEntity(edmEntitySetInfo, odataEntity, request
+              .getAllHeaders());
+          collectChangedTypes(requestEntity, changedTypes);
+          requestEntities.add(requestEntity);
+        }
+        final int createHandle = debugger.startRuntimeMeasurement(handler, DEBUG_CREATE_ENTITIES);
+        handler.createEntities(requestEntities, em);
+        debugger.stopRuntimeMeasurement(createHandle);
+        count += requestEntities.size();
+        odataEntities = reader.next(chunkSize);
+      }
+      if (!foreignTransaction)
+        handler.validateChanges(em);
+    } catch (ODataJPAProcessException e) {
+      if (!foreignTransaction)
+        ownTransaction.rollback();
+      debugger.stopRuntimeMeasurement(handle);
+      throw e;
+    } catch (Exception e) {
+      if (!foreignTransaction)
+        ownTransaction.rollback();
+      debugger.stopRuntimeMeasurement(handle);
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      reader.close();
+    }
+    if (!foreignTransaction)
+      ownTransaction.commit();
+    invalidateResultCache(changedTypes);
+
+    final Preferences prefer = odata.createPreferences(request.getHeaders(HttpHeader.PREFER));
+    if (prefer.getReturn() == Return.MINIMAL) {
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+      response.setHeader(HttpHeader.PREFERENCE_APPLIED, "return=minimal");
+    } else {
+      response.setContent(odata.createFixedFormatSerializer().count(count));
+      response.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.TEXT_PLAIN.toContentTypeString());
+    }
+    debugger.stopRuntimeMeasurement(handle);
+  }
+
+  /**
+   * Executes a set-based change, a PATCH or DELETE on an entity set restricted by $filter, as one statement. The
+   * {@link JPACUDRequestHandler#prepareSetBasedChange(JPASetBasedChange, EntityManager) handler} is asked before.
+   */
+  public void modifyEntities(final ODataRequest request, final ODataResponse response, final HttpMethod method,
+      final ContentType requestFormat) throws ODataJPAProcessException, ODataLibraryException {
+
+    final int handle = debugger.startRuntimeMeasurement(this, DEBUG_MODIFY_ENTITIES);
+    final JPACUDRequestHandler handler = requestContext.getCUDRequestHandler();
+    final List<UriResource> resourceParts = uriInfo.getUriResourceParts();
+    if (resourceParts.size() != 1 || !(resourceParts.get(0) instanceof UriResourceEntitySet)) {
+      debugger.stopRuntimeMeasurement(handle);
+      throw new ODataJPAProcessorException(MessageKeys.SET_BASED_CHANGE_RESOURCE, HttpStatusCode.NOT_IMPLEMENTED);
+    }
+    final JPAEntityType et;
+    final Map<String, Object> data;
+    try {
+      et = sessionContext.getEdmProvider().getServiceDocument().getEntity(((UriResourceEntitySet) resourceParts.get(0))
+          .getEntitySet().getName());
+      data = method == HttpMethod.PATCH ? convertSetBasedChangeData(request, requestFormat, et, resourceParts)
+          : new HashMap<>();
+      if (method == HttpMethod.DELETE)
+        checkSetBasedDelete(et);
+    } catch (ODataJPAProcessException e) {
+      debugger.stopRuntimeMeasurement(handle);
+      throw e;
+    } catch (ODataException e) {
+      debugger.stopRuntimeMeasurement(handle);
+      throw new ODataJPAProcessorException(e, HttpStatusCode.BAD_REQUEST);
+    }
+
+    JPAODataTransaction ownTransaction = null;
+    final boolean foreignTransaction = requestContext.getTransactionFactory().hasActiveTransaction();
+    if (!foreignTransaction)
+      ownTransaction = requestContext.getTransactionFactory().createTransaction();
+    try {
+      final JPASetBasedChangeQuery query = new JPASetBasedChangeQuery(odata, sessionContext, et, method, request
+          .getAllHeaders(), requestContext);
+      final JPASetBasedChangeImpl change = new JPASetBasedChangeImpl(et, method, data, request.getAllHeaders(), em
+          .getCriteriaBuilder(), query.getStatementRoot(), requestContext);
+      final int modifyHandle = debugger.startRuntimeMeasurement(handler, DEBUG_MODIFY_ENTITIES);
+      handler.prepareSetBasedChange(change, em);
+      debugger.stopRuntimeMeasurement(modifyHandle);
+      if (foreignTransaction && requestContext.getDeferredResponses().isPresent())
+        // The statement is executed directly, so it has to see the pending changes of the change set
+        flush();
+      query.execute(change.getData(), change.getRestrictions());
+      if (!foreignTransaction)
+        handler.validateChanges(em);
+    } catch (ODataJPAProcessException e) {
+      if (!foreignTransaction)
+        ownTransaction.rollback();
+      debugger.stopRuntimeMeasurement(handle);
+      throw e;
+    } catch (ODataApplicationException e) {
+      if (!foreignTransaction)
+        ownTransaction.rollback();
+      debugger.stopRuntimeMeasurement(handle);
+      throw new ODataJPAProcessorException(e, HttpStatusCode.fromStatusCode(e.getStatusCode()));
+    } catch (Throwable e) { // NOSONAR
+      if (!foreignTransaction)
+        ownTransaction.rollback();
+      debugger.stopRuntimeMeasurement(handle);
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    if (!foreignTransaction)
+      ownTransaction.commit();
+    invalidateResultCache(Collections.singleton(et));
 
-    createCreateResponse(request, response, responseFormat, requestEntity, edmEntitySetInfo, result);
+    response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
     debugger.stopRuntimeMeasurement(handle);
   }
 
+  /**
+   * A set-based delete is executed as one statement, which does not remove the rows of element collections or join
+   * tables. Such entities have to be deleted one by one.
+   */
+  private void checkSetBasedDelete(final JPAEntityType et) throws ODataJPAModelException,
+      ODataJPAProcessorException {
+    if (!et.getCollectionAttributesPath().isEmpty())
+      throw new ODataJPAProcessorException(MessageKeys.SET_BASED_DELETE_DEPENDENT_ROWS, HttpStatusCode.NOT_IMPLEMENTED,
+          et.getExternalName(), et.getCollectionAttributesPath().get(0).getAlias());
+    for (final JPAAssociationPath association : et.getAssociationPathList()) {
+      if (association.getJoinTable() != null)
+        throw new ODataJPAProcessorException(MessageKeys.SET_BASED_DELETE_DEPENDENT_ROWS,
+            HttpStatusCode.NOT_IMPLEMENTED, et.getExternalName(), association.getAlias());
+    }
+  }
+
+  /**
+   * A set-based change can only change the properties of the entities, not their relationships
+   */
+  private Map<String, Object> convertSetBasedChangeData(final ODataRequest request, final ContentType requestFormat,
+      final JPAEntityType et, final List<UriResource> resourceParts) throws ODataJPAProcessException {
+
+    final Entity odataEntity = helper.convertInputStream(odata, request, requestFormat, resourceParts);
+    if (!odataEntity.getNavigationLinks().isEmpty() || !odataEntity.getNavigationBindings().isEmpty())
+      throw new ODataJPAProcessorException(MessageKeys.SET_BASED_CHANGE_ATTRIBUTE, HttpStatusCode.BAD_REQUEST,
+          !odataEntity.getNavigationLinks().isEmpty() ? odataEntity.getNavigationLinks().get(0).getTitle()
+              : odataEntity.getNavigationBindings().get(0).getTitle());
+    return helper.convertProperties(odata, et, odataEntity.getProperties());
+  }
+
   /*
    * 4.4 Addressing References between Entities
    * DELETE http://host/service/Categories(1)/Products/$ref?$id=../../Products(0)
@@ -220,6 +409,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransaction)
       ownTransaction.commit();
+    invalidateResultCache(requestEntity);
 
     // 4. configure the response object
     response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
@@ -296,18 +486,87 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransaction)
       ownTransaction.commit();
+    invalidateResultCache(requestEntity);
 
+    final JPAUpdateResult result = updateResult;
     if (updateResult.wasCreate()) {
-      createCreateResponse(request, response, responseFormat, requestEntity.getEntityType(), edmEntitySetInfo
-          .getEdmEntitySet(), updateResult.getModifyedEntity());
+      createResponse(request, response, HttpStatusCode.CREATED, foreignTransaction, () -> createCreateResponse(request,
+          response, responseFormat, requestEntity.getEntityType(), edmEntitySetInfo.getEdmEntitySet(), result
+              .getModifyedEntity()));
       debugger.stopRuntimeMeasurement(handle);
     } else {
-      createUpdateResponse(request, response, responseFormat, requestEntity, edmEntitySetInfo, updateResult);
+      createResponse(request, response, HttpStatusCode.OK, foreignTransaction, () -> createUpdateResponse(request,
+          response, responseFormat, requestEntity, edmEntitySetInfo, result));
       debugger.stopRuntimeMeasurement(handle);
     }
 
   }
 
+  /**
+   * Within a change set processed with deferred flush, the response is created after all changes have been flushed.
+   * Until then the response gets a preliminary status code, so the request is recognized as successful.<br>
+   * If the Content-ID of the request is referenced by a later request of the change set, the response, including the
+   * Location header needed to resolve the reference, is created immediately after a flush, which provides generated
+   * keys.
+   */
+  private void createResponse(final ODataRequest request, final ODataResponse response,
+      final HttpStatusCode preliminaryStatus, final boolean foreignTransaction, final JPADeferredResponse creation)
+      throws ODataJPAProcessException, ODataLibraryException {
+
+    final Optional<JPADeferredResponses> deferredResponses = requestContext.getDeferredResponses();
+    if (foreignTransaction && deferredResponses.isPresent()
+        && !deferredResponses.get().isReferenced(request.getHeader(HttpHeader.CONTENT_ID))) {
+      response.setStatusCode(preliminaryStatus.getStatusCode());
+      deferredResponses.get().add(creation);
+    } else {
+      if (foreignTransaction && deferredResponses.isPresent())
+        flush();
+      creation.create();
+    }
+  }
+
+  private void flush() throws ODataJPAProcessorException {
+    try {
+      em.flush();
+    } catch (OptimisticLockException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.PRECONDITION_FAILED);
+    } catch (PersistenceException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private void invalidateResultCache(final JPARequestEntity requestEntity) {
+    final Set<JPAEntityType> changedTypes = new HashSet<>();
+    collectChangedTypes(requestEntity, changedTypes);
+    invalidateResultCache(changedTypes);
+  }
+
+  /**
+   * Drops the cached responses of all entity types changed by the request. Within a change set this happens after the
+   * change set has been committed, see {@link JPAResultCacheInvalidations}. If the transaction is controlled by the
+   * application, the responses are dropped immediately.
+   */
+  private void invalidateResultCache(final Set<JPAEntityType> changedTypes) {
+    final Optional<JPAResultCacheInvalidations> invalidations = requestContext.getResultCacheInvalidations();
+    final Optional<JPAODataResultCache> cache = sessionContext.getResultCache();
+    if (invalidations.isPresent())
+      changedTypes.forEach(invalidations.get()::add);
+    else if (cache.isPresent())
+      changedTypes.forEach(cache.get()::invalidate);
+  }
+
+  private void collectChangedTypes(final JPARequestEntity requestEntity, final Set<JPAEntityType> changedTypes) {
+    changedTypes.add(requestEntity.getEntityType());
+    for (final List<JPARequestEntity> relatedEntities : requestEntity.getRelatedEntities().values()) {
+      for (final JPARequestEntity relatedEntity : relatedEntities)
+        collectChangedTypes(relatedEntity, changedTypes);
+    }
+    for (final JPAAssociationPath association : requestEntity.getRelationLinks().keySet()) {
+      if (association.getTargetType() instanceof JPAEntityType)
+        changedTypes.add((JPAEntityType) association.getTargetType());
+    }
+  }
+
   private HttpMethod determineHttpVerb(final ODataRequest request, List<UriResource> resourceParts) {
     final HttpMethod originalMethod = request.getMethod();
     final HttpMethod targetMethod;
@@ -405,7 +664,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
       final JPATupleChildConverter converter = new JPATupleChildConverter(sd, odata.createUriHelper(), serviceMetadata);
       final JPACreateResultFactory factory = new JPACreateResultFactory(converter);//
       return converter.getResult(factory.getJPACreateResult(et, result, headers), Collections.emptySet())
-          .get(ROOT_RESULT_KEY).getEntities().get(0);
+          .get(ROOT_KEY).getEntities().get(0);
     } catch (ODataJPAModelException | ODataApplicationException e) {
       throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
     }
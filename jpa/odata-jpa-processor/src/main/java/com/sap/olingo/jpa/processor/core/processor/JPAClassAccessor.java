@@ -0,0 +1,218 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Provides the getter and setter of a class. The methods are looked up only once per class and are invoked via
+ * {@link MethodHandle}s, so modifying requests and the conversion of JPA instances do not need to scan the methods of
+ * each instance again.
+ * <p>
+ * Getter are public, parameter less methods starting with <code>get</code>. Setter are public methods with one
+ * parameter starting with <code>set</code>. The attribute name is derived from the method name according to the JAVA
+ * naming conventions.
+ * <p>
+ * The classes are only weakly referenced by the cache and the accessors, which refer to their class, are held via
+ * {@link SoftReference}s. The garbage collector clears accessors that have not been used for a while, so the cache
+ * does not prevent that a class and its class loader get unloaded, e.g. after a redeployment of the entity classes.
+ */
+public final class JPAClassAccessor {
+
+  private static final Map<Class<?>, SoftReference<JPAClassAccessor>> ACCESSORS = new WeakHashMap<>();
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final Class<?> type;
+  private final Map<String, Accessor> getters;
+  private final List<Accessor> setters;
+
+  /**
+   * Returns the accessor of a class. Accessors are created once per class and shared between all threads.
+   * @param type
+   * @return
+   */
+  public static JPAClassAccessor of(final Class<?> type) {
+    synchronized (ACCESSORS) {
+      final SoftReference<JPAClassAccessor> reference = ACCESSORS.get(type);
+      JPAClassAccessor accessor = reference != null ? reference.get() : null;
+      if (accessor == null) {
+        accessor = new JPAClassAccessor(type);
+        ACCESSORS.put(type, new SoftReference<>(accessor));
+      }
+      return accessor;
+    }
+  }
+
+  private JPAClassAccessor(final Class<?> type) {
+    this.type = type;
+    final Map<String, Accessor> getterMap = new LinkedHashMap<>();
+    final List<Accessor> setterList = new ArrayList<>();
+    for (final Method method : type.getMethods()) {
+      final String methodName = method.getName();
+      if (methodName.length() > 3 && methodName.startsWith("get") && method.getParameterCount() == 0)
+        getterMap.put(methodName, new Accessor(method, GETTER_TYPE));
+      else if (methodName.length() > 3 && methodName.startsWith("set") && method.getParameterCount() == 1)
+        setterList.add(new Accessor(method, SETTER_TYPE));
+    }
+    this.getters = Collections.unmodifiableMap(getterMap);
+    this.setters = Collections.unmodifiableList(setterList);
+  }
+
+  /**
+   * @return All getter of the class
+   */
+  public Collection<Accessor> getGetters() {
+    return getters.values();
+  }
+
+  /**
+   * Returns the getter of an attribute.
+   * @param attributeName
+   * @return
+   * @throws NoSuchMethodException in case the class has no getter for the attribute
+   */
+  public Accessor getGetter(final String attributeName) throws NoSuchMethodException {
+    final String methodName = "get" + buildMethodNameSuffix(attributeName);
+    final Accessor getter = getters.get(methodName);
+    if (getter == null)
+      throw new NoSuchMethodException(type.getName() + "." + methodName + "()");
+    return getter;
+  }
+
+  /**
+   * @return All setter of the class
+   */
+  public List<Accessor> getSetters() {
+    return setters;
+  }
+
+  /**
+   * Returns the setter of an attribute with exactly the given parameter type.
+   * @param attributeName
+   * @param parameterType
+   * @return
+   * @throws NoSuchMethodException in case the class has no such setter
+   */
+  public Accessor getSetter(final String attributeName, final Class<?> parameterType) throws NoSuchMethodException {
+    final String methodName = "set" + buildMethodNameSuffix(attributeName);
+    for (final Accessor setter : setters) {
+      if (setter.getMethod().getName().equals(methodName) && setter.getParameterType() == parameterType)
+        return setter;
+    }
+    throw new NoSuchMethodException(type.getName() + "." + methodName + "(" + parameterType.getName() + ")");
+  }
+
+  /**
+   * Reads the values of all getter of an instance.
+   * @param instance
+   * @return Map of attribute name and value
+   * @throws IllegalAccessException
+   * @throws InvocationTargetException
+   */
+  public Map<String, Object> getValues(final Object instance) throws IllegalAccessException,
+      InvocationTargetException {
+    final Map<String, Object> values = new LinkedHashMap<>(getters.size() * 2);
+    for (final Accessor getter : getters.values()) {
+      values.put(getter.getAttributeName(), getter.get(instance));
+    }
+    return values;
+  }
+
+  private static String buildAttributeName(final String methodName) {
+    return methodName.substring(3, 4).toLowerCase() + methodName.substring(4);
+  }
+
+  private static String buildMethodNameSuffix(final String attributeName) {
+    return attributeName.substring(0, 1).toUpperCase() + attributeName.substring(1);
+  }
+
+  /**
+   * A getter or setter of a class. Exceptions thrown by the method itself are wrapped into an
+   * {@link InvocationTargetException}, as with {@link Method#invoke(Object, Object...)}.
+   */
+  public static final class Accessor {
+    private final Method method;
+    private final String attributeName;
+    private final Class<?> parameterType;
+    private final MethodHandle handle;
+
+    private Accessor(final Method method, final MethodType handleType) {
+      this.method = method;
+      this.attributeName = buildAttributeName(method.getName());
+      this.parameterType = method.getParameterCount() == 1 ? method.getParameterTypes()[0] : null;
+      this.handle = createHandle(method, handleType);
+    }
+
+    public String getAttributeName() {
+      return attributeName;
+    }
+
+    public Method getMethod() {
+      return method;
+    }
+
+    /**
+     * @return The type of the setter parameter or null in case of a getter
+     */
+    public Class<?> getParameterType() {
+      return parameterType;
+    }
+
+    public Object get(final Object instance) throws IllegalAccessException, InvocationTargetException {
+      if (handle == null)
+        return method.invoke(instance);
+      try {
+        return handle.invokeExact(instance);
+      } catch (final Throwable e) { // NOSONAR MethodHandle.invokeExact throws Throwable
+        throw new InvocationTargetException(e);
+      }
+    }
+
+    public void set(final Object instance, final Object value) throws IllegalAccessException,
+        InvocationTargetException {
+      if (handle == null) {
+        method.invoke(instance, value);
+        return;
+      }
+      if (value == null && parameterType.isPrimitive())
+        throw new IllegalArgumentException("Null value not allowed for primitive parameter of " + method);
+      if (value != null && !wrap(parameterType).isInstance(value))
+        throw new IllegalArgumentException("Argument type mismatch for " + method + ": " + value.getClass().getName());
+      try {
+        handle.invokeExact(instance, value);
+      } catch (final Throwable e) { // NOSONAR MethodHandle.invokeExact throws Throwable
+        throw new InvocationTargetException(e);
+      }
+    }
+
+    /**
+     * Methods that can not be accessed via a method handle, e.g. public methods of a non public class, are invoked via
+     * reflection, which leads to the same exceptions as before.
+     */
+    private static MethodHandle createHandle(final Method method, final MethodType handleType) {
+      try {
+        return MethodHandles.publicLookup().unreflect(method).asType(handleType);
+      } catch (final IllegalAccessException e) {
+        return null;
+      }
+    }
+
+    private static Class<?> wrap(final Class<?> type) {
+      if (!type.isPrimitive())
+        return type;
+      return MethodType.methodType(type).wrap().returnType();
+    }
+  }
+}
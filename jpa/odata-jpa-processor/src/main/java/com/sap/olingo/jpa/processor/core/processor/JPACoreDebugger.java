@@ -12,7 +12,7 @@ class JPACoreDebugger implements JPAServiceDebugger {
   private final List<RuntimeMeasurement> runtimeInformation = new ArrayList<>();
 
   @Override
-  public int startRuntimeMeasurement(final Object instance, final String methodName) {
+  public synchronized int startRuntimeMeasurement(final Object instance, final String methodName) {
     final int handleId = runtimeInformation.size();
 
     final RuntimeMeasurement measurement = new RuntimeMeasurement();
@@ -26,7 +26,7 @@ class JPACoreDebugger implements JPAServiceDebugger {
   }
 
   @Override
-  public void stopRuntimeMeasurement(final int handle) {
+  public synchronized void stopRuntimeMeasurement(final int handle) {
     if (handle < runtimeInformation.size()) {
       final RuntimeMeasurement runtimeMeasurement = runtimeInformation.get(handle);
       if (runtimeMeasurement != null && runtimeMeasurement.getTimeStopped() == 0L) {
@@ -0,0 +1,70 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.olingo.server.api.ODataLibraryException;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+
+/**
+ * Collects the creation of the responses of the requests of a change set, so that they can be created from the managed
+ * instances after all changes have been flushed together. By this generated values are part of the responses and the
+ * JPA provider can write the changes in JDBC batches.<p>
+ * Requests, whose Content-ID is referenced by a later request of the change set, can not be deferred, as the reference
+ * is resolved using the Location header of the response.
+ */
+public final class JPADeferredResponses {
+
+  @FunctionalInterface
+  public interface JPADeferredResponse {
+    void create() throws ODataJPAProcessException, ODataLibraryException;
+  }
+
+  private final List<JPADeferredResponse> responses = new ArrayList<>();
+  private final Set<String> referencedContentIds;
+
+  public JPADeferredResponses() {
+    this(Collections.emptySet());
+  }
+
+  /**
+   * @param referencedContentIds Content-IDs referenced within the change set
+   */
+  public JPADeferredResponses(final Set<String> referencedContentIds) {
+    super();
+    this.referencedContentIds = new HashSet<>(referencedContentIds);
+  }
+
+  public void add(final JPADeferredResponse response) {
+    responses.add(response);
+  }
+
+  /**
+   * Creates the responses in the order they have been added.
+   * @throws ODataJPAProcessException
+   * @throws ODataLibraryException
+   */
+  public void createResponses() throws ODataJPAProcessException, ODataLibraryException {
+    for (final JPADeferredResponse response : responses)
+      response.create();
+    responses.clear();
+  }
+
+  /**
+   * @param contentId Content-ID of a request; may be null
+   * @return true if a later request of the change set references the given Content-ID
+   */
+  public boolean isReferenced(@Nullable final String contentId) {
+    return contentId != null && referencedContentIds.contains(contentId);
+  }
+
+  public int size() {
+    return responses.size();
+  }
+}
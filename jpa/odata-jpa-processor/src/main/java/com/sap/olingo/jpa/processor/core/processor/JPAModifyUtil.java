@@ -2,7 +2,6 @@ package com.sap.olingo.jpa.processor.core.processor;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -22,6 +21,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExcept
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAInvocationTargetException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
+import com.sap.olingo.jpa.processor.core.processor.JPAClassAccessor.Accessor;
 
 /**
  * This class provides some primitive util methods to support modifying
@@ -150,27 +150,23 @@ public final class JPAModifyUtil {
    */
   public void setAttributes(final Map<String, Object> jpaAttributes, final Object instanze, final JPAStructuredType st)
       throws ODataJPAProcessorException, ODataJPAInvocationTargetException {
-    Method[] methods = instanze.getClass().getMethods();
-    for (Method meth : methods) {
-      if (meth.getName().substring(0, 3).equals("set")) {
-        String attributeName = meth.getName().substring(3, 4).toLowerCase() + meth.getName().substring(4);
-        if (jpaAttributes.containsKey(attributeName)) {
-          Object value = jpaAttributes.get(attributeName);
-          if (!(value instanceof Map<?, ?>) && !(value instanceof JPARequestEntity)) {
+    for (final Accessor setter : JPAClassAccessor.of(instanze.getClass()).getSetters()) {
+      final String attributeName = setter.getAttributeName();
+      if (jpaAttributes.containsKey(attributeName)) {
+        final Object value = jpaAttributes.get(attributeName);
+        if (!(value instanceof Map<?, ?>) && !(value instanceof JPARequestEntity)) {
+          try {
+            if (value == null || value.getClass() == setter.getParameterType()) {
+              setter.set(instanze, value);
+            }
+          } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+          } catch (InvocationTargetException e) {
             try {
-              Class<?>[] parameters = meth.getParameterTypes();
-              if (parameters.length == 1 && (value == null || value.getClass() == parameters[0])) {
-                meth.invoke(instanze, value);
-              }
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-              throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-            } catch (InvocationTargetException e) {
-              try {
-                throw new ODataJPAInvocationTargetException(e.getCause(), st.getExternalName() + JPAPath.PATH_SEPERATOR
-                    + st.getAttribute(attributeName).getExternalName());
-              } catch (ODataJPAModelException e1) {
-                throw new ODataJPAProcessorException(e1, HttpStatusCode.INTERNAL_SERVER_ERROR);
-              }
+              throw new ODataJPAInvocationTargetException(e.getCause(), st.getExternalName() + JPAPath.PATH_SEPERATOR
+                  + st.getAttribute(attributeName).getExternalName());
+            } catch (ODataJPAModelException e1) {
+              throw new ODataJPAProcessorException(e1, HttpStatusCode.INTERNAL_SERVER_ERROR);
             }
           }
         }
@@ -195,31 +191,27 @@ public final class JPAModifyUtil {
   public void setAttributesDeep(final Map<String, Object> jpaAttributes, final Object instanze,
       final JPAStructuredType st) throws ODataJPAProcessorException, ODataJPAInvocationTargetException {
 
-    final Method[] methods = instanze.getClass().getMethods();
-    for (final Method meth : methods) {
-      if (meth.getName().substring(0, 3).equals("set")) {
-        final String attributeName = meth.getName().substring(3, 4).toLowerCase() + meth.getName().substring(4);
-        if (jpaAttributes.containsKey(attributeName)) {
-          final Object value = jpaAttributes.get(attributeName);
-          Class<?>[] parameters = meth.getParameterTypes();
-          if (!(value instanceof JPARequestEntity) && parameters.length == 1) {
-            try {
-              final JPAAttribute attribute = st.getAttribute(attributeName);
-              if (!attribute.isComplex() || value == null) {
-                if (value == null || parameters[0].isAssignableFrom(value.getClass())) {
-                  meth.invoke(instanze, value);
-                }
-              } else if (attribute.isCollection()) {
-                setEmbeddedCollectionAttributeDeep(instanze, st, meth, value, parameters, attribute);
-              } else {
-                setEmbeddedAttributeDeep(instanze, st, meth, value, parameters, attribute);
+    for (final Accessor setter : JPAClassAccessor.of(instanze.getClass()).getSetters()) {
+      final String attributeName = setter.getAttributeName();
+      if (jpaAttributes.containsKey(attributeName)) {
+        final Object value = jpaAttributes.get(attributeName);
+        if (!(value instanceof JPARequestEntity)) {
+          try {
+            final JPAAttribute attribute = st.getAttribute(attributeName);
+            if (!attribute.isComplex() || value == null) {
+              if (value == null || setter.getParameterType().isAssignableFrom(value.getClass())) {
+                setter.set(instanze, value);
               }
-            } catch (IllegalAccessException | IllegalArgumentException | ODataJPAModelException
-                | NoSuchMethodException | SecurityException | InstantiationException e) {
-              throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-            } catch (InvocationTargetException | ODataJPAInvocationTargetException e) {
-              handleInvocationTargetException(st, attributeName, e);
+            } else if (attribute.isCollection()) {
+              setEmbeddedCollectionAttributeDeep(instanze, st, setter, value, attribute);
+            } else {
+              setEmbeddedAttributeDeep(instanze, st, setter, value, attribute);
             }
+          } catch (IllegalAccessException | IllegalArgumentException | ODataJPAModelException
+              | NoSuchMethodException | SecurityException | InstantiationException e) {
+            throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+          } catch (InvocationTargetException | ODataJPAInvocationTargetException e) {
+            handleInvocationTargetException(st, attributeName, e);
           }
         }
       }
@@ -227,15 +219,15 @@ public final class JPAModifyUtil {
   }
 
   @SuppressWarnings("unchecked")
-  private void setEmbeddedAttributeDeep(final Object instanze, final JPAStructuredType st, final Method meth,
-      final Object value, Class<?>[] parameters, final JPAAttribute attribute)
+  private void setEmbeddedAttributeDeep(final Object instanze, final JPAStructuredType st, final Accessor setter,
+      final Object value, final JPAAttribute attribute)
       throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException,
       ODataJPAModelException, ODataJPAProcessorException, ODataJPAInvocationTargetException {
 
     Object embedded = readCurrentState(instanze, attribute);
     if (embedded == null) {
-      embedded = createInstance(parameters[0]);
-      meth.invoke(instanze, embedded);
+      embedded = createInstance(setter.getParameterType());
+      setter.set(instanze, embedded);
     }
     if (embedded != null) {
       if (this.st == null)
@@ -248,20 +240,20 @@ public final class JPAModifyUtil {
   }
 
   @SuppressWarnings("unchecked")
-  private void setEmbeddedCollectionAttributeDeep(final Object instanze, final JPAStructuredType st, final Method meth,
-      final Object value, Class<?>[] parameters, final JPAAttribute attribute)
+  private void setEmbeddedCollectionAttributeDeep(final Object instanze, final JPAStructuredType st,
+      final Accessor setter, final Object value, final JPAAttribute attribute)
       throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException,
       ODataJPAModelException, ODataJPAProcessorException, ODataJPAInvocationTargetException {
 
     Collection<Object> embedded = (Collection<Object>) readCurrentState(instanze, attribute);
     if (embedded == null) {
       // List; Set; Queue
-      if (parameters[0].isAssignableFrom(List.class)) {
+      if (setter.getParameterType().isAssignableFrom(List.class)) {
         embedded = (Collection<Object>) createInstance(ArrayList.class);
       } else {
-        embedded = (Collection<Object>) createInstance(parameters[0]);
+        embedded = (Collection<Object>) createInstance(setter.getParameterType());
       }
-      meth.invoke(instanze, embedded);
+      setter.set(instanze, embedded);
     }
     if (embedded != null) {
       if (this.st == null)
@@ -312,15 +304,13 @@ public final class JPAModifyUtil {
     Object source = sourceInstance;
     for (JPAElement pathItem : pathInfo.getPath()) {
       if (pathItem != pathInfo.getLeaf()) {
-        final String methodSuffix = buildMethodNameSuffix(pathItem);
-        final Method getter = source.getClass().getMethod("get" + methodSuffix);
-        Object next = getter.invoke(source);
+        final JPAClassAccessor accessor = JPAClassAccessor.of(source.getClass());
+        Object next = accessor.getGetter(pathItem.getInternalName()).get(source);
         if (next == null) {
           try {
             final Constructor<?> c = ((JPAAttribute) pathItem).getStructuredType().getTypeClass().getConstructor();
             next = c.newInstance();
-            final Method setter = source.getClass().getMethod("set" + methodSuffix, next.getClass());
-            setter.invoke(source, next);
+            accessor.getSetter(pathItem.getInternalName(), next.getClass()).set(source, next);
           } catch (ODataJPAModelException | InstantiationException e) {
             throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
           }
@@ -362,37 +352,32 @@ public final class JPAModifyUtil {
   private <T> void setLink(final Object sourceInstance, final T targetInstance, final JPAAssociationAttribute attribute)
       throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, ODataJPAProcessorException {
 
-    final String methodSuffix = attribute.getInternalName().substring(0, 1).toUpperCase() + attribute.getInternalName()
-        .substring(1);
-
+    final JPAClassAccessor accessor = JPAClassAccessor.of(sourceInstance.getClass());
     if (attribute.isCollection()) {
-      final Method getter = sourceInstance.getClass().getMethod("get" + methodSuffix);
-      ((Collection<T>) getter.invoke(sourceInstance)).add(targetInstance);
+      ((Collection<T>) accessor.getGetter(attribute.getInternalName()).get(sourceInstance)).add(targetInstance);
     } else {
-      Method setter = null;
+      Accessor setter = null;
       Class<?> clazz = targetInstance.getClass();
       while (clazz != null && setter == null) {
         try {
-          setter = sourceInstance.getClass().getMethod("set" + methodSuffix, clazz);
+          setter = accessor.getSetter(attribute.getInternalName(), clazz);
         } catch (NoSuchMethodException e) {
           clazz = clazz.getSuperclass();
         }
       }
       if (setter == null)
         throw new ODataJPAProcessorException(MessageKeys.SETTER_NOT_FOUND, HttpStatusCode.INTERNAL_SERVER_ERROR, "set"
-            + methodSuffix, sourceInstance.getClass().getName(), targetInstance.getClass().getName());
-      setter.invoke(sourceInstance, targetInstance);
+            + buildMethodNameSuffix(attribute), sourceInstance.getClass().getName(), targetInstance.getClass()
+                .getName());
+      setter.set(sourceInstance, targetInstance);
     }
   }
 
   private void setAttribute(final Object instance, final JPAElement attribute, final Object value)
       throws NoSuchMethodException, ODataJPAProcessorException, IllegalAccessException, InvocationTargetException {
 
-    final Method setter = instance.getClass().getMethod("set" + buildMethodNameSuffix(attribute), value.getClass());
-    if (setter == null)
-      throw new ODataJPAProcessorException(MessageKeys.SETTER_NOT_FOUND, HttpStatusCode.INTERNAL_SERVER_ERROR,
-          buildMethodNameSuffix(attribute), instance.getClass().getName(), value.getClass().getName());
-    setter.invoke(instance, value);
+    JPAClassAccessor.of(instance.getClass()).getSetter(attribute.getInternalName(), value.getClass()).set(instance,
+        value);
   }
 
   /**
@@ -408,11 +393,7 @@ public final class JPAModifyUtil {
   private Object getAttribute(final Object instance, final JPAElement attribute) throws NoSuchMethodException,
       ODataJPAProcessorException, IllegalAccessException, InvocationTargetException {
 
-    final Method getter = instance.getClass().getMethod("get" + buildMethodNameSuffix(attribute));
-    if (getter == null)
-      throw new ODataJPAProcessorException(MessageKeys.GETTER_NOT_FOUND, HttpStatusCode.INTERNAL_SERVER_ERROR,
-          buildMethodNameSuffix(attribute), instance.getClass().getName());
-    return getter.invoke(instance);
+    return JPAClassAccessor.of(instance.getClass()).getGetter(attribute.getInternalName()).get(instance);
   }
 
   /**
@@ -427,9 +408,6 @@ public final class JPAModifyUtil {
   private Object readCurrentState(final Object instance, final JPAElement attribute) throws NoSuchMethodException,
       IllegalAccessException, InvocationTargetException {
 
-    final Method getter = instance.getClass().getMethod("get" + buildMethodNameSuffix(attribute));
-    if (getter == null)
-      return null;
-    return getter.invoke(instance);
+    return JPAClassAccessor.of(instance.getClass()).getGetter(attribute.getInternalName()).get(instance);
   }
 }
@@ -1,23 +1,35 @@
 package com.sap.olingo.jpa.processor.core.processor;
 
-import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_RESULT_KEY;
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
 import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.ODATA_MAXPAGESIZE_NOT_A_NUMBER;
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.QUERY_PARALLEL_EXECUTION_ERROR;
 import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR;
 import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -25,6 +37,7 @@ import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceKind;
@@ -39,17 +52,19 @@ import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.query.JPAAggregationQuery;
 import com.sap.olingo.jpa.processor.core.query.JPACollectionItemInfo;
 import com.sap.olingo.jpa.processor.core.query.JPACollectionJoinQuery;
 import com.sap.olingo.jpa.processor.core.query.JPAConvertableResult;
-import com.sap.olingo.jpa.processor.core.query.JPAExpandItemInfo;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandItemInfoFactory;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandJoinQuery;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandQueryResult;
+import com.sap.olingo.jpa.processor.core.query.JPAInlineItemInfo;
 import com.sap.olingo.jpa.processor.core.query.JPAJoinQuery;
 import com.sap.olingo.jpa.processor.core.query.JPAKeyBoundary;
 import com.sap.olingo.jpa.processor.core.query.JPANavigationProptertyInfo;
 import com.sap.olingo.jpa.processor.core.query.Util;
+import com.sap.olingo.jpa.processor.core.serializer.JPAStreamSerializer;
 
 public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestProcessor {
   private final ServiceMetadata serviceMetadata;
@@ -72,6 +87,14 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       final ContentType responseFormat) throws ODataException {
 
     final int handle = debugger.startRuntimeMeasurement(this, "retrieveData");
+    if (uriInfo.getApplyOption() != null) {
+      try {
+        retrieveAggregatedData(request, response, responseFormat);
+      } finally {
+        debugger.stopRuntimeMeasurement(handle);
+      }
+      return;
+    }
     // Create a JPQL Query and execute it
     JPAJoinQuery query = null;
     try {
@@ -80,30 +103,53 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       debugger.stopRuntimeMeasurement(handle);
       throw new ODataJPAProcessorException(QUERY_PREPARATION_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
+    if (isPreconditionCheckRequested(request) && isNotModified(request, response, query)) {
+      debugger.stopRuntimeMeasurement(handle);
+      return;
+    }
+    final Optional<JPAParallelTasks<Integer>> asyncCount = startCountResults(request);
+    try {
+      retrieveEntities(request, response, responseFormat, query, asyncCount);
+    } finally {
+      // In case of an error the count is not needed any more
+      asyncCount.ifPresent(JPAParallelTasks::cancel);
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  private void retrieveEntities(final ODataRequest request, final ODataResponse response,
+      final ContentType responseFormat, final JPAJoinQuery query, final Optional<JPAParallelTasks<Integer>> asyncCount)
+      throws ODataException {
 
-    final JPAConvertableResult result = query.execute();
+    // A result with $expand items or collection properties has to be read completely, so it is not streamed
+    final boolean streamed = isStreamingPossible()
+        && buildInlineItemInfo(query.getNavigationInfo(), uriInfo).isEmpty();
+    final JPAConvertableResult result = streamed
+        ? query.executeStreamed(sessionContext.getStreamingChunkSize()) : query.execute();
     // Read Expand and Collection
-    final Optional<JPAKeyBoundary> keyBoundary = result.getKeyBoundary(requestContext, query.getNavigationInfo());
-    result.putChildren(readExpandEntities(request.getAllHeaders(), query.getNavigationInfo(), uriInfo, keyBoundary));
+    final Optional<JPAKeyBoundary> keyBoundary = result.getKeyBoundary(requestContext, query.getNavigationInfo(),
+        sessionContext.getMaxExpandKeys(), sessionContext.getExpandKeyChunkSize());
+    result.putChildren(readExpandEntities(request.getAllHeaders(), query.getNavigationInfo(), uriInfo, keyBoundary,
+        query.getJoinedExpandResults()));
+    if (streamed) {
+      retrieveDataStreamed(request, response, responseFormat, result, asyncCount);
+      return;
+    }
     // Convert tuple result into an OData Result
     final int converterHandle = debugger.startRuntimeMeasurement(this, "convertResult");
     EntityCollection entityCollection;
     try {
-      entityCollection = result.asEntityCollection(new JPATupleChildConverter(sd, odata.createUriHelper(),
-          serviceMetadata)).get(ROOT_RESULT_KEY);
+      entityCollection = result.asKeyedEntityCollection(new JPATupleChildConverter(sd, odata.createUriHelper(),
+          serviceMetadata)).get(ROOT_KEY);
       debugger.stopRuntimeMeasurement(converterHandle);
     } catch (ODataApplicationException e) {
       debugger.stopRuntimeMeasurement(converterHandle);
-      debugger.stopRuntimeMeasurement(handle);
       throw new ODataJPAProcessorException(QUERY_RESULT_CONV_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
     // Set Next Link
     entityCollection.setNext(buildNextLink(page));
     // Count results if requested
-    final CountOption countOption = uriInfo.getCountOption();
-    if (countOption != null && countOption.getValue())
-      entityCollection.setCount(new JPAJoinQuery(odata, sessionContext, request.getAllHeaders(), requestContext)
-          .countResults().intValue());
+    entityCollection.setCount(countResults(request, asyncCount));
 
     /*
      * See part 1:
@@ -141,7 +187,171 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       // return=minimal preference. In this case, the response body MUST be empty.
       response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
     }
-    debugger.stopRuntimeMeasurement(handle);
+  }
+
+  /**
+   * Requests with $apply are executed as aggregation query. The result does not contain entities, so $expand is not
+   * applied. Server driven paging and $count refer to the aggregated rows.
+   */
+  private void retrieveAggregatedData(final ODataRequest request, final ODataResponse response,
+      final ContentType responseFormat) throws ODataException {
+
+    JPAAggregationQuery query = null;
+    try {
+      query = new JPAAggregationQuery(odata, sessionContext, request.getAllHeaders(), requestContext);
+    } catch (ODataException e) {
+      throw new ODataJPAProcessorException(QUERY_PREPARATION_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+    final EntityCollection entityCollection = query.execute().getEntityCollection(ROOT_KEY);
+    entityCollection.setNext(buildNextLink(page));
+    final CountOption countOption = uriInfo.getCountOption();
+    if (countOption != null && countOption.getValue())
+      entityCollection.setCount(new JPAAggregationQuery(odata, sessionContext, request.getAllHeaders(),
+          requestContext).countResults().intValue());
+
+    final int serializerHandle = debugger.startRuntimeMeasurement(serializer, "serialize");
+    final SerializerResult serializerResult = serializer.serialize(request, entityCollection);
+    debugger.stopRuntimeMeasurement(serializerHandle);
+    createSuccessResponce(response, responseFormat, serializerResult);
+  }
+
+  /**
+   * Entity collections can be serialized as stream, as the response code does not depend on the result. The rows are
+   * then read from the database chunk by chunk during the serialization. In debug mode the complete response body is
+   * needed for the debug output, so no streaming is used.
+   */
+  private boolean isStreamingPossible() {
+    return sessionContext.useStreamingSerialization()
+        && serializer instanceof JPAStreamSerializer
+        && !(debugger instanceof JPACoreDebugger);
+  }
+
+  private void retrieveDataStreamed(final ODataRequest request, final ODataResponse response,
+      final ContentType responseFormat, final JPAConvertableResult result,
+      final Optional<JPAParallelTasks<Integer>> asyncCount) throws ODataException {
+
+    final EntityIterator entities;
+    final int converterHandle = debugger.startRuntimeMeasurement(this, "convertResult");
+    try {
+      entities = result.asEntityIterator(new JPATupleChildConverter(sd, odata.createUriHelper(), serviceMetadata));
+    } catch (ODataApplicationException e) {
+      throw new ODataJPAProcessorException(QUERY_RESULT_CONV_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      debugger.stopRuntimeMeasurement(converterHandle);
+    }
+    entities.setNext(buildNextLink(page));
+    entities.setCount(countResults(request, asyncCount));
+
+    final int serializerHandle = debugger.startRuntimeMeasurement(serializer, "serialize");
+    final SerializerStreamResult serializerResult = ((JPAStreamSerializer) serializer).serializeStreamed(request,
+        entities);
+    debugger.stopRuntimeMeasurement(serializerHandle);
+    createSuccessResponce(response, responseFormat, serializerResult);
+  }
+
+  /**
+   * Preconditions are checked for requests of a single entity that provide an <code>If-None-Match</code> or an
+   * <code>If-Match</code> header.
+   */
+  private boolean isPreconditionCheckRequested(final ODataRequest request) throws ODataApplicationException {
+    if (request.getHeader(HttpHeader.IF_NONE_MATCH) == null && request.getHeader(HttpHeader.IF_MATCH) == null)
+      return false;
+    if (lastItem.getKind() == UriResourceKind.entitySet)
+      return !Util.determineKeyPredicates(lastItem).isEmpty();
+    return lastItem.getKind() == UriResourceKind.navigationProperty
+        && !((UriResourcePartTyped) lastItem).isCollection();
+  }
+
+  /**
+   * Reads only the version of the requested entity and checks it against the ETags of the request. In case the client
+   * has the current version already, the response is <i>304 Not Modified</i> and the entity and its $expand items are
+   * not read. A failing <code>If-Match</code> leads to <i>412 Precondition Failed</i>.<p>
+   * The version is read by the query that afterwards reads the entity, so the request is analyzed only once.
+   */
+  private boolean isNotModified(final ODataRequest request, final ODataResponse response, final JPAJoinQuery query)
+      throws ODataException {
+
+    final Optional<String> version = query.readEtag();
+    if (!version.isPresent())
+      return false;
+    final String etag = "\"" + version.get() + "\"";
+    response.setHeader(HttpHeader.ETAG, etag);
+    if (odata.createETagHelper().checkReadPreconditions(etag, normalizeEtags(request.getHeaders(HttpHeader.IF_MATCH)),
+        normalizeEtags(request.getHeaders(HttpHeader.IF_NONE_MATCH)))) {
+      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * The ETag of an entity is provided as <code>@odata.etag</code> without quotes, so clients may also send it that way
+   */
+  private List<String> normalizeEtags(final List<String> headers) {
+    final List<String> etags = new ArrayList<>();
+    if (headers == null)
+      return etags;
+    for (final String header : headers) {
+      for (final String value : header.split(",")) {
+        final String etag = value.trim();
+        if (etag.isEmpty() || etag.startsWith("\"") || etag.startsWith("W/\"") || "*".equals(etag))
+          etags.add(etag);
+        else
+          etags.add("\"" + etag + "\"");
+      }
+    }
+    return etags;
+  }
+
+  private Integer countResults(final ODataRequest request, final Optional<JPAParallelTasks<Integer>> asyncCount)
+      throws ODataException {
+    if (asyncCount.isPresent())
+      return asyncCount.get().join().get(0);
+    if (isCountRequested())
+      return new JPAJoinQuery(odata, sessionContext, request.getAllHeaders(), requestContext).countResults().intValue();
+    return null;
+  }
+
+  private boolean isCountRequested() {
+    final CountOption countOption = uriInfo.getCountOption();
+    return countOption != null && countOption.getValue();
+  }
+
+  /**
+   * The count query does not depend on the query reading the result, so in case the service context requests it, see
+   * {@link JPAODataCRUDContextAccess#useAsyncCount()}, it is executed on the query executor with an own entity manager.
+   * If the executor does not accept further tasks, the count is determined afterwards by the request thread.
+   */
+  private Optional<JPAParallelTasks<Integer>> startCountResults(final ODataRequest request) {
+    if (!isCountRequested()
+        || !sessionContext.useAsyncCount()
+        || !sessionContext.getQueryExecutor().isPresent()
+        || !sessionContext.getEntityManagerFactory().isPresent())
+      return Optional.empty();
+
+    final EntityManagerFactory emf = sessionContext.getEntityManagerFactory().get(); // NOSONAR checked before
+    final ExecutorService executor = sessionContext.getQueryExecutor().get(); // NOSONAR checked before
+    final JPAParallelTasks<Integer> tasks = new JPAParallelTasks<>(executor, QUERY_PARALLEL_EXECUTION_ERROR);
+    final Map<String, List<String>> headers = request.getAllHeaders();
+    try {
+      tasks.submit(() -> countResults(emf, headers));
+      return Optional.of(tasks);
+    } catch (RejectedExecutionException e) {
+      return Optional.empty();
+    }
+  }
+
+  private Integer countResults(final EntityManagerFactory emf, final Map<String, List<String>> headers)
+      throws ODataException {
+
+    final EntityManager workerEm = emf.createEntityManager();
+    try {
+      final JPAODataRequestContextImpl workerContext = new JPAODataRequestContextImpl(uriInfo, requestContext);
+      workerContext.setEntityManager(workerEm);
+      return new JPAJoinQuery(odata, sessionContext, headers, workerContext).countResults().intValue();
+    } finally {
+      workerEm.close();
+    }
   }
 
   private URI buildNextLink(final JPAODataPage page) throws ODataJPAProcessorException {
@@ -232,6 +442,14 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
    * <li>Server driven paging seems to be more complicated</li>
    * </ul>
    * and the goal is to implement a general solution, multiple round trips have been taken.
+   * <p>
+   * Nevertheless simple to-one $expand items of the first level can be read together with the main query, see
+   * {@link com.sap.olingo.jpa.processor.core.api.JPAODataExpandStrategy JPAODataExpandStrategy}. Their results are
+   * provided by the main query, only their $expand items and collection properties are read here.
+   * <p>
+   * The $expand items and collection properties of the first level do not depend on each other. In case the service
+   * context provides a query executor, see {@link JPAODataCRUDContextAccess#getQueryExecutor()}, they are read in
+   * parallel. Lower levels are read sequentially by the thread that read the parent.
    * <p>For a general overview see:
    * <a href=
    * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part1-protocol/odata-v4.0-errata02-os-part1-protocol-complete.html#_Toc406398298"
@@ -246,16 +464,16 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
    * @param parentHops
    * @param uriResourceInfo
    * @param parentWhere
+   * @param joinedResults Results of the $expand items read by the main query
    * @return
    * @throws ODataException
    */
   private Map<JPAAssociationPath, JPAExpandResult> readExpandEntities(final Map<String, List<String>> headers,
       final List<JPANavigationProptertyInfo> parentHops, final UriInfoResource uriResourceInfo,
-      final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+      final Optional<JPAKeyBoundary> keyBoundary, final Map<JPAAssociationPath, JPAExpandQueryResult> joinedResults)
+      throws ODataException {
 
     final int handle = debugger.startRuntimeMeasurement(this, "readExpandEntities");
-    final Map<JPAAssociationPath, JPAExpandResult> allExpResults =
-        new HashMap<>();
     // x/a?$expand=b/c($expand=d,e/f)&$filter=...&$top=3&$orderBy=...
     // For performance reasons the expand query should only return results for the results of the higher-level query.
     // The solution for restrictions like a given key or a given filter condition, as it can be propagated to a
@@ -264,30 +482,138 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
     // done on the TypedQuery created out of the CriteriaQuery. In addition not all databases support LIMIT within a
     // sub-query used within EXISTS.
     // Solution: Forward the highest and lowest key from the root and create a "between" those.
-
-    final List<JPAExpandItemInfo> itemInfoList = new JPAExpandItemInfoFactory()
-        .buildExpandItemInfo(sd, uriResourceInfo, parentHops);
-    for (final JPAExpandItemInfo item : itemInfoList) {
-      final JPAExpandJoinQuery expandQuery = new JPAExpandJoinQuery(odata, sessionContext, item, headers,
-          requestContext, keyBoundary);
-      final JPAExpandQueryResult expandResult = expandQuery.execute();
-      if (expandResult.getNoResults() > 0)
-        // Only go the next hop if the current one has a result
-        expandResult.putChildren(readExpandEntities(headers, item.getHops(), item.getUriInfo(), keyBoundary));
-      allExpResults.put(item.getExpandAssociation(), expandResult);
+    final Queue<JPAInlineItemInfo> itemInfoQueue = buildInlineItemInfo(parentHops, uriResourceInfo);
+    final List<JPAInlineItemInfo> joinedItems = new ArrayList<>();
+    for (final JPAInlineItemInfo item : itemInfoQueue) {
+      if (joinedResults.containsKey(item.getExpandAssociation()))
+        joinedItems.add(item);
     }
+    itemInfoQueue.removeAll(joinedItems);
+    final Map<JPAAssociationPath, JPAExpandResult> allExpResults;
+    if (isParallelExecutionPossible(itemInfoQueue))
+      allExpResults = readInlineItemsParallel(headers, itemInfoQueue, keyBoundary);
+    else
+      allExpResults = readInlineItems(requestContext, headers, itemInfoQueue, keyBoundary);
+    for (final JPAInlineItemInfo item : joinedItems)
+      allExpResults.put(item.getExpandAssociation(), readNextHop(requestContext, headers, item, joinedResults.get(
+          item.getExpandAssociation()), keyBoundary));
+    debugger.stopRuntimeMeasurement(handle);
+    return allExpResults;
+  }
+
+  /**
+   * Sequential processing of the $expand items and collection properties of a lower level. Used for all levels below
+   * the root, so the number of queries running in parallel for one request stays within the limit given by the
+   * service context.
+   */
+  private Map<JPAAssociationPath, JPAExpandResult> readExpandEntities(final JPAODataRequestContextAccess context,
+      final Map<String, List<String>> headers, final List<JPANavigationProptertyInfo> parentHops,
+      final UriInfoResource uriResourceInfo, final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+
+    return readInlineItems(context, headers, buildInlineItemInfo(parentHops, uriResourceInfo), keyBoundary);
+  }
+
+  private Queue<JPAInlineItemInfo> buildInlineItemInfo(final List<JPANavigationProptertyInfo> parentHops,
+      final UriInfoResource uriResourceInfo) throws ODataException {
 
+    final Queue<JPAInlineItemInfo> itemInfoQueue = new ConcurrentLinkedQueue<>();
+    itemInfoQueue.addAll(new JPAExpandItemInfoFactory().buildExpandItemInfo(sd, uriResourceInfo, parentHops));
     // process collection attributes
-    final List<JPACollectionItemInfo> collectionInfoList = new JPAExpandItemInfoFactory()
-        .buildCollectionItemInfo(sd, uriResourceInfo, parentHops, requestContext.getGroupsProvider());
-    for (final JPACollectionItemInfo item : collectionInfoList) {
-      final JPACollectionJoinQuery collectionQuery = new JPACollectionJoinQuery(odata, sessionContext, em, item,
-          headers, new JPAODataRequestContextImpl(item.getUriInfo(), requestContext), keyBoundary);
-      final JPAExpandResult expandResult = collectionQuery.execute();
-      allExpResults.put(item.getExpandAssociation(), expandResult);
+    itemInfoQueue.addAll(new JPAExpandItemInfoFactory().buildCollectionItemInfo(sd, uriResourceInfo, parentHops,
+        requestContext.getGroupsProvider()));
+    return itemInfoQueue;
+  }
+
+  private boolean isParallelExecutionPossible(final Collection<JPAInlineItemInfo> itemInfoList) {
+    return itemInfoList.size() > 1
+        && sessionContext.getMaxParallelQueries() > 1
+        && sessionContext.getQueryExecutor().isPresent()
+        && sessionContext.getEntityManagerFactory().isPresent();
+  }
+
+  private JPAExpandResult readInlineItem(final JPAODataRequestContextAccess context,
+      final Map<String, List<String>> headers, final JPAInlineItemInfo item,
+      final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+
+    if (item instanceof JPACollectionItemInfo) {
+      final JPACollectionJoinQuery collectionQuery = new JPACollectionJoinQuery(odata, sessionContext, context
+          .getEntityManager(), (JPACollectionItemInfo) item, headers, new JPAODataRequestContextImpl(item.getUriInfo(),
+              context), keyBoundary);
+      return collectionQuery.execute();
+    }
+    final JPAExpandJoinQuery expandQuery = new JPAExpandJoinQuery(odata, sessionContext, item, headers, context,
+        keyBoundary);
+    return readNextHop(context, headers, item, expandQuery.execute(), keyBoundary);
+  }
+
+  private JPAExpandResult readNextHop(final JPAODataRequestContextAccess context,
+      final Map<String, List<String>> headers, final JPAInlineItemInfo item, final JPAExpandQueryResult expandResult,
+      final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+
+    if (expandResult.getNoResults() > 0)
+      // Only go the next hop if the current one has a result
+      expandResult.putChildren(readExpandEntities(context, headers, item.getHops(), item.getUriInfo(), keyBoundary));
+    return expandResult;
+  }
+
+  /**
+   * Processes the items of the queue until it is empty. The queue may be shared with other workers running in
+   * parallel, each of them using its own request context.
+   */
+  private Map<JPAAssociationPath, JPAExpandResult> readInlineItems(final JPAODataRequestContextAccess context,
+      final Map<String, List<String>> headers, final Queue<JPAInlineItemInfo> itemInfoQueue,
+      final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+
+    final Map<JPAAssociationPath, JPAExpandResult> expResults = new HashMap<>();
+    JPAInlineItemInfo item;
+    while ((item = itemInfoQueue.poll()) != null)
+      expResults.put(item.getExpandAssociation(), readInlineItem(context, headers, item, keyBoundary));
+    return expResults;
+  }
+
+  /**
+   * Sibling $expand items and collection properties do not depend on each other, so they can be read concurrently.
+   * The request thread works on the items together with up to <i>max parallel queries - 1</i> workers of the query
+   * executor. As an entity manager must not be shared between threads, each worker creates its own. In case of an
+   * error the workers are cancelled and the request thread waits for them, before the error is thrown.
+   */
+  private Map<JPAAssociationPath, JPAExpandResult> readInlineItemsParallel(final Map<String, List<String>> headers,
+      final Queue<JPAInlineItemInfo> itemInfoQueue, final Optional<JPAKeyBoundary> keyBoundary)
+      throws ODataException {
+
+    final EntityManagerFactory emf = sessionContext.getEntityManagerFactory().get(); // NOSONAR checked before
+    final ExecutorService executor = sessionContext.getQueryExecutor().get(); // NOSONAR checked before
+    final JPAParallelTasks<Map<JPAAssociationPath, JPAExpandResult>> workers = new JPAParallelTasks<>(executor,
+        QUERY_PARALLEL_EXECUTION_ERROR);
+    final int noWorkers = Math.min(sessionContext.getMaxParallelQueries(), itemInfoQueue.size()) - 1;
+    final Map<JPAAssociationPath, JPAExpandResult> allExpResults = new HashMap<>();
+    try {
+      for (int i = 0; i < noWorkers; i++)
+        workers.submit(() -> readInlineItems(emf, headers, itemInfoQueue, keyBoundary));
+      allExpResults.putAll(readInlineItems(requestContext, headers, itemInfoQueue, keyBoundary));
+      for (final Map<JPAAssociationPath, JPAExpandResult> workerResults : workers.join())
+        allExpResults.putAll(workerResults);
+    } catch (RejectedExecutionException e) {
+      throw new ODataJPAProcessorException(QUERY_PARALLEL_EXECUTION_ERROR, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      // In case of an error the remaining workers shall not start new queries
+      itemInfoQueue.clear();
+      workers.cancel();
     }
-    debugger.stopRuntimeMeasurement(handle);
     return allExpResults;
   }
 
+  private Map<JPAAssociationPath, JPAExpandResult> readInlineItems(final EntityManagerFactory emf,
+      final Map<String, List<String>> headers, final Queue<JPAInlineItemInfo> itemInfoQueue,
+      final Optional<JPAKeyBoundary> keyBoundary) throws ODataException {
+
+    final EntityManager workerEm = emf.createEntityManager();
+    try {
+      final JPAODataRequestContextImpl workerContext = new JPAODataRequestContextImpl(uriInfo, requestContext);
+      workerContext.setEntityManager(workerEm);
+      return readInlineItems(workerContext, headers, itemInfoQueue, keyBoundary);
+    } finally {
+      workerEm.close();
+    }
+  }
 }
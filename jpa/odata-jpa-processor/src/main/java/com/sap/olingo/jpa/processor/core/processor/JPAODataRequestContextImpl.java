@@ -43,6 +43,8 @@ public final class JPAODataRequestContextImpl implements JPAODataCRUDRequestCont
   private JPADebugSupportWrapper debugSupport;
   private String debugFormat;
   private JPAODataTransactionFactory transactionFactory;
+  private Optional<JPADeferredResponses> deferredResponses = Optional.empty();
+  private Optional<JPAResultCacheInvalidations> resultCacheInvalidations = Optional.empty();
 
   public JPAODataRequestContextImpl() {
     // Provide all data via setter
@@ -97,6 +99,24 @@ public final class JPAODataRequestContextImpl implements JPAODataCRUDRequestCont
     return serializer;
   }
 
+  @Override
+  public Optional<JPADeferredResponses> getDeferredResponses() {
+    return deferredResponses;
+  }
+
+  public void setDeferredResponses(@Nullable final JPADeferredResponses deferredResponses) {
+    this.deferredResponses = Optional.ofNullable(deferredResponses);
+  }
+
+  @Override
+  public Optional<JPAResultCacheInvalidations> getResultCacheInvalidations() {
+    return resultCacheInvalidations;
+  }
+
+  public void setResultCacheInvalidations(@Nullable final JPAResultCacheInvalidations resultCacheInvalidations) {
+    this.resultCacheInvalidations = Optional.ofNullable(resultCacheInvalidations);
+  }
+
   @Override
   public JPAODataTransactionFactory getTransactionFactory() {
     if (transactionFactory == null)
@@ -193,6 +213,8 @@ public final class JPAODataRequestContextImpl implements JPAODataCRUDRequestCont
     this.em = context.getEntityManager();
     this.jpaCUDRequestHandler = context.getCUDRequestHandler();
     this.debugger = context.getDebugger();
+    this.deferredResponses = context.getDeferredResponses();
+    this.resultCacheInvalidations = context.getResultCacheInvalidations();
   }
 
   private void createDefaultTransactionFactory() {
@@ -0,0 +1,117 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
+
+/**
+ * Tasks of a request, that are executed by the workers of an executor. In case of an error the remaining tasks are
+ * cancelled and the request thread waits until the running ones have finished, so no worker is using resources of the
+ * request, like its entity manager factory, after the request has been answered.<p>
+ * An instance is used only by the request thread.
+ */
+public final class JPAParallelTasks<T> {
+
+  private final CompletionService<T> completionService;
+  private final MessageKeys messageKey;
+  private final List<Future<T>> futures = new ArrayList<>();
+  private int running;
+  private boolean cancelled;
+
+  /**
+   * @param executor Executor running the tasks
+   * @param messageKey Message used in case a task failed with an exception that is not an OData exception
+   */
+  public JPAParallelTasks(final ExecutorService executor, final MessageKeys messageKey) {
+    super();
+    this.completionService = new ExecutorCompletionService<>(executor);
+    this.messageKey = messageKey;
+  }
+
+  /**
+   * @throws RejectedExecutionException in case the executor does not accept further tasks
+   */
+  public void submit(final Callable<T> task) {
+    futures.add(completionService.submit(() -> execute(task)));
+  }
+
+  /**
+   * Waits for the results of all tasks. The tasks are checked in the order they finish, so as soon as a task failed,
+   * the others are cancelled and its exception is thrown.
+   * @return Results in the order the tasks have been submitted
+   */
+  public List<T> join() throws ODataApplicationException, ODataLibraryException {
+    final List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (int i = 0; i < futures.size(); i++)
+        completionService.take().get();
+      for (final Future<T> future : futures)
+        results.add(future.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancel();
+      throw new ODataJPAProcessorException(messageKey, HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } catch (ExecutionException e) {
+      cancel();
+      if (e.getCause() instanceof ODataApplicationException)
+        throw (ODataApplicationException) e.getCause();
+      if (e.getCause() instanceof ODataLibraryException)
+        throw (ODataLibraryException) e.getCause();
+      throw new ODataJPAProcessorException(messageKey, HttpStatusCode.INTERNAL_SERVER_ERROR, e.getCause());
+    }
+    return results;
+  }
+
+  /**
+   * Cancels the tasks that have not been started yet, interrupts the running ones and waits until they have finished.
+   * Has no effect on tasks that are already done, so it can be called in a <code>finally</code> block.
+   */
+  public void cancel() {
+    synchronized (this) {
+      cancelled = true;
+    }
+    for (final Future<T> future : futures)
+      future.cancel(true);
+    boolean interrupted = Thread.interrupted();
+    synchronized (this) {
+      while (running > 0) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  private T execute(final Callable<T> task) throws Exception { // NOSONAR exception of the task is forwarded
+    synchronized (this) {
+      if (cancelled)
+        return null;
+      running++;
+    }
+    try {
+      return task.call();
+    } finally {
+      synchronized (this) {
+        running--;
+        notifyAll();
+      }
+    }
+  }
+}
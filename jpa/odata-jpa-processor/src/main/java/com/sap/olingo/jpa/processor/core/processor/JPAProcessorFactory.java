@@ -4,11 +4,13 @@ import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorExcep
 import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.QUERY_SERVER_DRIVEN_PAGING_NOT_IMPLEMENTED;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 
+import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -19,15 +21,21 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourcePartTyped;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAProtectionInfo;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
+import com.sap.olingo.jpa.processor.core.api.JPAClaimsPair;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataPage;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.exception.JPAIllicalAccessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
+import com.sap.olingo.jpa.processor.core.query.JPAAggregationQuery;
 import com.sap.olingo.jpa.processor.core.query.JPACountQuery;
 import com.sap.olingo.jpa.processor.core.query.JPAJoinQuery;
 import com.sap.olingo.jpa.processor.core.serializer.JPASerializerFactory;
@@ -83,7 +91,18 @@ public final class JPAProcessorFactory {
 
     final List<UriResource> resourceParts = uriInfo.getUriResourceParts();
     final UriResource lastItem = resourceParts.get(resourceParts.size() - 1);
-    final JPAODataPage page = getPage(header, uriInfo, context);
+    if (sessionContext.getResultCache().isPresent() && isCacheableResource(lastItem))
+      return new JPAResultCacheRequestProcessor(this, sessionContext, sessionContext.getResultCache().get(), uriInfo,
+          header, context);
+    return createProcessor(getPage(header, uriInfo, context), uriInfo, responseFormat, header, context);
+  }
+
+  JPARequestProcessor createProcessor(final JPAODataPage page, final UriInfo uriInfo,
+      final ContentType responseFormat, final Map<String, List<String>> header,
+      final JPAODataRequestContextAccess context) throws ODataException {
+
+    final List<UriResource> resourceParts = uriInfo.getUriResourceParts();
+    final UriResource lastItem = resourceParts.get(resourceParts.size() - 1);
     JPAODataRequestContextAccess requestContext;
     try {
       requestContext = new JPAODataRequestContextImpl(page, serializerFactory
@@ -112,6 +131,19 @@ public final class JPAProcessorFactory {
     }
   }
 
+  private boolean isCacheableResource(final UriResource lastItem) {
+    switch (lastItem.getKind()) {
+      case complexProperty:
+      case primitiveProperty:
+      case navigationProperty:
+      case entitySet:
+      case value:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   private void checkFunctionPathSupported(final List<UriResource> resourceParts) throws ODataApplicationException {
     if (resourceParts.size() > 2)
       throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_FUNC_WITH_NAVI,
@@ -130,7 +162,7 @@ public final class JPAProcessorFactory {
     }
   }
 
-  private JPAODataPage getPage(final Map<String, List<String>> headers, final UriInfo uriInfo,
+  JPAODataPage getPage(final Map<String, List<String>> headers, final UriInfo uriInfo,
       final JPAODataRequestContextAccess requestContext) throws ODataException {
 
     JPAODataPage page = new JPAODataPage(uriInfo, 0, Integer.MAX_VALUE, null);
@@ -138,21 +170,70 @@ public final class JPAProcessorFactory {
     if (serverDrivenPaging(uriInfo)) {
       final String skiptoken = skipToken(uriInfo);
       if (skiptoken != null && !skiptoken.isEmpty()) {
-        page = sessionContext.getPagingProvider().getNextPage(skiptoken);
+        // The request of a next page contains only the skiptoken, so the count query has to be restricted like the
+        // request of the first page
+        page = sessionContext.getPagingProvider().getNextPage(skiptoken, pageUriInfo -> () -> createCountQuery(
+            headers, pageUriInfo, requestContext).countResults());
         if (page == null)
           throw new ODataJPAProcessorException(QUERY_SERVER_DRIVEN_PAGING_GONE, HttpStatusCode.GONE, skiptoken);
       } else {
-        final JPACountQuery countQuery = new JPAJoinQuery(odata, sessionContext, headers,
-            new JPAODataRequestContextImpl(uriInfo, requestContext));
         final Integer preferedPagesize = getPreferedPagesize(headers);
         final JPAODataPage firstPage = sessionContext.getPagingProvider().getFirstPage(uriInfo, preferedPagesize,
-            countQuery, requestContext.getEntityManager());
+            createCountQuery(headers, uriInfo, requestContext), requestContext.getEntityManager(), getClaims(uriInfo,
+                requestContext), getGroups(requestContext));
         page = firstPage != null ? firstPage : page;
       }
     }
     return page;
   }
 
+  /**
+   * The pages of a $apply request consist of aggregated rows
+   */
+  private JPACountQuery createCountQuery(final Map<String, List<String>> headers, final UriInfo uriInfo,
+      final JPAODataRequestContextAccess requestContext) throws ODataApplicationException {
+
+    try {
+      final JPAODataRequestContextAccess countContext = new JPAODataRequestContextImpl(uriInfo, requestContext);
+      return uriInfo.getApplyOption() != null
+          ? new JPAAggregationQuery(odata, sessionContext, headers, countContext)
+          : new JPAJoinQuery(odata, sessionContext, headers, countContext);
+    } catch (ODataApplicationException e) {
+      throw e;
+    } catch (ODataException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Claims of the protected attributes of all entity types of the resource path. They restrict the result of the count
+   * query
+   */
+  private Map<String, List<JPAClaimsPair<?>>> getClaims(final UriInfo uriInfo,
+      final JPAODataRequestContextAccess requestContext) throws ODataException {
+
+    final Map<String, List<JPAClaimsPair<?>>> claims = new HashMap<>();
+    final JPAServiceDocument sd = sessionContext.getEdmProvider().getServiceDocument();
+    for (final UriResource resourcePart : uriInfo.getUriResourceParts()) {
+      if (resourcePart instanceof UriResourcePartTyped
+          && ((UriResourcePartTyped) resourcePart).getType() instanceof EdmEntityType) {
+        final JPAEntityType et = sd.getEntity(((UriResourcePartTyped) resourcePart).getType());
+        if (et != null) {
+          for (final JPAProtectionInfo protection : et.getProtections())
+            claims.put(protection.getClaimName(), requestContext.getClaimsProvider().isPresent()
+                ? requestContext.getClaimsProvider().get().get(protection.getClaimName()) : Collections.emptyList());
+        }
+      }
+    }
+    return claims;
+  }
+
+  private List<String> getGroups(final JPAODataRequestContextAccess requestContext) {
+    if (requestContext.getGroupsProvider().isPresent() && requestContext.getGroupsProvider().get().getGroups() != null)
+      return requestContext.getGroupsProvider().get().getGroups();
+    return Collections.emptyList();
+  }
+
   private Integer getPreferedPagesize(final Map<String, List<String>> headers) throws ODataJPAProcessorException {
 
     final List<String> preferedHeaders = getHeader("Prefer", headers);
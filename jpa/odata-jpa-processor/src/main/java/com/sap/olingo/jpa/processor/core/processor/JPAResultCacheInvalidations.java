@@ -0,0 +1,29 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCache;
+
+/**
+ * Collects the entity types changed by the requests of a change set, so that their cached responses are invalidated
+ * after the change set has been committed. Invalidating them before the commit would allow a parallel read request to
+ * put the not yet changed state into the cache again.
+ */
+public final class JPAResultCacheInvalidations {
+  private final Set<JPAEntityType> changedTypes = new HashSet<>();
+
+  public void add(final JPAEntityType entityType) {
+    changedTypes.add(entityType);
+  }
+
+  /**
+   * Invalidates the collected entity types at the cache.
+   * @param cache
+   */
+  public void invalidate(final JPAODataResultCache cache) {
+    changedTypes.forEach(cache::invalidate);
+    changedTypes.clear();
+  }
+}
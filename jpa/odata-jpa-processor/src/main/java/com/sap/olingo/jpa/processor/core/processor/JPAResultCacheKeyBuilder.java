@@ -0,0 +1,277 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAll;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAny;
+import org.apache.olingo.server.api.uri.UriResourcePartTyped;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.QueryOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.Method;
+import org.apache.olingo.server.api.uri.queryoption.expression.Unary;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADescriptionAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAProtectionInfo;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
+import com.sap.olingo.jpa.processor.core.api.JPAClaimsPair;
+import com.sap.olingo.jpa.processor.core.api.JPAODataClaimProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCache;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCacheKey;
+import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
+
+/**
+ * Creates the key of a read request for the result cache. Requests that contain entity types that are not cacheable or
+ * query options the cache can not handle, like $skiptoken, get no key.
+ */
+final class JPAResultCacheKeyBuilder {
+  private static final Set<UriResourceKind> SUPPORTED_RESOURCES = EnumSet.of(UriResourceKind.entitySet,
+      UriResourceKind.navigationProperty, UriResourceKind.complexProperty, UriResourceKind.primitiveProperty,
+      UriResourceKind.value, UriResourceKind.count);
+  private static final Set<SystemQueryOptionKind> SUPPORTED_OPTIONS = EnumSet.of(SystemQueryOptionKind.FILTER,
+      SystemQueryOptionKind.ORDERBY, SystemQueryOptionKind.EXPAND, SystemQueryOptionKind.SELECT,
+      SystemQueryOptionKind.TOP, SystemQueryOptionKind.SKIP, SystemQueryOptionKind.COUNT,
+      SystemQueryOptionKind.SEARCH, SystemQueryOptionKind.FORMAT, SystemQueryOptionKind.LEVELS);
+
+  private final JPAServiceDocument sd;
+  private final JPAODataResultCache cache;
+  private final JPAODataRequestContextAccess requestContext;
+  private final Set<EdmEntityType> edmTypes = new HashSet<>();
+
+  JPAResultCacheKeyBuilder(final JPAServiceDocument sd, final JPAODataResultCache cache,
+      final JPAODataRequestContextAccess requestContext) {
+    super();
+    this.sd = sd;
+    this.cache = cache;
+    this.requestContext = requestContext;
+  }
+
+  Optional<JPAODataResultCacheKey> build(final ODataRequest request, final UriInfo uriInfo,
+      final ContentType responseFormat) throws ODataException {
+
+    for (final SystemQueryOption option : uriInfo.getSystemQueryOptions()) {
+      if (!SUPPORTED_OPTIONS.contains(option.getKind()))
+        return Optional.empty();
+    }
+    if (!collectEntityTypes(uriInfo.getUriResourceParts())
+        || !collectEntityTypes(uriInfo.getFilterOption())
+        || !collectEntityTypes(uriInfo.getOrderByOption())
+        || !collectEntityTypes(uriInfo.getExpandOption()))
+      return Optional.empty();
+
+    final List<JPAEntityType> entityTypes = new ArrayList<>(edmTypes.size());
+    for (final EdmEntityType edmType : edmTypes) {
+      final JPAEntityType entityType = sd.getEntity(edmType);
+      if (entityType == null || !cache.isCacheable(entityType))
+        return Optional.empty();
+      entityTypes.add(entityType);
+    }
+    return Optional.of(new JPAODataResultCacheKey(request.getRawBaseUri(), buildResource(request, uriInfo),
+        buildFormat(request, responseFormat), ExpressionUtil.determineLocale(request.getAllHeaders()).toString(),
+        buildClaims(entityTypes), buildGroups(), buildEntityTypeNames(entityTypes), cache.getTime()));
+  }
+
+  /**
+   * An entity can be changed via the entity set of its type as well as via the entity set of a base or sub type, so
+   * the key contains all types of the inheritance hierarchy. In addition the key contains the types that provide the
+   * values of description properties.
+   */
+  private Set<FullQualifiedName> buildEntityTypeNames(final List<JPAEntityType> entityTypes) throws ODataException {
+    final Map<FullQualifiedName, FullQualifiedName> baseTypes = new HashMap<>();
+    for (final CsdlSchema schema : sd.getEdmSchemas()) {
+      for (final CsdlEntityType entityType : schema.getEntityTypes()) {
+        if (entityType.getBaseTypeFQN() != null)
+          baseTypes.put(new FullQualifiedName(schema.getNamespace(), entityType.getName()), entityType
+              .getBaseTypeFQN());
+      }
+    }
+    final Set<FullQualifiedName> entityTypeNames = new HashSet<>();
+    final Set<FullQualifiedName> roots = new HashSet<>();
+    for (final JPAEntityType entityType : entityTypes) {
+      entityTypeNames.add(entityType.getExternalFQN());
+      roots.add(determineRootType(entityType.getExternalFQN(), baseTypes));
+      for (final JPAPath path : entityType.getPathList()) {
+        if (path.getLeaf() instanceof JPADescriptionAttribute) {
+          final JPAStructuredType target = ((JPADescriptionAttribute) path.getLeaf()).getTargetEntity();
+          if (target instanceof JPAEntityType)
+            entityTypeNames.add(((JPAEntityType) target).getExternalFQN());
+        }
+      }
+    }
+    entityTypeNames.addAll(roots);
+    for (final FullQualifiedName subType : baseTypes.keySet()) {
+      if (roots.contains(determineRootType(subType, baseTypes)))
+        entityTypeNames.add(subType);
+    }
+    return entityTypeNames;
+  }
+
+  private FullQualifiedName determineRootType(final FullQualifiedName typeName,
+      final Map<FullQualifiedName, FullQualifiedName> baseTypes) {
+    FullQualifiedName root = typeName;
+    while (baseTypes.containsKey(root))
+      root = baseTypes.get(root);
+    return root;
+  }
+
+  /**
+   * The query options are sorted, so that the order in which they were given does not matter
+   */
+  private String buildResource(final ODataRequest request, final UriInfo uriInfo) {
+    final List<String> options = new ArrayList<>();
+    for (final SystemQueryOption option : uriInfo.getSystemQueryOptions())
+      options.add(option.getName() + "=" + option.getText());
+    addQueryOptions(options, uriInfo.getAliases());
+    addQueryOptions(options, uriInfo.getCustomQueryOptions());
+    Collections.sort(options);
+    return request.getRawODataPath() + "?" + String.join("&", options);
+  }
+
+  private void addQueryOptions(final List<String> options, final List<? extends QueryOption> queryOptions) {
+    for (final QueryOption option : queryOptions)
+      options.add(option.getName() + "=" + option.getText());
+  }
+
+  /**
+   * Besides the content type, the preferences and the maximum version requested by the client can change the response
+   */
+  private String buildFormat(final ODataRequest request, final ContentType responseFormat) {
+    final StringBuilder format = new StringBuilder(responseFormat.toContentTypeString());
+    final List<String> preferences = request.getHeaders(HttpHeader.PREFER);
+    if (preferences != null) {
+      for (final String preference : preferences)
+        format.append(';').append(preference);
+    }
+    if (request.getHeader(HttpHeader.ODATA_MAX_VERSION) != null)
+      format.append(';').append(request.getHeader(HttpHeader.ODATA_MAX_VERSION));
+    return format.toString();
+  }
+
+  private Map<String, String> buildClaims(final List<JPAEntityType> entityTypes) throws ODataException {
+    final Map<String, String> claims = new HashMap<>();
+    final Optional<JPAODataClaimProvider> claimsProvider = requestContext.getClaimsProvider();
+    for (final JPAEntityType entityType : entityTypes) {
+      for (final JPAProtectionInfo protection : entityType.getProtections()) {
+        final String claimName = protection.getClaimName();
+        final List<JPAClaimsPair<?>> values = claimsProvider.isPresent() ? claimsProvider.get().get(claimName)
+            : Collections.emptyList();
+        claims.put(claimName, String.valueOf(values));
+      }
+    }
+    return claims;
+  }
+
+  private List<String> buildGroups() {
+    if (requestContext.getGroupsProvider().isPresent() && requestContext.getGroupsProvider().get().getGroups() != null)
+      return requestContext.getGroupsProvider().get().getGroups();
+    return Collections.emptyList();
+  }
+
+  private boolean collectEntityTypes(final List<UriResource> resourceParts) {
+    for (final UriResource resourcePart : resourceParts) {
+      if (resourcePart instanceof UriResourceLambdaAny) {
+        if (!collectEntityTypes(((UriResourceLambdaAny) resourcePart).getExpression()))
+          return false;
+      } else if (resourcePart instanceof UriResourceLambdaAll) {
+        if (!collectEntityTypes(((UriResourceLambdaAll) resourcePart).getExpression()))
+          return false;
+      } else if (resourcePart.getKind() == UriResourceKind.lambdaVariable
+          || resourcePart.getKind() == UriResourceKind.it
+          || SUPPORTED_RESOURCES.contains(resourcePart.getKind())) {
+        if (resourcePart instanceof UriResourcePartTyped
+            && ((UriResourcePartTyped) resourcePart).getType() instanceof EdmEntityType)
+          edmTypes.add((EdmEntityType) ((UriResourcePartTyped) resourcePart).getType());
+      } else {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean collectEntityTypes(final FilterOption filter) {
+    return filter == null || collectEntityTypes(filter.getExpression());
+  }
+
+  private boolean collectEntityTypes(final OrderByOption orderBy) {
+    if (orderBy != null) {
+      for (final OrderByItem item : orderBy.getOrders()) {
+        if (!collectEntityTypes(item.getExpression()))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean collectEntityTypes(final ExpandOption expand) {
+    if (expand != null) {
+      for (final ExpandItem item : expand.getExpandItems()) {
+        if (item.isStar() || item.getApplyOption() != null)
+          return false;
+        final UriInfoResource resourcePath = item.getResourcePath();
+        if ((resourcePath != null && !collectEntityTypes(resourcePath.getUriResourceParts()))
+            || !collectEntityTypes(item.getFilterOption())
+            || !collectEntityTypes(item.getOrderByOption())
+            || !collectEntityTypes(item.getExpandOption()))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean collectEntityTypes(final Expression expression) {
+    if (expression instanceof Binary) {
+      final Binary binary = (Binary) expression;
+      if (binary.getExpressions() != null) {
+        for (final Expression operand : binary.getExpressions()) {
+          if (!collectEntityTypes(operand))
+            return false;
+        }
+      }
+      return collectEntityTypes(binary.getLeftOperand()) && collectEntityTypes(binary.getRightOperand());
+    }
+    if (expression instanceof Unary)
+      return collectEntityTypes(((Unary) expression).getOperand());
+    if (expression instanceof Method) {
+      for (final Expression parameter : ((Method) expression).getParameters()) {
+        if (!collectEntityTypes(parameter))
+          return false;
+      }
+      return true;
+    }
+    if (expression instanceof Member)
+      return collectEntityTypes(((Member) expression).getResourcePath().getUriResourceParts());
+    return true;
+  }
+}
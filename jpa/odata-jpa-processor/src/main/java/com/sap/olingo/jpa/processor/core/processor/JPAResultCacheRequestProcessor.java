@@ -0,0 +1,125 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCachedResult;
+import com.sap.olingo.jpa.processor.core.api.JPAODataPage;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCache;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCacheKey;
+import com.sap.olingo.jpa.processor.core.api.JPAServiceDebugger;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+
+/**
+ * Answers read requests from the result cache of the service. In case no response has been cached yet, the request is
+ * processed by the processor that would have been used without cache and the response is put into the cache. Only
+ * successful responses that are not streamed and do not contain a next link are cached.<p>
+ * Conditional requests, having an If-Match or If-None-Match header, bypass the cache. Their preconditions have to be
+ * checked against the current version of the entity, which a cached response does not reflect.
+ */
+final class JPAResultCacheRequestProcessor implements JPARequestProcessor {
+  private final JPAProcessorFactory factory;
+  private final JPAODataCRUDContextAccess sessionContext;
+  private final JPAODataResultCache cache;
+  private final UriInfo uriInfo;
+  private final Map<String, List<String>> header;
+  private final JPAODataRequestContextAccess requestContext;
+
+  JPAResultCacheRequestProcessor(final JPAProcessorFactory factory, final JPAODataCRUDContextAccess sessionContext,
+      final JPAODataResultCache cache, final UriInfo uriInfo, final Map<String, List<String>> header,
+      final JPAODataRequestContextAccess requestContext) {
+    super();
+    this.factory = factory;
+    this.sessionContext = sessionContext;
+    this.cache = cache;
+    this.uriInfo = uriInfo;
+    this.header = header;
+    this.requestContext = requestContext;
+  }
+
+  @Override
+  public <K extends Comparable<K>> void retrieveData(final ODataRequest request, final ODataResponse response,
+      final ContentType responseFormat) throws ODataException {
+
+    final JPAServiceDebugger debugger = requestContext.getDebugger();
+    final int handle = debugger.startRuntimeMeasurement(this, "retrieveData");
+    try {
+      final Optional<JPAODataResultCacheKey> key = isConditional(request) ? Optional.empty()
+          : new JPAResultCacheKeyBuilder(sessionContext.getEdmProvider().getServiceDocument(), cache, requestContext)
+              .build(request, uriInfo, responseFormat);
+      if (key.isPresent()) {
+        final Optional<JPAODataCachedResult> cachedResult = cache.get(key.get());
+        if (cachedResult.isPresent()) {
+          writeResponse(response, cachedResult.get());
+          return;
+        }
+      }
+      final JPAODataPage page = factory.getPage(header, uriInfo, requestContext);
+      factory.createProcessor(page, uriInfo, responseFormat, header, requestContext)
+          .retrieveData(request, response, responseFormat);
+      if (key.isPresent() && page.getSkiptoken() == null)
+        putResponse(key.get(), response);
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  private boolean isConditional(final ODataRequest request) {
+    return request.getHeader(HttpHeader.IF_MATCH) != null || request.getHeader(HttpHeader.IF_NONE_MATCH) != null;
+  }
+
+  private void putResponse(final JPAODataResultCacheKey key, final ODataResponse response)
+      throws ODataJPAProcessorException {
+
+    if (response.getStatusCode() != HttpStatusCode.OK.getStatusCode()
+        || response.getODataContent() != null
+        || response.getContent() == null)
+      return;
+    final byte[] content = readContent(response.getContent());
+    final Map<String, List<String>> headers = new HashMap<>();
+    for (final Entry<String, List<String>> entry : response.getAllHeaders().entrySet())
+      headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+    cache.put(key, new JPAODataCachedResult(response.getStatusCode(), headers, content));
+    response.setContent(new ByteArrayInputStream(content));
+  }
+
+  private void writeResponse(final ODataResponse response, final JPAODataCachedResult cachedResult) {
+    response.setStatusCode(cachedResult.getStatusCode());
+    for (final Entry<String, List<String>> entry : cachedResult.getHeaders().entrySet()) {
+      for (final String value : entry.getValue())
+        response.addHeader(entry.getKey(), value);
+    }
+    response.setContent(new ByteArrayInputStream(cachedResult.getContent()));
+  }
+
+  private byte[] readContent(final InputStream content) throws ODataJPAProcessorException {
+    try (final InputStream in = content) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int length;
+      while ((length = in.read(buffer)) != -1)
+        out.write(buffer, 0, length);
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.api.JPAODataClaimProvider;
+
+/**
+ * Representing a set-based change, a PATCH or DELETE on an entity set restricted by $filter. The change is executed as
+ * one JPA CriteriaUpdate or CriteriaDelete.
+ */
+public interface JPASetBasedChange {
+  /**
+   * Returns all OData request header
+   * @return an unmodifiable Map of header names/values
+   */
+  public Map<String, List<String>> getAllHeader();
+
+  /**
+   * Provides the given claims of a user
+   * @return
+   */
+  public Optional<JPAODataClaimProvider> getClaims();
+
+  /**
+   * Criteria builder to create additional restrictions
+   * @return
+   */
+  public CriteriaBuilder getCriteriaBuilder();
+
+  /**
+   * New values of a PATCH with pojo attributes name converted into JAVA types. In case the entity contains embedded
+   * attributes these are given as maps themselves. Empty in case of a DELETE. The map can be changed.
+   * @return
+   */
+  public Map<String, Object> getData();
+
+  /**
+   * Provides an instance of the entity metadata
+   * @return
+   */
+  public JPAEntityType getEntityType();
+
+  /**
+   * Returns a list of given filed groups
+   * @return
+   */
+  public List<String> getGroups();
+
+  /**
+   * @return PATCH or DELETE
+   */
+  public HttpMethod getHttpMethod();
+
+  /**
+   * Root of the CriteriaUpdate or CriteriaDelete, e.g. to create additional restrictions
+   * @return
+   */
+  public From<?, ?> getRoot();
+
+  /**
+   * Adds a restriction, which is combined with the $filter and the restrictions derived from the claims by AND
+   * @param restriction
+   */
+  public void addRestriction(final Expression<Boolean> restriction);
+}
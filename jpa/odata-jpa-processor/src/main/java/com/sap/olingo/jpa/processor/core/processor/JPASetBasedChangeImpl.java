@@ -0,0 +1,95 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.api.JPAODataClaimProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataGroupProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+
+final class JPASetBasedChangeImpl implements JPASetBasedChange {
+  private final JPAEntityType et;
+  private final HttpMethod method;
+  private final Map<String, Object> data;
+  private final Map<String, List<String>> headers;
+  private final CriteriaBuilder cb;
+  private final From<?, ?> root;
+  private final Optional<JPAODataClaimProvider> claims;
+  private final List<String> groups;
+  private final List<Expression<Boolean>> restrictions;
+
+  JPASetBasedChangeImpl(final JPAEntityType et, final HttpMethod method, final Map<String, Object> data,
+      final Map<String, List<String>> headers, final CriteriaBuilder cb, final From<?, ?> root,
+      final JPAODataRequestContextAccess requestContext) {
+    super();
+    final Optional<JPAODataGroupProvider> groupsProvider = requestContext.getGroupsProvider();
+    this.et = et;
+    this.method = method;
+    this.data = data;
+    this.headers = headers;
+    this.cb = cb;
+    this.root = root;
+    this.claims = requestContext.getClaimsProvider();
+    this.groups = groupsProvider.isPresent() ? groupsProvider.get().getGroups() : Collections.emptyList();
+    this.restrictions = new ArrayList<>();
+  }
+
+  @Override
+  public Map<String, List<String>> getAllHeader() {
+    return Collections.unmodifiableMap(headers);
+  }
+
+  @Override
+  public Optional<JPAODataClaimProvider> getClaims() {
+    return claims;
+  }
+
+  @Override
+  public CriteriaBuilder getCriteriaBuilder() {
+    return cb;
+  }
+
+  @Override
+  public Map<String, Object> getData() {
+    return data;
+  }
+
+  @Override
+  public JPAEntityType getEntityType() {
+    return et;
+  }
+
+  @Override
+  public List<String> getGroups() {
+    return groups;
+  }
+
+  @Override
+  public HttpMethod getHttpMethod() {
+    return method;
+  }
+
+  @Override
+  public From<?, ?> getRoot() {
+    return root;
+  }
+
+  @Override
+  public void addRestriction(final Expression<Boolean> restriction) {
+    restrictions.add(restriction);
+  }
+
+  List<Expression<Boolean>> getRestrictions() {
+    return restrictions;
+  }
+}
@@ -48,6 +48,20 @@ public final class ExpressionUtil {
 
   }
 
+  /**
+   * Creates an equal condition for a key predicate, with the value of the key bound as parameter
+   */
+  public static Expression<Boolean> createEQExpression(final OData odata, final CriteriaBuilder cb,
+      final From<?, ?> root, final JPAEntityType jpaEntity, final UriParameter keyPredicate,
+      final JPAQueryParameters parameters) throws ODataJPAFilterException, ODataJPAModelException {
+
+    final JPAPath path = jpaEntity.getPath(keyPredicate.getName());
+    final Object value = convertValueOnAttribute(odata, path.getLeaf(), keyPredicate.getText());
+    if (value == null)
+      return cb.isNull(convertToCriteriaPath(root, path.getPath()));
+    return cb.equal(convertToCriteriaPath(root, path.getPath()), parameters.bind(value));
+  }
+
   /**
    * Converts the jpaPath into a Criteria Path.
    * @param joinTables
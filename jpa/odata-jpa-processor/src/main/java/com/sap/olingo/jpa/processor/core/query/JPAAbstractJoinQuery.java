@@ -17,17 +17,22 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder.In;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Selection;
 
 import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmItem;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
@@ -64,6 +69,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataClaimProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataKeysetPage;
 import com.sap.olingo.jpa.processor.core.api.JPAODataPage;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
@@ -83,8 +89,9 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
   protected final JPAODataCRUDContextAccess context;
   protected final JPAODataPage page;
   protected final List<JPANavigationProptertyInfo> navigationInfo;
-  protected final JPANavigationProptertyInfo lastInfo;
+  protected JPANavigationProptertyInfo lastInfo;
   protected final JPAODataRequestContextAccess requestContext;
+  private boolean seekApplied = false;
 
   public JPAAbstractJoinQuery(final OData odata, final JPAODataCRUDContextAccess sessionContext,
       final JPAEntityType jpaEntityType, final JPAODataRequestContextAccess requestContext,
@@ -166,12 +173,149 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
     if (skipOption != null || page != null) {
       int skipNumber = skipOption != null ? skipOption.getValue() : page.getSkip();
       skipNumber = skipOption != null && page != null ? Math.max(skipOption.getValue(), page.getSkip()) : skipNumber;
-      if (skipNumber >= 0)
-        tq.setFirstResult(skipNumber);
-      else
+      if (skipNumber < 0)
         throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_VALUE,
             HttpStatusCode.BAD_REQUEST, Integer.toString(skipNumber), "$skip");
+      // In case of keyset paging the rows of the previous pages are already excluded by the where clause
+      if (!seekApplied)
+        tq.setFirstResult(skipNumber);
+    }
+  }
+
+  /**
+   * Keyset paging identifies the rows of a page by the values of the $orderby properties and the key. Therefore the key
+   * attributes are added to the $orderby items, which makes the order unique. Keyset paging is only possible if all
+   * $orderby items are simple properties that are either key or not nullable. In all other cases, or if the page is no
+   * keyset page, an empty list is returned and the page is read using $skip.
+   * @return
+   * @throws ODataApplicationException
+   */
+  final List<JPAKeysetItem> determineKeyset() throws ODataApplicationException {
+
+    if (!(page instanceof JPAODataKeysetPage))
+      return Collections.emptyList();
+    final List<JPAKeysetItem> keyset = new ArrayList<>();
+    try {
+      final OrderByOption orderByOption = uriResource.getOrderByOption();
+      if (orderByOption != null) {
+        for (final OrderByItem orderByItem : orderByOption.getOrders()) {
+          final JPAPath path = determineKeysetPath(orderByItem.getExpression());
+          if (path == null || !isKeysetAttribute(path.getLeaf()))
+            return Collections.emptyList();
+          keyset.add(new JPAKeysetItem(path, orderByItem.isDescending(), false));
+        }
+      }
+      for (final JPAAttribute key : jpaEntity.getKey()) {
+        final JPAPath path = jpaEntity.getPath(key.getExternalName());
+        if (path == null || key.isComplex())
+          return Collections.emptyList();
+        if (keyset.stream().noneMatch(item -> item.getPath().getAlias().equals(path.getAlias())))
+          keyset.add(new JPAKeysetItem(path, false, true));
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return keyset;
+  }
+
+  /**
+   * Creates the where condition that continues behind the last row of the previous page:<br>
+   * (c1 > v1) OR (c1 = v1 AND c2 > v2) OR ...<br>
+   * For descending items the comparison is inverted. In case the seek values of the page are incomplete, null is
+   * returned and the page is read using $skip.
+   */
+  @SuppressWarnings("unchecked")
+  final <Y extends Comparable<? super Y>> javax.persistence.criteria.Expression<Boolean> createKeysetWhere(
+      final Map<String, From<?, ?>> joinTables, final List<JPAKeysetItem> keyset) {
+
+    seekApplied = false;
+    if (keyset.isEmpty())
+      return null;
+    final Map<String, Object> seekValues = ((JPAODataKeysetPage) page).getSeekValues();
+    for (final JPAKeysetItem item : keyset) {
+      if (!(seekValues.get(item.getPath().getAlias()) instanceof Comparable))
+        return null;
+    }
+    javax.persistence.criteria.Expression<Boolean> seekCondition = null;
+    javax.persistence.criteria.Expression<Boolean> equalCondition = null;
+    for (final JPAKeysetItem item : keyset) {
+      final Path<Y> path = (Path<Y>) ExpressionUtil.convertToCriteriaPath(joinTables, target, item.getPath()
+          .getPath());
+      final Y value = (Y) seekValues.get(item.getPath().getAlias());
+      final javax.persistence.criteria.Expression<Boolean> behind = item.isDescending() ? cb.lessThan(path, value)
+          : cb.greaterThan(path, value);
+      seekCondition = seekCondition == null ? behind : cb.or(seekCondition, cb.and(equalCondition, behind));
+      equalCondition = addWhereClause(equalCondition, cb.equal(path, value));
+    }
+    seekApplied = true;
+    return seekCondition;
+  }
+
+  /**
+   * Adds the key attributes, that are not part of the $orderby, to the order by clause
+   */
+  final List<Order> addKeysetOrderBy(final Map<String, From<?, ?>> joinTables, final List<Order> orders,
+      final List<JPAKeysetItem> keyset) {
+
+    for (final JPAKeysetItem item : keyset) {
+      if (item.isAddedKey())
+        orders.add(cb.asc(ExpressionUtil.convertToCriteriaPath(joinTables, target, item.getPath().getPath())));
+    }
+    return orders;
+  }
+
+  /**
+   * Provides the values of the last row to the keyset page, so they can be used to seek the next page. In case not all
+   * values are part of the result, e.g. because of $select, no values are provided and the next page is read using
+   * $skip.
+   */
+  final void provideLastValues(final List<JPAKeysetItem> keyset, final List<Tuple> result) {
+
+    if (keyset.isEmpty() || result.isEmpty())
+      return;
+    final Tuple lastRow = result.get(result.size() - 1);
+    final Set<String> aliases = lastRow.getElements().stream()
+        .map(TupleElement::getAlias)
+        .collect(Collectors.toSet());
+    final Map<String, Object> lastValues = new HashMap<>(keyset.size());
+    for (final JPAKeysetItem item : keyset) {
+      final String alias = item.getPath().getAlias();
+      if (!aliases.contains(alias))
+        return;
+      lastValues.put(alias, lastRow.get(alias));
     }
+    ((JPAODataKeysetPage) page).setLastValues(lastValues);
+  }
+
+  private JPAPath determineKeysetPath(final Expression expression) throws ODataJPAModelException {
+    if (!(expression instanceof Member))
+      return null;
+    final StringBuilder externalPath = new StringBuilder();
+    JPAStructuredType type = jpaEntity;
+    for (final UriResource uriResourceItem : ((Member) expression).getResourcePath().getUriResourceParts()) {
+      if (uriResourceItem instanceof UriResourceComplexProperty
+          && !((UriResourceProperty) uriResourceItem).isCollection()) {
+        final JPAAttribute attribute = type.getAttribute((UriResourceProperty) uriResourceItem);
+        addPathElement(externalPath, attribute);
+        type = attribute.getStructuredType();
+      } else if (uriResourceItem instanceof UriResourcePrimitiveProperty
+          && !((UriResourceProperty) uriResourceItem).isCollection()) {
+        externalPath.append(((UriResourceProperty) uriResourceItem).getProperty().getName());
+        return jpaEntity.getPath(externalPath.toString());
+      } else {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private boolean isKeysetAttribute(final JPAAttribute attribute) throws ODataJPAModelException {
+    if (attribute instanceof JPADescriptionAttribute || attribute.isComplex() || attribute.isCollection())
+      return false;
+    if (attribute.isKey())
+      return true;
+    final CsdlAbstractEdmItem property = attribute.getProperty();
+    return property instanceof CsdlProperty && !((CsdlProperty) property).isNullable();
   }
 
   protected List<JPAPath> buildEntityPathList(final JPAEntityType jpaEntity) throws ODataApplicationException {
@@ -478,6 +622,15 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
     return naviInfo.isEmpty() ? null : naviInfo.get(naviInfo.size() - 1);
   }
 
+  /**
+   * The from clauses and filter compilers of the navigation information belong to one statement. Replaces the
+   * navigation information by copies without them, so the query can create a further statement.
+   */
+  protected void renewNavigationInfo() {
+    navigationInfo.replaceAll(JPANavigationProptertyInfo::new);
+    lastInfo = determineLastInfo(navigationInfo);
+  }
+
   protected final boolean determineTargetIsCollection(final UriInfoResource uriResource) {
 
     final UriResource last = !uriResource.getUriResourceParts().isEmpty() ? uriResource.getUriResourceParts().get(
@@ -716,12 +869,14 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
         }
         joinTables.put(lastInfo.getAssociationPath().getAlias(), (From<?, ?>) p);
         final JPAEntityType targetEt = (JPAEntityType) ((JPAAssociationAttribute) element).getTargetEntity();
-        final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter());
+        final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter(),
+            getParameters());
         final JPAODataRequestContextAccess subContext = new JPAODataRequestContextImpl(uriResource, requestContext);
         lastInfo.setFilterCompiler(new JPAFilterCrossComplier(odata, sd, targetEt, converter, this, (From<?, ?>) p,
             lastInfo.getAssociationPath(), subContext));
       } else {
-        final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter());
+        final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter(),
+            getParameters());
         final JPAODataRequestContextAccess subContext = new JPAODataRequestContextImpl(uriResource, requestContext);
         lastInfo.setFilterCompiler(new JPAFilterCrossComplier(odata, sd, jpaEntity, converter, this, lastInfo
             .getAssociationPath(), subContext));
@@ -766,7 +921,8 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
       naviInfo.setFromClause(target);
       if (naviInfo.getUriInfo() != null && naviInfo.getUriInfo().getFilterOption() != null) {
         try {
-          final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter());
+          final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter(),
+              getParameters());
           final JPAODataRequestContextAccess subContext = new JPAODataRequestContextImpl(naviInfo.getUriInfo(),
               requestContext);
           naviInfo.setFilterCompiler(new JPAFilterCrossComplier(odata, sd, naviInfo.getEntityType(), converter, this,
@@ -861,7 +1017,9 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
         final JPAEntityType et = naviInfo.getEntityType();
         final From<?, ?> f = naviInfo.getFromClause();
 
-        if (keyBoundary.get().getKeyBoundary().hasUpperBoundary()) {
+        if (keyBoundary.get().hasKeys()) {
+          return createBoundaryKeyList(et, f, keyBoundary.get());
+        } else if (keyBoundary.get().getKeyBoundary().hasUpperBoundary()) {
           return createBoundaryWithUpper(et, f, keyBoundary.get().getKeyBoundary());
         } else {
           return createBoundaryEquals(et, f, keyBoundary.get().getKeyBoundary());
@@ -907,6 +1065,65 @@ public abstract class JPAAbstractJoinQuery extends JPAAbstractQuery implements J
     return cb.and(lowerExpression, upperExpression);
   }
 
+  /**
+   * Single keys are restricted by IN lists of at most chunk size keys. As JPA does not support an IN with multiple
+   * columns, composite keys are restricted by a disjunction of the key equations.
+   */
+  private javax.persistence.criteria.Expression<Boolean> createBoundaryKeyList(final JPAEntityType et,
+      final From<?, ?> f, final JPAKeyBoundary keyBoundary) throws ODataJPAModelException {
+    return createKeyList(et, f, keyBoundary.getKeys(), keyBoundary.getChunkSize());
+  }
+
+  /**
+   * Restricts the rows to the given keys, see {@link #createBoundaryKeyList}.
+   * @param et Entity type the keys belong to
+   * @param f From clause of the entity type
+   * @param keys Key values per key attribute
+   * @param maxChunkSize Maximum number of keys per IN list; zero or less puts all keys into one list
+   */
+  @SuppressWarnings({ "rawtypes" })
+  protected javax.persistence.criteria.Expression<Boolean> createKeyList(final JPAEntityType et,
+      final From<?, ?> f, final List<Map<JPAAttribute, Comparable>> keys, final int maxChunkSize)
+      throws ODataJPAModelException {
+
+    final List<JPAAttribute> keyElements = et.getKey();
+    if (keyElements.size() == 1) {
+      final JPAAttribute keyElement = keyElements.get(0);
+      final Path<?> keyPath = ExpressionUtil.convertToCriteriaPath(f, et.getPath(keyElement.getExternalName())
+          .getPath());
+      final int chunkSize = maxChunkSize > 0 ? maxChunkSize : keys.size();
+      javax.persistence.criteria.Expression<Boolean> whereCondition = null;
+      for (int start = 0; start < keys.size(); start += chunkSize) {
+        final In<Object> in = cb.in(keyPath);
+        for (final Map<JPAAttribute, Comparable> key : keys.subList(start, Math.min(start + chunkSize, keys.size())))
+          in.value(key.get(keyElement));
+        whereCondition = whereCondition == null ? in : cb.or(whereCondition, in);
+      }
+      return whereCondition;
+    }
+    final List<Path<?>> keyPaths = new ArrayList<>(keyElements.size());
+    for (final JPAAttribute keyElement : keyElements)
+      keyPaths.add(ExpressionUtil.convertToCriteriaPath(f, et.getPath(keyElement.getExternalName()).getPath()));
+    final List<Predicate> keyConditions = new ArrayList<>(keys.size());
+    for (final Map<JPAAttribute, Comparable> key : keys) {
+      final List<Predicate> equations = new ArrayList<>(keyElements.size());
+      for (int i = 0; i < keyElements.size(); i++)
+        equations.add(cb.equal(keyPaths.get(i), key.get(keyElements.get(i))));
+      keyConditions.add(cb.and(equations.toArray(new Predicate[0])));
+    }
+    return cb.or(keyConditions.toArray(new Predicate[0]));
+  }
+
+  /**
+   * Filters of hops that are covered by the keys of a key boundary need not to be repeated.
+   * @param hopIndex
+   * @param keyBoundary
+   * @return
+   */
+  protected boolean isRestrictedByKeys(final int hopIndex, final Optional<JPAKeyBoundary> keyBoundary) {
+    return keyBoundary.isPresent() && keyBoundary.get().restrictsByKeys(hopIndex);
+  }
+
   @SuppressWarnings("unchecked")
   private <Y extends Comparable<? super Y>> javax.persistence.criteria.Expression<Boolean> createBoundaryEquals(
       final JPAEntityType et, final From<?, ?> f, final JPAKeyPair jpaKeyPair) throws ODataJPAModelException {
@@ -61,6 +61,7 @@ public abstract class JPAAbstractQuery {
   protected Locale locale;
   protected final Optional<JPAODataClaimProvider> claimsProvider;
   protected final List<String> groups;
+  private JPAQueryParameters parameters;
 
   public JPAAbstractQuery(final OData odata, final JPAServiceDocument sd, final JPAEntityType jpaEntityType,
       final EntityManager em, final Optional<JPAODataClaimProvider> claimsProvider) {
@@ -132,7 +133,7 @@ public abstract class JPAAbstractQuery {
       for (final UriParameter keyPredicate : keyPredicates) {
         javax.persistence.criteria.Expression<Boolean> equalCondition;
         try {
-          equalCondition = ExpressionUtil.createEQExpression(odata, cb, root, et, keyPredicate);
+          equalCondition = ExpressionUtil.createEQExpression(odata, cb, root, et, keyPredicate, getParameters());
         } catch (ODataJPAModelException e) {
           throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
         }
@@ -153,6 +154,16 @@ public abstract class JPAAbstractQuery {
     return debugger;
   }
 
+  /**
+   * Parameters of the statement the query belongs to
+   * @return
+   */
+  public JPAQueryParameters getParameters() {
+    if (parameters == null)
+      parameters = new JPAQueryParameters(cb);
+    return parameters;
+  }
+
   protected abstract Locale getLocale();
 
   protected void generateDesciptionJoin(final HashMap<String, From<?, ?>> joinTables, final Set<JPAPath> pathSet,
@@ -0,0 +1,378 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Selection;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import com.sap.olingo.jpa.processor.core.filter.JPAFilterCrossComplier;
+import com.sap.olingo.jpa.processor.core.filter.JPAOperationConverter;
+import com.sap.olingo.jpa.processor.core.processor.JPAODataRequestContextImpl;
+
+/**
+ * Executes the $apply option of the OData Data Aggregation extension. The supported transformations are
+ * <code>filter</code>, <code>groupby</code> and <code>aggregate</code> with the standard methods sum, min, max,
+ * average and countdistinct. They are converted into a single GROUP BY query, so the aggregation is done by the
+ * database. The filter transformations have to precede a groupby or aggregate. Grouping and aggregation is supported
+ * for primitive properties of the requested entity type.<p>
+ * The system query options $filter, $orderby, $top and $skip are evaluated on the result of $apply. So $orderby can
+ * refer to the grouping properties and the aliases of the aggregated values. $filter can only refer to the grouping
+ * properties. As these are constant within a group, the $filter is part of the WHERE clause, which gives the same result
+ * as restricting the groups. A $filter on an aggregated value would require a HAVING clause and is not supported.
+ * Server-driven paging is applied to the aggregated rows like $top and $skip, $count is determined by a separate count
+ * query. In case of several grouping properties $count is limited to {@value #MAX_COUNTED_GROUPS} groups, see
+ * {@link #countResults()}.<p>
+ * For details see:
+ * <a href="http://docs.oasis-open.org/odata/odata-data-aggregation-ext/v4.0/odata-data-aggregation-ext-v4.0.html">
+ * OData Extension for Data Aggregation Version 4.0</a>
+ */
+public final class JPAAggregationQuery extends JPAAbstractJoinQuery implements JPACountQuery {
+  /** Maximum number of groups, that are counted in case of several grouping properties */
+  public static final int MAX_COUNTED_GROUPS = 10000;
+
+  public JPAAggregationQuery(final OData odata, final JPAODataCRUDContextAccess sessionContext,
+      final Map<String, List<String>> requestHeaders, final JPAODataRequestContextAccess requestContext)
+      throws ODataException {
+
+    super(odata, sessionContext, JPAJoinQuery.determineTargetEntityType(sessionContext, requestContext),
+        requestContext, requestHeaders, JPAJoinQuery.determineNavigationInfo(sessionContext, requestContext
+            .getUriInfo()));
+  }
+
+  @Override
+  public JPAConvertableResult execute() throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "execute");
+    final List<Filter> filters = new ArrayList<>();
+    final List<GroupByItem> groupByItems = new ArrayList<>();
+    final List<AggregateExpression> aggregates = new ArrayList<>();
+    splitTransformations(uriResource.getApplyOption(), filters, groupByItems, aggregates);
+    final Map<String, JPAAttribute> columns = new LinkedHashMap<>();
+    try {
+      createFromClause(Collections.emptyList(), Collections.emptyList(), cq, lastInfo);
+
+      final List<Selection<?>> selections = new ArrayList<>();
+      final List<Expression<?>> groupBy = new ArrayList<>();
+      final Map<String, Expression<?>> resultColumns = new HashMap<>();
+      for (final GroupByItem item : groupByItems) {
+        final JPAPath jpaPath = determinePath(item.getPath());
+        final Path<?> path = ExpressionUtil.convertToCriteriaPath(target, jpaPath.getPath());
+        path.alias(jpaPath.getLeaf().getExternalName());
+        selections.add(path);
+        groupBy.add(path);
+        resultColumns.put(jpaPath.getLeaf().getExternalName(), path);
+        columns.put(jpaPath.getLeaf().getExternalName(), (JPAAttribute) jpaPath.getLeaf());
+      }
+      final Set<String> groupedProperties = new HashSet<>(resultColumns.keySet());
+      for (final AggregateExpression aggregate : aggregates) {
+        final JPAPath jpaPath = determinePath(determineAggregatePath(aggregate));
+        final Expression<?> expression = createAggregateExpression(aggregate.getStandardMethod(),
+            ExpressionUtil.convertToCriteriaPath(target, jpaPath.getPath()));
+        expression.alias(aggregate.getAlias());
+        selections.add(expression);
+        resultColumns.put(aggregate.getAlias(), expression);
+        columns.put(aggregate.getAlias(), isConverted(aggregate.getStandardMethod())
+            ? (JPAAttribute) jpaPath.getLeaf() : null);
+      }
+      checkFilterOption(groupedProperties, resultColumns.keySet());
+      cq.multiselect(selections);
+
+      final Expression<Boolean> whereClause = addWhereClause(createWhere(), createApplyWhere(filters));
+      if (whereClause != null)
+        cq.where(whereClause);
+      if (!groupBy.isEmpty())
+        cq.groupBy(groupBy);
+      cq.orderBy(createOrderBy(resultColumns));
+
+      final TypedQuery<Tuple> tq = em.createQuery(cq);
+      getParameters().apply(tq);
+      addTopSkip(tq);
+      final int resultHandle = debugger.startRuntimeMeasurement(tq, "getResultList");
+      final List<Tuple> result = tq.getResultList();
+      debugger.stopRuntimeMeasurement(resultHandle);
+      return new JPAAggregationResult(result, columns);
+    } catch (JPANoSelectionException e) {
+      return new JPAAggregationResult(Collections.emptyList(), columns);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  /**
+   * Counts the aggregated rows ignoring $top and $skip. An aggregate without groupby results in exactly one row. The
+   * groups of one grouping property are counted as distinct values, plus one in case of a group for the null value.<p>
+   * JPQL can neither count distinct combinations of values nor select from a sub-query, and the WHERE clause, created
+   * from $filter, the filter transformations and the claims, is only available as criteria query, so it can not be
+   * put into a native statement either. So in case of several grouping properties one number per group is read. To
+   * limit the rows transferred, at most {@value #MAX_COUNTED_GROUPS} groups are read. If there are more groups, the
+   * request is rejected as not implemented instead of returning a wrong count.
+   */
+  @Override
+  public Long countResults() throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "countResults");
+    final List<Filter> filters = new ArrayList<>();
+    final List<GroupByItem> groupByItems = new ArrayList<>();
+    final List<AggregateExpression> aggregates = new ArrayList<>();
+    splitTransformations(uriResource.getApplyOption(), filters, groupByItems, aggregates);
+    try {
+      if (groupByItems.isEmpty())
+        return 1L;
+      // Depending on the database the sum of the counts may not be a Long
+      final CriteriaQuery<Number> countQuery = cb.createQuery(Number.class);
+      createFromClause(Collections.emptyList(), Collections.emptyList(), countQuery, lastInfo);
+
+      final List<Expression<?>> groupBy = new ArrayList<>();
+      final Set<String> groupedProperties = new HashSet<>();
+      for (final GroupByItem item : groupByItems) {
+        final JPAPath jpaPath = determinePath(item.getPath());
+        groupBy.add(ExpressionUtil.convertToCriteriaPath(target, jpaPath.getPath()));
+        groupedProperties.add(jpaPath.getLeaf().getExternalName());
+      }
+      final Set<String> resultColumns = new HashSet<>(groupedProperties);
+      for (final AggregateExpression aggregate : aggregates)
+        resultColumns.add(aggregate.getAlias());
+      checkFilterOption(groupedProperties, resultColumns);
+
+      final Expression<Boolean> whereClause = addWhereClause(createWhere(), createApplyWhere(filters));
+      if (whereClause != null)
+        countQuery.where(whereClause);
+      if (groupBy.size() == 1) {
+        final Expression<?> path = groupBy.get(0);
+        final Expression<Long> nullGroup = cb.<Long> selectCase().when(cb.isNull(path), 1L).otherwise(0L);
+        countQuery.select(cb.sum(cb.countDistinct(path), cb.max(nullGroup)));
+        final TypedQuery<Number> tq = em.createQuery(countQuery);
+        getParameters().apply(tq);
+        final Number count = tq.getSingleResult();
+        return count != null ? count.longValue() : 0L;
+      }
+      countQuery.select(cb.count(target));
+      countQuery.groupBy(groupBy);
+      final TypedQuery<Number> tq = em.createQuery(countQuery);
+      getParameters().apply(tq);
+      tq.setMaxResults(MAX_COUNTED_GROUPS + 1);
+      final int count = tq.getResultList().size();
+      if (count > MAX_COUNTED_GROUPS)
+        throw notSupported("$count of more than " + MAX_COUNTED_GROUPS + " groups");
+      return (long) count;
+    } catch (JPANoSelectionException e) {
+      return 0L;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  /**
+   * A $filter can only refer to the grouping properties, as only they are part of the result of $apply and are
+   * constant within a group.
+   */
+  private void checkFilterOption(final Set<String> groupedProperties, final Set<String> resultColumns)
+      throws ODataApplicationException {
+
+    if (uriResource.getFilterOption() == null || uriResource.getFilterOption().getExpression() == null)
+      return;
+    final JPAMemberNameVisitor visitor = new JPAMemberNameVisitor();
+    try {
+      uriResource.getFilterOption().getExpression().accept(visitor);
+    } catch (ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+    for (final String memberName : visitor.get()) {
+      if (!groupedProperties.contains(memberName)) {
+        if (resultColumns.contains(memberName))
+          throw notSupported("$filter on " + memberName);
+        throw notAvailable(memberName, "$filter");
+      }
+    }
+  }
+
+  /**
+   * An $orderby can refer to the grouping properties and the aggregated values
+   */
+  private List<Order> createOrderBy(final Map<String, Expression<?>> resultColumns) throws ODataApplicationException {
+    final List<Order> orders = new ArrayList<>();
+    final OrderByOption orderByOption = uriResource.getOrderByOption();
+    if (orderByOption != null) {
+      for (final OrderByItem orderByItem : orderByOption.getOrders()) {
+        final JPAMemberNameVisitor visitor = new JPAMemberNameVisitor();
+        if (orderByItem.getExpression() instanceof Member)
+          visitor.visitMember((Member) orderByItem.getExpression());
+        final String name = visitor.get().isEmpty() ? String.valueOf(orderByItem.getExpression())
+            : visitor.get().get(0);
+        final Expression<?> expression = resultColumns.get(name);
+        if (expression == null)
+          throw notAvailable(name, "$orderby");
+        orders.add(orderByItem.isDescending() ? cb.desc(expression) : cb.asc(expression));
+      }
+    }
+    return orders;
+  }
+
+  /**
+   * The transformations are executed one after the other. A filter after a groupby or aggregate would restrict the
+   * aggregated values, which would require a HAVING clause, so filters have to precede the aggregation. A filter
+   * without a groupby or aggregate would return entities, which is not supported.
+   */
+  private void splitTransformations(final ApplyOption applyOption, final List<Filter> filters,
+      final List<GroupByItem> groupByItems, final List<AggregateExpression> aggregates)
+      throws ODataJPAQueryException {
+
+    boolean aggregated = false;
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      if (item.getKind() == ApplyItem.Kind.FILTER && !aggregated) {
+        filters.add((Filter) item);
+      } else if (item.getKind() == ApplyItem.Kind.GROUP_BY && !aggregated) {
+        for (final GroupByItem groupByItem : ((GroupBy) item).getGroupByItems()) {
+          if (groupByItem.isRollupAll() || !groupByItem.getRollup().isEmpty())
+            throw notSupported("rollup");
+          groupByItems.add(groupByItem);
+        }
+        if (((GroupBy) item).getApplyOption() != null)
+          splitAggregates(((GroupBy) item).getApplyOption(), aggregates);
+        aggregated = true;
+      } else if (item.getKind() == ApplyItem.Kind.AGGREGATE && !aggregated) {
+        aggregates.addAll(((Aggregate) item).getExpressions());
+        aggregated = true;
+      } else {
+        throw notSupported(item.getKind().name().toLowerCase(Locale.ENGLISH));
+      }
+    }
+    if (!aggregated)
+      throw notSupported(ApplyItem.Kind.FILTER.name().toLowerCase(Locale.ENGLISH));
+  }
+
+  private void splitAggregates(final ApplyOption applyOption, final List<AggregateExpression> aggregates)
+      throws ODataJPAQueryException {
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      if (item.getKind() != ApplyItem.Kind.AGGREGATE)
+        throw notSupported(item.getKind().name().toLowerCase(Locale.ENGLISH));
+      aggregates.addAll(((Aggregate) item).getExpressions());
+    }
+  }
+
+  private List<UriResource> determineAggregatePath(final AggregateExpression aggregate)
+      throws ODataJPAQueryException {
+
+    if (aggregate.getStandardMethod() == null || aggregate.getAlias() == null
+        || aggregate.getInlineAggregateExpression() != null || !aggregate.getFrom().isEmpty())
+      throw notSupported(aggregate.getCustomMethod() != null ? aggregate.getCustomMethod()
+          .getFullQualifiedNameAsString() : "aggregate");
+    if (aggregate.getPath() != null && !aggregate.getPath().isEmpty())
+      return aggregate.getPath();
+    if (aggregate.getExpression() instanceof Member)
+      return ((Member) aggregate.getExpression()).getResourcePath().getUriResourceParts();
+    throw notSupported(String.valueOf(aggregate.getExpression()));
+  }
+
+  private JPAPath determinePath(final List<UriResource> resourcePath) throws ODataJPAQueryException,
+      ODataJPAModelException {
+
+    if (resourcePath.size() != 1 || !(resourcePath.get(0) instanceof UriResourcePrimitiveProperty)
+        || ((UriResourcePrimitiveProperty) resourcePath.get(0)).isCollection())
+      throw notSupported(resourcePath.isEmpty() ? "" : resourcePath.get(resourcePath.size() - 1).getSegmentValue());
+    final String propertyName = ((UriResourcePrimitiveProperty) resourcePath.get(0)).getProperty().getName();
+    final JPAPath jpaPath = jpaEntity.getPath(propertyName);
+    if (jpaPath == null)
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_SELECTION_PATH,
+          HttpStatusCode.BAD_REQUEST);
+    return jpaPath;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Expression<?> createAggregateExpression(final AggregateExpression.StandardMethod method,
+      final Path<?> path) {
+
+    switch (method) {
+      case SUM:
+        return cb.sum((Path<Number>) path);
+      case MIN:
+        return cb.least((Path<Comparable<Object>>) path);
+      case MAX:
+        return cb.greatest((Path<Comparable<Object>>) path);
+      case AVERAGE:
+        return cb.avg((Path<Number>) path);
+      default:
+        return cb.countDistinct(path);
+    }
+  }
+
+  /**
+   * The minimum or maximum has the type of the property, so the value has to be converted like the property itself.
+   */
+  private boolean isConverted(final AggregateExpression.StandardMethod method) {
+    return method == AggregateExpression.StandardMethod.MIN || method == AggregateExpression.StandardMethod.MAX;
+  }
+
+  private Expression<Boolean> createApplyWhere(final List<Filter> filters) throws ODataApplicationException {
+    Expression<Boolean> whereCondition = null;
+    for (final Filter filter : filters) {
+      final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter(),
+          getParameters());
+      final JPAODataRequestContextAccess subContext = new JPAODataRequestContextImpl(new JPAApplyFilterWrapper(
+          uriResource, filter.getFilterOption()), requestContext);
+      try {
+        whereCondition = addWhereClause(whereCondition, new JPAFilterCrossComplier(odata, sd, jpaEntity, converter,
+            this, lastInfo.getAssociationPath(), subContext).compile());
+      } catch (ExpressionVisitException e) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+            HttpStatusCode.BAD_REQUEST, e);
+      }
+    }
+    return whereCondition;
+  }
+
+  private Expression<Boolean> createWhere() throws ODataApplicationException {
+    return addWhereClause(super.createWhere(uriResource, navigationInfo), createProtectionWhere(claimsProvider));
+  }
+
+  private ODataJPAQueryException notAvailable(final String property, final String option) {
+    return new ODataJPAQueryException(
+        ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_APPLY_PROPERTY_NOT_AVAILABLE,
+        HttpStatusCode.BAD_REQUEST, property, option);
+  }
+
+  private ODataJPAQueryException notSupported(final String transformation) {
+    return new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_APPLY_NOT_SUPPORTED,
+        HttpStatusCode.NOT_IMPLEMENTED, transformation);
+  }
+}
@@ -0,0 +1,89 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Tuple;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
+import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
+
+/**
+ * Result of an $apply request. Each row becomes an entity, which has the grouping properties and the aggregated
+ * values as dynamic properties. The aggregated values are named by their alias.
+ */
+final class JPAAggregationResult implements JPAConvertableResult {
+  private final List<Tuple> result;
+  private final Map<String, JPAAttribute> columns;
+  private EntityCollection odataResult;
+
+  /**
+   * @param result
+   * @param columns Aliases of the selection. In case the value has the type of a property, the property is given, so
+   * the value can be converted.
+   */
+  JPAAggregationResult(final List<Tuple> result, final Map<String, JPAAttribute> columns) {
+    super();
+    this.result = result;
+    this.columns = columns;
+  }
+
+  @Override
+  public Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(final JPATupleChildConverter converter)
+      throws ODataApplicationException {
+
+    final Map<JPAResultKey, EntityCollection> collections = new HashMap<>(1);
+    collections.put(ROOT_KEY, getEntityCollection(ROOT_KEY));
+    return collections;
+  }
+
+  @Override
+  public void putChildren(final Map<JPAAssociationPath, JPAExpandResult> childResults)
+      throws ODataApplicationException {
+    // $expand is not supported together with $apply
+  }
+
+  @Override
+  public EntityCollection getEntityCollection(final JPAResultKey key) throws ODataApplicationException {
+    if (odataResult == null) {
+      odataResult = new EntityCollection();
+      for (final Tuple row : result) {
+        final Entity odataEntity = new Entity();
+        for (final Map.Entry<String, JPAAttribute> column : columns.entrySet()) {
+          final JPAAttribute attribute = column.getValue();
+          odataEntity.getProperties().add(new Property(
+              null,
+              column.getKey(),
+              attribute != null && attribute.isEnum() ? ValueType.ENUM : ValueType.PRIMITIVE,
+              convert(row.get(column.getKey()), attribute)));
+        }
+        odataResult.getEntities().add(odataEntity);
+      }
+    }
+    return odataResult;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends Object, S extends Object> Object convert(final Object value, final JPAAttribute attribute) {
+    if (attribute != null && attribute.getConverter() != null) {
+      final AttributeConverter<T, S> converter = attribute.getConverter();
+      return converter.convertToDatabaseColumn((T) value);
+    } else if (attribute != null && value != null && attribute.isEnum()) {
+      return ((Enum<?>) value).ordinal();
+    }
+    return value;
+  }
+}
@@ -0,0 +1,115 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.List;
+
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.CountOption;
+import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.DeltaTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.FormatOption;
+import org.apache.olingo.server.api.uri.queryoption.IdOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
+
+/**
+ * Provides the filter transformation of an $apply option as $filter, so it can be compiled by the
+ * {@link com.sap.olingo.jpa.processor.core.filter.JPAFilterCrossComplier JPAFilterCrossComplier}.
+ */
+final class JPAApplyFilterWrapper implements UriInfoResource {
+  private final UriInfoResource uriInfo;
+  private final FilterOption filterOption;
+
+  JPAApplyFilterWrapper(final UriInfoResource uriInfo, final FilterOption filterOption) {
+    super();
+    this.uriInfo = uriInfo;
+    this.filterOption = filterOption;
+  }
+
+  @Override
+  public List<CustomQueryOption> getCustomQueryOptions() {
+    return uriInfo.getCustomQueryOptions();
+  }
+
+  @Override
+  public ExpandOption getExpandOption() {
+    return null;
+  }
+
+  @Override
+  public FilterOption getFilterOption() {
+    return filterOption;
+  }
+
+  @Override
+  public FormatOption getFormatOption() {
+    return uriInfo.getFormatOption();
+  }
+
+  @Override
+  public IdOption getIdOption() {
+    return null;
+  }
+
+  @Override
+  public CountOption getCountOption() {
+    return null;
+  }
+
+  @Override
+  public DeltaTokenOption getDeltaTokenOption() {
+    return null;
+  }
+
+  @Override
+  public OrderByOption getOrderByOption() {
+    return null;
+  }
+
+  @Override
+  public SearchOption getSearchOption() {
+    return null;
+  }
+
+  @Override
+  public SelectOption getSelectOption() {
+    return null;
+  }
+
+  @Override
+  public SkipOption getSkipOption() {
+    return null;
+  }
+
+  @Override
+  public SkipTokenOption getSkipTokenOption() {
+    return null;
+  }
+
+  @Override
+  public TopOption getTopOption() {
+    return null;
+  }
+
+  @Override
+  public ApplyOption getApplyOption() {
+    return null;
+  }
+
+  @Override
+  public List<UriResource> getUriResourceParts() {
+    return uriInfo.getUriResourceParts();
+  }
+
+  @Override
+  public String getValueForAlias(final String alias) {
+    return uriInfo.getValueForAlias(alias);
+  }
+}
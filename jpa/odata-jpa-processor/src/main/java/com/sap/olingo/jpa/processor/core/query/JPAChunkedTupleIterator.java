@@ -0,0 +1,60 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+/**
+ * Reads the rows of a query chunk by chunk, while the caller iterates over them. Each chunk is read from the same query
+ * using its own first result and max results, so only the rows of one chunk are kept in memory. First result and max
+ * results already set at the query, e.g. from $skip and $top, are respected. The query has to impose a unique order,
+ * otherwise rows could be returned twice or could be missed.
+ */
+final class JPAChunkedTupleIterator implements Iterator<Tuple> {
+  private final TypedQuery<Tuple> query;
+  private final int chunkSize;
+  private final int firstResult;
+  private final int maxResults;
+  private Iterator<Tuple> chunk;
+  private int readRows;
+  private boolean exhausted;
+
+  JPAChunkedTupleIterator(final TypedQuery<Tuple> query, final int chunkSize) {
+    super();
+    this.query = query;
+    this.chunkSize = chunkSize;
+    this.firstResult = query.getFirstResult();
+    this.maxResults = query.getMaxResults();
+    this.chunk = Collections.emptyIterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!chunk.hasNext() && !exhausted)
+      readNextChunk();
+    return chunk.hasNext();
+  }
+
+  @Override
+  public Tuple next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    return chunk.next();
+  }
+
+  private void readNextChunk() {
+    final int limit = Math.min(chunkSize, maxResults - readRows);
+    if (limit <= 0) {
+      exhausted = true;
+      return;
+    }
+    final List<Tuple> rows = query.setFirstResult(firstResult + readRows).setMaxResults(limit).getResultList();
+    readRows += rows.size();
+    exhausted = rows.size() < limit;
+    chunk = rows.iterator();
+  }
+}
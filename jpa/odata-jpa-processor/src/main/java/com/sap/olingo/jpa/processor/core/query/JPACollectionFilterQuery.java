@@ -53,8 +53,8 @@ public final class JPACollectionFilterQuery extends JPANavigationQuery {
     // Create a sub-query having the key of the parent as result type
     this.subQuery = parent.getQuery().subquery(this.jpaEntity.getKeyType());
     this.filterComplier = new JPAFilterElementComplier(odata, sd, em, jpaEntity,
-        new JPAOperationConverter(cb, getContext().getOperationConverter()), null, this, expression, association,
-        groups);
+        new JPAOperationConverter(cb, getContext().getOperationConverter(), getParameters()), null, this, expression,
+        association, groups);
     this.aggregationType = getAggregationType(this.filterComplier.getExpressionMember());
     createRoots(this.association);
   }
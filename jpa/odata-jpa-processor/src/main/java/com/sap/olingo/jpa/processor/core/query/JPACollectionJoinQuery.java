@@ -1,7 +1,5 @@
 package com.sap.olingo.jpa.processor.core.query;
 
-import static java.util.stream.Collectors.joining;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -39,6 +37,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException.MessageKeys;
 
@@ -65,13 +64,13 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
       final List<Tuple> intermediateResult = tupleQuery.getResultList();
       debugger.stopRuntimeMeasurement(resultHandle);
 
-      Map<String, List<Tuple>> result = convertResult(intermediateResult, assoziation, 0, Long.MAX_VALUE);
+      Map<JPAResultKey, List<Tuple>> result = convertResult(intermediateResult, assoziation, 0, Long.MAX_VALUE);
 
       try {
         final Set<JPAPath> requestedSelection = new HashSet<>();
         buildSelectionAddNavigationAndSelect(uriResource, requestedSelection, uriResource.getSelectOption());
         debugger.stopRuntimeMeasurement(handle);
-        return new JPACollectionQueryResult(result, new HashMap<String, Long>(1), jpaEntity, this.assoziation,
+        return new JPACollectionQueryResult(result, new HashMap<JPAResultKey, Long>(1), jpaEntity, this.assoziation,
             requestedSelection);
       } catch (ODataJPAModelException e) {
         throw new ODataApplicationException(e.getLocalizedMessage(), HttpStatusCode.INTERNAL_SERVER_ERROR
@@ -184,8 +183,8 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
   }
 
   /**
-   * Splits up a expand results, so it is returned as a map that uses a concatenation of the field values know by the
-   * parent.
+   * Splits up a expand results, so it is returned as a map that uses a {@link JPAResultKey} of the field values
+   * know by the parent.
    * @param intermediateResult
    * @param associationPath
    * @param skip
@@ -193,18 +192,18 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
    * @return
    * @throws ODataApplicationException
    */
-  Map<String, List<Tuple>> convertResult(final List<Tuple> intermediateResult, final JPAAssociationPath associationPath,
-      final long skip, final long top) throws ODataApplicationException {
-    String joinKey = "";
+  Map<JPAResultKey, List<Tuple>> convertResult(final List<Tuple> intermediateResult,
+      final JPAAssociationPath associationPath, final long skip, final long top) throws ODataApplicationException {
+    JPAResultKey joinKey = null;
     long skiped = 0;
     long taken = 0;
 
     List<Tuple> subResult = null;
-    final Map<String, List<Tuple>> convertedResult = new HashMap<>();
+    final Map<JPAResultKey, List<Tuple>> convertedResult = new HashMap<>();
     for (final Tuple row : intermediateResult) {
-      String actuallKey;
+      JPAResultKey actuallKey;
       try {
-        actuallKey = buildConcatenatedKey(row, associationPath);
+        actuallKey = buildResultKey(row, associationPath);
       } catch (ODataJPAModelException e) {
         throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
       }
@@ -225,20 +224,12 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
     return convertedResult;
   }
 
-  private String buildConcatenatedKey(final Tuple row, final JPAAssociationPath associationPath)
+  private JPAResultKey buildResultKey(final Tuple row, final JPAAssociationPath associationPath)
       throws ODataJPAModelException {
 
-    if (associationPath.getJoinTable() == null) {
-      final List<JPAPath> joinColumns = associationPath.getRightColumnsList();
-      return joinColumns.stream()
-          .map(c -> (row.get(c.getAlias())).toString())
-          .collect(joining(JPAPath.PATH_SEPERATOR));
-    } else {
-      final List<JPAPath> joinColumns = associationPath.getLeftColumnsList();
-      return joinColumns.stream()
-          .map(c -> (row.get(assoziation.getAlias() + ALIAS_SEPERATOR + c.getAlias())).toString())
-          .collect(joining(JPAPath.PATH_SEPERATOR));
-    }
+    if (associationPath.getJoinTable() == null)
+      return JPAResultKey.of(row, associationPath.getRightColumnsList());
+    return JPAResultKey.of(row, associationPath.getLeftColumnsList(), assoziation.getAlias() + ALIAS_SEPERATOR);
   }
 
   private List<Order> createOrderByJoinCondition(final JPAAssociationPath associationPath)
@@ -282,6 +273,7 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
     cq.orderBy(orderBy);
 
     final TypedQuery<Tuple> query = em.createQuery(cq);
+    getParameters().apply(query);
     debugger.stopRuntimeMeasurement(handle);
     return query;
   }
@@ -300,8 +292,9 @@ public class JPACollectionJoinQuery extends JPAAbstractJoinQuery {
       throw e;
     }
 
-    for (JPANavigationProptertyInfo info : this.navigationInfo) {
-      if (info.getFilterCompiler() != null) {
+    for (int i = 0; i < this.navigationInfo.size(); i++) {
+      final JPANavigationProptertyInfo info = this.navigationInfo.get(i);
+      if (info.getFilterCompiler() != null && !isRestrictedByKeys(i, keyBoundary)) {
         try {
           whereCondition = addWhereClause(whereCondition, info.getFilterCompiler().compile());
         } catch (ExpressionVisitException e) {
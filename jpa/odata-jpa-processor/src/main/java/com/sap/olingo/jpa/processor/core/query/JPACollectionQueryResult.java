@@ -20,15 +20,16 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.processor.core.converter.JPACollectionResult;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 
 public class JPACollectionQueryResult implements JPACollectionResult, JPAConvertableResult {
-  private static final Map<String, List<Tuple>> EMPTY_RESULT;
+  private static final Map<JPAResultKey, List<Tuple>> EMPTY_RESULT;
 
   private final Map<JPAAssociationPath, JPAExpandResult> childrenResult;
-  private final Map<String, List<Tuple>> jpaResult;
-  private Map<String, List<Object>> collectionResult;
-  private final Map<String, Long> counts;
+  private final Map<JPAResultKey, List<Tuple>> jpaResult;
+  private Map<JPAResultKey, List<Object>> collectionResult;
+  private final Map<JPAResultKey, Long> counts;
   private final JPAEntityType jpaEntityType;
   private final JPAAssociationPath assoziation;
   private final Collection<JPAPath> requestedSelection;
@@ -44,8 +45,8 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
    * @see JPATupleChildConverter
    * @return
    */
-  private static Map<String, List<Tuple>> putEmptyResult() {
-    EMPTY_RESULT.put(ROOT_RESULT_KEY, Collections.emptyList());
+  private static Map<JPAResultKey, List<Tuple>> putEmptyResult() {
+    EMPTY_RESULT.put(ROOT_KEY, Collections.emptyList());
     return EMPTY_RESULT;
   }
 
@@ -55,7 +56,7 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
     this(putEmptyResult(), Collections.emptyMap(), jpaEntityType, assoziation, selectionPath);
   }
 
-  public JPACollectionQueryResult(final Map<String, List<Tuple>> result, final Map<String, Long> counts,
+  public JPACollectionQueryResult(final Map<JPAResultKey, List<Tuple>> result, final Map<JPAResultKey, Long> counts,
       final JPAEntityType jpaEntityType, final JPAAssociationPath assoziation,
       final Collection<JPAPath> selectionPath) {
     super();
@@ -68,10 +69,10 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
   }
 
   @Override
-  public Map<String, EntityCollection> asEntityCollection(JPATupleChildConverter converter)
+  public Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(JPATupleChildConverter converter)
       throws ODataApplicationException {
     this.collectionResult = converter.getCollectionResult(this, requestedSelection);
-    final Map<String, EntityCollection> result = new HashMap<>(1);
+    final Map<JPAResultKey, EntityCollection> result = new HashMap<>(1);
     final EntityCollection collection = new EntityCollection();
     final Entity odataEntity = new Entity();
     final JPAAttribute leaf = (JPAAttribute) assoziation.getPath().get(assoziation.getPath().size() - 1);
@@ -80,10 +81,10 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
         null,
         leaf.getExternalName(),
         leaf.isComplex() ? ValueType.COLLECTION_COMPLEX : ValueType.COLLECTION_PRIMITIVE,
-        collectionResult.get(ROOT_RESULT_KEY) != null ? collectionResult.get(ROOT_RESULT_KEY) : Collections
+        collectionResult.get(ROOT_KEY) != null ? collectionResult.get(ROOT_KEY) : Collections
             .emptyList()));
     collection.getEntities().add(odataEntity);
-    result.put(ROOT_RESULT_KEY, collection);
+    result.put(ROOT_KEY, collection);
 
     return result;
   }
@@ -109,12 +110,12 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
   }
 
   @Override
-  public Long getCount(final String key) {
+  public Long getCount(final JPAResultKey key) {
     return counts != null ? counts.get(key) : null;
   }
 
   @Override
-  public EntityCollection getEntityCollection(String key) {
+  public EntityCollection getEntityCollection(JPAResultKey key) {
     // Not needed yet. Collections with navigation properties not supported
     return new EntityCollection();
   }
@@ -125,17 +126,17 @@ public class JPACollectionQueryResult implements JPACollectionResult, JPAConvert
   }
 
   @Override
-  public List<Object> getPropertyCollection(final String key) {
+  public List<Object> getPropertyCollection(final JPAResultKey key) {
     return collectionResult.containsKey(key) ? collectionResult.get(key) : Collections.emptyList();
   }
 
   @Override
-  public List<Tuple> getResult(final String key) {
+  public List<Tuple> getResult(final JPAResultKey key) {
     return jpaResult.get(key);
   }
 
   @Override
-  public Map<String, List<Tuple>> getResults() {
+  public Map<JPAResultKey, List<Tuple>> getKeyedResults() {
     return jpaResult;
   }
 
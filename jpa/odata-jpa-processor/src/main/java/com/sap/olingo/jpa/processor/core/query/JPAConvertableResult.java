@@ -1,15 +1,21 @@
 package com.sap.olingo.jpa.processor.core.query;
 
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
+
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.server.api.ODataApplicationException;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
@@ -20,18 +26,61 @@ public interface JPAConvertableResult {
    * @return
    * @throws ODataApplicationException
    */
-  Map<String, EntityCollection> asEntityCollection(final JPATupleChildConverter converter)
+  Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(final JPATupleChildConverter converter)
       throws ODataApplicationException;
 
+  /**
+   * @deprecated use {@link #asKeyedEntityCollection(JPATupleChildConverter)}
+   */
+  @Deprecated
+  default Map<String, EntityCollection> asEntityCollection(final JPATupleChildConverter converter)
+      throws ODataApplicationException {
+    return JPAResultKey.asStringKeyMap(asKeyedEntityCollection(converter));
+  }
+
+  /**
+   * Returns the root result as iterator, which can be used for a streamed serialization. The default implementation
+   * iterates over the result of <code>asKeyedEntityCollection</code>.
+   * @param converter
+   * @return
+   * @throws ODataApplicationException
+   */
+  default EntityIterator asEntityIterator(final JPATupleChildConverter converter) throws ODataApplicationException {
+    final Iterator<Entity> entities = asKeyedEntityCollection(converter).get(ROOT_KEY).iterator();
+    return new EntityIterator() {
+
+      @Override
+      public boolean hasNext() {
+        return entities.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        return entities.next();
+      }
+    };
+  }
+
   void putChildren(final Map<JPAAssociationPath, JPAExpandResult> childResults) throws ODataApplicationException;
 
   /**
-   * Returns the entity collection of a given key. This method may internally perform <code>asEntityCollection</code>
+   * Returns the entity collection of a given key. This method may internally perform
+   * <code>asKeyedEntityCollection</code>
    * @param key
    * @return
    * @throws ODataApplicationException
    */
-  EntityCollection getEntityCollection(final String key) throws ODataApplicationException;
+  EntityCollection getEntityCollection(final JPAResultKey key) throws ODataApplicationException;
+
+  /**
+   * @deprecated use {@link #getEntityCollection(JPAResultKey)}
+   */
+  @Deprecated
+  default EntityCollection getEntityCollection(final String key) throws ODataApplicationException {
+    if (this instanceof JPAExpandResult)
+      return getEntityCollection(JPAResultKey.find(key, ((JPAExpandResult) this).getKeyedResults().keySet()));
+    return getEntityCollection(JPAResultKey.of(key));
+  }
 
   /**
    * Returns a key pair if the query had $top and/or $skip and the key of the entity implements {@link Comparable}.
@@ -45,4 +94,21 @@ public interface JPAConvertableResult {
       final List<JPANavigationProptertyInfo> hops) throws ODataJPAQueryException {
     return Optional.empty();
   }
+
+  /**
+   * Returns a key boundary that in addition contains the keys of all entities, in case $expand items or collection
+   * properties are requested and the result does not contain more than maxKeys entities. Otherwise the same as
+   * {@link #getKeyBoundary(JPAODataRequestContextAccess, List)}.
+   * @param requestContext
+   * @param hops
+   * @param maxKeys Maximum number of keys. 0 means keys are not provided
+   * @param chunkSize Maximum number of keys per IN list
+   * @return
+   * @throws ODataJPAQueryException
+   */
+  default Optional<JPAKeyBoundary> getKeyBoundary(JPAODataRequestContextAccess requestContext,
+      final List<JPANavigationProptertyInfo> hops, final int maxKeys, final int chunkSize)
+      throws ODataJPAQueryException {
+    return getKeyBoundary(requestContext, hops);
+  }
 }
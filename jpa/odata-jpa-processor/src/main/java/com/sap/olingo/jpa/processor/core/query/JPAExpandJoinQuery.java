@@ -1,18 +1,20 @@
 package com.sap.olingo.jpa.processor.core.query;
 
-import static java.util.stream.Collectors.joining;
-
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.persistence.Query;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
@@ -28,17 +30,26 @@ import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
 import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADescriptionAttribute;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOnConditionItem;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 /**
@@ -58,6 +69,7 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
  */
 public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
   private final JPAAssociationPath assoziation;
+  private static final int MAX_PARENTS_PER_STATEMENT = 100;
   private final Optional<JPAKeyBoundary> keyBoundary;
   private TypedQuery<Tuple> tupleQuery;
 
@@ -90,7 +102,9 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
    * the first/least/max row per group in SQL</a>. Often databases offer the option to use <code>ROW_NUMBER</code>
    * together with <code>OVER ... ORDER BY</code> see e.g. <a
    * href="http://www.sqltutorial.org/sql-window-functions/sql-row_number/">SQL ROW_NUMBER</a>.
-   * Unfortunately this is not supported by JPA.
+   * Unfortunately this is not supported by JPA. Therefore the database processor can restrict the number of rows per
+   * parent, see {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpandLimit}. Otherwise all rows are
+   * read.
    * @return query result
    * @throws ODataApplicationException
    */
@@ -113,7 +127,7 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
         if (uriResource.getTopOption() != null)
           top = uriResource.getTopOption().getValue();
       }
-      final Map<String, List<Tuple>> result = convertResult(intermediateResult, assoziation, skip, top);
+      final Map<JPAResultKey, List<Tuple>> result = convertResult(intermediateResult, assoziation, skip, top);
 
       final Set<JPAPath> requestedSelection = new HashSet<>();
       buildSelectionAddNavigationAndSelect(uriResource, requestedSelection, uriResource.getSelectOption());
@@ -180,8 +194,8 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
   }
 
   /**
-   * Splits up a expand results, so it is returned as a map that uses a concatenation of the field values know by the
-   * parent.
+   * Splits up a expand results, so it is returned as a map that uses a {@link JPAResultKey} of the field values
+   * know by the parent.
    * @param intermediateResult
    * @param associationPath
    * @param skip
@@ -189,18 +203,18 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
    * @return
    * @throws ODataApplicationException
    */
-  Map<String, List<Tuple>> convertResult(final List<Tuple> intermediateResult, final JPAAssociationPath associationPath,
-      final long skip, final long top) throws ODataApplicationException {
-    String joinKey = "";
+  Map<JPAResultKey, List<Tuple>> convertResult(final List<Tuple> intermediateResult,
+      final JPAAssociationPath associationPath, final long skip, final long top) throws ODataApplicationException {
+    JPAResultKey joinKey = null;
     long skiped = 0;
     long taken = 0;
 
     List<Tuple> subResult = null;
-    final Map<String, List<Tuple>> convertedResult = new HashMap<>();
+    final Map<JPAResultKey, List<Tuple>> convertedResult = new HashMap<>();
     for (final Tuple row : intermediateResult) {
-      String actuallKey;
+      JPAResultKey actuallKey;
       try {
-        actuallKey = buildConcatenatedKey(row, associationPath);
+        actuallKey = buildResultKey(row, associationPath);
       } catch (ODataJPAModelException e) {
         throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
       }
@@ -221,22 +235,12 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
     return convertedResult;
   }
 
-  private String buildConcatenatedKey(final Tuple row, final JPAAssociationPath associationPath)
+  private JPAResultKey buildResultKey(final Tuple row, final JPAAssociationPath associationPath)
       throws ODataJPAModelException {
 
-    if (associationPath.getJoinTable() == null) {
-      final List<JPAPath> joinColumns = associationPath.getRightColumnsList();
-      return joinColumns.stream()
-          .map(c -> (row.get(c
-              .getAlias()))
-                  .toString())
-          .collect(joining(JPAPath.PATH_SEPERATOR));
-    } else {
-      final List<JPAPath> joinColumns = associationPath.getLeftColumnsList();
-      return joinColumns.stream()
-          .map(c -> (row.get(assoziation.getAlias() + ALIAS_SEPERATOR + c.getAlias())).toString())
-          .collect(joining(JPAPath.PATH_SEPERATOR));
-    }
+    if (associationPath.getJoinTable() == null)
+      return JPAResultKey.of(row, associationPath.getRightColumnsList());
+    return JPAResultKey.of(row, associationPath.getLeftColumnsList(), assoziation.getAlias() + ALIAS_SEPERATOR);
   }
 
   private List<Expression<?>> buildExpandCountGroupBy() throws ODataJPAQueryException {
@@ -268,11 +272,11 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
     return selections;
   }
 
-  private Map<String, Long> convertCountResult(List<Tuple> intermediateResult) throws ODataJPAQueryException {
-    final Map<String, Long> result = new HashMap<>();
+  private Map<JPAResultKey, Long> convertCountResult(List<Tuple> intermediateResult) throws ODataJPAQueryException {
+    final Map<JPAResultKey, Long> result = new HashMap<>();
     for (Tuple row : intermediateResult) {
       try {
-        final String actuallKey = buildConcatenatedKey(row, assoziation);
+        final JPAResultKey actuallKey = buildResultKey(row, assoziation);
         final Long count = (Long) row.get("$count");
         result.put(actuallKey, count);
       } catch (ODataJPAModelException e) {
@@ -282,7 +286,7 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
     return result;
   }
 
-  private Map<String, Long> count() throws ODataApplicationException {
+  private Map<JPAResultKey, Long> count() throws ODataApplicationException {
     final int handle = debugger.startRuntimeMeasurement(this, "count");
     final List<UriResource> uriResourceParts = uriResource.getUriResourceParts();
     if (uriResource.getCountOption() != null
@@ -305,6 +309,7 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
         cq.where(whereClause);
       countQuery.groupBy(buildExpandCountGroupBy());
       final TypedQuery<Tuple> query = em.createQuery(countQuery);
+      getParameters().apply(query);
       List<Tuple> intermediateResult = query.getResultList();
       return convertCountResult(intermediateResult);
     }
@@ -342,23 +347,213 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
     final Map<String, From<?, ?>> joinTables = createFromClause(new ArrayList<JPAAssociationPath>(1),
         selectionPath, cq, lastInfo);
 
+    cq.distinct(true);
+    final Map<JPAPath, Boolean> limitOrderBy = determineExpandLimitOrderBy();
+    javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+    if (!limitOrderBy.isEmpty())
+      whereClause = addWhereClause(whereClause, createExpandLimit(whereClause, limitOrderBy));
     // TODO handle Join Column is ignored
     cq.multiselect(createSelectClause(joinTables, selectionPath, target, groups));
-    cq.distinct(true);
-    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
     if (whereClause != null)
       cq.where(whereClause);
 
     final List<Order> orderBy = createOrderByJoinCondition(assoziation);
     orderBy.addAll(createOrderByList(joinTables, uriResource.getOrderByOption()));
+    if (!limitOrderBy.isEmpty())
+      orderBy.addAll(createOrderByKey());
     cq.orderBy(orderBy);
     // TODO group by also at $expand
     final TypedQuery<Tuple> query = em.createQuery(cq);
+    getParameters().apply(query);
 
     debugger.stopRuntimeMeasurement(handle);
     return query;
   }
 
+  private Expression<Boolean> createExpandLimit(final Expression<Boolean> whereClause,
+      final Map<JPAPath, Boolean> limitOrderBy) throws ODataApplicationException {
+    try {
+      final long limit = (uriResource.getSkipOption() != null ? uriResource.getSkipOption().getValue() : 0)
+          + uriResource.getTopOption().getValue();
+      final Expression<Boolean> keyRestriction = createExpandLimitByKeys(whereClause, limitOrderBy, limit);
+      if (keyRestriction != null)
+        return keyRestriction;
+      return context.getDatabaseProcessor().createExpandLimitWhereClause(cb, cq, target, jpaEntity, assoziation
+          .getRightColumnsList(), limitOrderBy, limit);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Databases that support window functions or lateral joins determine the keys of the first rows per parent with a
+   * native statement, see
+   * {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpandLimit#createExpandLimitStatement}. The
+   * parents are the distinct values of the join columns that fulfill the where condition of the $expand. They are read
+   * first with the same query, just selecting the join columns. The native statement is only used if the join columns
+   * and the keys can be passed unconverted between JPA and the database.<p>
+   * Like the key boundary, see {@link JPAODataCRUDContextAccess#getMaxExpandKeys()}, the keys are only used up to the
+   * maximum number of expand keys, split into IN lists of at most the key chunk size. If there are more parents or
+   * keys, the restriction is created by the database processor instead.
+   * @return Restriction by the keys or null, if the database processor does not provide a statement or the number of
+   * parents or keys exceeds the maximum
+   */
+  @SuppressWarnings("rawtypes")
+  private Expression<Boolean> createExpandLimitByKeys(final Expression<Boolean> whereClause,
+      final Map<JPAPath, Boolean> limitOrderBy, final long limit) throws ODataApplicationException,
+      ODataJPAModelException {
+
+    final JPAODataDatabaseProcessor dbProcessor = context.getDatabaseProcessor();
+    final List<JPAPath> partitionBy = assoziation.getRightColumnsList();
+    final int maxKeys = context.getMaxExpandKeys();
+    if (maxKeys <= 0 || !isNativeValue(partitionBy) || !isNativeValue(jpaEntity.getKeyPath())
+        || dbProcessor.createExpandLimitStatement(jpaEntity, partitionBy, limitOrderBy, limit, 1) == null)
+      return null;
+
+    final List<Tuple> parents = readExpandParents(whereClause, partitionBy);
+    if (parents.size() > maxKeys)
+      return null;
+    final List<JPAAttribute> keyAttributes = jpaEntity.getKey();
+    final List<Map<JPAAttribute, Comparable>> keys = new ArrayList<>();
+    for (int start = 0; start < parents.size(); start += MAX_PARENTS_PER_STATEMENT) {
+      final List<Tuple> chunk = parents.subList(start, Math.min(start + MAX_PARENTS_PER_STATEMENT, parents.size()));
+      final Query keyQuery = em.createNativeQuery(dbProcessor.createExpandLimitStatement(jpaEntity, partitionBy,
+          limitOrderBy, limit, chunk.size()));
+      int position = 1;
+      for (final Tuple parent : chunk) {
+        for (int i = 0; i < partitionBy.size(); i++)
+          keyQuery.setParameter(position++, parent.get(i));
+      }
+      for (final Object row : keyQuery.getResultList())
+        keys.add(convertNativeKey(row, keyAttributes));
+      if (keys.size() > maxKeys)
+        return null;
+    }
+    if (keys.isEmpty())
+      return cb.disjunction();
+    return createKeyList(jpaEntity, target, keys, context.getExpandKeyChunkSize());
+  }
+
+  private List<Tuple> readExpandParents(final Expression<Boolean> whereClause, final List<JPAPath> partitionBy) {
+    final List<Selection<?>> selections = new ArrayList<>(partitionBy.size());
+    for (final JPAPath path : partitionBy)
+      selections.add(ExpressionUtil.convertToCriteriaPath(target, path.getPath()));
+    cq.multiselect(selections);
+    if (whereClause != null)
+      cq.where(whereClause);
+    final TypedQuery<Tuple> parentQuery = em.createQuery(cq);
+    getParameters().apply(parentQuery);
+    return parentQuery.getResultList();
+  }
+
+  private boolean isNativeValue(final List<JPAPath> paths) {
+    for (final JPAPath path : paths) {
+      final JPAAttribute attribute = path.getLeaf();
+      final Class<?> type = attribute.getType();
+      if (attribute.getConverter() != null || attribute.isEnum()
+          || !(type == String.class || Number.class.isAssignableFrom(type)
+              || (type.isPrimitive() && type != boolean.class && type != char.class)))
+        return false;
+    }
+    return true;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private Map<JPAAttribute, Comparable> convertNativeKey(final Object row, final List<JPAAttribute> keyAttributes) {
+    final Object[] values = row instanceof Object[] ? (Object[]) row : new Object[] { row };
+    final Map<JPAAttribute, Comparable> key = new HashMap<>(keyAttributes.size());
+    for (int i = 0; i < keyAttributes.size(); i++)
+      key.put(keyAttributes.get(i), (Comparable) convertNativeValue(values[i], keyAttributes.get(i).getType()));
+    return key;
+  }
+
+  /**
+   * JDBC drivers may return a numeric column with a different Java type than the attribute has, e.g. an Integer for a
+   * SMALLINT column.
+   */
+  private static Object convertNativeValue(final Object value, final Class<?> type) {
+    if (!(value instanceof Number) || type.isInstance(value))
+      return value;
+    final Number number = (Number) value;
+    if (type == Long.class || type == long.class)
+      return number.longValue();
+    if (type == Integer.class || type == int.class)
+      return number.intValue();
+    if (type == Short.class || type == short.class)
+      return number.shortValue();
+    if (type == Byte.class || type == byte.class)
+      return number.byteValue();
+    if (type == BigInteger.class)
+      return new BigDecimal(number.toString()).toBigInteger();
+    if (type == BigDecimal.class)
+      return new BigDecimal(number.toString());
+    return value;
+  }
+
+  private List<Order> createOrderByKey() throws ODataApplicationException {
+    final List<Order> orders = new ArrayList<>();
+    try {
+      for (final JPAPath keyPath : jpaEntity.getKeyPath())
+        orders.add(cb.asc(ExpressionUtil.convertToCriteriaPath(target, keyPath.getPath())));
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return orders;
+  }
+
+  /**
+   * The number of rows per parent can only be restricted by the database, if $top is given, the rows are not filtered
+   * within the $expand, as the filter would need to be repeated for the predecessors, and $orderby refers only to
+   * simple properties of the expanded entity. In addition the order has to be unique, so the key is added.
+   * @return Order by paths and if they shall be sorted descending; empty if no restriction is possible
+   * @throws ODataApplicationException
+   */
+  private Map<JPAPath, Boolean> determineExpandLimitOrderBy() throws ODataApplicationException {
+    final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+    try {
+      if (uriResource.getTopOption() == null
+          || uriResource.getFilterOption() != null
+          || uriResource.getSearchOption() != null
+          || assoziation.getJoinTable() != null
+          || !jpaEntity.getProtections().isEmpty())
+        return orderBy;
+      if (uriResource.getOrderByOption() != null) {
+        for (final OrderByItem orderByItem : uriResource.getOrderByOption().getOrders()) {
+          final JPAPath path = determineOrderByPath(orderByItem);
+          if (path == null)
+            return new LinkedHashMap<>();
+          orderBy.put(path, orderByItem.isDescending());
+        }
+      }
+      for (final JPAPath keyPath : jpaEntity.getKeyPath()) {
+        if (keyPath.getLeaf().isComplex())
+          return new LinkedHashMap<>();
+        orderBy.putIfAbsent(keyPath, Boolean.FALSE);
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return orderBy;
+  }
+
+  private JPAPath determineOrderByPath(final OrderByItem orderByItem) throws ODataJPAModelException {
+    if (!(orderByItem.getExpression() instanceof Member))
+      return null;
+    final StringBuilder externalPath = new StringBuilder();
+    for (final UriResource part : ((Member) orderByItem.getExpression()).getResourcePath().getUriResourceParts()) {
+      if (!(part instanceof UriResourcePrimitiveProperty || part instanceof UriResourceComplexProperty)
+          || ((UriResourceProperty) part).isCollection())
+        return null;
+      if (externalPath.length() > 0)
+        externalPath.append(JPAPath.PATH_SEPERATOR);
+      externalPath.append(((UriResourceProperty) part).getProperty().getName());
+    }
+    final JPAPath path = jpaEntity.getPath(externalPath.toString());
+    if (path == null || path.getLeaf().isComplex() || path.getLeaf() instanceof JPADescriptionAttribute)
+      return null;
+    return path;
+  }
+
   private Expression<Boolean> createWhere() throws ODataApplicationException {
 
     final int handle = debugger.startRuntimeMeasurement(this, "createWhere");
@@ -381,8 +576,9 @@ public final class JPAExpandJoinQuery extends JPAAbstractJoinQuery {
   private javax.persistence.criteria.Expression<Boolean> createExpandWhere() throws ODataApplicationException {
 
     javax.persistence.criteria.Expression<Boolean> whereCondition = null;
-    for (JPANavigationProptertyInfo info : this.navigationInfo) {
-      if (info.getFilterCompiler() != null) {
+    for (int i = 0; i < this.navigationInfo.size(); i++) {
+      final JPANavigationProptertyInfo info = this.navigationInfo.get(i);
+      if (info.getFilterCompiler() != null && !isRestrictedByKeys(i, keyBoundary)) {
         try {
           whereCondition = addWhereClause(whereCondition, info.getFilterCompiler().compile());
         } catch (ExpressionVisitException e) {
@@ -1,19 +1,23 @@
 package com.sap.olingo.jpa.processor.core.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.persistence.Tuple;
 
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.SelectItem;
@@ -26,22 +30,24 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 /**
  * Builds a hierarchy of expand results. One instance contains on the one hand of the result itself, a map which has the
  * join columns values of the parent as its key and on the other hand a map that point the results of the next expand.
- * The join columns are concatenated in the order they are stored in the corresponding Association Path.
+ * The key is a {@link JPAResultKey} built from the join columns in the order they are stored in the corresponding
+ * Association Path.
  * @author Oliver Grande
  *
  */
 public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertableResult {
-  private static final Map<String, List<Tuple>> EMPTY_RESULT;
+  private static final Map<JPAResultKey, List<Tuple>> EMPTY_RESULT;
   private final Map<JPAAssociationPath, JPAExpandResult> childrenResult;
-  private final Map<String, List<Tuple>> jpaResult;
-  private Map<String, EntityCollection> odataResult;
-  private final Map<String, Long> counts;
+  private final Map<JPAResultKey, List<Tuple>> jpaResult;
+  private Map<JPAResultKey, EntityCollection> odataResult;
+  private final Map<JPAResultKey, Long> counts;
   private final JPAEntityType jpaEntityType;
   private final Collection<JPAPath> requestedSelection;
 
@@ -56,8 +62,8 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
    * @see JPATupleChildConverter
    * @return
    */
-  private static Map<String, List<Tuple>> putEmptyResult() {
-    EMPTY_RESULT.put(ROOT_RESULT_KEY, Collections.emptyList());
+  private static Map<JPAResultKey, List<Tuple>> putEmptyResult() {
+    EMPTY_RESULT.put(ROOT_KEY, Collections.emptyList());
     return EMPTY_RESULT;
   }
 
@@ -65,7 +71,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
     this(putEmptyResult(), Collections.emptyMap(), jpaEntityType, selectionPath);
   }
 
-  public JPAExpandQueryResult(final Map<String, List<Tuple>> result, final Map<String, Long> counts,
+  public JPAExpandQueryResult(final Map<JPAResultKey, List<Tuple>> result, final Map<JPAResultKey, Long> counts,
       @Nonnull final JPAEntityType jpaEntityType, final Collection<JPAPath> selectionPath) {
 
     Objects.requireNonNull(jpaEntityType);
@@ -77,13 +83,25 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
   }
 
   @Override
-  public Map<String, EntityCollection> asEntityCollection(final JPATupleChildConverter converter)
+  public Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(final JPATupleChildConverter converter)
       throws ODataApplicationException {
 
     convert(new JPATupleChildConverter(converter));
     return odataResult;
   }
 
+  /**
+   * Converts the children and returns an iterator that converts the root rows one by one.
+   */
+  @Override
+  public EntityIterator asEntityIterator(final JPATupleChildConverter converter) throws ODataApplicationException {
+    final JPATupleChildConverter rootConverter = new JPATupleChildConverter(converter);
+    for (Entry<JPAAssociationPath, JPAExpandResult> childResult : childrenResult.entrySet()) {
+      childResult.getValue().convert(rootConverter);
+    }
+    return rootConverter.getResultIterator(this, requestedSelection, ROOT_KEY);
+  }
+
   @Override
   public void convert(final JPATupleChildConverter converter) throws ODataApplicationException {
     if (odataResult == null) {
@@ -115,7 +133,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
    * @see org.apache.org.jpa.processor.core.converter.JPAExpandResult#getCount()
    */
   @Override
-  public Long getCount(final String key) {
+  public Long getCount(final JPAResultKey key) {
     return counts != null ? counts.get(key) : null;
   }
 
@@ -135,7 +153,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
 
   public long getNoResultsDeep() {
     long count = 0;
-    for (Entry<String, List<Tuple>> result : jpaResult.entrySet()) {
+    for (Entry<JPAResultKey, List<Tuple>> result : jpaResult.entrySet()) {
       count += result.getValue().size();
     }
     return count;
@@ -147,7 +165,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
    * @see org.apache.org.jpa.processor.core.converter.JPAExpandResult#getResult(java.lang.String)
    */
   @Override
-  public List<Tuple> getResult(final String key) {
+  public List<Tuple> getResult(final JPAResultKey key) {
     return jpaResult.get(key);
   }
 
@@ -174,7 +192,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
   }
 
   @Override
-  public Map<String, List<Tuple>> getResults() {
+  public Map<JPAResultKey, List<Tuple>> getKeyedResults() {
     return jpaResult;
   }
 
@@ -184,25 +202,40 @@ public final class JPAExpandQueryResult implements JPAExpandResult, JPAConvertab
    * @return
    */
   @Override
-  public EntityCollection getEntityCollection(final String key) {
+  public EntityCollection getEntityCollection(final JPAResultKey key) {
     return odataResult.containsKey(key) ? odataResult.get(key) : new EntityCollection();
   }
 
   @Override
   public Optional<JPAKeyBoundary> getKeyBoundary(final JPAODataRequestContextAccess requestContext,
       final List<JPANavigationProptertyInfo> hops) throws ODataJPAQueryException {
+    return getKeyBoundary(requestContext, hops, 0, 0);
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public Optional<JPAKeyBoundary> getKeyBoundary(final JPAODataRequestContextAccess requestContext,
+      final List<JPANavigationProptertyInfo> hops, final int maxKeys, final int chunkSize)
+      throws ODataJPAQueryException {
+    final List<Tuple> rows = jpaResult.get(ROOT_KEY);
     try {
-      if (!jpaResult.get(ROOT_RESULT_KEY).isEmpty()
-    	  &&  (requestContext.getUriInfo().getExpandOption() != null
-              || collectionPropertyRequested(requestContext))
-          && (requestContext.getUriInfo().getTopOption() != null
-              || requestContext.getUriInfo().getSkipOption() != null)) {
-        final JPAKeyPair boundary = new JPAKeyPair(jpaEntityType.getKey());
-        for (final Tuple tuple : jpaResult.get(ROOT_RESULT_KEY)) {
-          Map<JPAAttribute, Comparable> key = createKey(tuple);
-          boundary.setValue(key);
+      if (!rows.isEmpty()
+          && (requestContext.getUriInfo().getExpandOption() != null
+              || collectionPropertyRequested(requestContext))) {
+        final boolean provideKeys = maxKeys > 0 && rows.size() <= maxKeys;
+        if (provideKeys
+            || requestContext.getUriInfo().getTopOption() != null
+            || requestContext.getUriInfo().getSkipOption() != null) {
+          final JPAKeyPair boundary = new JPAKeyPair(jpaEntityType.getKey());
+          final Set<Map<JPAAttribute, Comparable>> keys = new LinkedHashSet<>();
+          for (final Tuple tuple : rows) {
+            final Map<JPAAttribute, Comparable> key = createKey(tuple);
+            boundary.setValue(key);
+            if (provideKeys)
+              keys.add(key);
+          }
+          return Optional.of(new JPAKeyBoundary(hops.size(), boundary, new ArrayList<>(keys), chunkSize));
         }
-        return Optional.of(new JPAKeyBoundary(hops.size(), boundary));
       }
     } catch (ODataJPAModelException e) {
       throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
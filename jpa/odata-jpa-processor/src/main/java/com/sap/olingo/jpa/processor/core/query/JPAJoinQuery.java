@@ -1,19 +1,27 @@
 package com.sap.olingo.jpa.processor.core.query;
 
-import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_RESULT_KEY;
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.EntityType;
 
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.ex.ODataException;
@@ -30,24 +38,32 @@ import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPACollectionAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADescriptionAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataKeysetPage;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
+import com.sap.olingo.jpa.processor.core.converter.JPATuple;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery {
+  private final Map<String, List<String>> requestHeaders;
+  private final Map<JPAAssociationPath, JPAExpandQueryResult> joinedExpandResults = new HashMap<>();
 
-  private static List<JPANavigationProptertyInfo> determineNavigationInfo(
+  static List<JPANavigationProptertyInfo> determineNavigationInfo(
       final JPAODataCRUDContextAccess sessionContext, final UriInfoResource uriResource) throws ODataException {
 
     return Util.determineNavigationPath(sessionContext.getEdmProvider().getServiceDocument(), uriResource
         .getUriResourceParts(), uriResource);
   }
 
-  private static JPAEntityType determineTargetEntityType(final JPAODataCRUDContextAccess sessionContext,
+  static JPAEntityType determineTargetEntityType(final JPAODataCRUDContextAccess sessionContext,
       final JPAODataRequestContextAccess requestContext) throws ODataException {
 
     return sessionContext.getEdmProvider().getServiceDocument().getEntity(Util.determineTargetEntitySet(requestContext
@@ -60,6 +76,7 @@ public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery
 
     super(odata, sessionContext, determineTargetEntityType(sessionContext, requestContext),
         requestContext, requestHeaders, determineNavigationInfo(sessionContext, requestContext.getUriInfo()));
+    this.requestHeaders = requestHeaders;
   }
 
   /**
@@ -88,43 +105,111 @@ public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery
         countQuery.where(whereClause);
       countQuery.select(cb.countDistinct(target));
       debugger.stopRuntimeMeasurement(handle);
-      return em.createQuery(countQuery).getSingleResult();
+      final TypedQuery<Long> tq = em.createQuery(countQuery);
+      getParameters().apply(tq);
+      return tq.getSingleResult();
     } catch (JPANoSelectionException e) {
       return 0L;
     }
   }
 
+  /**
+   * Reads only the ETag of the requested entity. This allows to check the preconditions of a read request, before the
+   * entity and its $expand items are read. Afterwards the query can still read the entity.
+   * @return ETag of the entity. Empty in case the entity does not exist or has no ETag
+   * @throws ODataApplicationException
+   */
+  public Optional<String> readEtag() throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "readEtag");
+    final CriteriaQuery<Object> etagQuery = cb.createQuery(Object.class);
+    try {
+      if (!jpaEntity.hasEtag())
+        return Optional.empty();
+      createFromClause(Collections.emptyList(), Collections.emptyList(), etagQuery, lastInfo);
+
+      final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+      if (whereClause != null)
+        etagQuery.where(whereClause);
+      etagQuery.select(ExpressionUtil.convertToCriteriaPath(target, jpaEntity.getEtagPath().getPath()));
+      final TypedQuery<Object> tq = em.createQuery(etagQuery);
+      getParameters().apply(tq);
+      // More than one result means that the request does not address a single entity
+      final List<Object> result = tq.setMaxResults(2).getResultList();
+      return result.size() == 1 && result.get(0) != null ? Optional.of(result.get(0).toString()) : Optional.empty();
+    } catch (JPANoSelectionException e) {
+      return Optional.empty();
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      renewNavigationInfo();
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
   @Override
   public JPAConvertableResult execute() throws ODataApplicationException {
+    return execute(0);
+  }
+
+  /**
+   * Executes the query, but reads the rows chunk by chunk with <code>chunkSize</code> rows each, while the result is
+   * iterated, see {@link JPAConvertableResult#asEntityIterator}. To get a stable order the key is added to the order by
+   * clause. The rows are read completely, like with {@link #execute()}, if they are needed to read $expand items, in case
+   * of keyset paging, if the result is ordered by a navigation property or if <code>chunkSize</code> is not positive.
+   * The caller has to make sure that no collection properties are requested.
+   * @param chunkSize
+   * @return
+   * @throws ODataApplicationException
+   */
+  public JPAConvertableResult executeStreamed(final int chunkSize) throws ODataApplicationException {
+    return execute(isChunkedReadPossible() ? chunkSize : 0);
+  }
+
+  private JPAConvertableResult execute(final int chunkSize) throws ODataApplicationException {
     // Pre-process URI parameter, so they can be used at different places
     final int handle = debugger.startRuntimeMeasurement(this, "execute");
 
     final List<JPAAssociationPath> orderByNaviAttributes = extractOrderByNaviAttributes();
     final Collection<JPAPath> selectionPath = buildSelectionPathList(this.uriResource);
+    final List<JPAJoinedExpand> joinedExpands = orderByNaviAttributes.isEmpty() ? determineJoinedExpands()
+        : Collections.emptyList();
     try {
       final Map<String, From<?, ?>> joinTables = createFromClause(orderByNaviAttributes, selectionPath, cq, lastInfo);
 
-      cq.multiselect(createSelectClause(joinTables, selectionPath, target, groups)).distinct(
-          determineDistinct());
+      final List<Selection<?>> selections = createSelectClause(joinTables, selectionPath, target, groups);
+      selections.addAll(createJoinedExpandSelection(joinedExpands));
+      cq.multiselect(selections).distinct(determineDistinct());
 
-      final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere();
+      final List<JPAKeysetItem> keyset = determineKeyset();
+      final javax.persistence.criteria.Expression<Boolean> whereClause = addWhereClause(createWhere(),
+          createKeysetWhere(joinTables, keyset));
       if (whereClause != null)
         cq.where(whereClause);
 
-      cq.orderBy(createOrderByList(joinTables, uriResource.getOrderByOption()));
+      final List<Order> orderBy = addKeysetOrderBy(joinTables, createOrderByList(joinTables, uriResource
+          .getOrderByOption()), keyset);
+      if (chunkSize > 0)
+        addKeyOrderBy(joinTables, orderBy);
+      cq.orderBy(orderBy);
 
       if (!orderByNaviAttributes.isEmpty())
         cq.groupBy(createGroupBy(joinTables, selectionPath));
 
-      final TypedQuery<Tuple> tq = em.createQuery(cq);
+      final TypedQuery<Tuple> tq = createTupleQuery(keyset);
       addTopSkip(tq);
+      if (chunkSize > 0) {
+        debugger.stopRuntimeMeasurement(handle);
+        return new JPAStreamedQueryResult(new JPAChunkedTupleIterator(tq, chunkSize), jpaEntity, selectionPath);
+      }
 
-      final HashMap<String, List<Tuple>> result = new HashMap<>(1);
+      final HashMap<JPAResultKey, List<Tuple>> result = new HashMap<>(1);
       final int resultHandle = debugger.startRuntimeMeasurement(tq, "getResultList");
       final List<Tuple> intermediateResult = tq.getResultList();
 
       debugger.stopRuntimeMeasurement(resultHandle);
-      result.put(ROOT_RESULT_KEY, intermediateResult);
+      provideLastValues(keyset, intermediateResult);
+      result.put(ROOT_KEY, intermediateResult);
+      splitJoinedExpands(joinedExpands, intermediateResult);
 
       debugger.stopRuntimeMeasurement(handle);
       return returnResult(selectionPath, result);
@@ -138,6 +223,16 @@ public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery
     return navigationInfo;
   }
 
+  /**
+   * Results of the $expand items that have been read together with the main query, see
+   * {@link com.sap.olingo.jpa.processor.core.api.JPAODataExpandStrategy JPAODataExpandStrategy}. Available after
+   * {@link #execute()}.
+   * @return
+   */
+  public Map<JPAAssociationPath, JPAExpandQueryResult> getJoinedExpandResults() {
+    return joinedExpandResults;
+  }
+
   @Override
   public AbstractQuery<?> getQuery() {
     return cq;
@@ -158,6 +253,149 @@ public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery
     return groupBy;
   }
 
+  /**
+   * The entities of a joined $expand are selected using the alias of the association as prefix, so they do not
+   * conflict with the properties of the main entity.
+   */
+  private List<Selection<?>> createJoinedExpandSelection(final List<JPAJoinedExpand> joinedExpands) {
+    final List<Selection<?>> selections = new ArrayList<>();
+    for (final JPAJoinedExpand joinedExpand : joinedExpands) {
+      From<?, ?> join = target;
+      for (final JPAElement pathElement : joinedExpand.association.getPath())
+        join = join.join(pathElement.getInternalName(), JoinType.LEFT);
+      for (final JPAPath jpaPath : joinedExpand.selection) {
+        final Path<?> p = ExpressionUtil.convertToCriteriaPath(join, jpaPath.getPath());
+        p.alias(joinedExpand.prefix + jpaPath.getAlias());
+        selections.add(p);
+      }
+    }
+    return selections;
+  }
+
+  /**
+   * The rows can be read in chunks, if the complete result is not needed before the entities are serialized. This is
+   * not the case if $expand items have to be read, as they are selected using the keys of all rows, in case of keyset
+   * paging, as the last values of the page are determined from the rows, and if the result is ordered by a navigation
+   * property, as it is then grouped. Requests of a collection property are not streamed either.<p>
+   * Each chunk window is read by a separate statement using <code>setFirstResult</code> and
+   * <code>setMaxResults</code>. So rows inserted or deleted concurrently between two chunks can lead to duplicated or
+   * skipped rows in the streamed response.
+   */
+  private boolean isChunkedReadPossible() throws ODataApplicationException {
+    return uriResource.getExpandOption() == null
+        && !(page instanceof JPAODataKeysetPage)
+        && !(lastInfo.getAssociationPath() != null
+            && lastInfo.getAssociationPath().getLeaf() instanceof JPACollectionAttribute)
+        && extractOrderByNaviAttributes().isEmpty();
+  }
+
+  private void addKeyOrderBy(final Map<String, From<?, ?>> joinTables, final List<Order> orderBy)
+      throws ODataJPAQueryException {
+    try {
+      for (final JPAPath keyPath : jpaEntity.getKeyPath())
+        orderBy.add(cb.asc(ExpressionUtil.convertToCriteriaPath(joinTables, target, keyPath.getPath())));
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Determines the $expand items that can be read together with the main query. Only to-one associations without
+   * further restrictions are joined, as a join must neither change the number of rows nor the rows of the main query.
+   */
+  private List<JPAJoinedExpand> determineJoinedExpands() throws ODataApplicationException {
+    final List<JPAJoinedExpand> joinedExpands = new ArrayList<>();
+    if (uriResource.getExpandOption() == null || (lastInfo.getAssociationPath() != null
+        && lastInfo.getAssociationPath().getLeaf() instanceof JPACollectionAttribute))
+      return joinedExpands;
+    try {
+      for (final JPAExpandItemInfo item : new JPAExpandItemInfoFactory().buildExpandItemInfo(sd, uriResource,
+          navigationInfo)) {
+        if (isJoinable(item)) {
+          final JPAJoinedExpand joinedExpand = new JPAJoinedExpand(item, new JPAExpandJoinQuery(odata, context, item,
+              requestHeaders, requestContext, Optional.empty()), groups);
+          if (joinedExpand.hasSimpleSelection())
+            joinedExpands.add(joinedExpand);
+        }
+      }
+    } catch (ODataApplicationException e) {
+      throw e;
+    } catch (ODataException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return joinedExpands;
+  }
+
+  private boolean isJoinable(final JPAExpandItemInfo item) throws ODataJPAModelException {
+    final JPAAssociationPath association = item.getExpandAssociation();
+    final UriInfoResource expandItem = item.getUriInfo();
+    return !association.isCollection()
+        && association.getJoinTable() == null
+        && association.getPath().size() == 1
+        && !(expandItem instanceof JPAExpandLevelWrapper)
+        && expandItem.getFilterOption() == null
+        && expandItem.getSearchOption() == null
+        && expandItem.getOrderByOption() == null
+        && expandItem.getTopOption() == null
+        && expandItem.getSkipOption() == null
+        && expandItem.getCountOption() == null
+        && item.getEntityType().getProtections().isEmpty()
+        && !isSubType(item.getEntityType())
+        && context.getExpandStrategy().isJoined(association);
+  }
+
+  /**
+   * A join does not restrict the rows of the target to its sub type, e.g. via the discriminator column
+   */
+  private boolean isSubType(final JPAEntityType entityType) {
+    return em.getMetamodel().entity(entityType.getTypeClass()).getSupertype() instanceof EntityType;
+  }
+
+  /**
+   * Creates the result of the joined $expand items. A row of the main query contains the entity of a joined $expand
+   * if its key is not null. Multiple rows of the main query can point to the same entity.
+   */
+  private void splitJoinedExpands(final List<JPAJoinedExpand> joinedExpands, final List<Tuple> rows)
+      throws ODataApplicationException {
+
+    for (final JPAJoinedExpand joinedExpand : joinedExpands) {
+      final Map<JPAResultKey, List<Tuple>> expandResult = new HashMap<>();
+      try {
+        final List<JPAPath> leftColumns = joinedExpand.association.getLeftColumnsList();
+        for (final Tuple row : rows) {
+          final JPAResultKey key = JPAResultKey.of(row, leftColumns);
+          if (!expandResult.containsKey(key)) {
+            final JPATuple expandRow = joinedExpand.extractRow(row);
+            if (expandRow != null) {
+              // The converter releases the rows of a result, so the list has to be modifiable
+              final List<Tuple> expandRows = new ArrayList<>(1);
+              expandRows.add(expandRow);
+              expandResult.put(key, expandRows);
+            }
+          }
+        }
+      } catch (ODataJPAModelException e) {
+        throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+      joinedExpandResults.put(joinedExpand.association, new JPAExpandQueryResult(expandResult, null,
+          joinedExpand.entityType, joinedExpand.requestedSelection));
+    }
+  }
+
+  /**
+   * Creates the query from the criteria query. If a query shape cache is available, the query of an earlier request
+   * with the same shape is reused, so the JPA provider does not need to translate the criteria query again. Only the
+   * parameters are bound. Keyset paging puts the values of the previous page into the statement, so it is excluded.
+   */
+  private TypedQuery<Tuple> createTupleQuery(final List<JPAKeysetItem> keyset) {
+    final Optional<JPAQueryShapeCache> cache = context.getQueryShapeCache();
+    final String shape = cache.isPresent() && keyset.isEmpty() ? JPAQueryShape.create(uriResource, navigationInfo,
+        getParameters(), groups, locale, determineDistinct()) : null;
+    final TypedQuery<Tuple> tq = shape != null ? cache.get().createQuery(em, shape, cq) : em.createQuery(cq);
+    getParameters().apply(tq);
+    return tq;
+  }
+
   private javax.persistence.criteria.Expression<Boolean> createWhere() throws ODataApplicationException {
     return addWhereClause(super.createWhere(uriResource, navigationInfo), createProtectionWhere(claimsProvider));
   }
@@ -215,10 +453,68 @@ public class JPAJoinQuery extends JPAAbstractJoinQuery implements JPACountQuery
   }
 
   private JPAConvertableResult returnResult(final Collection<JPAPath> selectionPath,
-      final HashMap<String, List<Tuple>> result) {
+      final HashMap<JPAResultKey, List<Tuple>> result) {
     if (lastInfo.getAssociationPath() != null
         && (lastInfo.getAssociationPath().getLeaf() instanceof JPACollectionAttribute))
       return new JPACollectionQueryResult(result, null, jpaEntity, lastInfo.getAssociationPath(), selectionPath);
     return new JPAExpandQueryResult(result, null, jpaEntity, selectionPath);
   }
+
+  /**
+   * A $expand item read together with the main query
+   */
+  private static final class JPAJoinedExpand {
+    private final JPAAssociationPath association;
+    private final JPAEntityType entityType;
+    private final String prefix;
+    private final List<JPAPath> selection;
+    private final List<String> keyAliases;
+    private final Set<JPAPath> requestedSelection;
+
+    private JPAJoinedExpand(final JPAExpandItemInfo item, final JPAExpandJoinQuery expandQuery,
+        final List<String> groups) throws ODataApplicationException, ODataJPAModelException {
+
+      this.association = item.getExpandAssociation();
+      this.entityType = item.getEntityType();
+      this.prefix = association.getAlias() + ALIAS_SEPERATOR;
+      this.selection = new ArrayList<>();
+      this.keyAliases = new ArrayList<>();
+      for (final JPAPath jpaPath : expandQuery.buildSelectionPathList(item.getUriInfo())) {
+        if (jpaPath.isPartOfGroups(groups)) {
+          selection.add(jpaPath);
+          if (((JPAAttribute) jpaPath.getPath().get(0)).isKey())
+            keyAliases.add(prefix + jpaPath.getAlias());
+        }
+      }
+      this.requestedSelection = new HashSet<>();
+      expandQuery.buildSelectionAddNavigationAndSelect(item.getUriInfo(), requestedSelection, item.getUriInfo()
+          .getSelectOption());
+    }
+
+    /**
+     * Description properties require an additional join with a language condition, so they are not supported
+     */
+    private boolean hasSimpleSelection() {
+      for (final JPAPath jpaPath : selection) {
+        if (jpaPath.getLeaf() instanceof JPADescriptionAttribute)
+          return false;
+      }
+      return true;
+    }
+
+    /**
+     * @return The properties of the expanded entity or null, if the row does not point to an entity. Only the key is
+     * checked, as the JPA provider may convert missing values, e.g. for primitive types.
+     */
+    private JPATuple extractRow(final Tuple row) {
+      for (final String keyAlias : keyAliases) {
+        if (row.get(keyAlias) == null)
+          return null;
+      }
+      final JPATuple expandRow = new JPATuple();
+      for (final JPAPath jpaPath : selection)
+        expandRow.addElement(jpaPath.getAlias(), jpaPath.getLeaf().getType(), row.get(prefix + jpaPath.getAlias()));
+      return expandRow;
+    }
+  }
 }
@@ -1,9 +1,14 @@
 package com.sap.olingo.jpa.processor.core.query;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+
 /**
  * 
  * 
@@ -15,11 +20,29 @@ public class JPAKeyBoundary {
 
   private final int noHops;
   private final JPAKeyPair keyBoundary;
+  @SuppressWarnings("rawtypes")
+  private final List<Map<JPAAttribute, Comparable>> keys;
+  private final int chunkSize;
 
   JPAKeyBoundary(int noHops, @Nonnull JPAKeyPair keyBoundary) {
+    this(noHops, keyBoundary, Collections.emptyList(), 0);
+  }
+
+  /**
+   * @param noHops
+   * @param keyBoundary
+   * @param keys The keys of all entities of the result. If given, dependent queries are restricted by these keys
+   * instead of the boundary and the filter of the result.
+   * @param chunkSize Maximum number of keys per IN list
+   */
+  @SuppressWarnings("rawtypes")
+  JPAKeyBoundary(int noHops, @Nonnull JPAKeyPair keyBoundary, @Nonnull List<Map<JPAAttribute, Comparable>> keys,
+      int chunkSize) {
     super();
     this.noHops = noHops;
     this.keyBoundary = Objects.requireNonNull(keyBoundary);
+    this.keys = Objects.requireNonNull(keys);
+    this.chunkSize = chunkSize;
   }
 
   public int getNoHops() {
@@ -30,8 +53,30 @@ public class JPAKeyBoundary {
     return keyBoundary;
   }
 
+  @SuppressWarnings("rawtypes")
+  public List<Map<JPAAttribute, Comparable>> getKeys() {
+    return keys;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public boolean hasKeys() {
+    return !keys.isEmpty();
+  }
+
+  /**
+   * A hop that is restricted by the keys of its result does not need to repeat its filter
+   * @param hopIndex
+   * @return
+   */
+  public boolean restrictsByKeys(final int hopIndex) {
+    return hasKeys() && hopIndex < noHops;
+  }
+
   @Override
   public String toString() {
-    return "JPAKeyBoundary [noHops=" + noHops + ", keyBoundary=" + keyBoundary + "]";
+    return "JPAKeyBoundary [noHops=" + noHops + ", keyBoundary=" + keyBoundary + ", noKeys=" + keys.size() + "]";
   }
 }
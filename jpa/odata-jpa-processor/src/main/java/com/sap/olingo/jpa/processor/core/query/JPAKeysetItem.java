@@ -0,0 +1,36 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Attribute used to seek the rows of a keyset page, see
+ * {@link com.sap.olingo.jpa.processor.core.api.JPAODataKeysetPage}. An item either stems from the $orderby of the
+ * request or is a key attribute added to make the order unique.
+ */
+final class JPAKeysetItem {
+  private final JPAPath path;
+  private final boolean descending;
+  private final boolean addedKey;
+
+  JPAKeysetItem(final JPAPath path, final boolean descending, final boolean addedKey) {
+    super();
+    this.path = path;
+    this.descending = descending;
+    this.addedKey = addedKey;
+  }
+
+  JPAPath getPath() {
+    return path;
+  }
+
+  boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * @return true if the item is a key attribute that is not part of the $orderby
+   */
+  boolean isAddedKey() {
+    return addedKey;
+  }
+}
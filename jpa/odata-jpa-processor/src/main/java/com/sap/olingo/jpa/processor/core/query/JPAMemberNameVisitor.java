@@ -0,0 +1,90 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Collects the members used within an expression. Each member is given by the segments of its resource path, separated
+ * by a slash. In contrast to a path of the entity type, this also covers dynamic properties, like the aliases of an
+ * aggregation.
+ */
+final class JPAMemberNameVisitor implements ExpressionVisitor<Void> {
+  private final List<String> memberNames = new ArrayList<>();
+
+  List<String> get() {
+    return memberNames;
+  }
+
+  @Override
+  public Void visitBinaryOperator(final BinaryOperatorKind operator, final Void left, final Void right) {
+    return null;
+  }
+
+  @Override
+  public Void visitBinaryOperator(final BinaryOperatorKind operator, final Void left, final List<Void> right) {
+    return null;
+  }
+
+  @Override
+  public Void visitUnaryOperator(final UnaryOperatorKind operator, final Void operand) {
+    return null;
+  }
+
+  @Override
+  public Void visitMethodCall(final MethodKind methodCall, final List<Void> parameters) {
+    return null;
+  }
+
+  @Override
+  public Void visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) {
+    return null;
+  }
+
+  @Override
+  public Void visitLiteral(final Literal literal) {
+    return null;
+  }
+
+  @Override
+  public Void visitMember(final Member member) {
+    final List<String> segments = new ArrayList<>();
+    for (final UriResource part : member.getResourcePath().getUriResourceParts())
+      segments.add(part.getSegmentValue());
+    memberNames.add(String.join(JPAPath.PATH_SEPERATOR, segments));
+    return null;
+  }
+
+  @Override
+  public Void visitAlias(final String aliasName) {
+    return null;
+  }
+
+  @Override
+  public Void visitTypeLiteral(final EdmType type) {
+    return null;
+  }
+
+  @Override
+  public Void visitLambdaReference(final String variableName) {
+    return null;
+  }
+
+  @Override
+  public Void visitEnum(final EdmEnumType type, final List<String> enumValues) {
+    return null;
+  }
+}
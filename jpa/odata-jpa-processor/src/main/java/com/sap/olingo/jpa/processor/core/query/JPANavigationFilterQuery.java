@@ -63,7 +63,7 @@ public final class JPANavigationFilterQuery extends JPANavigationQuery {
     this.locale = parent.getLocale();
 
     this.filterComplier = new JPAFilterElementComplier(odata, sd, em, jpaEntity, new JPAOperationConverter(cb,
-        getContext().getOperationConverter()), null, this, expression, null, groups);
+        getContext().getOperationConverter(), getParameters()), null, this, expression, null, groups);
     this.aggregationType = getAggregationType(this.filterComplier.getExpressionMember());
     createRoots(association);
     createDescriptionJoin();
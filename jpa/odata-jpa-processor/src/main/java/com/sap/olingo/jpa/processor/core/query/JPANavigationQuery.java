@@ -87,6 +87,14 @@ public abstract class JPANavigationQuery extends JPAAbstractQuery {
     return parentQuery.getContext();
   }
 
+  /**
+   * A sub-query shares the parameters of its parent, as they belong to the same statement
+   */
+  @Override
+  public JPAQueryParameters getParameters() {
+    return parentQuery.getParameters();
+  }
+
   protected void createRoots(final JPAAssociationPath association) throws ODataJPAQueryException {
 
     if (association.getJoinTable() != null) {
@@ -0,0 +1,79 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.ParameterExpression;
+
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+
+/**
+ * Collects the parameters of a statement. Values given by a request, like the literals of a $filter or the key
+ * predicates, are bound as parameters instead of being part of the statement. So requests that only differ by these
+ * values lead to the same statement, which can be reused by the JPA provider and the database.<p>
+ * The parameters are named in the sequence of their creation. Sub-queries share the parameters of the query they are
+ * part of.
+ */
+public final class JPAQueryParameters {
+  private static final String NAME_PREFIX = "p";
+  private final CriteriaBuilder cb;
+  private final Map<String, Object> values;
+  private final Set<Literal> boundLiterals;
+
+  public JPAQueryParameters(final CriteriaBuilder cb) {
+    super();
+    this.cb = cb;
+    this.values = new HashMap<>();
+    this.boundLiterals = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Creates a new parameter for a value
+   * @param value Must not be null
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ParameterExpression<T> bind(final T value) {
+    final String name = NAME_PREFIX + (values.size() + 1);
+    final Class<?> type = value instanceof Enum ? ((Enum<?>) value).getDeclaringClass() : value.getClass();
+    values.put(name, value);
+    return cb.parameter((Class<T>) type, name);
+  }
+
+  /**
+   * Creates a new parameter for the value of a literal
+   * @param literal
+   * @param value Value of the literal, converted into the type of the expression it is compared with. Must not be
+   * null
+   * @return
+   */
+  public <T> ParameterExpression<T> bind(final Literal literal, final T value) {
+    boundLiterals.add(literal);
+    return bind(value);
+  }
+
+  /**
+   * Sets the values of all parameters the query uses
+   * @param query
+   */
+  public void apply(final Query query) {
+    for (final Parameter<?> parameter : query.getParameters()) {
+      if (parameter.getName() != null && values.containsKey(parameter.getName()))
+        query.setParameter(parameter.getName(), values.get(parameter.getName()));
+    }
+  }
+
+  boolean isBound(final Literal literal) {
+    return boundLiterals.contains(literal);
+  }
+
+  int size() {
+    return values.size();
+  }
+}
@@ -0,0 +1,205 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAll;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAny;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.UriResourcePartTyped;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+
+/**
+ * Creates the fingerprint of a request, which is the same for all requests that lead to the same statement. Values
+ * that are bound as parameters, see {@link JPAQueryParameters}, are replaced by their type. All other parts of the
+ * request are taken over as they are.
+ */
+final class JPAQueryShape implements ExpressionVisitor<String> {
+  private static final String PARAMETER = "?";
+  private final JPAQueryParameters parameters;
+
+  /**
+   * @return The fingerprint or null, if the request can not be cached
+   */
+  static String create(final UriInfoResource uriResource, final List<JPANavigationProptertyInfo> navigationInfo,
+      final JPAQueryParameters parameters, final List<String> groups, final Locale locale, final boolean distinct) {
+
+    try {
+      if (uriResource.getSearchOption() != null || uriResource.getApplyOption() != null)
+        return null;
+      for (final JPANavigationProptertyInfo info : navigationInfo) {
+        // Restrictions derived from claims contain the values of the claims
+        if (!info.getEntityType().getProtections().isEmpty())
+          return null;
+      }
+      final JPAQueryShape visitor = new JPAQueryShape(parameters);
+      final StringBuilder shape = new StringBuilder();
+      for (final UriResource part : uriResource.getUriResourceParts())
+        visitor.appendResource(shape, part, true);
+      visitor.appendFilter(shape, uriResource.getFilterOption());
+      for (final JPANavigationProptertyInfo info : navigationInfo) {
+        if (info.getUriInfo() != null && info.getUriInfo() != uriResource)
+          visitor.appendFilter(shape, info.getUriInfo().getFilterOption());
+      }
+      appendOption(shape, uriResource.getSelectOption());
+      appendOption(shape, uriResource.getExpandOption());
+      appendOption(shape, uriResource.getOrderByOption());
+      appendOption(shape, uriResource.getCountOption());
+      shape.append('|').append(groups).append('|').append(locale).append('|').append(distinct);
+      return shape.toString();
+    } catch (JPANotCacheableException | ExpressionVisitException | ODataApplicationException
+        | ODataJPAModelException e) {
+      return null;
+    }
+  }
+
+  private static void appendOption(final StringBuilder shape, final SystemQueryOption option) {
+    if (option != null) {
+      if (option.getText() == null)
+        throw new JPANotCacheableException();
+      shape.append('|').append(option.getName()).append('=').append(option.getText());
+    }
+  }
+
+  private JPAQueryShape(final JPAQueryParameters parameters) {
+    super();
+    this.parameters = parameters;
+  }
+
+  @Override
+  public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final String right) {
+    return "(" + left + " " + operator.name() + " " + right + ")";
+  }
+
+  @Override
+  public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final List<String> right) {
+    return "(" + left + " " + operator.name() + " " + right + ")";
+  }
+
+  @Override
+  public String visitUnaryOperator(final UnaryOperatorKind operator, final String operand) {
+    return operator.name() + "(" + operand + ")";
+  }
+
+  @Override
+  public String visitMethodCall(final MethodKind methodCall, final List<String> methodParameters) {
+    return methodCall.name() + methodParameters;
+  }
+
+  @Override
+  public String visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    return lambdaFunction + "(" + lambdaVariable + ":" + expression.accept(this) + ")";
+  }
+
+  @Override
+  public String visitLiteral(final Literal literal) {
+    if (parameters.isBound(literal))
+      return PARAMETER + (literal.getType() != null ? literal.getType().getName() : "");
+    return literal.getText();
+  }
+
+  @Override
+  public String visitMember(final Member member) throws ExpressionVisitException, ODataApplicationException {
+    final StringBuilder path = new StringBuilder();
+    if (member.getStartTypeFilter() != null)
+      path.append(member.getStartTypeFilter().getFullQualifiedName()).append('/');
+    for (final UriResource part : member.getResourcePath().getUriResourceParts())
+      appendResource(path, part, false);
+    return path.toString();
+  }
+
+  @Override
+  public String visitAlias(final String aliasName) {
+    throw new JPANotCacheableException();
+  }
+
+  @Override
+  public String visitTypeLiteral(final EdmType type) {
+    return type.getFullQualifiedName().toString();
+  }
+
+  @Override
+  public String visitLambdaReference(final String variableName) {
+    return variableName;
+  }
+
+  @Override
+  public String visitEnum(final EdmEnumType type, final List<String> enumValues) {
+    return type.getFullQualifiedName() + enumValues.toString();
+  }
+
+  private void appendFilter(final StringBuilder shape, final FilterOption filter) throws ExpressionVisitException,
+      ODataApplicationException {
+    if (filter != null && filter.getExpression() != null)
+      shape.append("|$filter=").append(filter.getExpression().accept(this));
+  }
+
+  /**
+   * Key predicates of the resource path are always bound as parameters, see
+   * {@link JPAAbstractQuery#createWhereByKey}
+   */
+  private void appendResource(final StringBuilder shape, final UriResource part, final boolean keysBound)
+      throws ExpressionVisitException, ODataApplicationException {
+
+    shape.append('/');
+    if (part instanceof UriResourceLambdaAny) {
+      shape.append(visitLambdaExpression("any", ((UriResourceLambdaAny) part).getLambdaVariable(),
+          ((UriResourceLambdaAny) part).getExpression()));
+    } else if (part instanceof UriResourceLambdaAll) {
+      shape.append(visitLambdaExpression("all", ((UriResourceLambdaAll) part).getLambdaVariable(),
+          ((UriResourceLambdaAll) part).getExpression()));
+    } else if (part instanceof UriResourcePartTyped) {
+      shape.append(((UriResourcePartTyped) part).toString(true));
+      if (part instanceof UriResourceEntitySet)
+        appendParameters(shape, ((UriResourceEntitySet) part).getKeyPredicates(), keysBound);
+      else if (part instanceof UriResourceNavigation)
+        appendParameters(shape, ((UriResourceNavigation) part).getKeyPredicates(), keysBound);
+      else if (part instanceof UriResourceFunction) {
+        appendParameters(shape, ((UriResourceFunction) part).getParameters(), false);
+        appendParameters(shape, ((UriResourceFunction) part).getKeyPredicates(), false);
+      }
+    } else {
+      shape.append(part.getSegmentValue());
+    }
+  }
+
+  private void appendParameters(final StringBuilder shape, final List<UriParameter> uriParameters,
+      final boolean bound) {
+    if (uriParameters != null && !uriParameters.isEmpty()) {
+      shape.append('(');
+      for (final UriParameter parameter : uriParameters) {
+        if (parameter.getText() == null)
+          throw new JPANotCacheableException();
+        shape.append(parameter.getName()).append('=').append(bound ? PARAMETER : parameter.getText()).append(',');
+      }
+      shape.append(')');
+    }
+  }
+
+  /**
+   * The request contains parts, which can not be represented by a fingerprint
+   */
+  private static final class JPANotCacheableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+  }
+}
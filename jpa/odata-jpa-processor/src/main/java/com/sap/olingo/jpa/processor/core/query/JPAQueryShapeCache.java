@@ -0,0 +1,125 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+
+/**
+ * Reuses the queries compiled by the JPA provider for requests of the same shape. Requests have the same shape, if they
+ * only differ by values that are bound as parameters, see {@link JPAQueryParameters}. The query of a shape is
+ * registered as named query at the entity manager factory, so the JPA provider translates the criteria query of a
+ * shape only once and later requests only bind their parameters. A compiled query can not be kept by the cache itself,
+ * as a query belongs to the entity manager that created it.<p>
+ * Named queries can not be removed from an entity manager factory, so the number of shapes is limited per entity
+ * manager factory. Requests of further shapes are executed without caching. The queries stay registered as long as the
+ * entity manager factory exists, also if the cache is not used anymore. So a cache should live as long as the entity
+ * manager factories it is used with, otherwise each new cache registers up to the maximum number of queries again.<p>
+ * The JPA specification does not state if a named query can be added while other threads create named queries. For
+ * this reason the cache does not create a query of an entity manager factory while it registers a query there. Named
+ * queries registered by the application at the same time are not covered by this.
+ */
+public final class JPAQueryShapeCache {
+  private static final String NAME_PREFIX = "com.sap.olingo.jpa.QueryShape.";
+  private static final AtomicLong nameCounter = new AtomicLong();
+  private final int maxSize;
+  private final Map<EntityManagerFactory, Registry> registries;
+
+  /**
+   * @param maxSize Maximum number of shapes per entity manager factory
+   */
+  public JPAQueryShapeCache(final int maxSize) {
+    super();
+    this.maxSize = maxSize;
+    this.registries = new WeakHashMap<>();
+  }
+
+  /**
+   * Provides the query for a shape. If the shape is not known yet by the entity manager factory of the entity manager,
+   * the query is created from the criteria query and registered for the shape.
+   * @param em
+   * @param shape Fingerprint of the request
+   * @param cq Criteria query of the request
+   * @return
+   */
+  public TypedQuery<Tuple> createQuery(final EntityManager em, final String shape, final CriteriaQuery<Tuple> cq) {
+    final EntityManagerFactory emf = em.getEntityManagerFactory();
+    final Registry registry = getRegistry(emf);
+    final TypedQuery<Tuple> namedQuery = registry.createNamedQuery(em, shape);
+    if (namedQuery != null)
+      return namedQuery;
+    final TypedQuery<Tuple> query = em.createQuery(cq);
+    registry.register(emf, shape, query);
+    return query;
+  }
+
+  /**
+   * @return Number of known shapes summed up over all entity manager factories
+   */
+  public int size() {
+    final List<Registry> current;
+    synchronized (registries) {
+      current = new ArrayList<>(registries.values());
+    }
+    int size = 0;
+    for (final Registry registry : current)
+      size += registry.size();
+    return size;
+  }
+
+  private Registry getRegistry(final EntityManagerFactory emf) {
+    synchronized (registries) {
+      return registries.computeIfAbsent(emf, key -> new Registry());
+    }
+  }
+
+  /**
+   * Shapes registered at one entity manager factory. Does not reference the factory, so it can be garbage collected.
+   */
+  private final class Registry {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, String> names = new HashMap<>();
+
+    private TypedQuery<Tuple> createNamedQuery(final EntityManager em, final String shape) {
+      lock.readLock().lock();
+      try {
+        final String name = names.get(shape);
+        return name != null ? em.createNamedQuery(name, Tuple.class) : null;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private void register(final EntityManagerFactory emf, final String shape, final TypedQuery<Tuple> query) {
+      lock.writeLock().lock();
+      try {
+        if (names.containsKey(shape) || names.size() >= maxSize)
+          return;
+        final String name = NAME_PREFIX + nameCounter.incrementAndGet();
+        emf.addNamedQuery(name, query);
+        names.put(shape, name);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private int size() {
+      lock.readLock().lock();
+      try {
+        return names.size();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+  }
+}
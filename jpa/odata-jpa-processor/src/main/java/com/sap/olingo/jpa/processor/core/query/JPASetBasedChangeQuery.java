@@ -0,0 +1,280 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.SET_BASED_CHANGE_ATTRIBUTE;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CommonAbstractCriteria;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADescriptionAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+import com.sap.olingo.jpa.processor.core.filter.JPAFilterCrossComplier;
+import com.sap.olingo.jpa.processor.core.filter.JPAOperationConverter;
+
+/**
+ * Executes a set-based change, a PATCH or DELETE on an entity set restricted by $filter, as one JPA CriteriaUpdate
+ * respectively CriteriaDelete. The where condition combines the $filter, the restrictions derived from the claims and
+ * additional restrictions.<p>
+ * The statement is executed directly on the database, so neither the persistence context nor entity listeners are
+ * involved.
+ */
+public final class JPASetBasedChangeQuery extends JPAAbstractQuery {
+  private final JPAODataCRUDContextAccess context;
+  private final JPAODataRequestContextAccess requestContext;
+  private final CommonAbstractCriteria statement;
+  private final Class<Object> typeClass;
+  private final Root<Object> root;
+  private Subquery<Object> filterQuery;
+  private Root<Object> filterRoot;
+  private boolean subqueryRequested;
+
+  @SuppressWarnings("unchecked")
+  public JPASetBasedChangeQuery(final OData odata, final JPAODataCRUDContextAccess context, final JPAEntityType et,
+      final HttpMethod method, final Map<String, List<String>> requestHeaders,
+      final JPAODataRequestContextAccess requestContext) throws ODataException {
+
+    super(odata, context.getEdmProvider().getServiceDocument(), et, requestContext);
+    this.context = context;
+    this.requestContext = requestContext;
+    this.locale = ExpressionUtil.determineLocale(requestHeaders);
+    this.typeClass = (Class<Object>) et.getTypeClass();
+    if (method == HttpMethod.DELETE) {
+      final CriteriaDelete<Object> delete = cb.createCriteriaDelete(typeClass);
+      this.root = delete.from(typeClass);
+      this.statement = delete;
+    } else {
+      final CriteriaUpdate<Object> update = cb.createCriteriaUpdate(typeClass);
+      this.root = update.from(typeClass);
+      this.statement = update;
+    }
+  }
+
+  /**
+   * Executes the change.
+   * @param data New values in case of an update. Embedded attributes are given as maps
+   * @param restrictions Additional restrictions that are combined by AND
+   * @return Number of changed entities
+   * @throws ODataApplicationException
+   */
+  @SuppressWarnings("unchecked")
+  public int execute(final Map<String, Object> data, final List<Expression<Boolean>> restrictions)
+      throws ODataApplicationException {
+
+    final int handle = debugger.startRuntimeMeasurement(this, "execute");
+    try {
+      final Expression<Boolean> whereCondition = createWhere(restrictions);
+      final int count;
+      if (statement instanceof CriteriaUpdate) {
+        final CriteriaUpdate<Object> update = (CriteriaUpdate<Object>) statement;
+        setValues(update, root, jpaEntity, data);
+        incrementVersion(update);
+        if (whereCondition != null)
+          update.where(whereCondition);
+        count = bind(em.createQuery(update)).executeUpdate();
+      } else {
+        final CriteriaDelete<Object> delete = (CriteriaDelete<Object>) statement;
+        if (whereCondition != null)
+          delete.where(whereCondition);
+        count = bind(em.createQuery(delete)).executeUpdate();
+      }
+      return count;
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  /**
+   * Root the $filter is compiled against. This is the root of the statement, unless the $filter requires sub-queries.
+   */
+  @Override
+  public From<?, ?> getRoot() {
+    return filterRoot != null ? filterRoot : root;
+  }
+
+  /**
+   * Root of the CriteriaUpdate respectively CriteriaDelete
+   */
+  public From<?, ?> getStatementRoot() {
+    return root;
+  }
+
+  /**
+   * Provides the query used to create sub-queries, e.g. for a $filter with a lambda expression
+   */
+  @Override
+  public AbstractQuery<?> getQuery() {
+    if (filterQuery != null)
+      return filterQuery;
+    subqueryRequested = true;
+    return statement.subquery(Object.class);
+  }
+
+  @Override
+  protected Locale getLocale() {
+    return locale;
+  }
+
+  @Override
+  JPAODataCRUDContextAccess getContext() {
+    return context;
+  }
+
+  private Expression<Boolean> createWhere(final List<Expression<Boolean>> restrictions)
+      throws ODataApplicationException {
+
+    Expression<Boolean> whereCondition = compileFilter();
+    if (subqueryRequested) {
+      // EclipseLink can not resolve sub-queries that are correlated with the root of an update or delete statement.
+      // In this case the $filter is evaluated by a sub-query on the same entity type, which is connected via the key.
+      filterQuery = statement.subquery(typeClass);
+      filterRoot = filterQuery.from(typeClass);
+      whereCondition = createKeyRestriction(compileFilter());
+    }
+    whereCondition = addWhereClause(whereCondition, createProtectionWhereForEntityType(claimsProvider, jpaEntity,
+        root));
+    for (final Expression<Boolean> restriction : restrictions)
+      whereCondition = addWhereClause(whereCondition, restriction);
+    return whereCondition;
+  }
+
+  private Query bind(final Query query) {
+    getParameters().apply(query);
+    return query;
+  }
+
+  private Expression<Boolean> compileFilter() throws ODataApplicationException {
+    final JPAOperationConverter converter = new JPAOperationConverter(cb, context.getOperationConverter(),
+        getParameters());
+    final JPAFilterCrossComplier filter = new JPAFilterCrossComplier(odata, sd, jpaEntity, converter, this, null,
+        requestContext);
+    try {
+      return filter.compile();
+    } catch (ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+  }
+
+  private Expression<Boolean> createKeyRestriction(final Expression<Boolean> filterCondition)
+      throws ODataJPAQueryException {
+    try {
+      final List<JPAPath> keyPath = jpaEntity.getKeyPath();
+      if (keyPath.size() == 1) {
+        filterQuery.select(convertToPath(filterRoot, keyPath.get(0)));
+        if (filterCondition != null)
+          filterQuery.where(filterCondition);
+        return convertToPath(root, keyPath.get(0)).in(filterQuery);
+      }
+      Expression<Boolean> condition = filterCondition;
+      for (final JPAPath key : keyPath)
+        condition = addWhereClause(condition, cb.equal(convertToPath(filterRoot, key), convertToPath(root, key)));
+      filterQuery.select(filterRoot).where(condition);
+      return cb.exists(filterQuery);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private Path<Object> convertToPath(final Path<Object> start, final JPAPath jpaPath) {
+    Path<Object> path = start;
+    for (final JPAElement element : jpaPath.getPath())
+      path = path.get(element.getInternalName());
+    return path;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void setValues(final CriteriaUpdate<Object> update, final Path<?> parent, final JPAStructuredType st,
+      final Map<String, Object> data) throws ODataJPAProcessorException {
+
+    for (final Entry<String, Object> value : data.entrySet()) {
+      final JPAAttribute attribute = getChangeableAttribute(st, value.getKey());
+      final Path<Object> path = parent.get(attribute.getInternalName());
+      if (attribute.isComplex()) {
+        if (!(value.getValue() instanceof Map))
+          throw new ODataJPAProcessorException(SET_BASED_CHANGE_ATTRIBUTE, HttpStatusCode.BAD_REQUEST,
+              attribute.getExternalName());
+        try {
+          setValues(update, path, attribute.getStructuredType(), (Map<String, Object>) value.getValue());
+        } catch (ODataJPAModelException e) {
+          throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+        }
+      } else {
+        update.set(path, value.getValue());
+      }
+    }
+  }
+
+  private JPAAttribute getChangeableAttribute(final JPAStructuredType st, final String internalName)
+      throws ODataJPAProcessorException {
+    try {
+      final JPAAttribute attribute = st.getAttribute(internalName);
+      if (attribute == null)
+        throw new ODataJPAProcessorException(SET_BASED_CHANGE_ATTRIBUTE, HttpStatusCode.BAD_REQUEST, internalName);
+      // Keys, versions and protected attributes must not be changed in bulk; the rest can not be expressed by an update
+      if (attribute.isKey() || attribute.isEtag() || attribute.hasProtection() || attribute.isCollection()
+          || attribute.isAssociation() || attribute instanceof JPADescriptionAttribute)
+        throw new ODataJPAProcessorException(SET_BASED_CHANGE_ATTRIBUTE, HttpStatusCode.BAD_REQUEST,
+            attribute.getExternalName());
+      return attribute;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * A numeric version gets incremented, so concurrent readers recognize the change via their ETag
+   */
+  @SuppressWarnings("unchecked")
+  private void incrementVersion(final CriteriaUpdate<Object> update) throws ODataJPAProcessorException {
+    try {
+      if (jpaEntity.hasEtag()) {
+        final JPAAttribute version = jpaEntity.getEtagPath().getLeaf();
+        if (Number.class.isAssignableFrom(boxed(version.getType()))) {
+          final Path<Number> versionPath = (Path<Number>) (Path<?>) convertToPath(root, jpaEntity.getEtagPath());
+          final Expression<Number> increment = cb.sum(versionPath, 1);
+          update.set(versionPath, increment);
+        }
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private static Class<?> boxed(final Class<?> type) {
+    if (type == long.class)
+      return Long.class;
+    if (type == int.class)
+      return Integer.class;
+    if (type == short.class)
+      return Short.class;
+    return type;
+  }
+}
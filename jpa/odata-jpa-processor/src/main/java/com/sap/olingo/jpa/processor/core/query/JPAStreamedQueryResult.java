@@ -0,0 +1,80 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Tuple;
+
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
+import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
+
+/**
+ * Result of a query, which rows are read from the database while the result is iterated, see
+ * {@link JPAJoinQuery#executeStreamed(int)}. Only the iterator provided by {@link #asEntityIterator} does not keep the
+ * complete result in memory. All other methods read the remaining rows first.
+ */
+final class JPAStreamedQueryResult implements JPAConvertableResult {
+  private final Iterator<Tuple> rows;
+  private final JPAEntityType jpaEntityType;
+  private final Collection<JPAPath> requestedSelection;
+  private JPAExpandQueryResult readResult;
+
+  JPAStreamedQueryResult(final Iterator<Tuple> rows, final JPAEntityType jpaEntityType,
+      final Collection<JPAPath> requestedSelection) {
+    super();
+    this.rows = rows;
+    this.jpaEntityType = jpaEntityType;
+    this.requestedSelection = requestedSelection;
+  }
+
+  @Override
+  public Map<JPAResultKey, EntityCollection> asKeyedEntityCollection(final JPATupleChildConverter converter)
+      throws ODataApplicationException {
+    return readAll().asKeyedEntityCollection(converter);
+  }
+
+  @Override
+  public EntityIterator asEntityIterator(final JPATupleChildConverter converter) throws ODataApplicationException {
+    if (readResult != null)
+      return readResult.asEntityIterator(converter);
+    return new JPATupleChildConverter(converter).getResultIterator(new JPAExpandQueryResult(jpaEntityType,
+        requestedSelection), requestedSelection, rows);
+  }
+
+  @Override
+  public void putChildren(final Map<JPAAssociationPath, JPAExpandResult> childResults)
+      throws ODataApplicationException {
+    if (!childResults.isEmpty())
+      readAll().putChildren(childResults);
+  }
+
+  @Override
+  public EntityCollection getEntityCollection(final JPAResultKey key) throws ODataApplicationException {
+    return readAll().getEntityCollection(key);
+  }
+
+  private JPAExpandQueryResult readAll() {
+    if (readResult == null) {
+      final List<Tuple> result = new ArrayList<>();
+      rows.forEachRemaining(result::add);
+      final Map<JPAResultKey, List<Tuple>> results = new HashMap<>(1);
+      results.put(ROOT_KEY, result);
+      readResult = new JPAExpandQueryResult(results, null, jpaEntityType, requestedSelection);
+    }
+    return readResult;
+  }
+}
@@ -0,0 +1,163 @@
+package com.sap.olingo.jpa.processor.core.serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmAnnotation;
+import org.apache.olingo.commons.api.edm.EdmElement;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+
+/**
+ * Entity type of the result of an $apply request. The type only has the grouping properties and the aggregated values,
+ * which are dynamic properties named by their alias. Other properties, keys and navigation properties are not part of
+ * the result.
+ */
+final class JPAAggregationEntityType implements EdmEntityType {
+  private final EdmEntityType entityType;
+  private final EdmStructuredType aggregatedType;
+  private final List<String> propertyNames;
+
+  JPAAggregationEntityType(final EdmEntityType entityType, final ApplyOption applyOption) {
+    super();
+    this.entityType = entityType;
+    this.aggregatedType = applyOption.getEdmStructuredType() != null ? applyOption.getEdmStructuredType()
+        : entityType;
+    this.propertyNames = new ArrayList<>();
+    collectPropertyNames(applyOption);
+  }
+
+  private void collectPropertyNames(final ApplyOption applyOption) {
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      if (item instanceof GroupBy) {
+        for (final GroupByItem groupByItem : ((GroupBy) item).getGroupByItems()) {
+          final List<UriResource> path = groupByItem.getPath();
+          if (!path.isEmpty())
+            propertyNames.add(path.get(path.size() - 1).getSegmentValue());
+        }
+        if (((GroupBy) item).getApplyOption() != null)
+          collectPropertyNames(((GroupBy) item).getApplyOption());
+      } else if (item instanceof Aggregate) {
+        for (final AggregateExpression aggregate : ((Aggregate) item).getExpressions())
+          propertyNames.add(aggregate.getAlias());
+      }
+    }
+  }
+
+  /**
+   * @return Comma separated list of the properties, which is used as select list of the context URL
+   */
+  String getSelectList() {
+    return String.join(",", propertyNames);
+  }
+
+  @Override
+  public EdmElement getProperty(final String name) {
+    return getStructuralProperty(name);
+  }
+
+  @Override
+  public List<String> getPropertyNames() {
+    return propertyNames;
+  }
+
+  @Override
+  public EdmProperty getStructuralProperty(final String name) {
+    return propertyNames.contains(name) ? aggregatedType.getStructuralProperty(name) : null;
+  }
+
+  @Override
+  public EdmNavigationProperty getNavigationProperty(final String name) {
+    return null;
+  }
+
+  @Override
+  public List<String> getNavigationPropertyNames() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public boolean compatibleTo(final EdmType targetType) {
+    return entityType.compatibleTo(targetType);
+  }
+
+  @Override
+  public boolean isOpenType() {
+    return entityType.isOpenType();
+  }
+
+  @Override
+  public boolean isAbstract() {
+    return false;
+  }
+
+  @Override
+  public FullQualifiedName getFullQualifiedName() {
+    return entityType.getFullQualifiedName();
+  }
+
+  @Override
+  public String getNamespace() {
+    return entityType.getNamespace();
+  }
+
+  @Override
+  public EdmTypeKind getKind() {
+    return entityType.getKind();
+  }
+
+  @Override
+  public String getName() {
+    return entityType.getName();
+  }
+
+  @Override
+  public EdmAnnotation getAnnotation(final EdmTerm term, final String qualifier) {
+    return entityType.getAnnotation(term, qualifier);
+  }
+
+  @Override
+  public List<EdmAnnotation> getAnnotations() {
+    return entityType.getAnnotations();
+  }
+
+  @Override
+  public List<String> getKeyPredicateNames() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public List<EdmKeyPropertyRef> getKeyPropertyRefs() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public EdmKeyPropertyRef getKeyPropertyRef(final String keyPredicateName) {
+    return null;
+  }
+
+  @Override
+  public boolean hasStream() {
+    return false;
+  }
+
+  @Override
+  public EdmEntityType getBaseType() {
+    return null;
+  }
+}
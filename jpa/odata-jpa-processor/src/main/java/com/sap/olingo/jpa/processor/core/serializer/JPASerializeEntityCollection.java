@@ -3,6 +3,7 @@ package com.sap.olingo.jpa.processor.core.serializer;
 import org.apache.olingo.commons.api.data.Annotatable;
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmType;
@@ -13,13 +14,14 @@ import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriHelper;
 import org.apache.olingo.server.api.uri.UriInfo;
 
 import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
 import com.sap.olingo.jpa.processor.core.query.Util;
 
-final class JPASerializeEntityCollection implements JPASerializer, JPAOperationSerializer {
+final class JPASerializeEntityCollection implements JPAStreamSerializer, JPAOperationSerializer {
   private final ServiceMetadata serviceMetadata;
   private final UriInfo uriInfo;
   private final UriHelper uriHelper;
@@ -40,26 +42,19 @@ final class JPASerializeEntityCollection implements JPASerializer, JPAOperationS
       throws SerializerException {
 
     final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    if (uriInfo.getApplyOption() != null)
+      return serializeAggregated(request, result, targetEdmEntitySet);
+    return serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result,
+        createOptions(request, targetEdmEntitySet));
+  }
 
-    final String selectList = uriHelper.buildContextURLSelectList(targetEdmEntitySet.getEntityType(),
-        uriInfo.getExpandOption(), uriInfo.getSelectOption());
-
-    final ContextURL contextUrl = ContextURL.with()
-        .entitySet(targetEdmEntitySet)
-        .selectList(selectList)
-        .build();
-
-    final String id = request.getRawBaseUri() + "/" + targetEdmEntitySet.getEntityType().getName();
-    final EntityCollectionSerializerOptions opts = EntityCollectionSerializerOptions.with()
-        .contextURL(contextUrl)
-        .id(id)
-        .count(uriInfo.getCountOption())
-        .select(uriInfo.getSelectOption())
-        .expand(uriInfo.getExpandOption())
-        .build();
-
-    return serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result, opts);
+  @Override
+  public SerializerStreamResult serializeStreamed(final ODataRequest request, final EntityIterator result)
+      throws SerializerException {
 
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    return serializer.entityCollectionStreamed(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result,
+        createOptions(request, targetEdmEntitySet));
   }
 
   @Override
@@ -85,6 +80,48 @@ final class JPASerializeEntityCollection implements JPASerializer, JPAOperationS
     return serializer.entityCollection(serviceMetadata, (EdmEntityType) entityType, result, options);
   }
 
+  /**
+   * The result of an $apply request only contains the grouping properties and the aggregated values.
+   */
+  private SerializerResult serializeAggregated(final ODataRequest request, final EntityCollection result,
+      final EdmEntitySet targetEdmEntitySet) throws SerializerException {
+
+    final JPAAggregationEntityType entityType = new JPAAggregationEntityType(targetEdmEntitySet.getEntityType(),
+        uriInfo.getApplyOption());
+    final ContextURL contextUrl = ContextURL.with()
+        .entitySet(targetEdmEntitySet)
+        .selectList(entityType.getSelectList())
+        .build();
+
+    final EntityCollectionSerializerOptions options = EntityCollectionSerializerOptions.with()
+        .contextURL(contextUrl)
+        .id(request.getRawBaseUri() + "/" + targetEdmEntitySet.getEntityType().getName())
+        .count(uriInfo.getCountOption())
+        .build();
+    return serializer.entityCollection(serviceMetadata, entityType, result, options);
+  }
+
+  private EntityCollectionSerializerOptions createOptions(final ODataRequest request,
+      final EdmEntitySet targetEdmEntitySet) throws SerializerException {
+
+    final String selectList = uriHelper.buildContextURLSelectList(targetEdmEntitySet.getEntityType(),
+        uriInfo.getExpandOption(), uriInfo.getSelectOption());
+
+    final ContextURL contextUrl = ContextURL.with()
+        .entitySet(targetEdmEntitySet)
+        .selectList(selectList)
+        .build();
+
+    final String id = request.getRawBaseUri() + "/" + targetEdmEntitySet.getEntityType().getName();
+    return EntityCollectionSerializerOptions.with()
+        .contextURL(contextUrl)
+        .id(id)
+        .count(uriInfo.getCountOption())
+        .select(uriInfo.getSelectOption())
+        .expand(uriInfo.getExpandOption())
+        .build();
+  }
+
   @Override
   public ContentType getContentType() {
     return responseFormat;
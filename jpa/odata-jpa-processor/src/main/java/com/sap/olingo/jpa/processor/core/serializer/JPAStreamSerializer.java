@@ -0,0 +1,16 @@
+package com.sap.olingo.jpa.processor.core.serializer;
+
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
+
+/**
+ * Serializer that is able to write an entity collection as stream. The entities are requested from the iterator while
+ * the response is written.
+ */
+public interface JPAStreamSerializer extends JPASerializer {
+
+  public SerializerStreamResult serializeStreamed(final ODataRequest request, final EntityIterator result)
+      throws SerializerException;
+}
@@ -5,19 +5,31 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
 import javax.persistence.RollbackException;
 
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -30,14 +42,17 @@ import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.processor.core.api.JPAODataTransactionFactory.JPAODataTransaction;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPATransactionException;
 import com.sap.olingo.jpa.processor.core.processor.JPAEmptyDebugger;
+import com.sap.olingo.jpa.processor.core.processor.JPAODataRequestContextImpl;
 
 public class JPAODataBatchProcessorTest {
   private JPAODataBatchProcessor cut;
@@ -175,6 +190,216 @@ public class JPAODataBatchProcessorTest {
     assertFalse(act.isChangeSet());
   }
 
+  @Test
+  public void whenDeferredFlushThenFlushOnceAndCreateResponsesBeforeCommit() throws ODataApplicationException,
+      ODataLibraryException {
+    final JPAODataRequestContextImpl deferredContext = createDeferredFlushContext();
+    final List<String> calls = new ArrayList<>();
+    when(em.getFlushMode()).thenReturn(FlushModeType.AUTO);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.CREATED.getStatusCode());
+    when(facade.handleODataRequest(request)).thenAnswer(invocation -> {
+      deferredContext.getDeferredResponses().get().add(() -> calls.add("response"));
+      return response;
+    });
+    doAnswer(invocation -> calls.add("flush")).when(em).flush();
+    doAnswer(invocation -> calls.add("commit")).when(transaction).commit();
+
+    final ODataResponsePart act = cut.processChangeSet(facade, requests);
+    assertTrue(act.isChangeSet());
+    assertEquals(Arrays.asList("flush", "response", "commit"), calls);
+    final InOrder order = inOrder(em, cudHandler);
+    order.verify(em).setFlushMode(FlushModeType.COMMIT);
+    order.verify(cudHandler).validateChanges(em);
+    order.verify(em).flush();
+    order.verify(em).setFlushMode(FlushModeType.AUTO);
+    assertFalse(deferredContext.getDeferredResponses().isPresent());
+  }
+
+  @Test
+  public void whenDeferredFlushFailsThenRollbackAndThrow() throws ODataApplicationException, ODataLibraryException {
+    createDeferredFlushContext();
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.CREATED.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+    doThrow(new PersistenceException()).when(em).flush();
+
+    final ODataJPAProcessorException act = assertThrows(ODataJPAProcessorException.class,
+        () -> cut.processChangeSet(facade, requests));
+    assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), act.getStatusCode());
+    verify(transaction, never()).commit();
+    verify(transaction, times(1)).rollback();
+  }
+
+  @Test
+  public void whenNoDeferredFlushThenNoFlush() throws ODataApplicationException, ODataLibraryException {
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+
+    cut.processChangeSet(facade, requests);
+    verify(em, never()).flush();
+    verify(em, never()).setFlushMode(any());
+  }
+
+  @Test
+  public void whenResultCacheThenInvalidateAfterCommit() throws ODataApplicationException, ODataLibraryException {
+    final JPAODataResultCache cache = mock(JPAODataResultCache.class);
+    final JPAEntityType et = mock(JPAEntityType.class);
+    final JPAODataRequestContextImpl cacheContext = createResultCacheContext(cache);
+    final List<String> calls = new ArrayList<>();
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.NO_CONTENT.getStatusCode());
+    when(facade.handleODataRequest(request)).thenAnswer(invocation -> {
+      cacheContext.getResultCacheInvalidations().get().add(et);
+      return response;
+    });
+    doAnswer(invocation -> calls.add("commit")).when(transaction).commit();
+    doAnswer(invocation -> calls.add("invalidate")).when(cache).invalidate(et);
+
+    cut.processChangeSet(facade, requests);
+    assertEquals(Arrays.asList("commit", "invalidate"), calls);
+    assertFalse(cacheContext.getResultCacheInvalidations().isPresent());
+  }
+
+  @Test
+  public void whenChangeSetFailsThenNoInvalidation() throws ODataApplicationException, ODataLibraryException {
+    final JPAODataResultCache cache = mock(JPAODataResultCache.class);
+    final JPAEntityType et = mock(JPAEntityType.class);
+    final JPAODataRequestContextImpl cacheContext = createResultCacheContext(cache);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.BAD_REQUEST.getStatusCode());
+    when(facade.handleODataRequest(request)).thenAnswer(invocation -> {
+      cacheContext.getResultCacheInvalidations().get().add(et);
+      return response;
+    });
+
+    cut.processChangeSet(facade, requests);
+    verify(cache, never()).invalidate(any());
+    assertFalse(cacheContext.getResultCacheInvalidations().isPresent());
+  }
+
+  private JPAODataRequestContextImpl createResultCacheContext(final JPAODataResultCache cache) {
+    final JPAODataRequestContextImpl cacheContext = new JPAODataRequestContextImpl();
+    cacheContext.setEntityManager(em);
+    cacheContext.setCUDRequestHandler(cudHandler);
+    cacheContext.setTransactionFactory(factory);
+    when(context.getResultCache()).thenReturn(Optional.of(cache));
+    cut = new JPAODataBatchProcessor(context, cacheContext);
+    cut.init(odata, serviceMetadata);
+    return cacheContext;
+  }
+
+  @Test
+  public void whenDeferredFlushThenReferencedContentIdsKnown() throws ODataApplicationException,
+      ODataLibraryException {
+    final JPAODataRequestContextImpl deferredContext = createDeferredFlushContext();
+    final ODataRequest patch = createRequest(HttpMethod.PATCH, "/$1");
+    when(request.getRawODataPath()).thenReturn("/Persons");
+    when(request.getMethod()).thenReturn(HttpMethod.POST);
+    when(request.getHeader(HttpHeader.CONTENT_ID)).thenReturn("1");
+    requests.add(patch);
+    final List<Boolean> referenced = new ArrayList<>();
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.CREATED.getStatusCode());
+    when(facade.handleODataRequest(any())).thenAnswer(invocation -> {
+      final ODataRequest act = invocation.getArgument(0);
+      referenced.add(deferredContext.getDeferredResponses().get().isReferenced(act.getHeader(
+          HttpHeader.CONTENT_ID)));
+      return response;
+    });
+
+    cut.processChangeSet(facade, requests);
+    assertEquals(Arrays.asList(Boolean.TRUE, Boolean.FALSE), referenced);
+  }
+
+  @Test
+  public void whenDeferredFlushThenRequestsGroupedByEntitySet() throws ODataApplicationException,
+      ODataLibraryException {
+    createDeferredFlushContext();
+    mockEntitySets("Persons", "Organizations");
+    requests.clear();
+    requests.add(createRequest(HttpMethod.POST, "/Persons"));
+    requests.add(createRequest(HttpMethod.POST, "/Organizations"));
+    requests.add(createRequest(HttpMethod.PATCH, "/Persons('99')"));
+    final List<String> processed = new ArrayList<>();
+    final List<ODataResponse> responses = new ArrayList<>();
+    when(facade.handleODataRequest(any())).thenAnswer(invocation -> {
+      final ODataRequest act = invocation.getArgument(0);
+      processed.add(act.getRawODataPath());
+      final ODataResponse actResponse = new ODataResponse();
+      actResponse.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+      responses.add(actResponse);
+      return actResponse;
+    });
+
+    final ODataResponsePart act = cut.processChangeSet(facade, requests);
+    assertEquals(Arrays.asList("/Persons", "/Persons('99')", "/Organizations"), processed);
+    assertEquals(Arrays.asList(responses.get(0), responses.get(2), responses.get(1)), act.getResponses());
+  }
+
+  @Test
+  public void whenDeferredFlushAndContentIdReferencedThenRequestsNotGrouped() throws ODataApplicationException,
+      ODataLibraryException {
+    createDeferredFlushContext();
+    mockEntitySets("Persons", "Organizations");
+    requests.clear();
+    requests.add(createRequest(HttpMethod.POST, "/Persons"));
+    requests.add(createRequest(HttpMethod.POST, "/Organizations"));
+    requests.add(createRequest(HttpMethod.PATCH, "/$1"));
+    requests.add(createRequest(HttpMethod.PATCH, "/Persons('99')"));
+    final List<String> processed = new ArrayList<>();
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(any())).thenAnswer(invocation -> {
+      processed.add(((ODataRequest) invocation.getArgument(0)).getRawODataPath());
+      return response;
+    });
+
+    cut.processChangeSet(facade, requests);
+    assertEquals(Arrays.asList("/Persons", "/Organizations", "/$1", "/Persons('99')"), processed);
+  }
+
+  @Test
+  public void whenDeferredFlushAndNotOnlyEntitySetChangesThenRequestsNotGrouped() throws ODataApplicationException,
+      ODataLibraryException {
+    createDeferredFlushContext();
+    mockEntitySets("Persons", "Organizations");
+    requests.clear();
+    requests.add(createRequest(HttpMethod.POST, "/Persons"));
+    requests.add(createRequest(HttpMethod.DELETE, "/Organizations('1')"));
+    requests.add(createRequest(HttpMethod.POST, "/Persons"));
+    final List<String> processed = new ArrayList<>();
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(any())).thenAnswer(invocation -> {
+      processed.add(((ODataRequest) invocation.getArgument(0)).getRawODataPath());
+      return response;
+    });
+
+    cut.processChangeSet(facade, requests);
+    assertEquals(Arrays.asList("/Persons", "/Organizations('1')", "/Persons"), processed);
+  }
+
+  private ODataRequest createRequest(final HttpMethod method, final String path) {
+    final ODataRequest result = new ODataRequest();
+    result.setMethod(method);
+    result.setRawODataPath(path);
+    return result;
+  }
+
+  private void mockEntitySets(final String... names) {
+    final Edm edm = mock(Edm.class);
+    final EdmEntityContainer container = mock(EdmEntityContainer.class);
+    when(serviceMetadata.getEdm()).thenReturn(edm);
+    when(edm.getEntityContainer()).thenReturn(container);
+    for (final String name : names)
+      when(container.getEntitySet(name)).thenReturn(mock(EdmEntitySet.class));
+  }
+
+  private JPAODataRequestContextImpl createDeferredFlushContext() {
+    final JPAODataRequestContextImpl deferredContext = new JPAODataRequestContextImpl();
+    deferredContext.setEntityManager(em);
+    deferredContext.setCUDRequestHandler(cudHandler);
+    deferredContext.setTransactionFactory(factory);
+    when(context.useDeferredFlush()).thenReturn(true);
+    cut = new JPAODataBatchProcessor(context, deferredContext);
+    cut.init(odata, serviceMetadata);
+    return deferredContext;
+  }
+
   @Test
   public void whenNoTransactionCloudNotBeCreatedThenThrowWith501() throws ODataApplicationException,
       ODataLibraryException {
@@ -4,12 +4,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.sap.olingo.jpa.processor.core.api.example.JPAExampleCUDRequestHandler;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivisionKey;
 import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
 
@@ -58,6 +65,71 @@ public class TestBatchRequests extends TestBase {
     assertEquals("5", value.get("ID").asText());
   }
 
+  @Test
+  public void testChangeSetWithContentIdReferenceAndDeferredFlush() throws IOException, ODataException {
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setDeferredFlush(true)
+        .build();
+    final StringBuffer requestBody = createBodyCreateAndUpdateByContentId();
+    try {
+      final IntegrationTestHelper helper = new IntegrationTestHelper(context, emf, "$batch", requestBody,
+          new JPAExampleCUDRequestHandler());
+      assertEquals(201, helper.getBatchResultStatus(1));
+      assertEquals(204, helper.getBatchResultStatus(2));
+
+      final EntityManager em = emf.createEntityManager();
+      final AdministrativeDivision act = em.find(AdministrativeDivision.class, new AdministrativeDivisionKey(
+          "Eurostat", "NUTS1", "BE9"), Collections.singletonMap("javax.persistence.cache.retrieveMode",
+              CacheRetrieveMode.BYPASS));
+      assertNotNull(act);
+      assertEquals("BE9X", act.getAlternativeCode());
+      em.close();
+    } finally {
+      final EntityManager em = emf.createEntityManager();
+      final AdministrativeDivision created = em.find(AdministrativeDivision.class, new AdministrativeDivisionKey(
+          "Eurostat", "NUTS1", "BE9"));
+      if (created != null) {
+        em.getTransaction().begin();
+        em.remove(created);
+        em.getTransaction().commit();
+      }
+      em.close();
+    }
+  }
+
+  private StringBuffer createBodyCreateAndUpdateByContentId() {
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_01\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--changeset_01\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("Content-ID: 1\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("POST AdministrativeDivisions HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("{\"CodePublisher\": \"Eurostat\", \"CodeID\": \"NUTS1\", \"DivisionCode\": \"BE9\", "
+        + "\"CountryCode\": \"BEL\"}\r\n");
+    requestBody.append("--changeset_01\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("Content-ID: 2\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("PATCH $1 HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("Prefer: return=minimal\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("{\"AlternativeCode\": \"BE9X\"}\r\n");
+    requestBody.append("--changeset_01--\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--abc123--");
+    return requestBody;
+  }
+
   private StringBuffer createBodyTwoGetOneFail() {
     StringBuffer requestBody = new StringBuffer("--abc123\r\n");
     requestBody.append("Content-Type: application/http\r\n");
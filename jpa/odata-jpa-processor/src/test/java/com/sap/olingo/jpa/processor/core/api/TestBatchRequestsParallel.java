@@ -0,0 +1,197 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestBatchRequestsParallel extends TestBase {
+  private JPAODataCRUDContextAccess parallelContext;
+  private JPAODataCRUDContextAccess sequentialContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    parallelContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setBatchThreadPoolSize(2)
+        .build();
+    sequentialContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+  }
+
+  @AfterEach
+  public void teardown() {
+    parallelContext.close();
+  }
+
+  @Test
+  public void testMaxParallelBatchRequestsConfigurable() throws ODataException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+          .setPUnit(PUNIT_NAME)
+          .setEntityManagerFactory(emf)
+          .setTypePackage(enumPackages)
+          .setBatchExecutor(executor)
+          .setMaxParallelBatchRequests(2)
+          .build();
+
+      assertEquals(executor, context.getBatchExecutor().get());
+      assertEquals(2, context.getMaxParallelBatchRequests());
+      context.close();
+      assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCloseShutsDownCreatedBatchExecutor() {
+    parallelContext.close();
+    assertTrue(parallelContext.getBatchExecutor().get().isShutdown());
+  }
+
+  @Test
+  public void testDefaultProcessesSequential() {
+    assertFalse(sequentialContext.getBatchExecutor().isPresent());
+    assertEquals(1, sequentialContext.getMaxParallelBatchRequests());
+    assertTrue(parallelContext.getBatchExecutor().isPresent());
+    assertEquals(3, parallelContext.getMaxParallelBatchRequests());
+  }
+
+  @Test
+  public void testResponsesKeepOrderOfRequests() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(parallelContext, emf, "$batch",
+        createBody("Organizations('3')", "Organizations('5')", "AdministrativeDivision", "Persons('99')",
+            "Organizations('1')"));
+
+    assertEquals(200, helper.getBatchResultStatus(1));
+    assertEquals(200, helper.getBatchResultStatus(2));
+    assertEquals(404, helper.getBatchResultStatus(3));
+    assertEquals(200, helper.getBatchResultStatus(4));
+    assertEquals(200, helper.getBatchResultStatus(5));
+    assertEquals("3", helper.getBatchResult(1).get("ID").asText());
+    assertEquals("5", helper.getBatchResult(2).get("ID").asText());
+    assertEquals("99", helper.getBatchResult(4).get("ID").asText());
+    assertEquals("1", helper.getBatchResult(5).get("ID").asText());
+  }
+
+  @Test
+  public void testResultEqualsSequentialResult() throws IOException, ODataException {
+    final StringBuffer body = createBody("Organizations?$orderby=ID&$expand=Roles", "BusinessPartnerRoles",
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Children", "Persons('99')/Image");
+    final IntegrationTestHelper parallel = new IntegrationTestHelper(parallelContext, emf, "$batch", body);
+    final IntegrationTestHelper sequential = new IntegrationTestHelper(sequentialContext, emf, "$batch", body);
+
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(sequential.getBatchResultStatus(i), parallel.getBatchResultStatus(i));
+      assertEquals(sequential.getBatchResult(i), parallel.getBatchResult(i));
+    }
+  }
+
+  @Test
+  public void testStreamedResultsEqualSequentialResult() throws IOException, ODataException {
+    final JPAODataCRUDContextAccess streamingContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setBatchThreadPoolSize(2)
+        .setStreamingSerialization(true)
+        .build();
+    try {
+      final StringBuffer body = createBody("Organizations?$orderby=ID",
+          "BusinessPartnerRoles?$orderby=BusinessPartnerID,RoleCategory",
+          "AdministrativeDivisions?$orderby=CodePublisher,CodeID,DivisionCode");
+      final IntegrationTestHelper parallel = new IntegrationTestHelper(streamingContext, emf, "$batch", body);
+      final IntegrationTestHelper sequential = new IntegrationTestHelper(sequentialContext, emf, "$batch", body);
+
+      parallel.assertStatus(202);
+      for (int i = 1; i <= 3; i++) {
+        assertEquals(200, parallel.getBatchResultStatus(i));
+        assertEquals(sequential.getBatchResult(i), parallel.getBatchResult(i));
+      }
+    } finally {
+      streamingContext.close();
+    }
+  }
+
+  @Test
+  public void testErrorStatusEqualsSequentialResult() throws IOException, ODataException {
+    final StringBuffer body = createBody("Organizations('3')", "Organizations('3'", "Organizations?$top=x",
+        "Organizations('1')");
+    final IntegrationTestHelper parallel = new IntegrationTestHelper(parallelContext, emf, "$batch", body);
+    final IntegrationTestHelper sequential = new IntegrationTestHelper(sequentialContext, emf, "$batch", body);
+
+    parallel.assertStatus(202);
+    for (int i = 1; i <= 4; i++)
+      assertEquals(sequential.getBatchResultStatus(i), parallel.getBatchResultStatus(i));
+    assertEquals(400, parallel.getBatchResultStatus(2));
+  }
+
+  @Test
+  public void testChangeSetAndReferenceProcessedInOrder() throws IOException, ODataException {
+    final StringBuffer body = createBody("Organizations('3')", "Organizations('5')");
+    body.setLength(body.length() - "--abc123--".length());
+    body.append("--abc123\r\n");
+    body.append("Content-Type: multipart/mixed;boundary=cs_1\r\n");
+    body.append("\r\n");
+    body.append("--cs_1\r\n");
+    body.append("Content-Type: application/http\r\n");
+    body.append("Content-Transfer-Encoding: binary\r\n");
+    body.append("Content-ID: 1\r\n");
+    body.append("\r\n");
+    body.append("DELETE Organizations('99') HTTP/1.1\r\n");
+    body.append("\r\n");
+    body.append("\r\n");
+    body.append("--cs_1--\r\n");
+    appendGet(body, "$1/Roles");
+    appendGet(body, "Organizations('1')");
+    body.append("--abc123--");
+
+    final IntegrationTestHelper parallel = new IntegrationTestHelper(parallelContext, emf, "$batch", body);
+    final IntegrationTestHelper sequential = new IntegrationTestHelper(sequentialContext, emf, "$batch", body);
+    for (int i = 1; i <= 5; i++)
+      assertEquals(sequential.getBatchResultStatus(i), parallel.getBatchResultStatus(i));
+    assertEquals("1", parallel.getBatchResult(5).get("ID").asText());
+  }
+
+  private StringBuffer createBody(final String... urls) {
+    final StringBuffer requestBody = new StringBuffer();
+    for (final String url : urls)
+      appendGet(requestBody, url);
+    requestBody.append("--abc123--");
+    return requestBody;
+  }
+
+  private void appendGet(final StringBuffer requestBody, final String url) {
+    final List<String> lines = new ArrayList<>();
+    lines.add("--abc123");
+    lines.add("Content-Type: application/http");
+    lines.add("Content-Transfer-Encoding: binary");
+    lines.add("");
+    lines.add("GET " + url.replace(" ", "%20") + " HTTP/1.1");
+    lines.add("Content-Type: application/json");
+    lines.add("");
+    lines.add("");
+    for (final String line : lines)
+      requestBody.append(line).append("\r\n");
+  }
+}
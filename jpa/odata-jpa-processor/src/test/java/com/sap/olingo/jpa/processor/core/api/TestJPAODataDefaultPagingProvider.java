@@ -0,0 +1,328 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.query.JPACountQuery;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAODataDefaultPagingProvider extends TestBase {
+  private JPACountQuery countQuery;
+
+  @BeforeEach
+  public void setup() throws ODataApplicationException {
+    countQuery = mock(JPACountQuery.class);
+    when(countQuery.countResults()).thenReturn(10L);
+  }
+
+  @Test
+  public void testDefaultMaxPageSizeUsedForAllEntitySets() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .build();
+    final JPAODataPage act = cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    assertEquals(4, act.getTop());
+    assertNotNull(act.getSkiptoken());
+  }
+
+  @Test
+  public void testEntitySetMaxPageSizeOverridesDefault() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setMaxPageSize("Organizations", 2)
+        .build();
+    assertEquals(2, cut.getFirstPage(buildUriInfo("Organizations", null), null, countQuery, null).getTop());
+    assertEquals(4, cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null).getTop());
+  }
+
+  @Test
+  public void testNoPageWithoutMaxPageSize() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize("Organizations", 2)
+        .build();
+    assertNull(cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null));
+  }
+
+  @Test
+  public void testPreferredPageSizeRespected() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .build();
+    assertEquals(3, cut.getFirstPage(buildUriInfo("Persons", null), 3, countQuery, null).getTop());
+  }
+
+  @Test
+  public void testNextPagesUntilCountReached() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .build();
+    final JPAODataPage first = cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    final JPAODataPage second = cut.getNextPage((String) first.getSkiptoken());
+    assertEquals(4, second.getSkip());
+    assertEquals(4, second.getTop());
+    final JPAODataPage last = cut.getNextPage("'" + second.getSkiptoken() + "'");
+    assertEquals(8, last.getSkip());
+    assertEquals(2, last.getTop());
+    assertNull(last.getSkiptoken());
+  }
+
+  @Test
+  public void testUnknownSkiptokenReturnsNull() {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .build();
+    assertNull(cut.getNextPage("xyz"));
+  }
+
+  @Test
+  public void testCustomSkiptokenStoreUsed() throws ODataApplicationException {
+    final JPAODataSkiptokenStore store = mock(JPAODataSkiptokenStore.class);
+    when(store.get(anyString())).thenReturn(Optional.empty());
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setSkiptokenStore(store)
+        .build();
+    final JPAODataPage act = cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    verify(store).put(any(), any());
+    assertNull(cut.getNextPage((String) act.getSkiptoken()));
+    verify(store).get((String) act.getSkiptoken());
+  }
+
+  @Test
+  public void testCountExecutedForEachFirstPageWithoutCountCache() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .build();
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    verify(countQuery, times(2)).countResults();
+  }
+
+  @Test
+  public void testCountCachedPerQueryShape() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setCountCache(10, 60000L)
+        .build();
+    cut.getFirstPage(buildUriInfo("Persons", "Country eq 'DEU'"), null, countQuery, null);
+    cut.getFirstPage(buildUriInfo("Persons", "Country eq 'DEU'"), null, countQuery, null);
+    verify(countQuery, times(1)).countResults();
+    cut.getFirstPage(buildUriInfo("Persons", "Country eq 'CHE'"), null, countQuery, null);
+    cut.getFirstPage(buildUriInfo("Organizations", "Country eq 'DEU'"), null, countQuery, null);
+    verify(countQuery, times(3)).countResults();
+  }
+
+  @Test
+  public void testCountCachedPerClaimsAndGroups() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setCountCache(10, 60000L)
+        .build();
+    final Map<String, List<JPAClaimsPair<?>>> claims = new HashMap<>();
+    claims.put("UserId", Collections.singletonList(new JPAClaimsPair<>("Willi")));
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null, claims, Collections.emptyList());
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null, claims, Collections.emptyList());
+    verify(countQuery, times(1)).countResults();
+    claims.put("UserId", Collections.singletonList(new JPAClaimsPair<>("Marvin")));
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null, claims, Collections.emptyList());
+    verify(countQuery, times(2)).countResults();
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null, claims, Collections.singletonList(
+        "Company"));
+    verify(countQuery, times(3)).countResults();
+  }
+
+  @Test
+  public void testCachedCountNotUsedToSuppressNextPage() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setCountCache(10, 60000L)
+        .build();
+    when(countQuery.countResults()).thenReturn(3L);
+    assertNull(cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null).getSkiptoken());
+    when(countQuery.countResults()).thenReturn(10L);
+    assertNotNull(cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null).getSkiptoken());
+  }
+
+  @Test
+  public void testCachedCountDoesNotCutOffGrownResult() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setCountCache(10, 60000L)
+        .build();
+    cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    when(countQuery.countResults()).thenReturn(14L);
+
+    final JPAODataPage first = cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    verify(countQuery, times(1)).countResults();
+    final JPAODataPage second = cut.getNextPage((String) first.getSkiptoken(), uriInfo -> countQuery);
+    verify(countQuery, times(2)).countResults();
+    assertEquals(4, second.getTop());
+    final JPAODataPage third = cut.getNextPage((String) second.getSkiptoken(), uriInfo -> countQuery);
+    assertEquals(8, third.getSkip());
+    assertEquals(4, third.getTop());
+    final JPAODataPage last = cut.getNextPage((String) third.getSkiptoken(), uriInfo -> countQuery);
+    verify(countQuery, times(2)).countResults();
+    assertEquals(12, last.getSkip());
+    assertEquals(2, last.getTop());
+    assertNull(last.getSkiptoken());
+  }
+
+  @Test
+  public void testCachedCountRecheckedIfResultShrunk() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setCountCache(10, 60000L)
+        .build();
+    cut.getFirstPage(buildUriInfo("Persons", "Name eq 'A'"), null, countQuery, null);
+    when(countQuery.countResults()).thenReturn(5L);
+
+    final UriInfo firstUriInfo = buildUriInfo("Persons", "Name eq 'A'");
+    final JPAODataPage first = cut.getFirstPage(firstUriInfo, null, countQuery, null);
+    assertNotNull(first.getSkiptoken());
+    final List<UriInfo> countedUriInfos = new ArrayList<>();
+    final JPAODataPage last = cut.getNextPage((String) first.getSkiptoken(), uriInfo -> {
+      countedUriInfos.add(uriInfo);
+      return countQuery;
+    });
+    assertEquals(firstUriInfo, countedUriInfos.get(0));
+    assertEquals(4, last.getSkip());
+    assertEquals(1, last.getTop());
+    assertNull(last.getSkiptoken());
+  }
+
+  @Test
+  public void testKeysetPagingCreatesKeysetPages() throws ODataApplicationException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize(4)
+        .setKeysetPaging(true)
+        .build();
+    final JPAODataPage first = cut.getFirstPage(buildUriInfo("Persons", null), null, countQuery, null);
+    assertTrue(first instanceof JPAODataKeysetPage);
+    assertTrue(cut.getNextPage((String) first.getSkiptoken()) instanceof JPAODataKeysetPage);
+  }
+
+  @Test
+  public void testPagesReadViaRequests() throws IOException, ODataException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize("Organizations", 4)
+        .setCountCache(10, 60000L)
+        .build();
+    final List<String> act = new ArrayList<>();
+    ObjectNode page = readPage("Organizations?$orderby=ID", cut);
+    page.get("value").forEach(org -> act.add(org.get("ID").asText()));
+    while (page.get("@odata.nextLink") != null) {
+      page = readPage(page.get("@odata.nextLink").asText(), cut);
+      page.get("value").forEach(org -> act.add(org.get("ID").asText()));
+    }
+    assertEquals(10, act.size());
+    assertEquals("1", act.get(0));
+    assertEquals("9", act.get(9));
+  }
+
+  @Test
+  public void testCachedCountRecheckedWithFilterOfFirstPage() throws IOException, ODataException {
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize("Organizations", 2)
+        .setCountCache(10, 60000L)
+        .build();
+    final String url = "Organizations?$filter=Address/Region eq 'US-CA'&$orderby=ID";
+    readPage(url, cut);
+    final List<String> act = new ArrayList<>();
+    ObjectNode page = readPage(url, cut);
+    page.get("value").forEach(org -> act.add(org.get("ID").asText()));
+    int pages = 1;
+    while (page.get("@odata.nextLink") != null) {
+      page = readPage(page.get("@odata.nextLink").asText(), cut);
+      page.get("value").forEach(org -> act.add(org.get("ID").asText()));
+      pages++;
+    }
+    assertEquals(2, pages);
+    assertEquals(3, act.size());
+    assertEquals("6", act.get(2));
+  }
+
+  @Test
+  public void testLastValuesReachCopyingSkiptokenStore() throws IOException, ODataException {
+    final Map<String, JPAODataSkiptokenEntry> copies = new HashMap<>();
+    final JPAODataSkiptokenStore store = new JPAODataSkiptokenStore() {
+      @Override
+      public void put(final String skiptoken, final JPAODataSkiptokenEntry entry) {
+        final JPAODataKeysetPage page = (JPAODataKeysetPage) entry.getPage();
+        final JPAODataKeysetPage copy = new JPAODataKeysetPage(page.getUriInfo(), page.getSkip(), page.getTop(),
+            page.getSkiptoken(), page.getSeekValues());
+        copy.setLastValues(page.getLastValues());
+        copies.put(skiptoken, new JPAODataSkiptokenEntry(copy, entry.getCount()));
+      }
+
+      @Override
+      public Optional<JPAODataSkiptokenEntry> get(final String skiptoken) {
+        return Optional.ofNullable(copies.get(skiptoken));
+      }
+    };
+    final JPAODataDefaultPagingProvider cut = JPAODataDefaultPagingProvider.with()
+        .setMaxPageSize("Organizations", 4)
+        .setSkiptokenStore(store)
+        .setKeysetPaging(true)
+        .build();
+    final ObjectNode firstPage = readPage("Organizations?$orderby=ID desc", cut);
+    final String nextLink = firstPage.get("@odata.nextLink").asText();
+
+    final JPAODataKeysetPage act = (JPAODataKeysetPage) cut.getNextPage(nextLink.substring(nextLink.indexOf(
+        "$skiptoken=") + "$skiptoken=".length()));
+    assertEquals(firstPage.get("value").get(3).get("ID").asText(), act.getSeekValues().get("ID"));
+  }
+
+  private ObjectNode readPage(final String url, final JPAODataPagingProvider provider) throws IOException,
+      ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, url, provider);
+    helper.assertStatus(200);
+    return helper.getValue();
+  }
+
+  private UriInfo buildUriInfo(final String esName, final String filter) {
+    final UriInfo uriInfo = mock(UriInfo.class);
+    final UriResourceEntitySet uriEs = mock(UriResourceEntitySet.class);
+    final EdmEntitySet es = mock(EdmEntitySet.class);
+    final List<UriResource> resourceParts = new ArrayList<>();
+    resourceParts.add(uriEs);
+    when(uriEs.getEntitySet()).thenReturn(es);
+    when(uriEs.getSegmentValue()).thenReturn(esName);
+    when(uriEs.getKeyPredicates()).thenReturn(Collections.emptyList());
+    when(es.getName()).thenReturn(esName);
+    when(uriInfo.getUriResourceParts()).thenReturn(resourceParts);
+    if (filter != null) {
+      final FilterOption filterOption = mock(FilterOption.class);
+      when(filterOption.getText()).thenReturn(filter);
+      when(uriInfo.getFilterOption()).thenReturn(filterOption);
+    }
+    return uriInfo;
+  }
+}
@@ -0,0 +1,153 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+
+public class TestJPAODataDefaultResultCache {
+  private static final FullQualifiedName DIVISION = new FullQualifiedName("Test", "AdministrativeDivision");
+  private static final String BASE_URI = "http://localhost:8080/Test/Olingo.svc";
+  private static final FullQualifiedName REGION = new FullQualifiedName("Test", "Region");
+  private JPAODataDefaultResultCache cut;
+  private AtomicLong clock;
+  private JPAODataCachedResult result;
+
+  @BeforeEach
+  public void setup() {
+    clock = new AtomicLong(1000L);
+    cut = new JPAODataDefaultResultCache(2, 100L, clock::get);
+    result = new JPAODataCachedResult(200, Collections.emptyMap(), "{}".getBytes());
+  }
+
+  @Test
+  public void checkReturnsStoredResult() {
+    cut.put(createKey("/AdministrativeDivisions", DIVISION), result);
+    assertSame(result, cut.get(createKey("/AdministrativeDivisions", DIVISION)).get());
+  }
+
+  @Test
+  public void checkKeyDependsOnClaimsAndGroups() {
+    final Map<String, String> claims = new HashMap<>();
+    claims.put("UserId", "[Willi]");
+    final JPAODataResultCacheKey key = new JPAODataResultCacheKey(BASE_URI, "/AdministrativeDivisions", "json", "en",
+        claims, Arrays.asList("Company", "Person"), Collections.singleton(DIVISION), clock.get());
+    cut.put(key, result);
+
+    assertTrue(cut.get(new JPAODataResultCacheKey(BASE_URI, "/AdministrativeDivisions", "json", "en", claims,
+        Arrays.asList("Person", "Company"), Collections.emptySet(), clock.get())).isPresent());
+    assertFalse(cut.get(new JPAODataResultCacheKey(BASE_URI, "/AdministrativeDivisions", "json", "en", claims,
+        Arrays.asList("Person"), Collections.emptySet(), clock.get())).isPresent());
+    assertFalse(cut.get(new JPAODataResultCacheKey(BASE_URI, "/AdministrativeDivisions", "json", "en", Collections
+        .emptyMap(), Arrays.asList("Person", "Company"), Collections.emptySet(), clock.get())).isPresent());
+  }
+
+  @Test
+  public void checkKeyDependsOnBaseUri() {
+    cut.put(createKey("/AdministrativeDivisions", DIVISION), result);
+
+    assertFalse(cut.get(new JPAODataResultCacheKey("https://other.org/service", "/AdministrativeDivisions", "json",
+        "en", Collections.emptyMap(), Collections.emptyList(), Collections.singleton(DIVISION), clock.get()))
+            .isPresent());
+  }
+
+  @Test
+  public void checkEntryExpires() {
+    cut.put(createKey("/AdministrativeDivisions", DIVISION), result);
+    clock.addAndGet(99L);
+    assertTrue(cut.get(createKey("/AdministrativeDivisions", DIVISION)).isPresent());
+    clock.addAndGet(1L);
+    assertFalse(cut.get(createKey("/AdministrativeDivisions", DIVISION)).isPresent());
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkLeastRecentlyUsedEntryRemoved() {
+    cut.put(createKey("/A", DIVISION), result);
+    cut.put(createKey("/B", DIVISION), result);
+    cut.get(createKey("/A", DIVISION));
+    cut.put(createKey("/C", DIVISION), result);
+
+    assertEquals(2, cut.size());
+    assertTrue(cut.get(createKey("/A", DIVISION)).isPresent());
+    assertFalse(cut.get(createKey("/B", DIVISION)).isPresent());
+    assertTrue(cut.get(createKey("/C", DIVISION)).isPresent());
+  }
+
+  @Test
+  public void checkInvalidateRemovesEntriesOfEntityType() {
+    cut.put(createKey("/A", DIVISION), result);
+    cut.put(createKey("/B", REGION), result);
+
+    cut.invalidate(createEntityType(DIVISION));
+    assertFalse(cut.get(createKey("/A", DIVISION)).isPresent());
+    assertTrue(cut.get(createKey("/B", REGION)).isPresent());
+  }
+
+  @Test
+  public void checkResultReadBeforeInvalidationNotStored() {
+    final JPAODataResultCacheKey key = createKey("/A", DIVISION);
+    clock.addAndGet(10L);
+    cut.invalidate(createEntityType(DIVISION));
+    cut.put(key, result);
+    assertFalse(cut.get(createKey("/A", DIVISION)).isPresent());
+
+    clock.addAndGet(1L);
+    cut.put(createKey("/A", DIVISION), result);
+    assertTrue(cut.get(createKey("/A", DIVISION)).isPresent());
+  }
+
+  @Test
+  public void checkResultReadWithinInvalidationTickNotStored() {
+    final JPAODataResultCacheKey key = createKey("/A", DIVISION);
+    cut.invalidate(createEntityType(DIVISION));
+    cut.put(key, result);
+    assertFalse(cut.get(createKey("/A", DIVISION)).isPresent());
+  }
+
+  @Test
+  public void checkTimeProvidedByClock() {
+    assertEquals(1000L, cut.getTime());
+    clock.addAndGet(5L);
+    assertEquals(1005L, cut.getTime());
+  }
+
+  @Test
+  public void checkCacheableDependsOnAnnotation() {
+    final JPAEntityType division = mock(JPAEntityType.class);
+    final JPAEntityType organization = mock(JPAEntityType.class);
+    when(division.getTypeClass()).thenAnswer(invocation -> AdministrativeDivision.class);
+    when(organization.getTypeClass()).thenAnswer(invocation -> Organization.class);
+
+    assertTrue(cut.isCacheable(division));
+    assertFalse(cut.isCacheable(organization));
+  }
+
+  private JPAODataResultCacheKey createKey(final String resource, final FullQualifiedName entityType) {
+    return new JPAODataResultCacheKey(BASE_URI, resource, "json", "en", Collections.emptyMap(), Collections
+        .emptyList(), new HashSet<>(Arrays.asList(entityType)), clock.get());
+  }
+
+  private JPAEntityType createEntityType(final FullQualifiedName name) {
+    final JPAEntityType entityType = mock(JPAEntityType.class);
+    when(entityType.getExternalFQN()).thenReturn(name);
+    return entityType;
+  }
+}
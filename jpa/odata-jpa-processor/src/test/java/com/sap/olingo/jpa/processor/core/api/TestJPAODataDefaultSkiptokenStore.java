@@ -0,0 +1,68 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestJPAODataDefaultSkiptokenStore {
+  private JPAODataDefaultSkiptokenStore cut;
+  private long now;
+
+  @BeforeEach
+  public void setup() {
+    now = 1000L;
+    cut = new JPAODataDefaultSkiptokenStore(2, 100L, () -> now);
+  }
+
+  @Test
+  public void testUnknownSkiptokenReturnsEmpty() {
+    assertFalse(cut.get("xyz").isPresent());
+  }
+
+  @Test
+  public void testStoredPageReturned() {
+    final JPAODataSkiptokenEntry entry = createEntry();
+    cut.put("a", entry);
+    assertSame(entry, cut.get("a").get());
+    assertEquals(10L, cut.get("a").get().getCount());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedPageEvicted() {
+    cut.put("a", createEntry());
+    cut.put("b", createEntry());
+    cut.get("a");
+    cut.put("c", createEntry());
+
+    assertTrue(cut.get("a").isPresent());
+    assertFalse(cut.get("b").isPresent());
+    assertTrue(cut.get("c").isPresent());
+    assertEquals(2, cut.size());
+  }
+
+  @Test
+  public void testExpiredPageRemoved() {
+    cut.put("a", createEntry());
+    now += 99L;
+    assertTrue(cut.get("a").isPresent());
+    now += 1L;
+    assertFalse(cut.get("a").isPresent());
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void testUnlimitedTimeToLiveDoesNotOverflow() {
+    cut = new JPAODataDefaultSkiptokenStore(2, Long.MAX_VALUE, () -> now);
+    now = Long.MAX_VALUE - 10L;
+    cut.put("a", createEntry());
+    assertTrue(cut.get("a").isPresent());
+  }
+
+  private JPAODataSkiptokenEntry createEntry() {
+    return new JPAODataSkiptokenEntry(new JPAODataPage(null, 0, 5, "a"), 10L);
+  }
+}
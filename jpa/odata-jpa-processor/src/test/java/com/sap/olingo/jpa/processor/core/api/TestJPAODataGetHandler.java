@@ -21,7 +21,9 @@ import javax.sql.DataSource;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatcher;
@@ -245,6 +247,54 @@ public class TestJPAODataGetHandler extends TestBase {
     verify(handler, times(1)).process(argThat(new HttpRequestMatcher()), any());
   }
 
+  @Test
+  public void testServiceMetadataCreatedOnlyOnce() throws ODataException {
+    final OData odata = mock(OData.class);
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final ServiceMetadata serviceMetadata = mock(ServiceMetadata.class);
+    when(odata.createHandler(any())).thenReturn(handler);
+    when(odata.createServiceMetadata(any(), any())).thenReturn(serviceMetadata);
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .build();
+    new JPAODataGetHandler(context, odata).process(request, response);
+    new JPAODataGetHandler(context, odata).process(request, response);
+    verify(odata, times(1)).createServiceMetadata(any(), any());
+    verify(odata, times(2)).createHandler(serviceMetadata);
+  }
+
+  @Test
+  public void testInvalidateServiceMetadataCreatesNewOne() throws ODataException {
+    final OData odata = mock(OData.class);
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    when(odata.createHandler(any())).thenReturn(handler);
+    when(odata.createServiceMetadata(any(), any())).thenReturn(mock(ServiceMetadata.class));
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .build();
+    new JPAODataGetHandler(context, odata).process(request, response);
+    ((JPAODataServiceContext) context).invalidateServiceMetadata();
+    new JPAODataGetHandler(context, odata).process(request, response);
+    verify(odata, times(2)).createServiceMetadata(any(), any());
+  }
+
+  @Test
+  public void testRegisterProcessorsAddsMetadataProcessor() throws ODataException {
+    final ODataHandler handler = mock(ODataHandler.class);
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .build();
+    JPAODataGetHandler.registerProcessors(handler, context, mock(JPAODataRequestContextAccess.class), mock(
+        ServiceMetadata.class));
+    verify(handler).register(isA(JPAODataRequestProcessor.class));
+    verify(handler).register(isA(JPAODataBatchProcessor.class));
+    verify(handler).register(isA(JPAODataMetadataProcessor.class));
+    verify(handler).register(isA(JPADefaultErrorProcessor.class));
+  }
+
   public static class HttpRequestMatcher implements ArgumentMatcher<HttpServletRequest> {
     @Override
     public boolean matches(final HttpServletRequest argument) {
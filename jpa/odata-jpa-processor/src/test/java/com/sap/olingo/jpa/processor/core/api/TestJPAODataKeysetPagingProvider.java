@@ -0,0 +1,135 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAODataKeysetPagingProvider extends TestBase {
+  private JPAODataKeysetPagingProvider cut;
+
+  @BeforeEach
+  public void setup() {
+    final Map<String, Integer> pageSizes = new HashMap<>();
+    pageSizes.put("Organizations", 3);
+    pageSizes.put("AdministrativeDivisions", 10);
+    cut = new JPAODataKeysetPagingProvider(pageSizes);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$orderby=ID desc",
+      "Organizations?$orderby=ID",
+      "Organizations?$orderby=Name1",
+      "Organizations?$filter=Address/Region eq 'US-CA'&$orderby=ID desc",
+      "Organizations?$select=Name1&$orderby=ID",
+      "Organizations?$skip=2&$orderby=ID desc",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$orderby=CodeID,DivisionCode desc",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS3'&$orderby=DivisionCode" })
+  public void testPagesEqualUnpagedResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper unpaged = new IntegrationTestHelper(emf, url);
+    unpaged.assertStatus(200);
+
+    final List<JsonNode> expected = new ArrayList<>();
+    unpaged.getValues().forEach(expected::add);
+    assertEquals(expected, readAllPages(url));
+  }
+
+  @Test
+  public void testNextPageSeeksBehindLastRow() throws IOException, ODataException {
+    final ObjectNode firstPage = readPage("Organizations?$orderby=ID desc");
+    assertEquals(3, firstPage.get("value").size());
+
+    final JPAODataKeysetPage act = (JPAODataKeysetPage) cut.getNextPage(getSkiptoken(firstPage));
+    assertEquals(3, act.getSkip());
+    assertEquals(firstPage.get("value").get(2).get("ID").asText(), act.getSeekValues().get("ID"));
+  }
+
+  @Test
+  public void testNextPageWithoutSeekValuesForNullableOrderBy() throws IOException, ODataException {
+    final ObjectNode firstPage = readPage("Organizations?$orderby=Name1");
+
+    final JPAODataKeysetPage act = (JPAODataKeysetPage) cut.getNextPage(getSkiptoken(firstPage));
+    assertEquals(3, act.getSkip());
+    assertTrue(act.getSeekValues().isEmpty());
+  }
+
+  @Test
+  public void testNoNextLinkOnLastPage() throws IOException, ODataException {
+    final ObjectNode firstPage = readPage("Organizations?$top=3&$orderby=ID");
+    assertEquals(3, firstPage.get("value").size());
+    assertNull(firstPage.get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedPageEvicted() throws IOException, ODataException {
+    final Map<String, Integer> pageSizes = new HashMap<>();
+    pageSizes.put("Organizations", 3);
+    cut = new JPAODataKeysetPagingProvider(pageSizes, 1);
+
+    final String evictedToken = getSkiptoken(readPage("Organizations?$orderby=ID"));
+    final String token = getSkiptoken(readPage("Organizations?$orderby=ID desc"));
+    assertNull(cut.getNextPage(evictedToken));
+    assertNotNull(cut.getNextPage(token));
+  }
+
+  @Test
+  public void testUnknownSkiptokenReturnsGone() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$skiptoken='xyz'", cut);
+    helper.assertStatus(410);
+  }
+
+  @Test
+  public void testNoPageForEntitySetWithoutPageSize() throws IOException, ODataException {
+    final ObjectNode act = readPage("Persons");
+    assertNull(act.get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testFirstPageHasNoSeekValues() {
+    final JPAODataKeysetPage page = new JPAODataKeysetPage(null, 0, 10, null, null);
+    assertTrue(page.getSeekValues().isEmpty());
+    assertNull(page.getLastValues());
+    page.setLastValues(new HashMap<>());
+    assertNotNull(page.getLastValues());
+  }
+
+  private List<JsonNode> readAllPages(final String url) throws IOException, ODataException {
+    final List<JsonNode> act = new ArrayList<>();
+    ObjectNode page = readPage(url);
+    page.get("value").forEach(act::add);
+    while (page.get("@odata.nextLink") != null) {
+      page = readPage(page.get("@odata.nextLink").asText());
+      page.get("value").forEach(act::add);
+    }
+    return act;
+  }
+
+  private ObjectNode readPage(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, url, cut);
+    helper.assertStatus(200);
+    return helper.getValue();
+  }
+
+  private String getSkiptoken(final ObjectNode page) {
+    final String nextLink = page.get("@odata.nextLink").asText();
+    return nextLink.substring(nextLink.indexOf("$skiptoken=") + "$skiptoken=".length());
+  }
+}
@@ -0,0 +1,148 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.etag.PreconditionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAODataMetadataProcessor extends TestBase {
+  private static final String BASE_URI = "http://localhost:8080/Test/Olingo.svc";
+  private JPAODataMetadataProcessor cut;
+  private JPAODataMetadataCache cache;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    final OData odata = OData.newInstance();
+    final JPAEdmProvider edmProvider = new JPAEdmProvider(PUNIT_NAME, emf, null, enumPackages);
+    cache = new JPAODataMetadataCache();
+    cut = new JPAODataMetadataProcessor(cache);
+    cut.init(odata, odata.createServiceMetadata(edmProvider, new ArrayList<>()));
+  }
+
+  @Test
+  public void checkMetadataProvidedWithEtag() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    cut.readMetadata(createRequest(HttpMethod.GET), response, null, ContentType.APPLICATION_XML);
+
+    assertEquals(200, response.getStatusCode());
+    assertNotNull(response.getHeader(HttpHeader.ETAG));
+    assertNotNull(response.getContent());
+  }
+
+  @Test
+  public void checkMetadataRenderedOnlyOncePerFormat() throws ODataException {
+    final ODataResponse first = new ODataResponse();
+    final ODataResponse second = new ODataResponse();
+    cut.readMetadata(createRequest(HttpMethod.GET), first, null, ContentType.APPLICATION_XML);
+    cut.readMetadata(createRequest(HttpMethod.GET), second, null, ContentType.APPLICATION_XML);
+
+    assertEquals(1, cache.size());
+    assertEquals(first.getHeader(HttpHeader.ETAG), second.getHeader(HttpHeader.ETAG));
+  }
+
+  @Test
+  public void checkMetadataNotModifiedIfNoneMatch() throws ODataException {
+    final ODataResponse first = new ODataResponse();
+    cut.readMetadata(createRequest(HttpMethod.GET), first, null, ContentType.APPLICATION_XML);
+
+    final ODataRequest request = createRequest(HttpMethod.GET);
+    request.addHeader(HttpHeader.IF_NONE_MATCH, first.getHeader(HttpHeader.ETAG));
+    final ODataResponse response = new ODataResponse();
+    cut.readMetadata(request, response, null, ContentType.APPLICATION_XML);
+
+    assertEquals(304, response.getStatusCode());
+    assertNull(response.getContent());
+  }
+
+  @Test
+  public void checkMetadataProvidedIfNoneMatchDiffers() throws ODataException {
+    final ODataRequest request = createRequest(HttpMethod.GET);
+    request.addHeader(HttpHeader.IF_NONE_MATCH, "\"0815\"");
+    final ODataResponse response = new ODataResponse();
+    cut.readMetadata(request, response, null, ContentType.APPLICATION_XML);
+
+    assertEquals(200, response.getStatusCode());
+    assertNotNull(response.getContent());
+  }
+
+  @Test
+  public void checkMetadataPreconditionFailsIfMatchDiffers() {
+    final ODataRequest request = createRequest(HttpMethod.GET);
+    request.addHeader(HttpHeader.IF_MATCH, "\"0815\"");
+
+    assertThrows(PreconditionException.class, () -> cut.readMetadata(request, new ODataResponse(), null,
+        ContentType.APPLICATION_XML));
+  }
+
+  @Test
+  public void checkMetadataHeadWithoutContent() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    cut.readMetadata(createRequest(HttpMethod.HEAD), response, null, ContentType.APPLICATION_XML);
+
+    assertEquals(200, response.getStatusCode());
+    assertNotNull(response.getHeader(HttpHeader.ETAG));
+    assertNull(response.getContent());
+  }
+
+  @Test
+  public void checkServiceDocumentRenderedPerBaseUri() throws ODataException {
+    final ODataResponse first = new ODataResponse();
+    final ODataResponse other = new ODataResponse();
+    final ODataRequest otherRequest = createRequest(HttpMethod.GET);
+    otherRequest.setRawBaseUri("http://example.com/Olingo.svc");
+    cut.readServiceDocument(createRequest(HttpMethod.GET), first, null, ContentType.JSON);
+    cut.readServiceDocument(createRequest(HttpMethod.GET), new ODataResponse(), null, ContentType.JSON);
+    cut.readServiceDocument(otherRequest, other, null, ContentType.JSON);
+
+    assertEquals(2, cache.size());
+    assertNotEquals(first.getHeader(HttpHeader.ETAG), other.getHeader(HttpHeader.ETAG));
+  }
+
+  @Test
+  public void checkServiceDocumentsPerBaseUriLimited() throws ODataException {
+    for (int i = 0; i <= JPAODataMetadataCache.MAX_SERVICE_DOCUMENTS; i++) {
+      final ODataRequest request = createRequest(HttpMethod.GET);
+      request.setRawBaseUri("http://host" + i + ".example.com/Olingo.svc");
+      cut.readServiceDocument(request, new ODataResponse(), null, ContentType.JSON);
+    }
+
+    assertEquals(JPAODataMetadataCache.MAX_SERVICE_DOCUMENTS, cache.size());
+  }
+
+  @Test
+  public void checkServiceDocumentNotModifiedIfNoneMatch() throws ODataException {
+    final ODataResponse first = new ODataResponse();
+    cut.readServiceDocument(createRequest(HttpMethod.GET), first, null, ContentType.JSON);
+
+    final ODataRequest request = createRequest(HttpMethod.GET);
+    request.addHeader(HttpHeader.IF_NONE_MATCH, first.getHeader(HttpHeader.ETAG));
+    final ODataResponse response = new ODataResponse();
+    cut.readServiceDocument(request, response, null, ContentType.JSON);
+
+    assertEquals(304, response.getStatusCode());
+  }
+
+  private ODataRequest createRequest(final HttpMethod method) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    return request;
+  }
+}
@@ -1,6 +1,8 @@
 package com.sap.olingo.jpa.processor.core.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -237,6 +239,57 @@ public class TestJPAODataServiceContextBuilder {
     assertEquals(exp, cut.getMappingPath());
   }
 
+  @Test
+  public void checkFreezeMetadata() throws ODataException {
+    cut = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .setTypePackage(enumPackages)
+        .setFreezeMetadata(true)
+        .build();
+
+    assertTrue(cut.getEdmProvider().getServiceDocument().isFrozen());
+  }
+
+  @Test
+  public void checkMetadataNotFrozenByDefault() throws ODataException {
+    cut = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .build();
+
+    assertFalse(cut.getEdmProvider().getServiceDocument().isFrozen());
+  }
+
+  @Test
+  public void checkMetadataCreatedIfSnapshotNotFound() throws ODataException {
+    cut = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .setTypePackage(enumPackages)
+        .setMetadataSnapshot("META-INF/odata-jpa/unknown-snapshot.json")
+        .build();
+
+    assertFalse(cut.getEdmProvider().getSchemas().get(0).getEntityTypes().isEmpty());
+  }
+
+  @Test
+  public void checkModelVersionIsPartOfFingerprint() throws ODataException {
+    cut = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .setModelVersion("1")
+        .build();
+    final JPAODataCRUDContextAccess other = JPAODataServiceContext.with()
+        .setDataSource(ds)
+        .setPUnit(PUNIT_NAME)
+        .setModelVersion("2")
+        .build();
+
+    assertNotEquals(cut.getEdmProvider().getServiceDocument().getFingerprint(), other.getEdmProvider()
+        .getServiceDocument().getFingerprint());
+  }
+
   private class TestEdmPostProcessor extends JPAEdmMetadataPostProcessor {
 
     @Override
@@ -0,0 +1,262 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.processor.core.api.example.JPAExampleCUDRequestHandler;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+import com.sap.olingo.jpa.processor.core.processor.JPASetBasedChange;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.util.HttpServletRequestDouble;
+import com.sap.olingo.jpa.processor.core.util.HttpServletResponseDouble;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPASetBasedChanges extends TestBase {
+  private JPAODataGetHandler cut;
+  private JPAODataCRUDContextAccess context;
+  private HttpServletResponseDouble response;
+  private EntityManager em;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    context = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+    em = emf.createEntityManager();
+    // The changes are done within the transaction of the test, so they can be checked and rolled back
+    em.getTransaction().begin();
+    cut = new JPAODataGetHandler(context);
+    cut.getJPAODataRequestContext().setEntityManager(em);
+    getRequestContext().setCUDRequestHandler(new JPAExampleCUDRequestHandler());
+    response = new HttpServletResponseDouble();
+  }
+
+  @AfterEach
+  public void teardown() {
+    em.getTransaction().rollback();
+    em.close();
+  }
+
+  @Test
+  public void testPatchWithFilter() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.PATCH, "Organizations?$filter=Address/Region eq 'US-CA'",
+        "{\"Name2\":\"Bulk\"}"), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(3L, countOrganizations("o.name2 = 'Bulk'"));
+    assertEquals(3L, countOrganizations("o.name2 = 'Bulk' AND o.eTag = 1"));
+  }
+
+  @Test
+  public void testPatchWithNavigationFilter() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.PATCH, "Organizations?$filter=Roles/any(d:d/RoleCategory eq 'C')",
+        "{\"Name2\":\"Bulk\"}"), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(3L, countOrganizations("o.name2 = 'Bulk'"));
+  }
+
+  @Test
+  public void testPatchWithNavigationFilterCompoundKey() throws ODataException, IOException {
+    final int expected = em.createQuery("SELECT DISTINCT c.codePublisher, c.parentCodeID, c.parentDivisionCode "
+        + "FROM AdministrativeDivision c WHERE c.codeID = '3166-2'").getResultList().size();
+    cut.process(createRequest(HttpMethod.PATCH, "AdministrativeDivisions?$filter=Children/any(d:d/CodeID eq '3166-2')",
+        "{\"Area\":4711}"), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals((long) expected, em.createQuery("SELECT COUNT(a) FROM AdministrativeDivision a WHERE a.area = 4711",
+        Long.class).getSingleResult());
+  }
+
+  @Test
+  public void testPatchComplexProperty() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.PATCH, "Organizations?$filter=ID eq '1'",
+        "{\"Address\":{\"CityName\":\"Bulk City\"}}"), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(1L, countOrganizations("o.address.cityName = 'Bulk City' AND o.address.streetName = 'Test Road'"));
+  }
+
+  @Test
+  public void testDeleteWithFilter() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "BusinessPartnerRoles?$filter=BusinessPartnerID eq '3'", ""),
+        response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(0L, countRoles("BusinessPartnerRole", "3"));
+  }
+
+  @Test
+  public void testDeleteRestrictedByClaims() throws ODataException, IOException {
+    final JPAODataClaimsProvider claims = new JPAODataClaimsProvider();
+    claims.add("RoleCategory", new JPAClaimsPair<>("A"));
+    cut.getJPAODataRequestContext().setClaimsProvider(claims);
+    cut.process(createRequest(HttpMethod.DELETE, "BusinessPartnerRoleProtecteds?$filter=BusinessPartnerID eq '3'",
+        ""), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(2L, countRoles("BusinessPartnerRoleProtected", "3"));
+  }
+
+  @Test
+  public void testDeleteRejectedWithoutClaims() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "BusinessPartnerRoleProtecteds?$filter=BusinessPartnerID eq '3'",
+        ""), response);
+
+    assertEquals(403, response.getStatus());
+    assertEquals(3L, countRoles("BusinessPartnerRoleProtected", "3"));
+  }
+
+  @Test
+  public void testHandlerCanAddRestriction() throws ODataException, IOException {
+    getRequestContext().setCUDRequestHandler(new JPAExampleCUDRequestHandler() {
+      @Override
+      public void prepareSetBasedChange(final JPASetBasedChange change, final EntityManager em)
+          throws ODataJPAProcessException {
+        change.addRestriction(change.getCriteriaBuilder().equal(change.getRoot().get("iD"), "1"));
+      }
+    });
+    cut.process(createRequest(HttpMethod.PATCH, "Organizations?$filter=Address/Region eq 'US-CA'",
+        "{\"Name2\":\"Bulk\"}"), response);
+
+    assertEquals(204, response.getStatus());
+    assertEquals(1L, countOrganizations("o.name2 = 'Bulk'"));
+  }
+
+  @Test
+  public void testRejectedByDefaultHandler() throws ODataException, IOException {
+    getRequestContext().setCUDRequestHandler(new JPAAbstractCUDRequestHandler() {});
+    cut.process(createRequest(HttpMethod.DELETE, "BusinessPartnerRoles?$filter=BusinessPartnerID eq '3'", ""),
+        response);
+
+    assertEquals(501, response.getStatus());
+    assertEquals(3L, countRoles("BusinessPartnerRole", "3"));
+  }
+
+  @Test
+  public void testRejectKeyAttribute() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.PATCH, "Organizations?$filter=Address/Region eq 'US-CA'",
+        "{\"ID\":\"99\"}"), response);
+
+    assertEquals(400, response.getStatus());
+  }
+
+  @Test
+  public void testRejectNotOnEntitySet() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "Organizations('3')/Roles?$filter=RoleCategory eq 'A'", ""),
+        response);
+
+    assertEquals(501, response.getStatus());
+    assertEquals(3L, countRoles("BusinessPartnerRole", "3"));
+  }
+
+  @Test
+  public void testCountNotTreatedAsSetBasedChange() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "Organizations/$count?$filter=Address/Region eq 'US-CA'", ""),
+        response);
+
+    assertEquals(400, response.getStatus());
+  }
+
+  @Test
+  public void testDeleteRejectedWithElementCollection() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "Organizations?$filter=ID eq '1'", ""), response);
+
+    assertEquals(501, response.getStatus());
+    assertEquals(1L, countOrganizations("o.iD = '1'"));
+  }
+
+  @Test
+  public void testDeleteRejectedWithJoinTable() throws ODataException, IOException {
+    cut.process(createRequest(HttpMethod.DELETE, "JoinSources?$filter=SourceID eq 1", ""), response);
+
+    assertEquals(501, response.getStatus());
+  }
+
+  @Test
+  public void testPatchWithFilterInChangeSet() throws ODataException, IOException {
+    final EntityManager batchEm = emf.createEntityManager();
+    final Organization before = batchEm.find(Organization.class, "1");
+    final String name2 = before.getName2();
+    final long eTag = before.getETag();
+    try {
+      final JPAODataGetHandler handler = new JPAODataGetHandler(context);
+      handler.getJPAODataRequestContext().setEntityManager(batchEm);
+      ((JPAODataCRUDRequestContext) handler.getJPAODataRequestContext()).setCUDRequestHandler(
+          new JPAExampleCUDRequestHandler());
+      handler.process(new HttpServletRequestDouble("http://localhost:8080/Test/Olingo.svc/$batch",
+          createChangeSet("PATCH Organizations?$filter=ID%20eq%20'1' HTTP/1.1", "{\"Name2\":\"Bulk\"}")), response);
+
+      assertEquals(202, response.getStatus());
+      assertEquals(1L, countOrganizations("o.name2 = 'Bulk'"));
+    } finally {
+      batchEm.getTransaction().begin();
+      batchEm.createQuery("UPDATE Organization o SET o.name2 = :name2, o.eTag = :eTag WHERE o.iD = '1'")
+          .setParameter("name2", name2)
+          .setParameter("eTag", eTag)
+          .executeUpdate();
+      batchEm.getTransaction().commit();
+      batchEm.close();
+    }
+  }
+
+  private JPAODataCRUDRequestContext getRequestContext() {
+    return (JPAODataCRUDRequestContext) cut.getJPAODataRequestContext();
+  }
+
+  private long countOrganizations(final String condition) {
+    return em.createQuery("SELECT COUNT(o) FROM Organization o WHERE " + condition, Long.class).getSingleResult();
+  }
+
+  private long countRoles(final String entity, final String businessPartnerID) {
+    return em.createQuery("SELECT COUNT(r) FROM " + entity + " r WHERE r.businessPartnerID = '" + businessPartnerID
+        + "'", Long.class).getSingleResult();
+  }
+
+  private StringBuffer createChangeSet(final String requestLine, final String body) {
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: multipart/mixed;boundary=changeset_01\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--changeset_01\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("Content-ID: 1\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(requestLine).append("\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append(body).append("\r\n");
+    requestBody.append("--changeset_01--\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--abc123--");
+    return requestBody;
+  }
+
+  private HttpServletRequestDouble createRequest(final HttpMethod method, final String path, final String body)
+      throws IOException {
+    final Map<String, List<String>> headers = new HashMap<>();
+    headers.put("content-type", Collections.singletonList("application/json"));
+    return new HttpServletRequestDouble("http://localhost:8080/Test/Olingo.svc/" + path, new StringBuffer(body),
+        headers) {
+      @Override
+      public String getMethod() {
+        return method.name();
+      }
+    };
+  }
+}
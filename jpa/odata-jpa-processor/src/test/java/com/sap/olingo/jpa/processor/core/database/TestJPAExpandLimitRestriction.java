@@ -0,0 +1,96 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAExpandLimitRestriction extends TestBase {
+  private JPA_DERBY_DatabaseProcessor processor;
+  private JPAODataCRUDContextAccess restrictedContext;
+  private JPAODataCRUDContextAccess readAllContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    processor = spy(new JPA_DERBY_DatabaseProcessor());
+    restrictedContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setDatabaseProcessor(processor)
+        .build();
+    readAllContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setDatabaseProcessor(new JPADefaultDatabaseProcessor())
+        .build();
+  }
+
+  @Test
+  public void testTopRestrictsRowsPerParent() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(restrictedContext, emf,
+        "Organizations?$orderby=ID&$expand=Roles($top=1)");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    for (int i = 0; i < orgs.size(); i++)
+      assertEquals(orgs.get(i).get("Roles").size() > 0 ? 1 : 0, orgs.get(i).get("Roles").size());
+    verify(processor).createExpandLimitWhereClause(any(), any(), any(), any(), any(), any(), anyLong());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$orderby=ID&$expand=Roles($top=1;$orderby=RoleCategory)",
+      "Organizations?$orderby=ID&$expand=Roles($top=2;$orderby=RoleCategory desc)",
+      "Organizations?$orderby=ID&$expand=Roles($top=1;$skip=1;$orderby=RoleCategory)",
+      "Organizations('3')?$expand=Roles($top=2;$skip=1;$orderby=RoleCategory desc)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode"
+          + "&$expand=Children($top=2;$orderby=DivisionCode desc)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode"
+          + "&$expand=Children($top=3;$skip=2;$orderby=CodeID,DivisionCode)"
+  })
+  public void testRestrictedResultEqualsReadAllResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper readAll = new IntegrationTestHelper(readAllContext, emf, url);
+    final IntegrationTestHelper restricted = new IntegrationTestHelper(restrictedContext, emf, url);
+    readAll.assertStatus(200);
+    restricted.assertStatus(200);
+    assertEquals(readAll.getValue(), restricted.getValue());
+  }
+
+  @Test
+  public void testNoRestrictionWithFilterInExpand() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(restrictedContext, emf,
+        "Organizations('3')?$expand=Roles($top=1;$filter=RoleCategory ne 'A')");
+    helper.assertStatus(200);
+
+    assertEquals(1, helper.getValue().get("Roles").size());
+    verify(processor, never()).createExpandLimitWhereClause(any(), any(), any(), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testNoRestrictionWithoutTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(restrictedContext, emf,
+        "Organizations('3')?$expand=Roles($skip=1)");
+    helper.assertStatus(200);
+
+    assertEquals(2, helper.getValue().get("Roles").size());
+    verify(processor, never()).createExpandLimitWhereClause(any(), any(), any(), any(), any(), any(), anyLong());
+  }
+}
@@ -0,0 +1,167 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.metadata.api.JPAEntityManagerFactory;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+
+public class TestJPAExpandLimitStatement {
+  private static final String PUNIT_NAME = "com.sap.olingo.jpa";
+  private static EntityManagerFactory emf;
+  private static DataSource ds;
+  private JPA_HSQLDB_DatabaseProcessor processor;
+  private JPAODataCRUDContextAccess lateralContext;
+  private JPAODataCRUDContextAccess readAllContext;
+
+  @BeforeAll
+  public static void setupClass() {
+    ds = DataSourceHelper.createDataSource(DataSourceHelper.DB_HSQLDB);
+    emf = JPAEntityManagerFactory.getEntityManagerFactory(PUNIT_NAME, ds);
+  }
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    processor = spy(new JPA_HSQLDB_DatabaseProcessor());
+    lateralContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(TestBase.enumPackages)
+        .setDatabaseProcessor(processor)
+        .setMaxExpandKeys(1000)
+        .setExpandKeyChunkSize(2)
+        .build();
+    readAllContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(TestBase.enumPackages)
+        .setDatabaseProcessor(new JPADefaultDatabaseProcessor())
+        .build();
+  }
+
+  @Test
+  public void testTopRestrictsRowsPerParentByKeys() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(lateralContext, emf,
+        "Organizations?$orderby=ID&$expand=Roles($top=1)");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    for (int i = 0; i < orgs.size(); i++)
+      assertEquals(orgs.get(i).get("Roles").size() > 0 ? 1 : 0, orgs.get(i).get("Roles").size());
+    verify(processor, atLeastOnce()).createExpandLimitStatement(any(), any(), any(), anyLong(), anyInt());
+    verify(processor, never()).createExpandLimitWhereClause(any(), any(), any(), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  public void testTopFallsBackToWhereClauseIfMaxKeysExceeded() throws IOException, ODataException {
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(TestBase.enumPackages)
+        .setDatabaseProcessor(processor)
+        .setMaxExpandKeys(1)
+        .build();
+    final String url = "Organizations?$orderby=ID&$expand=Roles($top=1)";
+    final IntegrationTestHelper readAll = new IntegrationTestHelper(readAllContext, emf, url);
+    final IntegrationTestHelper restricted = new IntegrationTestHelper(context, emf, url);
+    restricted.assertStatus(200);
+
+    assertEquals(readAll.getValue(), restricted.getValue());
+    verify(processor, atLeastOnce()).createExpandLimitWhereClause(any(), any(), any(), any(), any(), any(), anyLong());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$orderby=ID&$expand=Roles($top=1;$orderby=RoleCategory)",
+      "Organizations?$orderby=ID&$expand=Roles($top=2;$orderby=RoleCategory desc)",
+      "Organizations?$orderby=ID&$expand=Roles($top=1;$skip=1;$orderby=RoleCategory)",
+      "Organizations('3')?$expand=Roles($top=2;$skip=1;$orderby=RoleCategory desc)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode"
+          + "&$expand=Children($top=2;$orderby=DivisionCode desc)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode"
+          + "&$expand=Children($top=3;$skip=2;$orderby=CodeID,DivisionCode)"
+  })
+  public void testKeyRestrictedResultEqualsReadAllResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper readAll = new IntegrationTestHelper(readAllContext, emf, url);
+    final IntegrationTestHelper restricted = new IntegrationTestHelper(lateralContext, emf, url);
+    readAll.assertStatus(200);
+    restricted.assertStatus(200);
+    assertEquals(readAll.getValue(), restricted.getValue());
+  }
+
+  @Test
+  public void testRowNumberStatement() throws ODataException {
+    final JPAEntityType et = getEntityType("BusinessPartnerRoles");
+    final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+    orderBy.put(et.getPath("RoleCategory"), Boolean.TRUE);
+    orderBy.put(et.getPath("BusinessPartnerID"), Boolean.FALSE);
+
+    assertEquals("SELECT \"BusinessPartnerRole\", \"BusinessPartnerID\" FROM (SELECT \"BusinessPartnerRole\", "
+        + "\"BusinessPartnerID\", ROW_NUMBER() OVER (PARTITION BY \"BusinessPartnerID\" ORDER BY "
+        + "\"BusinessPartnerRole\" DESC, \"BusinessPartnerID\" ASC) AS \"ROW_NO\" FROM \"OLINGO\".\"BusinessPartnerRole\" "
+        + "WHERE \"BusinessPartnerID\" IN (?, ?)) AS \"RANKED\" WHERE \"RANKED\".\"ROW_NO\" <= 3",
+        JPAExpandLimitStatement.createRowNumber(et, Collections.singletonList(et.getPath("BusinessPartnerID")),
+            orderBy, 3, 2));
+  }
+
+  @Test
+  public void testLateralStatementWithCompositePartition() throws ODataException {
+    final JPAEntityType et = getEntityType("AdministrativeDivisions");
+    final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+    orderBy.put(et.getPath("DivisionCode"), Boolean.FALSE);
+
+    assertEquals("SELECT \"L\".\"DivisionCode\", \"L\".\"CodeID\", \"L\".\"CodePublisher\" FROM (SELECT DISTINCT "
+        + "\"CodePublisher\", \"ParentCodeID\" FROM \"OLINGO\".\"AdministrativeDivision\" WHERE "
+        + "(\"CodePublisher\" = ? AND \"ParentCodeID\" = ?) OR (\"CodePublisher\" = ? AND \"ParentCodeID\" = ?)) "
+        + "AS \"P\", LATERAL (SELECT \"C\".\"DivisionCode\", \"C\".\"CodeID\", \"C\".\"CodePublisher\" FROM "
+        + "\"OLINGO\".\"AdministrativeDivision\" AS \"C\" WHERE \"C\".\"CodePublisher\" = \"P\".\"CodePublisher\" AND "
+        + "\"C\".\"ParentCodeID\" = \"P\".\"ParentCodeID\" ORDER BY \"C\".\"DivisionCode\" ASC LIMIT 2) AS \"L\"",
+        JPAExpandLimitStatement.createLateral(et, Arrays.asList(et.getPath("CodePublisher"), et.getPath(
+            "ParentCodeID")), orderBy, 2, 2));
+  }
+
+  @Test
+  public void testNoStatementForSubType() throws ODataException {
+    final JPAEntityType et = getEntityType("Organizations");
+    final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+    orderBy.put(et.getPath("ID"), Boolean.FALSE);
+
+    assertNull(JPAExpandLimitStatement.createRowNumber(et, Collections.singletonList(et.getPath("Country")),
+        orderBy, 1, 1));
+  }
+
+  private JPAEntityType getEntityType(final String entitySetName) throws ODataException {
+    return new JPAEdmProvider(PUNIT_NAME, emf, null, TestBase.enumPackages).getServiceDocument().getEntity(entitySetName);
+  }
+}
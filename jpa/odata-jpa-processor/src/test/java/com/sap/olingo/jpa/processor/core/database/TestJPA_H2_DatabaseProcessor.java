@@ -0,0 +1,71 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+
+public class TestJPA_H2_DatabaseProcessor extends TestJPA_XXX_DatabaseProcessor {
+
+  @BeforeEach
+  public void steup() {
+    initEach();
+    oneParameterResult = "SELECT * FROM Example(?1)";
+    twoParameterResult = "SELECT * FROM Example(?1,?2)";
+    countResult = "SELECT COUNT(*) FROM Example(?1)";
+    cut = new JPA_H2_DatabaseProcessor();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testAbortsOnSearchRequest() {
+    final CriteriaBuilder cb = mock(CriteriaBuilder.class);
+    final CriteriaQuery<String> cq = mock(CriteriaQuery.class);
+    final Root<String> root = mock(Root.class);
+    final JPAEntityType entityType = mock(JPAEntityType.class);
+    final SearchOption searchOption = mock(SearchOption.class);
+
+    final ODataApplicationException act = assertThrows(ODataApplicationException.class,
+        () -> cut.createSearchWhereClause(cb, cq, root, entityType, searchOption));
+    assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), act.getStatusCode());
+  }
+
+  @Test
+  public void testNoExpandLimitStatementWithoutWindowFunctions() throws ODataApplicationException {
+    assertNull(cut.createExpandLimitStatement(mock(JPAEntityType.class), Collections.emptyList(), Collections
+        .emptyMap(), 1, 1));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "1.4.191 (2016-01-21), false",
+      "1.4.197 (2018-03-18), false",
+      "1.4.198 (2019-02-22), true",
+      "1.4.200 (2019-10-14), true",
+      "2.1.214 (2022-06-13), true",
+      "unknown, false" })
+  public void testWindowFunctionsSupportedByVersion(final String version, final boolean supported) {
+    if (supported)
+      assertTrue(JPAODataDatabaseProcessorFactory.supportsWindowFunctions(version));
+    else
+      assertFalse(JPAODataDatabaseProcessorFactory.supportsWindowFunctions(version));
+  }
+}
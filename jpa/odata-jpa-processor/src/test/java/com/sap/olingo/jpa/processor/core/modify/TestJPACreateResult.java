@@ -23,6 +23,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.converter.JPACollectionResult;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.util.ServiceMetadataDouble;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
@@ -58,7 +59,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultSimpleEntity();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAResultKey.ROOT);
 
     assertNotNull(act);
     assertEquals(1, act.size());
@@ -71,7 +72,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultWithOneLevelEmbedded();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAResultKey.ROOT);
 
     assertNotNull(act);
     assertEquals(1, act.size());
@@ -84,7 +85,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultWithTwoLevelEmbedded();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAResultKey.ROOT);
     assertNotNull(act);
     assertEquals(1, act.size());
     assertEquals("01", act.get(0).get("ID"));
@@ -99,7 +100,7 @@ public abstract class TestJPACreateResult extends TestBase {
     assertEquals(1, act.size());
     for (JPAAssociationPath actPath : act.keySet()) {
       assertEquals("Children", actPath.getAlias());
-      List<Tuple> subResult = act.get(actPath).getResult("Eurostat/NUTS1/BE2");
+      List<Tuple> subResult = act.get(actPath).getResult(JPAResultKey.of("Eurostat", "NUTS1", "BE2"));
       assertEquals(1, subResult.size());
     }
   }
@@ -108,7 +109,7 @@ public abstract class TestJPACreateResult extends TestBase {
   public void testGetResultWithDescriptionProperty() throws ODataJPAModelException, ODataApplicationException {
 
     createCutGetResultWithDescriptionProperty();
-    final List<Tuple> act = cut.getResult("root");
+    final List<Tuple> act = cut.getResult(JPAResultKey.ROOT);
     assertEquals(1, act.size());
     final Tuple actResult = act.get(0);
     assertEquals(7L, actResult.get("ETag"));
@@ -123,7 +124,7 @@ public abstract class TestJPACreateResult extends TestBase {
     assertEquals(1, act.size());
     for (JPAAssociationPath actPath : act.keySet()) {
       assertEquals("Children", actPath.getAlias());
-      List<Tuple> subResult = act.get(actPath).getResult("Eurostat/NUTS1/BE2");
+      List<Tuple> subResult = act.get(actPath).getResult(JPAResultKey.of("Eurostat", "NUTS1", "BE2"));
       assertEquals(2, subResult.size());
     }
   }
@@ -133,14 +134,14 @@ public abstract class TestJPACreateResult extends TestBase {
     createCutGetResultEntityWithSimpleCollection();
 
     final Map<JPAAssociationPath, JPAExpandResult> act = cut.getChildren();
-    assertDoesNotContain(cut.getResult("root"), "Comment");
+    assertDoesNotContain(cut.getResult(JPAResultKey.ROOT), "Comment");
     assertNotNull(act);
     assertFalse(act.isEmpty());
     for (Entry<JPAAssociationPath, JPAExpandResult> entity : act.entrySet()) {
-      assertEquals(1, entity.getValue().getResults().size());
+      assertEquals(1, entity.getValue().getKeyedResults().size());
       assertEquals("Comment", entity.getKey().getAlias());
       final Collection<Object> actConverted = ((JPACollectionResult) entity.getValue()).getPropertyCollection(
-          JPAExpandResult.ROOT_RESULT_KEY);
+          JPAExpandResult.ROOT_KEY);
       assertEquals(2, actConverted.size());
       for (Object o : actConverted) {
         assertNotNull(o);
@@ -154,14 +155,14 @@ public abstract class TestJPACreateResult extends TestBase {
     createCutGetResultEntityWithComplexCollection();
 
     Map<JPAAssociationPath, JPAExpandResult> act = cut.getChildren();
-    assertDoesNotContain(cut.getResult("root"), "InhouseAddress");
+    assertDoesNotContain(cut.getResult(JPAResultKey.ROOT), "InhouseAddress");
     assertNotNull(act);
     assertFalse(act.isEmpty());
     for (Entry<JPAAssociationPath, JPAExpandResult> entity : act.entrySet()) {
-      assertEquals(1, entity.getValue().getResults().size());
+      assertEquals(1, entity.getValue().getKeyedResults().size());
       assertEquals("InhouseAddress", entity.getKey().getAlias());
       final Collection<Object> actConverted = ((JPACollectionResult) entity.getValue()).getPropertyCollection(
-          JPAExpandResult.ROOT_RESULT_KEY);
+          JPAExpandResult.ROOT_KEY);
       assertEquals(2, actConverted.size());
       for (Object o : actConverted) {
         assertNotNull(o);
@@ -176,16 +177,16 @@ public abstract class TestJPACreateResult extends TestBase {
 
     final Map<JPAAssociationPath, JPAExpandResult> act = cut.getChildren();
     boolean found = false;
-    assertDoesNotContain(cut.getResult("root"), "Complex/Address");
+    assertDoesNotContain(cut.getResult(JPAResultKey.ROOT), "Complex/Address");
     assertNotNull(act);
     assertFalse(act.isEmpty());
     for (Entry<JPAAssociationPath, JPAExpandResult> entity : act.entrySet()) {
       if (entity.getKey().getAlias().equals("Complex/Address")) {
         found = true;
-        assertEquals(1, entity.getValue().getResults().size());
+        assertEquals(1, entity.getValue().getKeyedResults().size());
         assertEquals("Complex/Address", entity.getKey().getAlias());
         final Collection<Object> actConverted = ((JPACollectionResult) entity.getValue()).getPropertyCollection(
-            JPAExpandResult.ROOT_RESULT_KEY);
+            JPAExpandResult.ROOT_KEY);
         assertEquals(2, actConverted.size());
         for (Object o : actConverted) {
           assertNotNull(o);
@@ -203,16 +204,16 @@ public abstract class TestJPACreateResult extends TestBase {
 
     final Map<JPAAssociationPath, JPAExpandResult> act = cut.getChildren();
     boolean found = false;
-    assertDoesNotContain(cut.getResult("root"), "Nested");
+    assertDoesNotContain(cut.getResult(JPAResultKey.ROOT), "Nested");
     assertNotNull(act);
     assertFalse(act.isEmpty());
     for (Entry<JPAAssociationPath, JPAExpandResult> entity : act.entrySet()) {
       if (entity.getKey().getAlias().equals("Nested")) {
         found = true;
-        assertEquals(1, entity.getValue().getResults().size());
+        assertEquals(1, entity.getValue().getKeyedResults().size());
         assertEquals("Nested", entity.getKey().getAlias());
         final Collection<Object> actConverted = ((JPACollectionResult) entity.getValue()).getPropertyCollection(
-            JPAExpandResult.ROOT_RESULT_KEY);
+            JPAExpandResult.ROOT_KEY);
         assertEquals(2, actConverted.size());
         for (Object o : actConverted) {
           assertNotNull(o);
@@ -230,16 +231,16 @@ public abstract class TestJPACreateResult extends TestBase {
 
     final Map<JPAAssociationPath, JPAExpandResult> act = cut.getChildren();
     boolean found = false;
-    assertDoesNotContain(cut.getResult("root"), "FirstLevel/SecondLevel/Address");
+    assertDoesNotContain(cut.getResult(JPAResultKey.ROOT), "FirstLevel/SecondLevel/Address");
     assertNotNull(act);
     assertFalse(act.isEmpty());
     for (Entry<JPAAssociationPath, JPAExpandResult> entity : act.entrySet()) {
       if (entity.getKey().getAlias().equals("FirstLevel/SecondLevel/Address")) {
         found = true;
-        assertEquals(1, entity.getValue().getResults().size());
+        assertEquals(1, entity.getValue().getKeyedResults().size());
         assertEquals("FirstLevel/SecondLevel/Address", entity.getKey().getAlias());
         final Collection<Object> actConverted = ((JPACollectionResult) entity.getValue()).getPropertyCollection(
-            JPAExpandResult.ROOT_RESULT_KEY);
+            JPAExpandResult.ROOT_KEY);
         assertEquals(2, actConverted.size());
         for (Object o : actConverted) {
           assertNotNull(o);
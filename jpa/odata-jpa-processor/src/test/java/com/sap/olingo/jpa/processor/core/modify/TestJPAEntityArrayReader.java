@@ -0,0 +1,143 @@
+package com.sap.olingo.jpa.processor.core.modify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAEntityArrayReader extends TestBase {
+  private OData odata;
+  private JPAConversionHelper cut;
+  private ODataRequest request;
+  private List<UriResource> uriResourceParts;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    odata = OData.newInstance();
+    cut = new JPAConversionHelper();
+    request = mock(ODataRequest.class);
+    final EdmEntitySet organizations = odata.createServiceMetadata(new JPAEdmProvider(PUNIT_NAME, emf, null,
+        enumPackages), new ArrayList<>()).getEdm().getEntityContainer().getEntitySet("Organizations");
+    final UriResourceEntitySet uriResource = mock(UriResourceEntitySet.class);
+    when(uriResource.getEntitySet()).thenReturn(organizations);
+    when(uriResource.getKind()).thenReturn(UriResourceKind.entitySet);
+    uriResourceParts = Collections.singletonList(uriResource);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"ID\":\"1\"}",
+      "{\"@odata.context\":\"$metadata#Organizations/$entity\",\"ID\":\"1\"}",
+      "" })
+  public void testSingleEntityNotReadAsArray(final String payload) throws ODataJPAProcessorException, IOException {
+    final InputStream body = createBody(payload);
+    when(request.getBody()).thenReturn(body);
+
+    assertFalse(cut.convertInputStreamToEntities(odata, request, ContentType.JSON, uriResourceParts).isPresent());
+  }
+
+  @Test
+  public void testXmlNotReadAsArray() throws ODataJPAProcessorException, IOException {
+    when(request.getBody()).thenReturn(createBody("[{\"ID\":\"1\"}]"));
+
+    assertFalse(cut.convertInputStreamToEntities(odata, request, ContentType.APPLICATION_XML, uriResourceParts)
+        .isPresent());
+  }
+
+  @Test
+  public void testReadArrayInChunks() throws ODataJPAProcessorException, IOException {
+    when(request.getBody()).thenReturn(createBody(
+        " [{\"ID\":\"1\",\"Name1\":\"First\"},{\"ID\":\"2\"},{\"ID\":\"3\",\"Roles\":[]}]"));
+
+    final Optional<JPAEntityArrayReader> reader = cut.convertInputStreamToEntities(odata, request, ContentType.JSON,
+        uriResourceParts);
+    assertTrue(reader.isPresent());
+    final List<Entity> first = reader.get().next(2);
+    assertEquals(2, first.size());
+    assertEquals("1", first.get(0).getProperty("ID").getValue());
+    assertEquals("First", first.get(0).getProperty("Name1").getValue());
+    assertEquals("2", first.get(1).getProperty("ID").getValue());
+    final List<Entity> second = reader.get().next(2);
+    assertEquals(1, second.size());
+    assertEquals("3", second.get(0).getProperty("ID").getValue());
+    assertTrue(reader.get().next(2).isEmpty());
+  }
+
+  @Test
+  public void testReadDeltaPayload() throws ODataJPAProcessorException, IOException {
+    when(request.getBody()).thenReturn(createBody(
+        "{\"@context\":\"#$delta\",\"@custom\":{\"a\":[1]},\"value\":[{\"ID\":\"1\"},{\"ID\":\"2\"}]}"));
+
+    final Optional<JPAEntityArrayReader> reader = cut.convertInputStreamToEntities(odata, request, ContentType.JSON,
+        uriResourceParts);
+    assertTrue(reader.isPresent());
+    assertEquals(2, reader.get().next(10).size());
+    assertTrue(reader.get().next(10).isEmpty());
+  }
+
+  @Test
+  public void testCloseClosesPayload() throws ODataJPAProcessorException, IOException {
+    final AtomicBoolean closed = new AtomicBoolean();
+    when(request.getBody()).thenReturn(new ByteArrayInputStream("[{\"ID\":\"1\"},{\"ID\":\"2\"}]".getBytes(
+        StandardCharsets.UTF_8)) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    });
+
+    final Optional<JPAEntityArrayReader> reader = cut.convertInputStreamToEntities(odata, request, ContentType.JSON,
+        uriResourceParts);
+    assertEquals(1, reader.get().next(1).size());
+    reader.get().close();
+    assertTrue(closed.get());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"@odata.context\":\"$metadata#Organizations/$delta\",\"values\":[]}",
+      "[{\"ID\":\"1\"},2]",
+      "[{\"ID\":\"1\",\"Unknown\":\"2\"}]" })
+  public void testWrongPayloadRejected(final String payload) throws IOException {
+    when(request.getBody()).thenReturn(createBody(payload));
+
+    final ODataJPAProcessorException act = assertThrows(ODataJPAProcessorException.class, () -> cut
+        .convertInputStreamToEntities(odata, request, ContentType.JSON, uriResourceParts).get().next(10));
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), act.getStatusCode());
+  }
+
+  private InputStream createBody(final String payload) {
+    return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,91 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.processor.core.processor.JPAClassAccessor.Accessor;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+
+public class TestJPAClassAccessor {
+  private JPAClassAccessor cut;
+  private Organization org;
+
+  @BeforeEach
+  public void setup() {
+    cut = JPAClassAccessor.of(Organization.class);
+    org = new Organization();
+  }
+
+  @Test
+  public void checkAccessorIsCreatedOncePerClass() {
+    assertSame(cut, JPAClassAccessor.of(Organization.class));
+  }
+
+  @Test
+  public void checkGetterReturnsValue() throws ReflectiveOperationException {
+    org.setID("4711");
+    assertEquals("4711", cut.getGetter("iD").get(org));
+  }
+
+  @Test
+  public void checkSetterSetsValue() throws ReflectiveOperationException {
+    cut.getSetter("name1", String.class).set(org, "Test Org");
+    assertEquals("Test Org", org.getName1());
+  }
+
+  @Test
+  public void checkSetterAcceptsNull() throws ReflectiveOperationException {
+    org.setName1("Test Org");
+    cut.getSetter("name1", String.class).set(org, null);
+    assertNull(org.getName1());
+  }
+
+  @Test
+  public void checkSetterRejectsWrongType() throws NoSuchMethodException {
+    final Accessor setter = cut.getSetter("name1", String.class);
+    assertThrows(IllegalArgumentException.class, () -> setter.set(org, Integer.valueOf(1)));
+  }
+
+  @Test
+  public void checkUnknownGetterThrowsNoSuchMethod() {
+    assertThrows(NoSuchMethodException.class, () -> cut.getGetter("unknown"));
+  }
+
+  @Test
+  public void checkUnknownSetterThrowsNoSuchMethod() {
+    assertThrows(NoSuchMethodException.class, () -> cut.getSetter("name1", Integer.class));
+  }
+
+  @Test
+  public void checkGetValuesContainsAllGetter() throws ReflectiveOperationException {
+    org.setID("4711");
+    org.setName1("Test Org");
+    final Map<String, Object> act = cut.getValues(org);
+    assertEquals("4711", act.get("iD"));
+    assertEquals("Test Org", act.get("name1"));
+    assertTrue(act.containsKey("roles"));
+  }
+
+  @Test
+  public void checkExceptionOfMethodWrappedInInvocationTargetException() throws NoSuchMethodException {
+    final Accessor getter = JPAClassAccessor.of(ThrowingGetter.class).getGetter("value");
+    final InvocationTargetException act = assertThrows(InvocationTargetException.class,
+        () -> getter.get(new ThrowingGetter()));
+    assertTrue(act.getCause() instanceof IllegalStateException);
+  }
+
+  public static class ThrowingGetter {
+    public String getValue() {
+      throw new IllegalStateException();
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.sap.olingo.jpa.processor.core.processor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -14,10 +15,14 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +53,7 @@ import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceKind;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.junit.jupiter.api.Test;
@@ -66,6 +72,7 @@ import com.sap.olingo.jpa.processor.core.api.JPAODataGroupsProvider;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
+import com.sap.olingo.jpa.processor.core.modify.JPAEntityArrayReader;
 import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
 import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivisionKey;
 import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartnerRole;
@@ -391,6 +398,98 @@ public class TestJPACreateProcessor extends TestJPAModifyProcessor {
     assertEquals(0, spy.noValidateCalls);
   }
 
+  @Test
+  public void testResponseCreatedAfterFlushIfDeferred() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = prepareRepresentationRequest(new RequestHandleSpy());
+    final JPADeferredResponses deferredResponses = new JPADeferredResponses();
+
+    when(requestContext.getDeferredResponses()).thenReturn(Optional.of(deferredResponses));
+    when(factory.hasActiveTransaction()).thenReturn(Boolean.TRUE);
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+    assertEquals(HttpStatusCode.CREATED.getStatusCode(), response.getStatusCode());
+    assertNull(response.getContent());
+    assertEquals(1, deferredResponses.size());
+
+    deferredResponses.createResponses();
+    assertNotNull(response.getContent());
+    assertEquals(0, deferredResponses.size());
+  }
+
+  @Test
+  public void testResponseCreatedAfterImmediateFlushIfContentIdReferenced() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = prepareRepresentationRequest(new RequestHandleSpy());
+    final JPADeferredResponses deferredResponses = new JPADeferredResponses(Collections.singleton("1"));
+
+    when(request.getHeader(HttpHeader.CONTENT_ID)).thenReturn("1");
+    when(requestContext.getDeferredResponses()).thenReturn(Optional.of(deferredResponses));
+    when(factory.hasActiveTransaction()).thenReturn(Boolean.TRUE);
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+    verify(em).flush();
+    assertEquals(HttpStatusCode.CREATED.getStatusCode(), response.getStatusCode());
+    assertEquals(LOCATION_HEADER, response.getHeader(HttpHeader.LOCATION));
+    assertNotNull(response.getContent());
+    assertEquals(0, deferredResponses.size());
+  }
+
+  @Test
+  public void testBulkCreateHandsOverChunks() throws ODataException, IOException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = prepareBulkRequest("[{\"ID\":\"B1\"},{\"ID\":\"B2\"},{\"ID\":\"B3\"}]",
+        "return=representation");
+    final BulkRequestHandleSpy spy = new BulkRequestHandleSpy();
+    when(requestContext.getCUDRequestHandler()).thenReturn(spy);
+    when(sessionContext.getBulkCreateChunkSize()).thenReturn(2);
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+
+    assertEquals(Arrays.asList(2, 1), spy.chunkSizes);
+    assertEquals(1, spy.noValidateCalls);
+    assertEquals(HttpStatusCode.CREATED.getStatusCode(), response.getStatusCode());
+    assertEquals("3", new BufferedReader(new InputStreamReader(response.getContent(), StandardCharsets.UTF_8))
+        .readLine());
+    verify(transaction).commit();
+  }
+
+  @Test
+  public void testBulkCreateMinimalResponse() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = prepareBulkRequest("{\"@context\":\"#$delta\",\"value\":[{\"ID\":\"B1\"}]}",
+        "return=minimal");
+    final BulkRequestHandleSpy spy = new BulkRequestHandleSpy();
+    when(requestContext.getCUDRequestHandler()).thenReturn(spy);
+    when(sessionContext.getBulkCreateChunkSize()).thenReturn(100);
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+
+    assertEquals(Arrays.asList(1), spy.chunkSizes);
+    assertEquals(HttpStatusCode.NO_CONTENT.getStatusCode(), response.getStatusCode());
+    assertNull(response.getContent());
+  }
+
+  @Test
+  public void testBulkCreateRollbackOnError() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = prepareBulkRequest("[{\"ID\":\"B1\"},{\"ID\":\"B2\"},{\"Wrong\":\"B3\"}]",
+        "return=representation");
+    final BulkRequestHandleSpy spy = new BulkRequestHandleSpy();
+    when(requestContext.getCUDRequestHandler()).thenReturn(spy);
+    when(sessionContext.getBulkCreateChunkSize()).thenReturn(2);
+
+    final ODataJPAProcessorException act = assertThrows(ODataJPAProcessorException.class,
+        () -> processor.createEntity(request, response, ContentType.JSON, ContentType.JSON));
+
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), act.getStatusCode());
+    assertEquals(Arrays.asList(2), spy.chunkSizes);
+    assertEquals(0, spy.noValidateCalls);
+    verify(transaction).rollback();
+    verify(transaction, never()).commit();
+    assertTrue(((PayloadSpy) request.getBody()).closed);
+  }
+
   @Test
   public void testDoesNotCallsValidateChangesOnError() throws ODataException {
     ODataResponse response = new ODataResponse();
@@ -622,6 +721,45 @@ public class TestJPACreateProcessor extends TestJPAModifyProcessor {
     when(type.toUriLiteral(ArgumentMatchers.anyString())).thenReturn(value);
   }
 
+  private ODataRequest prepareBulkRequest(final String payload, final String preference) throws ODataException {
+    final ODataRequest request = prepareSimpleRequest(preference);
+    final EdmEntitySet organizations = odata.createServiceMetadata(jpaEdm, new ArrayList<>()).getEdm()
+        .getEntityContainer().getEntitySet("Organizations");
+    final UriResourceEntitySet uriResource = mock(UriResourceEntitySet.class);
+    when(uriResource.getEntitySet()).thenReturn(organizations);
+    when(uriResource.getKind()).thenReturn(UriResourceKind.entitySet);
+    when(request.getBody()).thenReturn(new PayloadSpy(payload));
+
+    final Optional<JPAEntityArrayReader> reader = new JPAConversionHelper().convertInputStreamToEntities(odata,
+        request, ContentType.JSON, Collections.singletonList(uriResource));
+    when(convHelper.convertInputStreamToEntities(odata, request, ContentType.JSON, pathParts)).thenReturn(reader);
+    return request;
+  }
+
+  static class PayloadSpy extends ByteArrayInputStream {
+    public boolean closed;
+
+    PayloadSpy(final String payload) {
+      super(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  class BulkRequestHandleSpy extends RequestHandleSpy {
+    public final List<Integer> chunkSizes = new ArrayList<>();
+
+    @Override
+    public void createEntities(final List<JPARequestEntity> requestEntities, final EntityManager em)
+        throws ODataJPAProcessException {
+      chunkSizes.add(requestEntities.size());
+      super.createEntities(requestEntities, em);
+    }
+  }
+
   class RequestHandleSpy extends JPAAbstractCUDRequestHandler {
     public int noValidateCalls;
     public JPAEntityType et;
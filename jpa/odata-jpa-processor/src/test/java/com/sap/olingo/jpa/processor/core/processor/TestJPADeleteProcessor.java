@@ -37,6 +37,7 @@ import com.sap.olingo.jpa.processor.core.api.JPAODataClaimProvider;
 import com.sap.olingo.jpa.processor.core.api.JPAODataClaimsProvider;
 import com.sap.olingo.jpa.processor.core.api.JPAODataGroupProvider;
 import com.sap.olingo.jpa.processor.core.api.JPAODataGroupsProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataResultCache;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
@@ -53,6 +54,36 @@ public class TestJPADeleteProcessor extends TestJPAModifyProcessor {
     assertEquals(204, response.getStatusCode());
   }
 
+  @Test
+  public void testInvalidatesResultCache() throws ODataApplicationException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = mock(ODataRequest.class);
+    final JPAODataResultCache cache = mock(JPAODataResultCache.class);
+    final RequestHandleSpy spy = new RequestHandleSpy();
+    when(requestContext.getCUDRequestHandler()).thenReturn(spy);
+    when(sessionContext.getResultCache()).thenReturn(Optional.of(cache));
+
+    processor.deleteEntity(request, response);
+    verify(cache).invalidate(spy.et);
+  }
+
+  @Test
+  public void testResultCacheInvalidatedAfterChangeSet() throws ODataApplicationException {
+    final ODataResponse response = new ODataResponse();
+    final ODataRequest request = mock(ODataRequest.class);
+    final JPAODataResultCache cache = mock(JPAODataResultCache.class);
+    final JPAResultCacheInvalidations invalidations = new JPAResultCacheInvalidations();
+    final RequestHandleSpy spy = new RequestHandleSpy();
+    when(requestContext.getCUDRequestHandler()).thenReturn(spy);
+    when(requestContext.getResultCacheInvalidations()).thenReturn(Optional.of(invalidations));
+    when(sessionContext.getResultCache()).thenReturn(Optional.of(cache));
+
+    processor.deleteEntity(request, response);
+    verify(cache, never()).invalidate(any());
+    invalidations.invalidate(cache);
+    verify(cache).invalidate(spy.et);
+  }
+
   @Test
   public void testThrowUnexpectedExceptionInCaseOfError() throws ODataJPAProcessException {
     ODataResponse response = new ODataResponse();
@@ -0,0 +1,119 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys.QUERY_PARALLEL_EXECUTION_ERROR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+
+public class TestJPAParallelTasks {
+  private ExecutorService executor;
+  private JPAParallelTasks<Integer> cut;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newFixedThreadPool(2);
+    cut = new JPAParallelTasks<>(executor, QUERY_PARALLEL_EXECUTION_ERROR);
+  }
+
+  @AfterEach
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void checkJoinReturnsResultsInOrderOfSubmit() throws ODataApplicationException, ODataLibraryException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    cut.submit(() -> {
+      latch.await();
+      return 1;
+    });
+    cut.submit(() -> {
+      latch.countDown();
+      return 2;
+    });
+    assertEquals(Arrays.asList(1, 2), cut.join());
+  }
+
+  @Test
+  public void checkJoinRethrowsApplicationException() {
+    final ODataApplicationException error = new ODataApplicationException("Test", 400, null);
+    cut.submit(() -> {
+      throw error;
+    });
+    assertSame(error, assertThrows(ODataApplicationException.class, () -> cut.join()));
+  }
+
+  @Test
+  public void checkJoinWrapsOtherException() {
+    cut.submit(() -> {
+      throw new IllegalStateException();
+    });
+    final ODataJPAProcessorException act = assertThrows(ODataJPAProcessorException.class, () -> cut.join());
+    assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), act.getStatusCode());
+    assertTrue(act.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void checkJoinWaitsForCancelledTasksInCaseOfError() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final AtomicBoolean finished = new AtomicBoolean();
+    cut.submit(() -> {
+      try {
+        started.countDown();
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        return 1;
+      } finally {
+        Thread.sleep(100);
+        finished.set(true);
+      }
+    });
+    started.await();
+    cut.submit(() -> {
+      throw new IllegalStateException();
+    });
+    assertThrows(ODataJPAProcessorException.class, () -> cut.join());
+    assertTrue(finished.get());
+  }
+
+  @Test
+  public void checkCancelSkipsTasksNotStarted() throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean executed = new AtomicBoolean();
+    final ExecutorService singleExecutor = Executors.newSingleThreadExecutor();
+    try {
+      final JPAParallelTasks<Integer> tasks = new JPAParallelTasks<>(singleExecutor, QUERY_PARALLEL_EXECUTION_ERROR);
+      tasks.submit(() -> {
+        release.await();
+        return 1;
+      });
+      tasks.submit(() -> {
+        executed.set(true);
+        return 2;
+      });
+      tasks.cancel();
+      singleExecutor.shutdown();
+      assertTrue(singleExecutor.awaitTermination(10, TimeUnit.SECONDS));
+      assertFalse(executed.get());
+    } finally {
+      singleExecutor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataDefaultResultCache;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.api.example.JPAExampleCUDRequestHandler;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAResultCacheRequestProcessor extends TestBase {
+  private JPAODataDefaultResultCache cache;
+  private JPAODataCRUDContextAccess cachingContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    cache = spy(new JPAODataDefaultResultCache(10, 60000L));
+    cachingContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setResultCache(cache)
+        .build();
+  }
+
+  @Test
+  public void testSecondRequestReturnsCachedResult() throws IOException, ODataException {
+    final String url = "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode&$expand=Children";
+    final IntegrationTestHelper first = new IntegrationTestHelper(cachingContext, emf, url);
+    final IntegrationTestHelper second = new IntegrationTestHelper(cachingContext, emf, url);
+    first.assertStatus(200);
+    second.assertStatus(200);
+
+    assertEquals(first.getValue(), second.getValue());
+    assertEquals(1, cache.size());
+    verify(cache, times(1)).put(any(), any());
+  }
+
+  @Test
+  public void testOrderOfQueryOptionsIgnored() throws IOException, ODataException {
+    new IntegrationTestHelper(cachingContext, emf,
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode").assertStatus(200);
+    new IntegrationTestHelper(cachingContext, emf,
+        "AdministrativeDivisions?$orderby=DivisionCode&$filter=CodeID eq 'NUTS1'").assertStatus(200);
+
+    assertEquals(1, cache.size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Children($expand=Parent)&$top=1&$skip=0",
+      "AdministrativeDivisions(DivisionCode='BE1',CodeID='NUTS1',CodePublisher='Eurostat')/Parent",
+      "AdministrativeDivisions(DivisionCode='BE1',CodeID='NUTS1',CodePublisher='Eurostat')/Children/$count",
+      "AdministrativeDivisions(DivisionCode='BE1',CodeID='NUTS1',CodePublisher='Eurostat')/Area",
+      "AdministrativeDivisions?$filter=Children/any(d:d/CodeID eq 'NUTS2')&$orderby=DivisionCode" })
+  public void testCachedResultEqualsUncachedResult(final String url) throws IOException, ODataException {
+    final String expected = new IntegrationTestHelper(emf, url).getRawResult();
+    assertEquals(expected, new IntegrationTestHelper(cachingContext, emf, url).getRawResult());
+    assertEquals(expected, new IntegrationTestHelper(cachingContext, emf, url).getRawResult());
+  }
+
+  @Test
+  public void testConditionalReadNotAnsweredFromCache() throws IOException, ODataException {
+    doReturn(true).when(cache).isCacheable(any());
+    final IntegrationTestHelper first = new IntegrationTestHelper(cachingContext, emf, "Organizations('3')");
+    first.assertStatus(200);
+    verify(cache, times(1)).put(any(), any());
+
+    createHeaders();
+    addHeader("If-None-Match", "\"" + first.getValue().get("ETag").asText() + "\"");
+    new IntegrationTestHelper(cachingContext, emf, "Organizations('3')", headers).assertStatus(304);
+    createHeaders();
+    addHeader("If-Match", "\"4711\"");
+    new IntegrationTestHelper(cachingContext, emf, "Organizations('3')", headers).assertStatus(412);
+
+    // Only the first request used the cache
+    verify(cache, times(1)).get(any());
+    verify(cache, times(1)).put(any(), any());
+  }
+
+  @Test
+  public void testReadViaBaseTypeInvalidatedByWriteViaSubType() throws IOException, ODataException {
+    doReturn(true).when(cache).isCacheable(any());
+    final IntegrationTestHelper first = new IntegrationTestHelper(cachingContext, emf, "BusinessPartners('3')");
+    first.assertStatus(200);
+    assertEquals(1, cache.size());
+
+    final EntityManager em = emf.createEntityManager();
+    final Organization organization = em.find(Organization.class, "3");
+    final String name2 = organization.getName2();
+    final long eTag = organization.getETag();
+    try {
+      final IntegrationTestHelper patch = new IntegrationTestHelper(cachingContext, emf, "$batch", createPatchBody(
+          "Organizations('3')", "{\"Name2\": \"Changed\"}"), new JPAExampleCUDRequestHandler());
+      patch.assertStatus(202);
+      assertEquals(200, patch.getBatchResultStatus(1));
+      assertEquals(0, cache.size());
+    } finally {
+      em.getTransaction().begin();
+      em.createQuery("UPDATE Organization o SET o.name2 = :name2, o.eTag = :eTag WHERE o.iD = '3'")
+          .setParameter("name2", name2)
+          .setParameter("eTag", eTag)
+          .executeUpdate();
+      em.getTransaction().commit();
+      em.close();
+    }
+  }
+
+  @Test
+  public void testReadViaSubTypeInvalidatedByBaseType() throws IOException, ODataException {
+    doReturn(true).when(cache).isCacheable(any());
+    new IntegrationTestHelper(cachingContext, emf, "Organizations('3')").assertStatus(200);
+    assertEquals(1, cache.size());
+
+    cache.invalidate(cachingContext.getEdmProvider().getServiceDocument().getEntity("BusinessPartners"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testReadInvalidatedByTypeOfDescription() throws IOException, ODataException {
+    doReturn(true).when(cache).isCacheable(any());
+    new IntegrationTestHelper(cachingContext, emf, "Organizations('3')?$select=LocationName").assertStatus(200);
+    assertEquals(1, cache.size());
+
+    cache.invalidate(cachingContext.getEdmProvider().getServiceDocument().getEntity(
+        new FullQualifiedName(PUNIT_NAME, "AdministrativeDivisionDescription")));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testNotCachedIfEntityTypeNotCacheable() throws IOException, ODataException {
+    new IntegrationTestHelper(cachingContext, emf, "Organizations?$orderby=ID").assertStatus(200);
+    new IntegrationTestHelper(cachingContext, emf, "Organizations?$orderby=ID").assertStatus(200);
+
+    verify(cache, never()).put(any(), any());
+  }
+
+  @Test
+  public void testNotCachedIfPathContainsNotCacheableEntityType() throws IOException, ODataException {
+    new IntegrationTestHelper(cachingContext, emf,
+        "Organizations('3')/Roles?$orderby=RoleCategory").assertStatus(200);
+
+    verify(cache, never()).put(any(), any());
+  }
+
+  private StringBuffer createPatchBody(final String url, final String content) {
+    final StringBuffer body = new StringBuffer();
+    body.append("--abc123\r\n");
+    body.append("Content-Type: multipart/mixed;boundary=changeset_01\r\n");
+    body.append("\r\n");
+    body.append("--changeset_01\r\n");
+    body.append("Content-Type: application/http\r\n");
+    body.append("Content-Transfer-Encoding: binary\r\n");
+    body.append("Content-ID: 1\r\n");
+    body.append("\r\n");
+    body.append("PATCH " + url + " HTTP/1.1\r\n");
+    body.append("Content-Type: application/json\r\n");
+    body.append("\r\n");
+    body.append(content + "\r\n");
+    body.append("--changeset_01--\r\n");
+    body.append("--abc123--");
+    return body;
+  }
+}
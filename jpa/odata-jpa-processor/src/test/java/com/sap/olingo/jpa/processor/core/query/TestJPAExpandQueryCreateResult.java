@@ -21,6 +21,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.exception.JPAIllicalAccessException;
 import com.sap.olingo.jpa.processor.core.processor.JPAODataRequestContextImpl;
 import com.sap.olingo.jpa.processor.core.util.EdmEntityTypeDouble;
@@ -61,11 +62,11 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     Tuple t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
-    assertNotNull(act.get("1"));
-    assertEquals(1, act.get("1").size());
-    assertEquals("1", act.get("1").get(0).get("BusinessPartnerID"));
+    assertNotNull(act.get(JPAResultKey.of("1")));
+    assertEquals(1, act.get(JPAResultKey.of("1")).size());
+    assertEquals("1", act.get(JPAResultKey.of("1")).get(0).get("BusinessPartnerID"));
   }
 
   @Test
@@ -86,12 +87,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(2, act.get("2").size());
-    assertEquals("2", act.get("2").get(0).get("BusinessPartnerID"));
+    assertNotNull(act.get(JPAResultKey.of("2")));
+    assertEquals(2, act.get(JPAResultKey.of("2")).size());
+    assertEquals("2", act.get(JPAResultKey.of("2")).get(0).get("BusinessPartnerID"));
   }
 
   @Test
@@ -112,12 +113,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, 1);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, 1);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("A", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAResultKey.of("2")));
+    assertEquals(1, act.get(JPAResultKey.of("2")).size());
+    assertEquals("A", act.get(JPAResultKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -138,12 +139,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 1, 1000);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 1, 1000);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("C", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAResultKey.of("2")));
+    assertEquals(1, act.get(JPAResultKey.of("2")).size());
+    assertEquals("C", act.get(JPAResultKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -164,13 +165,13 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(2, act.size());
-    assertNotNull(act.get("1"));
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("C", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAResultKey.of("1")));
+    assertNotNull(act.get(JPAResultKey.of("2")));
+    assertEquals(1, act.get(JPAResultKey.of("2")).size());
+    assertEquals("C", act.get(JPAResultKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -186,11 +187,11 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     Tuple t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
-    assertNotNull(act.get("NUTS/2/BE25"));
-    assertEquals(1, act.get("NUTS/2/BE25").size());
-    assertEquals("BE2", act.get("NUTS/2/BE25").get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAResultKey.of("NUTS", "2", "BE25")));
+    assertEquals(1, act.get(JPAResultKey.of("NUTS", "2", "BE25")).size());
+    assertEquals("BE2", act.get(JPAResultKey.of("NUTS", "2", "BE25")).get(0).get("ParentDivisionCode"));
   }
 
   @Test
@@ -218,15 +219,15 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(2, act.size());
-    assertNotNull(act.get("NUTS/2/BE25"));
-    assertEquals(1, act.get("NUTS/2/BE25").size());
-    assertEquals("BE2", act.get("NUTS/2/BE25").get(0).get("ParentDivisionCode"));
-    assertNotNull(act.get("NUTS/2/BE10"));
-    assertEquals(1, act.get("NUTS/2/BE10").size());
-    assertEquals("BE1", act.get("NUTS/2/BE10").get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAResultKey.of("NUTS", "2", "BE25")));
+    assertEquals(1, act.get(JPAResultKey.of("NUTS", "2", "BE25")).size());
+    assertEquals("BE2", act.get(JPAResultKey.of("NUTS", "2", "BE25")).get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAResultKey.of("NUTS", "2", "BE10")));
+    assertEquals(1, act.get(JPAResultKey.of("NUTS", "2", "BE10")).size());
+    assertEquals("BE1", act.get(JPAResultKey.of("NUTS", "2", "BE10")).get(0).get("ParentDivisionCode"));
   }
 
   @Test
@@ -244,10 +245,10 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     Tuple t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAResultKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("97", act.get("2").get(0).get("ID"));
+    assertNotNull(act.get(JPAResultKey.of("2")));
+    assertEquals(1, act.get(JPAResultKey.of("2")).size());
+    assertEquals("97", act.get(JPAResultKey.of("2")).get(0).get("ID"));
   }
 }
@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
 import com.sap.olingo.jpa.processor.core.util.TestHelper;
@@ -44,7 +45,7 @@ public class TestJPAExpandQueryResult extends TestBase {
   private ExpandOption expand;
   private JPAODataRequestContextAccess requestContext;
   private TestHelper helper;
-  private HashMap<String, List<Tuple>> queryResult = new HashMap<>(1);
+  private HashMap<JPAResultKey, List<Tuple>> queryResult = new HashMap<>(1);
   private List<Tuple> tuples = new ArrayList<>();
   private JPAEntityType et;
   private List<JPANavigationProptertyInfo> hops;
@@ -65,7 +66,20 @@ public class TestJPAExpandQueryResult extends TestBase {
     skip = mock(SkipOption.class);
     expand = mock(ExpandOption.class);
     when(requestContext.getUriInfo()).thenReturn(uriInfo);
-    queryResult.put("root", tuples);
+    queryResult.put(JPAResultKey.ROOT, tuples);
+  }
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void checkDeprecatedStringKeysFindResult() {
+    final List<Tuple> children = new ArrayList<>();
+    queryResult.put(JPAResultKey.of(10L, "A"), children);
+    cut = new JPAExpandQueryResult(queryResult, null, et, Collections.emptyList());
+
+    assertEquals(tuples, cut.getResult(JPAExpandQueryResult.ROOT_RESULT_KEY));
+    assertEquals(children, cut.getResult("10/A"));
+    assertEquals(children, cut.getResults().get("10/A"));
+    assertNull(cut.getResult("11/A"));
   }
 
   @Test
@@ -116,7 +130,7 @@ public class TestJPAExpandQueryResult extends TestBase {
   @Test  
   public void checkGetKeyBoundaryEmptyBoundaryNoResult() throws ODataJPAModelException, ODataJPAQueryException {
 
-    queryResult.put("root", Collections.emptyList());
+    queryResult.put(JPAResultKey.ROOT, Collections.emptyList());
 
     cut = new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType("Organizations"),
         Collections.emptyList());
@@ -0,0 +1,266 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.olingo.jpa.processor.core.api.JPAClaimsPair;
+import com.sap.olingo.jpa.processor.core.api.JPAODataClaimsProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataDefaultPagingProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataPagingProvider;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorApply extends TestBase {
+
+  @Test
+  public void testGroupByWithCountDistinct() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country),aggregate(ID with countdistinct as Count))");
+
+    helper.assertStatus(200);
+    final Map<String, JsonNode> act = groupBy(helper.getValues(), "Country");
+    assertEquals(2, act.size());
+    assertEquals(9, act.get("USA").get("Count").asInt());
+    assertEquals(1, act.get("DEU").get("Count").asInt());
+  }
+
+  @Test
+  public void testGroupByReturnsOnlyGroupingProperties() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$apply=groupby((Country))");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(2, act.size());
+    assertEquals(1, act.get(0).size());
+    assertFalse(act.get(0).has("ID"));
+  }
+
+  @Test
+  public void testGroupByWithSumAndMax() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions?$apply=groupby((CodePublisher),"
+            + "aggregate(Population with sum as TotalPopulation,Area with max as MaxArea))");
+
+    helper.assertStatus(200);
+    final Map<String, JsonNode> act = groupBy(helper.getValues(), "CodePublisher");
+    assertEquals(1181974L, act.get("Eurostat").get("TotalPopulation").asLong());
+    assertEquals(149401818L, act.get("Eurostat").get("MaxArea").asLong());
+    assertEquals(0L, act.get("ISO").get("TotalPopulation").asLong());
+  }
+
+  @Test
+  public void testAggregateWithoutGroupBy() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=aggregate(Country with countdistinct as Countries,"
+            + "CreationDateTime with max as Last,ETag with average as Average)");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals(2, act.get(0).get("Countries").asInt());
+    assertEquals("2016-01-20T09:21:23Z", act.get(0).get("Last").asText());
+    assertEquals(0.0, act.get(0).get("Average").asDouble());
+  }
+
+  @Test
+  public void testFilterBeforeGroupBy() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=filter(Country eq 'USA')/groupby((Country),aggregate(ID with countdistinct as Count))");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals("USA", act.get(0).get("Country").asText());
+    assertEquals(9, act.get(0).get("Count").asInt());
+  }
+
+  @Test
+  public void testFilterWithoutAggregationNotSupported() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=filter(Country eq 'USA')");
+
+    helper.assertStatus(501);
+  }
+
+  @Test
+  public void testFilterOptionOnGroupedProperty() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country),aggregate(ID with countdistinct as Count))&$filter=Country eq 'DEU'");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals("DEU", act.get(0).get("Country").asText());
+    assertEquals(1, act.get(0).get("Count").asInt());
+  }
+
+  @Test
+  public void testFilterOptionOnNotGroupedPropertyRejected() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions?$apply=groupby((CodePublisher))&$filter=CodeID eq 'NUTS1'");
+
+    helper.assertStatus(400);
+  }
+
+  @Test
+  public void testFilterOptionOnAggregatedValueNotSupported() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country),aggregate(ID with countdistinct as Count))&$filter=Count gt 1");
+
+    helper.assertStatus(501);
+  }
+
+  @Test
+  public void testOrderByAggregatedValueWithTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country),aggregate(ID with countdistinct as Count))&$orderby=Count desc&$top=1");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals("USA", act.get(0).get("Country").asText());
+  }
+
+  @Test
+  public void testOrderByGroupedPropertyWithSkip() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country))&$orderby=Country desc&$skip=1");
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals("DEU", act.get(0).get("Country").asText());
+  }
+
+  @Test
+  public void testOrderByNotGroupedPropertyRejected() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country))&$orderby=Name1");
+
+    helper.assertStatus(400);
+  }
+
+  @Test
+  public void testCountIgnoresTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country))&$orderby=Country&$count=true&$top=1");
+
+    helper.assertStatus(200);
+    assertEquals(2, helper.getValue().get("@odata.count").asInt());
+    assertEquals(1, helper.getValues().size());
+    assertEquals("DEU", helper.getValues().get(0).get("Country").asText());
+  }
+
+  @Test
+  public void testGroupByAfterNavigation() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations('3')/Roles?$apply=groupby((RoleCategory))");
+
+    helper.assertStatus(200);
+    assertEquals(3, helper.getValues().size());
+  }
+
+  @Test
+  public void testCountOfAggregatedResult() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country))&$count=true");
+
+    helper.assertStatus(200);
+    assertEquals(2, helper.getValue().get("@odata.count").asInt());
+  }
+
+  @Test
+  public void testCountContainsGroupOfNullValue() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions?$apply=groupby((ParentCodeID))&$count=true");
+
+    helper.assertStatus(200);
+    assertEquals(helper.getValues().size(), helper.getValue().get("@odata.count").asInt());
+    assertTrue(helper.getValues().get(0).get("ParentCodeID").isNull()
+        || helper.getValues().get(helper.getValues().size() - 1).get("ParentCodeID").isNull());
+  }
+
+  @Test
+  public void testCountOfSeveralGroupingProperties() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions?$apply=groupby((CodePublisher,CodeID))&$count=true&$top=2");
+
+    helper.assertStatus(200);
+    assertEquals(2, helper.getValues().size());
+    assertEquals(new IntegrationTestHelper(emf, "AdministrativeDivisions?$apply=groupby((CodePublisher,CodeID))")
+        .getValues().size(), helper.getValue().get("@odata.count").asInt());
+  }
+
+  @Test
+  public void testServerDrivenPagingOfAggregatedRows() throws IOException, ODataException {
+    final JPAODataPagingProvider provider = JPAODataDefaultPagingProvider.with().setMaxPageSize(1).build();
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country))&$orderby=Country&$count=true", provider);
+
+    helper.assertStatus(200);
+    assertEquals(1, helper.getValues().size());
+    assertEquals("DEU", helper.getValues().get(0).get("Country").asText());
+    assertEquals(2, helper.getValue().get("@odata.count").asInt());
+    final String nextLink = helper.getValue().get("@odata.nextLink").asText();
+
+    final IntegrationTestHelper next = new IntegrationTestHelper(emf, nextLink, provider);
+    next.assertStatus(200);
+    assertEquals(1, next.getValues().size());
+    assertEquals("USA", next.getValues().get(0).get("Country").asText());
+    assertFalse(next.getValue().has("@odata.nextLink"));
+  }
+
+  @Test
+  public void testGroupByRestrictedByClaims() throws IOException, ODataException {
+    final JPAODataClaimsProvider claims = new JPAODataClaimsProvider();
+    claims.add("UserId", new JPAClaimsPair<>("Willi"));
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "BusinessPartnerProtecteds?$apply=groupby((Country))", claims);
+
+    helper.assertStatus(200);
+    final ArrayNode act = helper.getValues();
+    assertEquals(1, act.size());
+    assertEquals("DEU", act.get(0).get("Country").asText());
+  }
+
+  @Test
+  public void testGroupByRejectedWithoutClaims() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "BusinessPartnerProtecteds?$apply=groupby((Country))");
+
+    helper.assertStatus(403);
+  }
+
+  @Test
+  public void testFilterAfterAggregationNotSupported() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Country),aggregate(ETag with sum as Total))/filter(Total gt 1)");
+
+    helper.assertStatus(501);
+  }
+
+  @Test
+  public void testGroupByComplexPropertyNotSupported() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$apply=groupby((Address/Region))");
+
+    helper.assertStatus(501);
+  }
+
+  private Map<String, JsonNode> groupBy(final ArrayNode values, final String property) {
+    final Map<String, JsonNode> result = new HashMap<>();
+    for (final JsonNode value : values)
+      result.put(value.get(property).asText(), value);
+    return result;
+  }
+}
@@ -0,0 +1,86 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorAsyncCount extends TestBase {
+  private JPAODataCRUDContextAccess asyncContext;
+  private JPAODataCRUDContextAccess syncContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    asyncContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setQueryThreadPoolSize(1)
+        .setAsyncCount(true)
+        .build();
+    syncContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+  }
+
+  @Test
+  public void testAsyncCountSwitchedOffByDefault() {
+    assertTrue(asyncContext.useAsyncCount());
+    assertFalse(syncContext.useAsyncCount());
+  }
+
+  @Test
+  public void testAsyncCountWithTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(asyncContext, emf,
+        "Organizations?$count=true&$top=2");
+    helper.assertStatus(200);
+
+    final ObjectNode collection = helper.getValue();
+    assertEquals(10, collection.get("@odata.count").asInt());
+    assertEquals(2, collection.get("value").size());
+  }
+
+  @Test
+  public void testAsyncCountWithoutThreadPool() throws IOException, ODataException {
+    final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setAsyncCount(true)
+        .build();
+    final IntegrationTestHelper helper = new IntegrationTestHelper(context, emf,
+        "Organizations?$count=true&$filter=Address/Region eq 'US-CA'");
+    helper.assertStatus(200);
+    assertEquals(3, helper.getValue().get("@odata.count").asInt());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$count=true&$orderby=ID&$expand=Roles",
+      "Organizations?$count=true&$filter=Address/Region eq 'US-CA'&$orderby=ID",
+      "Organizations('3')/Roles?$count=true&$orderby=RoleCategory",
+      "AdministrativeDivisions?$count=true&$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode",
+      "Organizations?$count=false&$orderby=ID" })
+  public void testAsyncCountEqualsSyncCount(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper sync = new IntegrationTestHelper(syncContext, emf, url);
+    final IntegrationTestHelper async = new IntegrationTestHelper(asyncContext, emf, url);
+    sync.assertStatus(200);
+    async.assertStatus(200);
+    assertEquals(sync.getValue(), async.getValue());
+  }
+}
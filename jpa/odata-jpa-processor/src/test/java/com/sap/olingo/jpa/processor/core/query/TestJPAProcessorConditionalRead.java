@@ -0,0 +1,96 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorConditionalRead extends TestBase {
+  private String etag;
+
+  @BeforeEach
+  public void setup() throws IOException, ODataException {
+    createHeaders();
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')");
+    helper.assertStatus(200);
+    etag = helper.getValue().get("ETag").asText();
+  }
+
+  @Test
+  public void testNotModifiedIfNoneMatchesCurrentVersion() throws IOException, ODataException {
+    addHeader("If-None-Match", "\"" + etag + "\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')?$expand=Roles", null,
+        headers);
+
+    helper.assertStatus(304);
+    assertTrue(helper.getRawResult().isEmpty());
+  }
+
+  @Test
+  public void testNotModifiedIfNoneMatchesUnquotedVersion() throws IOException, ODataException {
+    addHeader("If-None-Match", etag);
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')", null, headers);
+
+    helper.assertStatus(304);
+  }
+
+  @Test
+  public void testEntityReadIfNoneMatchDiffers() throws IOException, ODataException {
+    addHeader("If-None-Match", "\"4711\", \"0815\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')", null, headers);
+
+    helper.assertStatus(200);
+    assertEquals("3", helper.getValue().get("ID").asText());
+  }
+
+  @Test
+  public void testEntityReadIfMatchesCurrentVersion() throws IOException, ODataException {
+    addHeader("If-Match", "\"" + etag + "\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')", null, headers);
+
+    helper.assertStatus(200);
+    assertEquals("3", helper.getValue().get("ID").asText());
+  }
+
+  @Test
+  public void testNavigationReadIfNoneMatchDiffers() throws IOException, ODataException {
+    addHeader("If-None-Match", "\"4711\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "BusinessPartnerRoles(BusinessPartnerID='3',RoleCategory='C')/BusinessPartner?$expand=Roles", null, headers);
+
+    helper.assertStatus(200);
+    assertEquals("3", helper.getValue().get("ID").asText());
+    assertTrue(helper.getValue().get("Roles").size() > 0);
+  }
+
+  @Test
+  public void testPreconditionFailedIfMatchDiffers() throws IOException, ODataException {
+    addHeader("If-Match", "\"4711\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')", null, headers);
+
+    helper.assertStatus(412);
+  }
+
+  @Test
+  public void testNotFoundIfEntityDoesNotExist() throws IOException, ODataException {
+    addHeader("If-None-Match", "\"" + etag + "\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('4711')", null, headers);
+
+    helper.assertStatus(404);
+  }
+
+  @Test
+  public void testCollectionIgnoresIfNoneMatch() throws IOException, ODataException {
+    addHeader("If-None-Match", "\"" + etag + "\"");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations", null, headers);
+
+    helper.assertStatus(200);
+  }
+}
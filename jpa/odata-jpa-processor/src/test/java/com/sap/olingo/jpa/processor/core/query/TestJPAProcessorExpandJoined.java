@@ -0,0 +1,121 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataExpandStrategy;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+import com.sap.olingo.jpa.processor.core.util.TestHelper;
+
+public class TestJPAProcessorExpandJoined extends TestBase {
+  private JPAODataCRUDContextAccess joinContext;
+  private JPAODataCRUDContextAccess separateContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    joinContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setExpandStrategy(JPAODataExpandStrategy.JOIN_TO_ONE)
+        .build();
+    separateContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+  }
+
+  @Test
+  public void testDefaultStrategyJoinsOnlyAnnotatedAssociations() throws ODataException {
+    final TestHelper testHelper = new TestHelper(emf, PUNIT_NAME);
+    assertEquals(JPAODataExpandStrategy.ANNOTATED, separateContext.getExpandStrategy());
+    assertFalse(separateContext.getExpandStrategy().isJoined(testHelper.getJPAAssociationPath(
+        "AdministrativeDivisions", "Parent")));
+    assertTrue(joinContext.getExpandStrategy().isJoined(testHelper.getJPAAssociationPath(
+        "AdministrativeDivisions", "Parent")));
+    assertFalse(joinContext.getExpandStrategy().isJoined(testHelper.getJPAAssociationPath(
+        "AdministrativeDivisions", "Children")));
+  }
+
+  @Test
+  public void testExpandToOneJoined() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(joinContext, emf,
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$orderby=DivisionCode&$expand=Parent");
+    helper.assertStatus(200);
+
+    final ArrayNode divisions = helper.getValues();
+    final ObjectNode division = (ObjectNode) divisions.get(0);
+    assertEquals("BE10", division.get("DivisionCode").asText());
+    assertEquals("BE1", division.get("Parent").get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandToOneWithoutTargetJoined() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(joinContext, emf,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Parent");
+    helper.assertStatus(200);
+
+    final ObjectNode division = helper.getValue();
+    assertTrue(division.get("Parent").isNull());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$expand=Parent",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Parent,Children",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS3'&$expand=Parent($expand=Parent)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$expand=Parent($select=DivisionCode;$expand=Children)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$expand=Parent($filter=DivisionCode eq 'BE2')",
+      "AdministrativeDivisions?$orderby=DivisionCode&$top=10&$skip=5&$expand=Parent",
+      "BusinessPartnerRoles?$expand=BusinessPartner",
+      "BusinessPartnerRoles?$expand=Organization($select=ID,Name1)",
+      "Organizations('3')/Roles?$expand=Organization",
+      "Persons('99')?$expand=Image,Roles"
+  })
+  public void testJoinedResultEqualsSeparateResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper separate = new IntegrationTestHelper(separateContext, emf, url);
+    final IntegrationTestHelper joined = new IntegrationTestHelper(joinContext, emf, url);
+    separate.assertStatus(200);
+    joined.assertStatus(200);
+    assertEquals(normalize(separate.getValue()), normalize(joined.getValue()));
+  }
+
+  /**
+   * Collection properties and expands without $orderby have no guaranteed order, so arrays are compared sorted.
+   */
+  private String normalize(final JsonNode node) {
+    if (node.isArray()) {
+      final List<String> items = new ArrayList<>();
+      node.forEach(item -> items.add(normalize(item)));
+      Collections.sort(items);
+      return items.toString();
+    }
+    if (node.isObject()) {
+      final Map<String, String> fields = new TreeMap<>();
+      node.fields().forEachRemaining(field -> fields.put(field.getKey(), normalize(field.getValue())));
+      return fields.toString();
+    }
+    return node.toString();
+  }
+}
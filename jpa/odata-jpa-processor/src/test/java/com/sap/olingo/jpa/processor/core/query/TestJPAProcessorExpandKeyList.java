@@ -0,0 +1,109 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorExpandKeyList extends TestBase {
+  private JPAODataCRUDContextAccess keyListContext;
+  private JPAODataCRUDContextAccess smallKeyListContext;
+  private JPAODataCRUDContextAccess defaultContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    keyListContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setMaxExpandKeys(1000)
+        .setExpandKeyChunkSize(2)
+        .build();
+    smallKeyListContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setMaxExpandKeys(2)
+        .build();
+    defaultContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+  }
+
+  @Test
+  public void testDefaultDoesNotUseKeys() {
+    assertEquals(0, defaultContext.getMaxExpandKeys());
+    assertEquals(500, defaultContext.getExpandKeyChunkSize());
+  }
+
+  @Test
+  public void testExpandRestrictedByKeysInChunks() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(keyListContext, emf,
+        "Organizations?$filter=ID ne '2'&$orderby=ID&$expand=Roles");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(9, orgs.size());
+    assertEquals("1", orgs.get(0).get("ID").asText());
+    assertEquals(1, orgs.get(0).get("Roles").size());
+    assertEquals("3", orgs.get(2).get("ID").asText());
+    assertEquals(3, orgs.get(2).get("Roles").size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$filter=ID ne '2'&$expand=Roles",
+      "Organizations?$orderby=ID&$top=3&$skip=2&$expand=Roles",
+      "Organizations?$filter=Address/Region eq 'US-CA'&$select=ID,Comment",
+      "Persons?$select=ID,InhouseAddress",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Children",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Children($expand=Children)",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$expand=Children($filter=DivisionCode eq 'BE251')",
+      "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')/Children?$expand=Children",
+      "Organizations('3')/Roles?$expand=Organization"
+  })
+  public void testKeyListResultEqualsDefaultResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper expected = new IntegrationTestHelper(defaultContext, emf, url);
+    final IntegrationTestHelper keyList = new IntegrationTestHelper(keyListContext, emf, url);
+    final IntegrationTestHelper fallback = new IntegrationTestHelper(smallKeyListContext, emf, url);
+    expected.assertStatus(200);
+    keyList.assertStatus(200);
+    fallback.assertStatus(200);
+    assertEquals(normalize(expected.getValue()), normalize(keyList.getValue()));
+    assertEquals(normalize(expected.getValue()), normalize(fallback.getValue()));
+  }
+
+  private String normalize(final JsonNode node) {
+    if (node.isArray()) {
+      final List<String> items = new ArrayList<>();
+      node.forEach(item -> items.add(normalize(item)));
+      Collections.sort(items);
+      return items.toString();
+    }
+    if (node.isObject()) {
+      final Map<String, String> fields = new TreeMap<>();
+      node.fields().forEachRemaining(field -> fields.put(field.getKey(), normalize(field.getValue())));
+      return fields.toString();
+    }
+    return node.toString();
+  }
+}
@@ -0,0 +1,134 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorExpandParallel extends TestBase {
+  private JPAODataCRUDContextAccess parallelContext;
+  private JPAODataCRUDContextAccess sequentialContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    parallelContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setQueryThreadPoolSize(2)
+        .setMaxParallelQueriesPerRequest(3)
+        .build();
+    sequentialContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+  }
+
+  @AfterEach
+  public void teardown() {
+    parallelContext.close();
+  }
+
+  @Test
+  public void testCloseShutsDownCreatedExecutor() {
+    parallelContext.close();
+    assertTrue(parallelContext.getQueryExecutor().get().isShutdown());
+  }
+
+  @Test
+  public void testCloseKeepsProvidedExecutor() throws ODataException {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final JPAODataCRUDContextAccess context = JPAODataServiceContext.with()
+          .setPUnit(PUNIT_NAME)
+          .setEntityManagerFactory(emf)
+          .setTypePackage(enumPackages)
+          .setQueryExecutor(executor)
+          .build();
+
+      assertSame(executor, context.getQueryExecutor().get());
+      assertEquals(3, context.getMaxParallelQueries());
+      context.close();
+      assertFalse(executor.isShutdown());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParallelContextProvidesExecutor() {
+    assertTrue(parallelContext.getQueryExecutor().isPresent());
+    assertEquals(3, parallelContext.getMaxParallelQueries());
+  }
+
+  @Test
+  public void testExpandMultipleNavigationProperties() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(parallelContext, emf,
+        "Organizations?$orderby=ID&$expand=Roles,AdministrativeInformation/Created/User");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    final ObjectNode org = (ObjectNode) orgs.get(3);
+    assertEquals(3, org.get("Roles").size());
+    assertEquals("99", org.get("AdministrativeInformation").get("Created").get("User").get("ID").asText());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$orderby=ID&$expand=Roles,AdministrativeInformation/Created/User",
+      "Organizations('3')?$expand=Roles,AdministrativeInformation/Updated/User",
+      "Persons('99')?$expand=Roles,Image,SupportedOrganizations",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$expand=Children($expand=Children),Parent",
+      "Organizations?$select=ID,Comment&$orderby=ID&$expand=Roles,SupportEngineers"
+  })
+  public void testParallelResultEqualsSequentialResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper sequential = new IntegrationTestHelper(sequentialContext, emf, url);
+    final IntegrationTestHelper parallel = new IntegrationTestHelper(parallelContext, emf, url);
+    sequential.assertStatus(200);
+    parallel.assertStatus(200);
+    assertEquals(normalize(sequential.getValue()), normalize(parallel.getValue()));
+  }
+
+  /**
+   * Collection properties and expands without $orderby have no guaranteed order, so arrays are compared sorted.
+   */
+  private String normalize(final JsonNode node) {
+    if (node.isArray()) {
+      final List<String> items = new ArrayList<>();
+      node.forEach(item -> items.add(normalize(item)));
+      Collections.sort(items);
+      return items.toString();
+    }
+    if (node.isObject()) {
+      final Map<String, String> fields = new TreeMap<>();
+      node.fields().forEachRemaining(field -> fields.put(field.getKey(), normalize(field.getValue())));
+      return fields.toString();
+    }
+    return node.toString();
+  }
+}
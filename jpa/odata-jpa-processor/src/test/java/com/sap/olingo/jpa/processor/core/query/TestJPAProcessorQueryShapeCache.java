@@ -0,0 +1,163 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorQueryShapeCache extends TestBase {
+  private JPAODataCRUDContextAccess context;
+  private JPAQueryShapeCache cache;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    context = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setQueryShapeCacheSize(2)
+        .build();
+    cache = context.getQueryShapeCache().get();
+  }
+
+  @Test
+  public void testDefaultHasNoCache() throws ODataException {
+    final JPAODataCRUDContextAccess defaultContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+    assertFalse(defaultContext.getQueryShapeCache().isPresent());
+  }
+
+  @Test
+  public void testSameShapeDifferentFilterValue() throws IOException, ODataException {
+    assertEquals(3, read("Organizations?$filter=Address/Region eq 'US-CA'").size());
+    assertEquals(1, cache.size());
+    final ArrayNode orgs = read("Organizations?$filter=Address/Region eq 'US-UT'&$orderby=ID");
+    assertEquals(2, cache.size());
+    final ArrayNode orgsAgain = read("Organizations?$filter=Address/Region eq 'US-CA'&$orderby=ID");
+    assertEquals(2, cache.size());
+    assertEquals(orgs.size(), read("Organizations?$filter=Address/Region eq 'US-UT'&$orderby=ID").size());
+    assertEquals(3, orgsAgain.size());
+    assertEquals("1", orgsAgain.get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testSameShapeDifferentKey() throws IOException, ODataException {
+    IntegrationTestHelper helper = new IntegrationTestHelper(context, emf, "Organizations('3')");
+    helper.assertStatus(200);
+    assertEquals("3", helper.getValue().get("ID").asText());
+
+    helper = new IntegrationTestHelper(context, emf, "Organizations('1')");
+    helper.assertStatus(200);
+    final ObjectNode org = helper.getValue();
+    assertEquals("1", org.get("ID").asText());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testSameShapeDifferentTop() throws IOException, ODataException {
+    assertEquals(2, read("Organizations?$filter=ID ne '3'&$orderby=ID&$top=2").size());
+    final ArrayNode orgs = read("Organizations?$filter=ID ne '1'&$orderby=ID&$top=4&$skip=1");
+    assertEquals(1, cache.size());
+    assertEquals(4, orgs.size());
+    assertEquals("2", orgs.get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testSameShapeDifferentLikePattern() throws IOException, ODataException {
+    assertEquals(1, read("Organizations?$filter=contains(Name1,'First')").size());
+    assertEquals(0, read("Organizations?$filter=contains(Name1,'Xyz')").size());
+    assertEquals(1, read("Organizations?$filter=contains(Name1,'Second')").size());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testSameShapeDifferentLambdaValue() throws IOException, ODataException {
+    final int withA = read("Organizations?$filter=Roles/any(d:d/RoleCategory eq 'A')").size();
+    final ArrayNode withC = read("Organizations?$filter=Roles/any(d:d/RoleCategory eq 'C')");
+    assertEquals(1, cache.size());
+    assertEquals(withA, read("Organizations?$filter=Roles/any(d:d/RoleCategory eq 'A')").size());
+    assertEquals(3, withC.size());
+  }
+
+  @Test
+  public void testLiteralNotBoundIsPartOfShape() throws IOException, ODataException {
+    assertEquals(1, read("Organizations?$filter=substring(Name1,1) eq 'irst Org.'").size());
+    assertEquals(1, read("Organizations?$filter=substring(Name1,2) eq 'rst Org.'").size());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testShapesBeyondMaximumNotCached() throws IOException, ODataException {
+    read("Organizations?$select=ID");
+    read("Organizations?$select=ID,Name1");
+    final ArrayNode orgs = read("Organizations?$select=ID,Name2");
+    assertEquals(2, cache.size());
+    assertEquals(10, orgs.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testMaximumPerEntityManagerFactory() {
+    final JPAQueryShapeCache cut = new JPAQueryShapeCache(1);
+    final EntityManager em1 = createEntityManager();
+    final EntityManager em2 = createEntityManager();
+    final CriteriaQuery<Tuple> cq = mock(CriteriaQuery.class);
+
+    cut.createQuery(em1, "A", cq);
+    cut.createQuery(em1, "B", cq);
+    cut.createQuery(em2, "B", cq);
+    assertEquals(2, cut.size());
+    verify(em1.getEntityManagerFactory(), times(1)).addNamedQuery(anyString(), any(Query.class));
+    verify(em2.getEntityManagerFactory(), times(1)).addNamedQuery(anyString(), any(Query.class));
+
+    final TypedQuery<Tuple> named = mock(TypedQuery.class);
+    when(em2.createNamedQuery(anyString(), eq(Tuple.class))).thenReturn(named);
+    assertSame(named, cut.createQuery(em2, "B", cq));
+    verify(em1, never()).createNamedQuery(anyString(), eq(Tuple.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private EntityManager createEntityManager() {
+    final EntityManager em = mock(EntityManager.class);
+    final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    when(em.getEntityManagerFactory()).thenReturn(emf);
+    when(em.createQuery(any(CriteriaQuery.class))).thenReturn(mock(TypedQuery.class));
+    return em;
+  }
+
+  private ArrayNode read(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(context, emf, url);
+    helper.assertStatus(200);
+    return helper.getValues();
+  }
+}
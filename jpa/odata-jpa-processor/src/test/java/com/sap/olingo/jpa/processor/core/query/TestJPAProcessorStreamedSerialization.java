@@ -0,0 +1,116 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataServiceContext;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorStreamedSerialization extends TestBase {
+  private JPAODataCRUDContextAccess streamingContext;
+  private JPAODataCRUDContextAccess bufferedContext;
+  private JPAODataCRUDContextAccess chunkedContext;
+
+  @BeforeEach
+  public void setup() throws ODataException {
+    streamingContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setStreamingSerialization(true)
+        .build();
+    bufferedContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .build();
+    chunkedContext = JPAODataServiceContext.with()
+        .setPUnit(PUNIT_NAME)
+        .setEntityManagerFactory(emf)
+        .setTypePackage(enumPackages)
+        .setStreamingSerialization(true)
+        .setStreamingChunkSize(3)
+        .build();
+  }
+
+  @Test
+  public void testStreamingSwitchedOffByDefault() {
+    assertFalse(bufferedContext.useStreamingSerialization());
+  }
+
+  @Test
+  public void testStreamingSwitchedOnByBuilder() {
+    assertTrue(streamingContext.useStreamingSerialization());
+    assertEquals(1000, streamingContext.getStreamingChunkSize());
+    assertEquals(3, chunkedContext.getStreamingChunkSize());
+  }
+
+  @Test
+  public void testStreamedCollectionWithCountAndExpand() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(streamingContext, emf,
+        "Organizations?$count=true&$orderby=ID&$expand=Roles($orderby=RoleCategory)");
+    helper.assertStatus(200);
+
+    final ObjectNode collection = helper.getValue();
+    assertEquals(10, collection.get("@odata.count").asInt());
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(10, orgs.size());
+    final ObjectNode org = (ObjectNode) orgs.get(3);
+    assertEquals("3", org.get("ID").asText());
+    assertEquals(3, org.get("Roles").size());
+  }
+
+  @Test
+  public void testStreamedEmptyCollection() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(streamingContext, emf,
+        "Organizations?$filter=ID eq 'XYZ'");
+    helper.assertStatus(200);
+    assertEquals(0, helper.getValues().size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$select=ID,Name1&$orderby=ID&$count=true",
+      "Organizations?$orderby=ID&$top=3&$skip=2&$expand=Roles($orderby=RoleCategory)",
+      "Organizations('3')/Roles?$orderby=RoleCategory",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode&$expand=Parent",
+      "PersonImages" })
+  public void testStreamedResultEqualsBufferedResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper buffered = new IntegrationTestHelper(bufferedContext, emf, url);
+    final IntegrationTestHelper streamed = new IntegrationTestHelper(streamingContext, emf, url);
+    buffered.assertStatus(200);
+    streamed.assertStatus(200);
+    assertEquals(buffered.getValue(), streamed.getValue());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "Organizations?$orderby=ID",
+      "Organizations?$orderby=Name1 desc&$count=true",
+      "Organizations?$select=ID&$orderby=ID&$skip=2&$top=7",
+      "Organizations?$orderby=ID&$skip=4",
+      "Organizations?$filter=Country eq 'USA'&$orderby=ID desc&$top=6",
+      "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$orderby=CountryCode desc,DivisionCode desc",
+      "Organizations('3')/Roles?$orderby=RoleCategory desc" })
+  public void testChunkedResultEqualsBufferedResult(final String url) throws IOException, ODataException {
+    final IntegrationTestHelper buffered = new IntegrationTestHelper(bufferedContext, emf, url);
+    final IntegrationTestHelper chunked = new IntegrationTestHelper(chunkedContext, emf, url);
+    buffered.assertStatus(200);
+    chunked.assertStatus(200);
+    assertEquals(buffered.getValues().size(), chunked.getValues().size());
+    assertEquals(buffered.getValue(), chunked.getValue());
+  }
+}
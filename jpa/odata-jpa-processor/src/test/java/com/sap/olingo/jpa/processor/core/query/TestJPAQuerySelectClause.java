@@ -151,7 +151,8 @@ public class TestJPAQuerySelectClause extends TestQueryBase {
     assertContains(selectClause, "Name2");
     assertContains(selectClause, "Type");
     assertContains(selectClause, "ID");
-    assertEquals(3, selectClause.size());
+    assertContains(selectClause, "ETag");
+    assertEquals(4, selectClause.size());
   }
 
   @Test
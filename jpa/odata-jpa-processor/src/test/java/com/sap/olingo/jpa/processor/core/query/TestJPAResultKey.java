@@ -0,0 +1,126 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
+import com.sap.olingo.jpa.processor.core.util.TupleDouble;
+
+public class TestJPAResultKey {
+
+  @Test
+  public void testIntegralKeysEqualIndependentOfType() {
+    assertEquals(JPAResultKey.of(10L), JPAResultKey.of(10));
+    assertEquals(JPAResultKey.of(10L), JPAResultKey.of(Integer.valueOf(10)));
+    assertEquals(JPAResultKey.of(Short.valueOf((short) 10)), JPAResultKey.of(Long.valueOf(10L)));
+    assertEquals(JPAResultKey.of(10L).hashCode(), JPAResultKey.of(Integer.valueOf(10)).hashCode());
+  }
+
+  @Test
+  public void testDifferentValuesNotEqual() {
+    assertNotEquals(JPAResultKey.of(10L), JPAResultKey.of(11L));
+    assertNotEquals(JPAResultKey.of("10"), JPAResultKey.of(10L));
+    assertNotEquals(JPAResultKey.of("A", "B"), JPAResultKey.of("B", "A"));
+  }
+
+  @Test
+  public void testCompositeKeysDoNotCollideOnSeparator() {
+    assertNotEquals(JPAResultKey.of("A/B", "C"), JPAResultKey.of("A", "B/C"));
+  }
+
+  @Test
+  public void testBigDecimalComparedByValue() {
+    assertEquals(JPAResultKey.of(new BigDecimal("1.50")), JPAResultKey.of(new BigDecimal("1.5")));
+    assertEquals(JPAResultKey.of(new BigDecimal("0.00")), JPAResultKey.of(BigDecimal.ZERO));
+    assertNotEquals(JPAResultKey.of(new BigDecimal("1.51")), JPAResultKey.of(new BigDecimal("1.5")));
+  }
+
+  @Test
+  public void testIntegralBigNumbersEqualLongKey() {
+    assertEquals(JPAResultKey.of(10L), JPAResultKey.of(new BigDecimal("10")));
+    assertEquals(JPAResultKey.of(10L), JPAResultKey.of(new BigDecimal("10.00")));
+    assertEquals(JPAResultKey.of(100), JPAResultKey.of(new BigDecimal("1E+2")));
+    assertEquals(JPAResultKey.of(0L), JPAResultKey.of(new BigDecimal("0.000")));
+    assertEquals(JPAResultKey.of(10L), JPAResultKey.of(BigInteger.TEN));
+    assertEquals(JPAResultKey.of(10L, "A"), JPAResultKey.of(new BigDecimal("10.0"), "A"));
+    assertNotEquals(JPAResultKey.of(Long.MAX_VALUE), JPAResultKey.of(BigInteger.valueOf(Long.MAX_VALUE).add(
+        BigInteger.ONE)));
+  }
+
+  @Test
+  public void testFindKeyByStringRepresentation() {
+    final JPAResultKey key = JPAResultKey.of(10L, "A");
+    assertEquals(key, JPAResultKey.find("10/A", Arrays.asList(JPAResultKey.ROOT, key)));
+    assertEquals(JPAResultKey.ROOT, JPAResultKey.find("root", Arrays.asList(JPAResultKey.ROOT, key)));
+    assertEquals(JPAResultKey.of("11/A"), JPAResultKey.find("11/A", Collections.singletonList(key)));
+  }
+
+  @Test
+  public void testAsStringKeyMap() {
+    final Map<JPAResultKey, String> map = new HashMap<>();
+    map.put(JPAResultKey.of("NUTS", "2"), "X");
+    map.put(JPAResultKey.of(5L), "Y");
+    final Map<String, String> act = JPAResultKey.asStringKeyMap(map);
+    assertEquals("X", act.get("NUTS/2"));
+    assertEquals("Y", act.get("5"));
+  }
+
+  @Test
+  public void testTypedValuesKept() {
+    final Date date = Date.valueOf("2020-01-01");
+    assertEquals(JPAResultKey.of(date, 1), JPAResultKey.of(Date.valueOf("2020-01-01"), 1L));
+  }
+
+  @Test
+  public void testNullValueSupported() {
+    assertEquals(JPAResultKey.of((Object) null), JPAResultKey.of((Object) null));
+    assertEquals(JPAResultKey.of("A", null), JPAResultKey.of("A", null));
+  }
+
+  @Test
+  public void testToStringProvidesPathLikeRepresentation() {
+    assertEquals("NUTS/2/BE25", JPAResultKey.of("NUTS", "2", "BE25").toString());
+    assertEquals("10", JPAResultKey.of(10).toString());
+    assertEquals("root", JPAResultKey.ROOT.toString());
+  }
+
+  @Test
+  public void testKeyFromTupleMatchesKeyFromValues() {
+    final Map<String, Object> values = new HashMap<>();
+    values.put("CodePublisher", "NUTS");
+    values.put("CodeID", "2");
+    values.put("Child.DivisionCode", "BE25");
+    final JPAPath codePublisher = mock(JPAPath.class);
+    final JPAPath codeID = mock(JPAPath.class);
+    final JPAPath divisionCode = mock(JPAPath.class);
+    when(codePublisher.getAlias()).thenReturn("CodePublisher");
+    when(codeID.getAlias()).thenReturn("CodeID");
+    when(divisionCode.getAlias()).thenReturn("DivisionCode");
+
+    final TupleDouble row = new TupleDouble(values);
+    assertEquals(JPAResultKey.of("NUTS", "2"), JPAResultKey.of(row, Arrays.asList(codePublisher, codeID)));
+    assertEquals(JPAResultKey.of("BE25"), JPAResultKey.of(row, Arrays.asList(divisionCode), "Child."));
+  }
+
+  @Test
+  public void testUsableAsMapKey() {
+    final Map<JPAResultKey, String> map = new HashMap<>();
+    map.put(JPAResultKey.of("NUTS", "2", "BE25"), "X");
+    map.put(JPAResultKey.of(5L), "Y");
+    assertEquals("X", map.get(JPAResultKey.of("NUTS", "2", "BE25")));
+    assertEquals("Y", map.get(JPAResultKey.of(Integer.valueOf(5))));
+  }
+}
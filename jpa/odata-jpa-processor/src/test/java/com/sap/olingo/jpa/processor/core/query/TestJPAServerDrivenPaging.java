@@ -15,6 +15,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -58,7 +60,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
 
   @Test
   public void testReturnsGoneIfPagingProviderRetunrsNullForSkiptoken() throws IOException, ODataException {
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getNextPage("xyz")).thenReturn(null);
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$skiptoken=xyz", provider);
     helper.assertStatus(410);
@@ -67,7 +69,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
 
   @Test
   public void testReturnsFullResultIfProviderDoesNotReturnPage() throws IOException, ODataException {
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenReturn(null);
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations", provider);
     helper.assertStatus(200);
@@ -77,7 +79,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testReturnsPartResultIfProviderPages() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$orderby=ID desc", provider);
@@ -88,7 +90,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testReturnsNextLinkIfProviderPages() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
 
@@ -101,7 +103,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testReturnsNextLinkNotAStringIfProviderPages() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, new Integer(123456789)));
 
@@ -115,7 +117,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   public void testReturnsNextPagesRespectingFilter() throws IOException, ODataException {
     final UriInfo uriInfo = buildUriInfo();
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getNextPage("xyz")).thenReturn(new JPAODataPage(uriInfo, 5, 5, null));
 
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$skiptoken=xyz", provider);
@@ -128,7 +130,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testEntityManagerProvided() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
 
@@ -141,7 +143,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testCountQueryProvided() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$orderby=ID desc", provider);
@@ -154,7 +156,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   public void testCountQueryProvidedWithProtection() throws IOException, ODataException {
     final JPAODataClaimsProvider claims = new JPAODataClaimsProvider();
     claims.add("UserId", new JPAClaimsPair<>("Willi"));
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
     IntegrationTestHelper helper = new IntegrationTestHelper(emf, "BusinessPartnerProtecteds", provider, claims);
@@ -169,7 +171,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
 
     headers = new HashMap<>();
     final List<String> headerValues = new ArrayList<>(0);
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
 
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
@@ -186,7 +188,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   public void testMaxPageSizeHeaderProvidedInLowerCase() throws IOException, ODataException {
     headers = new HashMap<>();
     final List<String> headerValues = new ArrayList<>(0);
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
     headerValues.add("odata.maxpagesize=50");
@@ -201,7 +203,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testUriInfoProvided() throws IOException, ODataException {
 
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
 
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
@@ -217,7 +219,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
 
     headers = new HashMap<>();
     final List<String> headerValues = new ArrayList<>(0);
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
 
     when(provider.getFirstPage(any(), any(), any(), any())).thenAnswer(i -> new JPAODataPage((UriInfo) i
         .getArguments()[0], 0, 5, "Hugo"));
@@ -232,7 +234,7 @@ public class TestJPAServerDrivenPaging extends TestBase {
   @Test
   public void testSelectSubsetOfFields() throws IOException, ODataException {
     final UriInfo uriInfo = buildUriInfo();
-    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    final JPAODataPagingProvider provider = mockProvider();
     final SelectOption selOpt = mock(SelectOption.class);
     final List<SelectItem> selItems = new ArrayList<>();
     final SelectItem selItem = mock(SelectItem.class);
@@ -327,4 +329,17 @@ public class TestJPAServerDrivenPaging extends TestBase {
     when(uriInfo.getOrderByOption()).thenReturn(order);
     return uriInfo;
   }
+
+  /**
+   * The processor uses the overloads of the paging provider, which by default delegate to the methods mocked by the
+   * tests
+   */
+  private JPAODataPagingProvider mockProvider() throws ODataException {
+    final JPAODataPagingProvider provider = mock(JPAODataPagingProvider.class);
+    when(provider.getNextPage(any(), any())).thenAnswer(i -> provider.getNextPage((String) i.getArgument(0)));
+    when(provider.getFirstPage(any(), any(), any(), any(), any(), any())).thenAnswer(i -> provider.getFirstPage(
+        (UriInfo) i.getArgument(0), (Integer) i.getArgument(1), (JPACountQuery) i.getArgument(2),
+        (EntityManager) i.getArgument(3)));
+    return provider;
+  }
 }
@@ -1,19 +1,25 @@
 package com.sap.olingo.jpa.processor.core.query;
 
-import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_RESULT_KEY;
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.persistence.Tuple;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.server.api.ODataApplicationException;
@@ -21,6 +27,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.util.ServiceMetadataDouble;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
@@ -35,14 +42,14 @@ public class TestJPATupleChildConverter extends TestBase {
   private List<Tuple> jpaQueryResult;
   private UriHelperDouble uriHelper;
   private Map<String, String> keyPredicates;
-  private HashMap<String, List<Tuple>> queryResult = new HashMap<>(1);
+  private HashMap<JPAResultKey, List<Tuple>> queryResult = new HashMap<>(1);
 
   @BeforeEach
   public void setup() throws ODataException {
     helper = new TestHelper(emf, PUNIT_NAME);
     jpaQueryResult = new ArrayList<>();
 
-    queryResult.put(ROOT_RESULT_KEY, jpaQueryResult);
+    queryResult.put(ROOT_KEY, jpaQueryResult);
     uriHelper = new UriHelperDouble();
     keyPredicates = new HashMap<>();
     uriHelper.setKeyPredicates(keyPredicates, "ID");
@@ -68,7 +75,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("1", "Organizations('1')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     assertEquals("1", act.getEntities().get(0).getProperty("ID").getValue().toString());
   }
@@ -82,7 +89,7 @@ public class TestJPATupleChildConverter extends TestBase {
     jpaQueryResult.add(new TupleDouble(result));
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     assertEquals("Organizations" + "('1')", act.getEntities().get(0).getId().getPath());
   }
@@ -103,7 +110,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("5", "Organizations('5')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(2, act.getEntities().size());
     assertEquals("1", act.getEntities().get(0).getProperty("ID").getValue().toString());
     assertEquals("5", act.getEntities().get(1).getProperty("ID").getValue().toString());
@@ -121,7 +128,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("1", "Organizations('1')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     assertEquals("1", act.getEntities().get(0).getProperty("ID").getValue().toString());
     assertEquals("Willi", act.getEntities().get(0).getProperty("Name1").getValue().toString());
@@ -140,7 +147,7 @@ public class TestJPATupleChildConverter extends TestBase {
     jpaQueryResult.add(new TupleDouble(result));
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "BusinessPartnerProtecteds"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "BusinessPartnerProtecteds"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     assertEquals(1, act.getEntities().get(0).getProperties().size());
     assertEquals("1", act.getEntities().get(0).getProperties().get(0).getValue());
@@ -167,7 +174,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("1", "Organizations('1')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
 
     assertEquals(ValueType.COMPLEX, act.getEntities().get(0).getProperty("Address").getValueType());
@@ -194,7 +201,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("1", "Organizations('1')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     // Check first level
     assertEquals(ValueType.COMPLEX, act.getEntities().get(0).getProperty("AdministrativeInformation").getValueType());
@@ -204,6 +211,37 @@ public class TestJPATupleChildConverter extends TestBase {
     assertEquals(ValueType.COMPLEX, value.getValue().get(0).getValueType());
   }
 
+  @Test
+  public void checkConvertsTwoResultsNestedComplexElementsSeparated() throws ODataApplicationException,
+      ODataJPAModelException {
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", "1");
+    result.put("AdministrativeInformation/Created/By", "Joe Doe");
+    result.put("Address/CityName", "Test City");
+    jpaQueryResult.add(new TupleDouble(result));
+    result = new HashMap<>();
+    result.put("ID", "2");
+    result.put("AdministrativeInformation/Created/By", "Jane Doe");
+    result.put("Address/CityName", "Other City");
+    jpaQueryResult.add(new TupleDouble(result));
+
+    keyPredicates.put("1", "Organizations('1')");
+    keyPredicates.put("2", "Organizations('2')");
+
+    EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
+    assertEquals(2, act.getEntities().size());
+    assertEquals("Test City", getComplexValue(act, 0, "Address").getValue().get(0).getValue());
+    assertEquals("Other City", getComplexValue(act, 1, "Address").getValue().get(0).getValue());
+    final ComplexValue created1 = (ComplexValue) getComplexValue(act, 0, "AdministrativeInformation").getValue()
+        .get(0).getValue();
+    final ComplexValue created2 = (ComplexValue) getComplexValue(act, 1, "AdministrativeInformation").getValue()
+        .get(0).getValue();
+    assertEquals("Joe Doe", created1.getValue().get(0).getValue());
+    assertEquals("Jane Doe", created2.getValue().get(0).getValue());
+  }
   @Test
   public void checkConvertsOneResultsOneElementOfComplexElement() throws ODataApplicationException,
       ODataJPAModelException {
@@ -217,7 +255,7 @@ public class TestJPATupleChildConverter extends TestBase {
     keyPredicates.put("1", "Organizations('1')");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(queryResult, null, helper.getJPAEntityType(
-        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "Organizations"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals(1, act.getEntities().size());
     assertEquals("CA", ((ComplexValue) act.getEntities().get(0).getProperty("Address").getValue()).getValue().get(0)
         .getValue().toString());
@@ -227,8 +265,8 @@ public class TestJPATupleChildConverter extends TestBase {
   public void checkConvertMediaStreamStaticMime() throws ODataJPAModelException, NumberFormatException,
       ODataApplicationException {
 
-    HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    result.put("root", jpaQueryResult);
+    HashMap<JPAResultKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(ROOT_KEY, jpaQueryResult);
 
     cut = new JPATupleChildConverter(helper.sd, uriHelper, new ServiceMetadataDouble(nameBuilder, "PersonImage"));
 
@@ -240,7 +278,7 @@ public class TestJPATupleChildConverter extends TestBase {
     jpaQueryResult.add(new TupleDouble(entityResult));
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(result, null, helper.getJPAEntityType(
-        "PersonImages"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "PersonImages"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
 
     assertEquals("image/png", act.getEntities().get(0).getMediaContentType());
   }
@@ -249,8 +287,8 @@ public class TestJPATupleChildConverter extends TestBase {
   public void checkConvertMediaStreamDynamicMime() throws ODataJPAModelException, NumberFormatException,
       ODataApplicationException {
 
-    HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    result.put("root", jpaQueryResult);
+    HashMap<JPAResultKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(ROOT_KEY, jpaQueryResult);
 
     cut = new JPATupleChildConverter(helper.sd, uriHelper, new ServiceMetadataDouble(nameBuilder,
         "OrganizationImage"));
@@ -264,8 +302,46 @@ public class TestJPATupleChildConverter extends TestBase {
     jpaQueryResult.add(new TupleDouble(entityResult));
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(result, null, helper.getJPAEntityType(
-        "OrganizationImages"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "OrganizationImages"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
     assertEquals("image/svg+xml", act.getEntities().get(0).getMediaContentType());
     assertEquals(2, act.getEntities().get(0).getProperties().size());
   }
+
+  @Test
+  public void checkIteratorConvertsRowsOnRequest() throws ODataApplicationException, ODataJPAModelException {
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", new String("1"));
+    jpaQueryResult.add(new TupleDouble(result));
+
+    result = new HashMap<>();
+    result.put("ID", new String("5"));
+    jpaQueryResult.add(new TupleDouble(result));
+
+    keyPredicates.put("1", "Organizations('1')");
+    keyPredicates.put("5", "Organizations('5')");
+
+    final EntityIterator act = cut.getResultIterator(new JPAExpandQueryResult(queryResult, null, helper
+        .getJPAEntityType("Organizations"), Collections.emptyList()), Collections.emptyList(), ROOT_KEY);
+    assertTrue(act.hasNext());
+    assertEquals("1", act.next().getProperty("ID").getValue().toString());
+    assertNull(jpaQueryResult.get(0));
+    assertNotNull(jpaQueryResult.get(1));
+    assertEquals("5", act.next().getProperty("ID").getValue().toString());
+    assertFalse(act.hasNext());
+    assertThrows(NoSuchElementException.class, () -> act.next());
+  }
+
+  @Test
+  public void checkIteratorConvertsEmptyResult() throws ODataApplicationException, ODataJPAModelException {
+
+    final EntityIterator act = cut.getResultIterator(new JPAExpandQueryResult(queryResult, null, helper
+        .getJPAEntityType("Organizations"), Collections.emptyList()), Collections.emptyList(), ROOT_KEY);
+    assertFalse(act.hasNext());
+  }
+
+  private ComplexValue getComplexValue(final EntityCollection act, final int index, final String name) {
+    return (ComplexValue) act.getEntities().get(index).getProperty(name).getValue();
+  }
 }
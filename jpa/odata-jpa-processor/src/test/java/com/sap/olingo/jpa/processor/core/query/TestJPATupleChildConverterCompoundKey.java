@@ -1,6 +1,6 @@
 package com.sap.olingo.jpa.processor.core.query;
 
-import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_RESULT_KEY;
+import static com.sap.olingo.jpa.processor.core.converter.JPAExpandResult.ROOT_KEY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAResultKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleChildConverter;
 import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivisionDescriptionKey;
 import com.sap.olingo.jpa.processor.core.util.ServiceMetadataDouble;
@@ -46,8 +47,8 @@ public class TestJPATupleChildConverterCompoundKey extends TestBase {
   public void checkConvertsOneResultsTwoKeys() throws ODataApplicationException, ODataJPAModelException {
     // .../BusinessPartnerRoles(BusinessPartnerID='3',RoleCategory='C')
 
-    HashMap<String, List<Tuple>> resultContainer = new HashMap<>(1);
-    resultContainer.put("root", jpaQueryResult);
+    HashMap<JPAResultKey, List<Tuple>> resultContainer = new HashMap<>(1);
+    resultContainer.put(JPAResultKey.ROOT, jpaQueryResult);
 
     cut = new JPATupleChildConverter(helper.sd, uriHelper, new ServiceMetadataDouble(nameBuilder,
         "BusinessPartnerRole"));
@@ -63,7 +64,7 @@ public class TestJPATupleChildConverterCompoundKey extends TestBase {
     keyPredicates.put("3", "BusinessPartnerID='3',RoleCategory='C'");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(resultContainer, null, helper.getJPAEntityType(
-        "BusinessPartnerRoles"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "BusinessPartnerRoles"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
 
     assertEquals(1, act.getEntities().size());
     assertEquals("3", act.getEntities().get(0).getProperty("BusinessPartnerID").getValue().toString());
@@ -77,8 +78,8 @@ public class TestJPATupleChildConverterCompoundKey extends TestBase {
   public void checkConvertsOneResultsEmbeddedKey() throws ODataApplicationException, ODataJPAModelException {
     // .../AdministrativeDivisionDescriptions(CodePublisher='ISO', CodeID='3166-1', DivisionCode='DEU',Language='en')
 
-    HashMap<String, List<Tuple>> resultContainer = new HashMap<>(1);
-    resultContainer.put("root", jpaQueryResult);
+    HashMap<JPAResultKey, List<Tuple>> resultContainer = new HashMap<>(1);
+    resultContainer.put(JPAResultKey.ROOT, jpaQueryResult);
 
     cut = new JPATupleChildConverter(helper.sd, uriHelper, new ServiceMetadataDouble(nameBuilder,
         "AdministrativeDivisionDescription"));
@@ -98,7 +99,7 @@ public class TestJPATupleChildConverterCompoundKey extends TestBase {
     keyPredicates.put("DEU", "CodePublisher='ISO',CodeID='3166-1',DivisionCode='DEU',Language='en'");
 
     EntityCollection act = cut.getResult(new JPAExpandQueryResult(resultContainer, null, helper.getJPAEntityType(
-        "AdministrativeDivisionDescriptions"), Collections.emptyList()), Collections.emptyList()).get(ROOT_RESULT_KEY);
+        "AdministrativeDivisionDescriptions"), Collections.emptyList()), Collections.emptyList()).get(ROOT_KEY);
 
     assertEquals(1, act.getEntities().size());
     assertEquals("ISO", act.getEntities().get(0).getProperty("CodePublisher").getValue().toString());
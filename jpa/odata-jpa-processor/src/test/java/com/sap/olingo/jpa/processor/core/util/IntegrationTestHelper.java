@@ -28,6 +28,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
 import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.api.JPACUDRequestHandler;
 import com.sap.olingo.jpa.processor.core.api.JPAODataBatchProcessor;
 import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataClaimsProvider;
@@ -133,6 +134,47 @@ public class IntegrationTestHelper {
 
   }
 
+  public IntegrationTestHelper(final JPAODataCRUDContextAccess sessionContext, final EntityManagerFactory localEmf,
+      final String urlPath) throws IOException, ODataException {
+    this(sessionContext, localEmf, urlPath, null, null, null);
+  }
+
+  public IntegrationTestHelper(final JPAODataCRUDContextAccess sessionContext, final EntityManagerFactory localEmf,
+      final String urlPath, final StringBuffer requestBody) throws IOException, ODataException {
+    this(sessionContext, localEmf, urlPath, requestBody, null);
+  }
+
+  public IntegrationTestHelper(final JPAODataCRUDContextAccess sessionContext, final EntityManagerFactory localEmf,
+      final String urlPath, final Map<String, List<String>> headers) throws IOException, ODataException {
+    this(sessionContext, localEmf, urlPath, null, null, headers);
+  }
+
+  public IntegrationTestHelper(final JPAODataCRUDContextAccess sessionContext, final EntityManagerFactory localEmf,
+      final String urlPath, final StringBuffer requestBody, final JPACUDRequestHandler cudHandler)
+      throws IOException, ODataException {
+    this(sessionContext, localEmf, urlPath, requestBody, cudHandler, null);
+  }
+
+  private IntegrationTestHelper(final JPAODataCRUDContextAccess sessionContext, final EntityManagerFactory localEmf,
+      final String urlPath, final StringBuffer requestBody, final JPACUDRequestHandler cudHandler,
+      final Map<String, List<String>> headers) throws IOException, ODataException {
+
+    super();
+    final OData odata = OData.newInstance();
+    final JPAODataRequestContextImpl requestContext = new JPAODataRequestContextImpl();
+    this.req = new HttpServletRequestDouble(uriPrefix + urlPath, requestBody, headers);
+    this.resp = new HttpServletResponseDouble();
+
+    final ODataHttpHandler handler = odata.createHandler(odata.createServiceMetadata(sessionContext.getEdmProvider(),
+        new ArrayList<EdmxReference>()));
+    requestContext.setEntityManager(localEmf.createEntityManager());
+    if (cudHandler != null)
+      requestContext.setCUDRequestHandler(cudHandler);
+    handler.register(new JPAODataRequestProcessor(sessionContext, requestContext));
+    handler.register(new JPAODataBatchProcessor(sessionContext, requestContext));
+    handler.process(req, resp);
+  }
+
   public HttpServletResponseDouble getResponce() {
     return resp;
   }
@@ -16,6 +16,7 @@ import javax.persistence.PostPersist;
 import javax.persistence.PostUpdate;
 import javax.persistence.Table;
 
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmCacheable;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunctions;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
@@ -64,6 +65,7 @@ import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
             @EdmParameter(name = "Area", parameterName = "UnitArea", type = Integer.class) }),
 })
 
+@EdmCacheable
 @IdClass(AdministrativeDivisionKey.class)
 @Entity(name = "AdministrativeDivision")
 @Table(schema = "\"OLINGO\"", name = "\"AdministrativeDivision\"")